@@ -0,0 +1,61 @@
+package me.julie.ebs.benchmark;
+
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.element.EbsCompound;
+import me.julie.ebs.element.EbsElement;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding and decoding compounds of large number
+ * arrays, which are written and read in bulk, and turning
+ * the decoded arrays back into primitive arrays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArrayBenchmark {
+    @Param({"16", "4096", "65536"})
+    private int length;
+
+    @Param({"V1", "V2"})
+    private String format;
+
+    private EbsTypeRegistry registry;
+    private EbsCompound section;
+    private ByteBuffer data;
+
+    @Setup
+    public void setup() throws IOException {
+        registry = new EbsTypeRegistry();
+        registry.setWriteFormat(Fixtures.format(format));
+
+        section = Fixtures.numbers(length);
+        data = registry.encode(section);
+    }
+
+    @Benchmark
+    public ByteBuffer encode() throws IOException {
+        return registry.encode(section);
+    }
+
+    @Benchmark
+    public EbsElement read() throws IOException {
+        return registry.read(data.duplicate());
+    }
+
+    @Benchmark
+    public void toPrimitives(Blackhole hole) {
+        hole.consume(section.getIntArray("blocks"));
+        hole.consume(section.getLongArray("states"));
+        hole.consume(section.getDoubleArray("heights"));
+        hole.consume(section.getByteArray("light"));
+    }
+}
@@ -0,0 +1,106 @@
+package me.julie.ebs.benchmark;
+
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.element.EbsCompound;
+import me.julie.ebs.element.EbsElement;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Measures saving and loading a large document as a block compressed
+ * file, see {@link EbsTypeRegistry#writeFileCompressed(EbsElement, Path)},
+ * with the amount of threads in the registry's pools. 0 threads wraps
+ * the file streams with gzip instead, as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressedFileBenchmark {
+    @Param({"0", "1", "2", "4", "8", "16"})
+    private int threads;
+
+    @Param({"V1", "V2_SIZED"})
+    private String format;
+
+    private EbsTypeRegistry registry;
+    private ForkJoinPool pool;
+    private EbsCompound compound;
+
+    private Path saved;
+    private Path loaded;
+
+    @Setup
+    public void setup() throws IOException {
+        registry = new EbsTypeRegistry();
+        registry.setWriteFormat(Fixtures.format(format));
+
+        if (threads > 0) {
+            pool = new ForkJoinPool(threads);
+            registry.setWritePool(pool);
+            registry.setReadPool(pool);
+        }
+
+        // A few regions, like a saved world
+        compound = Fixtures.compound("LARGE");
+
+        for (int i = 0; i < 3; i++) {
+            compound.put("region_" + i, Fixtures.region(10_000));
+        }
+
+        saved = Files.createTempFile("ebs-save", ".ebsz");
+        loaded = Files.createTempFile("ebs-load", ".ebsz");
+        save(loaded);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (pool != null) {
+            pool.shutdown();
+        }
+
+        Files.deleteIfExists(saved);
+        Files.deleteIfExists(loaded);
+    }
+
+    private void save(Path path) throws IOException {
+        if (threads > 0) {
+            registry.writeFileCompressed(compound, path);
+            return;
+        }
+
+        try (OutputStream output = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            registry.write(compound, output);
+        }
+    }
+
+    @Benchmark
+    public long save() throws IOException {
+        save(saved);
+        return Files.size(saved);
+    }
+
+    @Benchmark
+    public EbsElement load() throws IOException {
+        if (threads > 0) {
+            return registry.readFileCompressed(loaded);
+        }
+
+        try (InputStream input = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(loaded)))) {
+            return registry.read(input);
+        }
+    }
+}
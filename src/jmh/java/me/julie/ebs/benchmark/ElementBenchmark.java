@@ -0,0 +1,67 @@
+package me.julie.ebs.benchmark;
+
+import me.julie.ebs.element.CompoundGetter;
+import me.julie.ebs.element.EbsCompound;
+import me.julie.ebs.element.EbsElement;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures working with element trees in memory, reading every
+ * entity's values through the typed {@link CompoundGetter} methods,
+ * deep cloning a whole region and turning it into a string with
+ * {@link me.julie.ebs.visitor.StringEbsVisitor}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ElementBenchmark {
+    @Param({"100", "10000"})
+    private int entities;
+
+    private EbsCompound region;
+    private String[] names;
+
+    @Setup
+    public void setup() {
+        region = Fixtures.region(entities);
+        names = new String[entities];
+
+        for (int i = 0; i < entities; i++) {
+            names[i] = "entity_" + i;
+        }
+    }
+
+    @Benchmark
+    public void typedGetters(Blackhole hole) {
+        EbsCompound list = region.getCompound("entities");
+
+        for (String name: names) {
+            EbsCompound entity = list.getCompound(name);
+
+            hole.consume(entity.getUUID("uuid"));
+            hole.consume(entity.getString("type"));
+            hole.consume(entity.getInt("id"));
+            hole.consume(entity.getBool("on_ground"));
+            hole.consume(entity.getShort("air"));
+            hole.consume(entity.getFloat("health"));
+            hole.consume(entity.getDoubleArray("pos"));
+            hole.consume(entity.getCompound("held_item").getByte("count"));
+        }
+    }
+
+    @Benchmark
+    public EbsElement deepClone() {
+        return region.deepClone();
+    }
+
+    @Benchmark
+    public String visitToString() {
+        return region.toString();
+    }
+}
@@ -0,0 +1,138 @@
+package me.julie.ebs.benchmark;
+
+import me.julie.ebs.element.EbsCompound;
+import me.julie.ebs.element.EbsElements;
+import me.julie.ebs.io.EbsFormat;
+
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Generates the element trees used by the benchmarks.
+ * <p>
+ * All fixtures are generated from a fixed seed, so every
+ * run of a benchmark works on the exact same data.
+ */
+public final class Fixtures {
+    private Fixtures() {}
+
+    private static final long SEED = 0xEB5L;
+
+    private static final String[] NAMES = {
+            "stone", "dirt", "grass_block", "oak_log", "iron_ore",
+            "diamond_sword", "bread", "torch", "chest", "redstone"
+    };
+
+    /**
+     * Creates a compound of the given size, a single entity for
+     * {@code SMALL}, and a region of 100 or 10,000 entities for
+     * {@code MEDIUM} and {@code LARGE}
+     *
+     * @param size The size's name
+     * @return The created compound
+     */
+    public static EbsCompound compound(String size) {
+        return switch (size) {
+            case "SMALL" -> entity(new Random(SEED), 0);
+            case "MEDIUM" -> region(100);
+            case "LARGE" -> region(10_000);
+            default -> throw new IllegalArgumentException("Unknown size: " + size);
+        };
+    }
+
+    /**
+     * Gets a format by the name used in benchmark parameters
+     * @param name {@code V1}, {@code V2} or {@code V2_SIZED}
+     * @return The format
+     */
+    public static EbsFormat format(String name) {
+        return switch (name) {
+            case "V2" -> EbsFormat.V2;
+            case "V2_SIZED" -> EbsFormat.V2.withFlags(EbsFormat.SIZED);
+            default -> EbsFormat.V1;
+        };
+    }
+
+    /**
+     * Creates a compound resembling a saved chunk section, with
+     * packed block states, a height map and light values
+     *
+     * @param length The length of each array
+     * @return The created compound
+     */
+    public static EbsCompound numbers(int length) {
+        Random random = new Random(SEED);
+
+        int[] blocks = new int[length];
+        long[] states = new long[length];
+        double[] heights = new double[length];
+        byte[] light = new byte[length];
+
+        for (int i = 0; i < length; i++) {
+            blocks[i] = random.nextInt(4096);
+            states[i] = random.nextLong();
+            heights[i] = random.nextDouble() * 256;
+            light[i] = (byte) random.nextInt(16);
+        }
+
+        EbsCompound section = EbsElements.newCompound();
+        section.putIntArray("blocks", blocks);
+        section.putLongArray("states", states);
+        section.putDoubleArray("heights", heights);
+        section.putByteArray("light", light);
+
+        return section;
+    }
+
+    /**
+     * Creates a compound resembling a saved world region,
+     * with the given amount of entity compounds in it
+     *
+     * @param entities The amount of entities to generate
+     * @return The created compound
+     */
+    public static EbsCompound region(int entities) {
+        Random random = new Random(SEED);
+        EbsCompound region = EbsElements.newCompound();
+
+        region.putInt("version", 3);
+        region.putLong("last_update", 1_650_000_000_000L);
+        region.putString("name", "region_" + entities);
+
+        EbsCompound list = EbsElements.newCompound(entities);
+
+        for (int i = 0; i < entities; i++) {
+            list.put("entity_" + i, entity(random, i));
+        }
+
+        region.put("entities", list);
+        return region;
+    }
+
+    /**
+     * Creates a single compound resembling a saved entity
+     * @param random The random to generate values with
+     * @param index The entity's index
+     * @return The created compound
+     */
+    public static EbsCompound entity(Random random, int index) {
+        EbsCompound entity = EbsElements.newCompound();
+
+        entity.putUUID("uuid", new UUID(random.nextLong(), random.nextLong()));
+        entity.putString("type", NAMES[random.nextInt(NAMES.length)]);
+        entity.putInt("id", index);
+        entity.putBool("on_ground", random.nextBoolean());
+        entity.putShort("air", (short) random.nextInt(300));
+        entity.putFloat("health", random.nextFloat() * 20F);
+        entity.putDoubleArray("pos", random.nextDouble() * 1000, random.nextDouble() * 256, random.nextDouble() * 1000);
+        entity.putFloatArray("rotation", random.nextFloat() * 360F, random.nextFloat() * 180F);
+
+        EbsCompound item = EbsElements.newCompound();
+        item.putString("id", NAMES[random.nextInt(NAMES.length)]);
+        item.putByte("count", (byte) (1 + random.nextInt(64)));
+        item.putStringList("lore", java.util.List.of("Found at " + index, "Very shiny"));
+
+        entity.put("held_item", item);
+        return entity;
+    }
+}
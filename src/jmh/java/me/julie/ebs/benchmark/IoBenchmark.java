@@ -0,0 +1,76 @@
+package me.julie.ebs.benchmark;
+
+import me.julie.ebs.EbsIo;
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.element.EbsCompound;
+import me.julie.ebs.element.EbsElement;
+import me.julie.ebs.type.EbsType;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares file reading and writing through the registry's
+ * buffered IO context with plain, unbuffered, data streams
+ * over the same file
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IoBenchmark {
+    @Param({"100", "10000"})
+    private int entities;
+
+    private EbsTypeRegistry registry;
+    private EbsCompound compound;
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        registry = EbsIo.globalTypes();
+        compound = Fixtures.region(entities);
+
+        file = Files.createTempFile("ebs-io", ".ebs");
+        registry.writeFile(compound, file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void writeFile() throws IOException {
+        registry.writeFile(compound, file);
+    }
+
+    @Benchmark
+    public void writeFileUnbuffered() throws IOException {
+        try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(file))) {
+            EbsType type = compound.getType();
+
+            registry.writeType(type, output);
+            type.write(registry, output, compound);
+        }
+    }
+
+    @Benchmark
+    public EbsElement readFile() throws IOException {
+        return registry.readFile(file);
+    }
+
+    @Benchmark
+    public EbsElement readFileUnbuffered() throws IOException {
+        try (DataInputStream input = new DataInputStream(Files.newInputStream(file))) {
+            return registry.readType(input).read(registry, input);
+        }
+    }
+}
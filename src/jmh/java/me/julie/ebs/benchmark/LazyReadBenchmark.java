@@ -0,0 +1,59 @@
+package me.julie.ebs.benchmark;
+
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.element.EbsCompound;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares fully decoding a document with {@link EbsTypeRegistry#read(ByteBuffer)}
+ * against decoding it lazily with {@link EbsTypeRegistry#readLazy(ByteBuffer)},
+ * when only a few values of the document are actually used.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LazyReadBenchmark {
+    @Param({"100", "10000"})
+    private int entities;
+
+    @Param({"V1", "V2", "V2_SIZED"})
+    private String format;
+
+    private EbsTypeRegistry registry;
+    private ByteBuffer data;
+
+    @Setup
+    public void setup() throws IOException {
+        registry = new EbsTypeRegistry();
+        registry.setWriteFormat(Fixtures.format(format));
+
+        data = registry.encode(Fixtures.region(entities));
+    }
+
+    private void touch(EbsCompound region, Blackhole hole) {
+        hole.consume(region.getInt("version"));
+        hole.consume(region.getString("name"));
+
+        EbsCompound entity = region.getCompound("entities").getCompound("entity_0");
+        hole.consume(entity.getUUID("uuid"));
+        hole.consume(entity.getFloat("health"));
+    }
+
+    @Benchmark
+    public void read(Blackhole hole) throws IOException {
+        touch((EbsCompound) registry.read(data.duplicate()), hole);
+    }
+
+    @Benchmark
+    public void readLazy(Blackhole hole) throws IOException {
+        touch((EbsCompound) registry.readLazy(data.duplicate()), hole);
+    }
+}
@@ -0,0 +1,72 @@
+package me.julie.ebs.benchmark;
+
+import me.julie.ebs.EbsIo;
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.element.EbsElement;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares loading a file through the stream path with
+ * {@link EbsTypeRegistry#readFileMapped(Path)}.
+ * <p>
+ * Each iteration loads the file once. With {@code cache=cold}
+ * the OS page cache is dropped before every iteration, which
+ * requires running as root on Linux.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class MappedReadBenchmark {
+    private static final Path DROP_CACHES = Path.of("/proc/sys/vm/drop_caches");
+
+    @Param({"10000", "200000"})
+    private int entities;
+
+    @Param({"warm", "cold"})
+    private String cache;
+
+    private EbsTypeRegistry registry;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        registry = EbsIo.globalTypes();
+
+        file = Files.createTempFile("ebs-mapped", ".ebs");
+        registry.writeFile(Fixtures.region(entities), file);
+    }
+
+    @Setup(Level.Iteration)
+    public void dropCaches() throws IOException, InterruptedException {
+        if (!cache.equals("cold")) {
+            return;
+        }
+
+        new ProcessBuilder("sync").inheritIO().start().waitFor();
+        Files.writeString(DROP_CACHES, "1", StandardCharsets.US_ASCII);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public EbsElement readFile() throws IOException {
+        return registry.readFile(file);
+    }
+
+    @Benchmark
+    public EbsElement readFileMapped() throws IOException {
+        return registry.readFileMapped(file);
+    }
+}
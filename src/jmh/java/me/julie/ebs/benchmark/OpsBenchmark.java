@@ -0,0 +1,165 @@
+package me.julie.ebs.benchmark;
+
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.ListBuilder;
+import com.mojang.serialization.MapLike;
+import com.mojang.serialization.RecordBuilder;
+import me.julie.ebs.EbsBinaryOps;
+import me.julie.ebs.EbsOps;
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.element.EbsElement;
+import me.julie.ebs.element.EbsElements;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building records and lists through {@link EbsOps}, the
+ * way codecs encode them, either merging one field at a time with
+ * {@code mergeToMap}, or with the ops' record and list builders.
+ * <p>
+ * The encode benchmarks compare encoding a record into bytes through
+ * an element tree, with encoding it directly with {@link EbsBinaryOps}.
+ * The decode benchmarks read the same record back the way a record
+ * codec does, looking up every field through {@code getMap}, either
+ * from an element tree, or straight from its encoded bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpsBenchmark {
+    @Param({"10", "25", "50"})
+    private int fields;
+
+    private String[] names;
+    private EbsElement[] keys;
+    private EbsElement[] values;
+
+    private EbsTypeRegistry registry;
+    private EbsBinaryOps binaryOps;
+
+    private EbsElement record;
+    private ByteBuffer recordData;
+
+    @Setup
+    public void setup() throws IOException {
+        names = new String[fields];
+        keys = new EbsElement[fields];
+        values = new EbsElement[fields];
+
+        for (int i = 0; i < fields; i++) {
+            names[i] = "field_" + i;
+            keys[i] = EbsElements.of(names[i]);
+            values[i] = EbsElements.of(i * 31);
+        }
+
+        registry = new EbsTypeRegistry();
+        binaryOps = EbsBinaryOps.of(registry);
+
+        record = record(EbsOps.INSTANCE);
+        recordData = registry.encode(record);
+    }
+
+    @Benchmark
+    public EbsElement mergeToMap() {
+        EbsOps ops = EbsOps.INSTANCE;
+        EbsElement result = ops.emptyMap();
+
+        for (int i = 0; i < fields; i++) {
+            result = ops.mergeToMap(result, keys[i], values[i]).result().orElseThrow();
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public EbsElement mapBuilder() {
+        EbsOps ops = EbsOps.INSTANCE;
+        RecordBuilder<EbsElement> builder = ops.mapBuilder();
+
+        for (int i = 0; i < fields; i++) {
+            builder.add(names[i], values[i]);
+        }
+
+        return builder.build(ops.emptyMap()).result().orElseThrow();
+    }
+
+    @Benchmark
+    public EbsElement listBuilder() {
+        EbsOps ops = EbsOps.INSTANCE;
+        ListBuilder<EbsElement> builder = ops.listBuilder();
+
+        for (int i = 0; i < fields; i++) {
+            builder.add(values[i]);
+        }
+
+        return builder.build(ops.emptyList()).result().orElseThrow();
+    }
+
+    // Encodes a record with a nested record and list, like a codec would
+    private <T> T record(DynamicOps<T> ops) {
+        RecordBuilder<T> builder = ops.mapBuilder();
+
+        for (int i = 0; i < fields; i++) {
+            builder.add(names[i], ops.createInt(i * 31));
+        }
+
+        RecordBuilder<T> nested = ops.mapBuilder();
+        nested.add("name", ops.createString("nested"));
+        nested.add("value", ops.createDouble(0.5D));
+
+        ListBuilder<T> list = ops.listBuilder();
+
+        for (int i = 0; i < 8; i++) {
+            list.add(ops.createLong(i));
+        }
+
+        builder.add("nested", nested.build(ops.empty()));
+        builder.add("list", list.build(ops.empty()));
+
+        return builder.build(ops.empty()).result().orElseThrow();
+    }
+
+    @Benchmark
+    public ByteBuffer treeEncode() throws IOException {
+        return registry.encode(record(EbsOps.INSTANCE));
+    }
+
+    @Benchmark
+    public ByteBuffer binaryEncode() throws IOException {
+        return binaryOps.encode(record(binaryOps));
+    }
+
+    // Reads every field of a record created by record(DynamicOps)
+    private void decode(EbsElement input, Blackhole hole) {
+        EbsOps ops = EbsOps.INSTANCE;
+        MapLike<EbsElement> map = ops.getMap(input).result().orElseThrow();
+
+        for (int i = 0; i < fields; i++) {
+            hole.consume(ops.getNumberValue(map.get(names[i])).result().orElseThrow());
+        }
+
+        MapLike<EbsElement> nested = ops.getMap(map.get("nested")).result().orElseThrow();
+        hole.consume(ops.getStringValue(nested.get("name")).result().orElseThrow());
+        hole.consume(ops.getNumberValue(nested.get("value")).result().orElseThrow());
+
+        ops.getStream(map.get("list")).result().orElseThrow()
+                .forEach(element -> hole.consume(ops.getNumberValue(element).result().orElseThrow()));
+    }
+
+    @Benchmark
+    public void treeDecode(Blackhole hole) {
+        decode(record, hole);
+    }
+
+    @Benchmark
+    public void readDecode(Blackhole hole) throws IOException {
+        decode(registry.read(recordData.duplicate()), hole);
+    }
+}
@@ -0,0 +1,67 @@
+package me.julie.ebs.benchmark;
+
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.element.EbsCompound;
+import me.julie.ebs.element.EbsElement;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how reading a large document scales with the amount of
+ * threads in the registry's read pool, see
+ * {@link EbsTypeRegistry#setReadPool(ForkJoinPool)}. 0 threads reads
+ * sequentially, without a pool, as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelReadBenchmark {
+    @Param({"0", "1", "2", "4", "8", "16"})
+    private int threads;
+
+    @Param({"V1", "V2_SIZED"})
+    private String format;
+
+    private EbsTypeRegistry registry;
+    private ForkJoinPool pool;
+    private ByteBuffer encoded;
+
+    @Setup
+    public void setup() throws IOException {
+        registry = new EbsTypeRegistry();
+        registry.setWriteFormat(Fixtures.format(format));
+
+        if (threads > 0) {
+            pool = new ForkJoinPool(threads);
+            registry.setReadPool(pool);
+        }
+
+        // A few regions, like a saved world
+        EbsCompound compound = Fixtures.compound("LARGE");
+
+        for (int i = 0; i < 3; i++) {
+            compound.put("region_" + i, Fixtures.region(10_000));
+        }
+
+        encoded = registry.encode(compound);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public EbsElement read() throws IOException {
+        return registry.read(encoded.duplicate());
+    }
+}
@@ -0,0 +1,77 @@
+package me.julie.ebs.benchmark;
+
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.element.EbsCompound;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how writing a large document scales with the amount of
+ * threads in the registry's write pool, see
+ * {@link EbsTypeRegistry#setWritePool(ForkJoinPool)}. 0 threads writes
+ * sequentially, without a pool, as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelWriteBenchmark {
+    @Param({"0", "1", "2", "4", "8", "16"})
+    private int threads;
+
+    @Param({"V1", "V2_SIZED"})
+    private String format;
+
+    private EbsTypeRegistry registry;
+    private ForkJoinPool pool;
+    private EbsCompound compound;
+
+    private ByteArrayOutputStream output;
+
+    @Setup
+    public void setup() {
+        registry = new EbsTypeRegistry();
+        registry.setWriteFormat(Fixtures.format(format));
+
+        if (threads > 0) {
+            pool = new ForkJoinPool(threads);
+            registry.setWritePool(pool);
+        }
+
+        // A few regions, like a saved world
+        compound = Fixtures.compound("LARGE");
+
+        for (int i = 0; i < 3; i++) {
+            compound.put("region_" + i, Fixtures.region(10_000));
+        }
+
+        output = new ByteArrayOutputStream();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        output.reset();
+        registry.write(compound, output);
+
+        return output.size();
+    }
+
+    @Benchmark
+    public ByteBuffer encode() throws IOException {
+        return registry.encode(compound);
+    }
+}
@@ -0,0 +1,62 @@
+package me.julie.ebs.benchmark;
+
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.element.EbsCompound;
+import me.julie.ebs.element.EbsElement;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing and reading whole documents through streams with
+ * {@link EbsTypeRegistry#write(EbsElement, java.io.OutputStream)} and
+ * {@link EbsTypeRegistry#read(java.io.InputStream)}, kept in memory, so
+ * only the encoding itself is measured, not the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegistryBenchmark {
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private String size;
+
+    @Param({"V1", "V2"})
+    private String format;
+
+    private EbsTypeRegistry registry;
+    private EbsCompound compound;
+
+    private byte[] data;
+    private ByteArrayOutputStream output;
+
+    @Setup
+    public void setup() throws IOException {
+        registry = new EbsTypeRegistry();
+        registry.setWriteFormat(Fixtures.format(format));
+
+        compound = Fixtures.compound(size);
+        output = new ByteArrayOutputStream();
+
+        registry.write(compound, output);
+        data = output.toByteArray();
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        output.reset();
+        registry.write(compound, output);
+
+        return output.size();
+    }
+
+    @Benchmark
+    public EbsElement read() throws IOException {
+        return registry.read(new ByteArrayInputStream(data));
+    }
+}
@@ -0,0 +1,60 @@
+package me.julie.ebs.benchmark;
+
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.element.EbsElement;
+import me.julie.ebs.element.EbsElements;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures creating and decoding scalar elements, mostly small
+ * counters and ids. Run with the {@code gc} profiler to see the
+ * allocation rate, which is what the shared element instances
+ * of the number factories are meant to lower.
+ * <p>
+ * Encoding writes a type ID for every scalar, so it mostly measures
+ * how fast the registry resolves element types.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScalarBenchmark {
+    @Param({"100", "10000"})
+    private int entities;
+
+    private EbsTypeRegistry registry;
+    private EbsElement element;
+    private ByteBuffer data;
+
+    @Setup
+    public void setup() throws IOException {
+        registry = new EbsTypeRegistry();
+        element = Fixtures.region(entities);
+        data = registry.encode(element);
+    }
+
+    @Benchmark
+    public EbsElement read() throws IOException {
+        return registry.read(data.duplicate());
+    }
+
+    @Benchmark
+    public ByteBuffer encode() throws IOException {
+        return registry.encode(element);
+    }
+
+    @Benchmark
+    public void createCounters(Blackhole blackhole) {
+        for (int i = 0; i < entities; i++) {
+            blackhole.consume(EbsElements.of(i & 0xFF));
+            blackhole.consume(EbsElements.of((byte) i));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package me.julie.ebs.benchmark;
+
+import me.julie.ebs.EbsUtil;
+import me.julie.ebs.io.EbsDataInput;
+import me.julie.ebs.io.EbsDataOutput;
+import me.julie.ebs.io.EbsFormat;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the modified UTF-8 strings of the V1 format, written with
+ * {@code writeUTF}, with the UTF-8 strings of the compact format.
+ * <p>
+ * Strings are either short ASCII keys, or large values, ASCII or with
+ * some non ASCII characters mixed in. Modified UTF-8 can't hold more
+ * than 65535 bytes, so its large strings are cut down to that.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StringBenchmark {
+    @Param({"KEY", "LARGE_ASCII", "LARGE_MIXED"})
+    private String kind;
+
+    /** Amount of strings written and read per operation */
+    private int strings;
+
+    private String string;
+    private String modifiedString;
+
+    private ByteBuffer buffer;
+    private ByteBuffer utf8Data;
+    private ByteBuffer modifiedData;
+
+    @Setup
+    public void setup() throws IOException {
+        string = switch (kind) {
+            case "KEY" -> "entity_health";
+            case "LARGE_ASCII" -> "lorem ipsum ".repeat(1024 * 1024 / 12);
+            default -> "lorem \u00e9 ipsum \u65e5 ".repeat(1024 * 1024 / 20);
+        };
+
+        strings = kind.equals("KEY") ? 64 : 4;
+        modifiedString = string;
+
+        while (EbsUtil.modifiedUtfLength(modifiedString) > EbsUtil.MAX_UTF_LENGTH) {
+            modifiedString = modifiedString.substring(0, modifiedString.length() / 2);
+        }
+
+        buffer = ByteBuffer.allocate(strings * (EbsUtil.utf8Length(string) + EbsUtil.MAX_VAR_INT_BYTES));
+
+        writeUtf8();
+        utf8Data = buffer.flip().slice();
+
+        buffer = ByteBuffer.allocate(buffer.capacity());
+
+        writeUTF();
+        modifiedData = buffer.flip().slice();
+
+        buffer = ByteBuffer.allocate(buffer.capacity());
+    }
+
+    @Benchmark
+    public ByteBuffer writeUtf8() throws IOException {
+        EbsDataOutput output = EbsDataOutput.of(buffer.clear(), EbsFormat.V2);
+
+        for (int i = 0; i < strings; i++) {
+            output.writeUtf8(string);
+        }
+
+        return buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer writeUTF() throws IOException {
+        EbsDataOutput output = EbsDataOutput.of(buffer.clear());
+
+        for (int i = 0; i < strings; i++) {
+            output.writeUTF(modifiedString);
+        }
+
+        return buffer;
+    }
+
+    @Benchmark
+    public String readUtf8() throws IOException {
+        EbsDataInput input = EbsDataInput.of(utf8Data.duplicate());
+        String result = null;
+
+        for (int i = 0; i < strings; i++) {
+            result = input.readUtf8();
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public String readUTF() throws IOException {
+        EbsDataInput input = EbsDataInput.of(modifiedData.duplicate());
+        String result = null;
+
+        for (int i = 0; i < strings; i++) {
+            result = input.readUTF();
+        }
+
+        return result;
+    }
+}
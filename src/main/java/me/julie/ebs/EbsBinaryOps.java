@@ -0,0 +1,929 @@
+package me.julie.ebs;
+
+import com.mojang.datafixers.util.Pair;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.ListBuilder;
+import com.mojang.serialization.RecordBuilder;
+import me.julie.ebs.element.EbsArray;
+import me.julie.ebs.element.EbsCompound;
+import me.julie.ebs.element.EbsElement;
+import me.julie.ebs.element.EbsElements;
+import me.julie.ebs.io.EbsDataInput;
+import me.julie.ebs.io.EbsDataOutput;
+import me.julie.ebs.io.EbsFormat;
+import me.julie.ebs.type.EbsArrayType;
+import me.julie.ebs.type.EbsCompoundType;
+import me.julie.ebs.type.EbsNumberType;
+import me.julie.ebs.type.EbsType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * {@link DynamicOps} which encode codecs straight into EBS binary,
+ * without building an {@link EbsElement} tree first.
+ * <p>
+ * Records and lists are written into their own growable buffers
+ * as the codec adds fields to them, and copied into their parent
+ * once they're added to it. An encoded value is then written as a
+ * document with {@link #write(Encoded, OutputStream)} or {@link #encode(Encoded)}.
+ * The written bytes are exactly the same as the ones written by
+ * encoding the value with {@link EbsOps} and writing the resulting
+ * element with the registry, in this ops' format.
+ * <p>
+ * These ops are meant for encoding, everything that reads values,
+ * or changes an existing record, like {@link #getMapValues(Encoded)}
+ * or {@link #mergeToMap(Encoded, Encoded, Encoded)}, decodes the value
+ * into elements and goes through {@link EbsOps}, which is a lot slower.
+ * <p>
+ * Formats with a key table are not supported, the table is written
+ * in front of the document, before any of its keys are known.
+ */
+public final class EbsBinaryOps implements DynamicOps<EbsBinaryOps.Encoded> {
+    /** Initial capacity of the buffers records and lists are written into */
+    private static final int BUFFER_SIZE = 256;
+
+    /** The most bytes a document's header, root type and container header can take up */
+    private static final int MAX_HEADER_SIZE = 32;
+
+    /** Type ID written for arrays without a type */
+    private static final int UNSET_TYPE = -1;
+
+    private static final EbsType COMPOUND = EbsCompoundType.getInstance();
+    private static final EbsType ARRAY = EbsArrayType.getInstance();
+
+    private final EbsTypeRegistry registry;
+    private final EbsFormat format;
+
+    private EbsBinaryOps(EbsTypeRegistry registry, EbsFormat format) {
+        this.registry = registry;
+        this.format = format;
+    }
+
+    /**
+     * Creates ops which encode values in the registry's
+     * current write format
+     * @param registry The registry to write types with
+     * @return The created ops
+     * @throws NullPointerException If the registry is null
+     * @throws IllegalArgumentException If the registry's write format has a key table
+     * @see #of(EbsTypeRegistry, EbsFormat)
+     */
+    public static EbsBinaryOps of(EbsTypeRegistry registry) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(registry, "Null registry");
+        return of(registry, registry.getWriteFormat());
+    }
+
+    /**
+     * Creates ops which encode values in the given format
+     * @param registry The registry to write types with
+     * @param format The format to encode values in
+     * @return The created ops
+     * @throws NullPointerException If the registry or format is null
+     * @throws IllegalArgumentException If the format has a key table
+     */
+    public static EbsBinaryOps of(EbsTypeRegistry registry, EbsFormat format) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(registry, "Null registry");
+        Objects.requireNonNull(format, "Null format");
+
+        if (format.hasKeyTable()) {
+            throw new IllegalArgumentException("Formats with a key table are not supported: " + format);
+        }
+
+        return new EbsBinaryOps(registry, format);
+    }
+
+    /**
+     * Gets the registry types are written with
+     * @return The ops' registry
+     */
+    public EbsTypeRegistry registry() {
+        return registry;
+    }
+
+    /**
+     * Gets the format values are encoded in
+     * @return The ops' format
+     */
+    public EbsFormat format() {
+        return format;
+    }
+
+    /* ----------------------------- DOCUMENTS ------------------------------ */
+
+    /**
+     * Writes the given value to the given stream as a whole
+     * document, the same as {@link EbsTypeRegistry#write(EbsElement, OutputStream)}
+     * @param value The value to write
+     * @param stream The stream to write to
+     * @throws IOException If the value couldn't be written
+     * @throws NullPointerException If the value or stream is null
+     */
+    public void write(Encoded value, OutputStream stream) throws IOException, NullPointerException {
+        Objects.requireNonNull(value, "Null value");
+        Objects.requireNonNull(stream, "Null stream");
+
+        try (EbsDataOutput output = EbsDataOutput.of(stream, format)) {
+            writeDocument(value, output);
+        }
+    }
+
+    /**
+     * Encodes the given value as a whole document into a newly
+     * allocated heap buffer, the same as {@link EbsTypeRegistry#encode(EbsElement)}
+     * @param value The value to encode
+     * @return A buffer with the document between its position and limit
+     * @throws IOException If the value couldn't be written
+     * @throws NullPointerException If the value is null
+     */
+    public ByteBuffer encode(Encoded value) throws IOException, NullPointerException {
+        Objects.requireNonNull(value, "Null value");
+
+        EbsDataOutput output = EbsDataOutput.growable((value.body == null ? 0 : value.body.length) + MAX_HEADER_SIZE, format);
+        writeDocument(value, output);
+
+        return output.toBuffer();
+    }
+
+    private void writeDocument(Encoded value, EbsDataOutput output) throws IOException {
+        format.writeHeader(output);
+
+        registry.writeType(value.type, output);
+        writeValue(value, output);
+    }
+
+    // Writes a value without its type, containers are
+    // written the same way their types write them
+    private void writeValue(Encoded value, EbsDataOutput output) throws IOException {
+        if (value.element != null) {
+            value.type.write(registry, output, value.element);
+            return;
+        }
+
+        Body body = value.body;
+        int marker = registry.startContainer(output);
+
+        registry.writeSize(body.size, output);
+
+        if (value.type == ARRAY) {
+            if (body.elementType == null) {
+                registry.writeTypeId(UNSET_TYPE, output);
+            } else {
+                registry.writeType(body.elementType, output);
+            }
+        }
+
+        output.write(body.data, body.offset, body.length);
+        registry.endContainer(marker, output);
+    }
+
+    /* ----------------------------- CONVERSION ------------------------------ */
+
+    private static EbsElement elementOf(Encoded value) {
+        return value == null ? null : value.element;
+    }
+
+    private static Encoded scalar(EbsElement element) {
+        return new Encoded(element.getType(), element, null);
+    }
+
+    // Encodes an element, containers are written and their header
+    // is read back, so only their entries are kept
+    private Encoded fromElement(EbsElement element) throws IOException {
+        if (element == null) {
+            return null;
+        }
+
+        EbsType type = element.getType();
+
+        if (type != COMPOUND && type != ARRAY) {
+            return scalar(element);
+        }
+
+        EbsDataOutput output = EbsDataOutput.growable(BUFFER_SIZE, format);
+        type.write(registry, output, element);
+
+        ByteBuffer data = output.toBuffer();
+        EbsDataInput input = input(data);
+
+        registry.readContainerLength(input);
+        int size = registry.readSize(input);
+        EbsType elementType = null;
+
+        if (type == ARRAY) {
+            int id = registry.readTypeId(input);
+            elementType = id == UNSET_TYPE ? null : registry.get(id);
+        }
+
+        return new Encoded(type, null, new Body(size, elementType, data.array(), data.position(), data.remaining()));
+    }
+
+    private DataResult<Encoded> fromElement(DataResult<EbsElement> result) {
+        return result.flatMap(element -> {
+            try {
+                return DataResult.success(fromElement(element));
+            } catch (IOException e) {
+                return DataResult.error("Couldn't encode element: " + e.getMessage());
+            }
+        });
+    }
+
+    private EbsDataInput input(ByteBuffer data) {
+        EbsDataInput input = EbsDataInput.of(data);
+        input.setFormat(format);
+
+        return input;
+    }
+
+    // Decodes a value into elements, compounds are decoded in the order
+    // their entries were written in, so encoding them again, or going
+    // through EbsOps, gives the same bytes the tree path would
+    private EbsElement toElement(Encoded value) throws IOException {
+        if (value == null || value.element != null) {
+            return elementOf(value);
+        }
+
+        Body body = value.body;
+        EbsDataInput input = input(ByteBuffer.wrap(body.data, body.offset, body.length));
+
+        if (value.type == COMPOUND) {
+            return readCompound(input, body.size);
+        }
+
+        return readArray(input, body.size, body.elementType);
+    }
+
+    private DataResult<EbsElement> decode(Encoded value) {
+        try {
+            return DataResult.success(toElement(value));
+        } catch (IOException e) {
+            return DataResult.error("Couldn't decode value: " + e.getMessage());
+        }
+    }
+
+    private EbsElement read(EbsType type, EbsDataInput input) throws IOException {
+        if (type != COMPOUND && type != ARRAY) {
+            return type.read(registry, input);
+        }
+
+        registry.readContainerLength(input);
+        int size = registry.readSize(input);
+
+        if (type == COMPOUND) {
+            return readCompound(input, size);
+        }
+
+        int id = registry.readTypeId(input);
+
+        if (id == UNSET_TYPE) {
+            return readArray(input, size, null);
+        }
+
+        EbsType elementType = registry.get(id);
+
+        if (elementType == null) {
+            throw new IOException("Unknown type: " + id);
+        }
+
+        return readArray(input, size, elementType);
+    }
+
+    private EbsCompound readCompound(EbsDataInput input, int size) throws IOException {
+        EbsCompound compound = EbsElements.newOrderedCompound(size);
+
+        for (int i = 0; i < size; i++) {
+            String key = registry.readKey(input);
+            compound.put(key, read(registry.readType(input), input));
+        }
+
+        return compound;
+    }
+
+    private EbsArray readArray(EbsDataInput input, int size, EbsType elementType) throws IOException {
+        if (elementType == null) {
+            return EbsElements.newArray(size);
+        }
+
+        EbsArray array = EbsElements.newArray(elementType, size);
+
+        for (int i = 0; i < size; i++) {
+            array.add(read(elementType, input));
+        }
+
+        return array;
+    }
+
+    /* ----------------------------- DYNAMIC OPS ------------------------------ */
+
+    @Override
+    public Encoded empty() {
+        return null;
+    }
+
+    @Override
+    public Encoded emptyMap() {
+        return new Fields().toEncoded();
+    }
+
+    @Override
+    public Encoded emptyList() {
+        return new Elements(null).toEncoded();
+    }
+
+    @Override
+    public <U> U convertTo(DynamicOps<U> outOps, Encoded input) {
+        try {
+            return EbsOps.INSTANCE.convertTo(outOps, toElement(input));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't decode value", e);
+        }
+    }
+
+    @Override
+    public DataResult<Boolean> getBooleanValue(Encoded input) {
+        return EbsOps.INSTANCE.getBooleanValue(elementOf(input));
+    }
+
+    @Override
+    public Encoded createBoolean(boolean value) {
+        return scalar(EbsOps.INSTANCE.createBoolean(value));
+    }
+
+    @Override
+    public DataResult<Number> getNumberValue(Encoded input) {
+        return EbsOps.INSTANCE.getNumberValue(elementOf(input));
+    }
+
+    @Override
+    public Encoded createNumeric(Number i) {
+        return scalar(EbsOps.INSTANCE.createNumeric(i));
+    }
+
+    @Override
+    public DataResult<String> getStringValue(Encoded input) {
+        return EbsOps.INSTANCE.getStringValue(elementOf(input));
+    }
+
+    @Override
+    public Encoded createString(String value) {
+        return scalar(EbsOps.INSTANCE.createString(value));
+    }
+
+    @Override
+    public DataResult<ByteBuffer> getByteBuffer(Encoded input) {
+        return decode(input).flatMap(EbsOps.INSTANCE::getByteBuffer);
+    }
+
+    @Override
+    public DataResult<Encoded> mergeToList(Encoded list, Encoded value) {
+        return mergeToList(list, List.of(value));
+    }
+
+    @Override
+    public DataResult<Encoded> mergeToList(Encoded list, List<Encoded> values) {
+        if (list != empty() && list.type != ARRAY) {
+            return DataResult.error("Input is not a list: " + list);
+        }
+
+        Elements elements = new Elements(list == null ? null : list.body.elementType);
+
+        if (list != null) {
+            elements.addAll(list);
+        }
+
+        for (Encoded value: values) {
+            elements.add(value);
+        }
+
+        return elements.result();
+    }
+
+    @Override
+    public DataResult<Encoded> mergeToMap(Encoded map, Encoded key, Encoded value) {
+        if (map != empty() && map.type != COMPOUND) {
+            return DataResult.error("Input was not compound: " + map);
+        }
+
+        DataResult<EbsElement> merged = decode(map).flatMap(
+                element -> decode(value).flatMap(v -> EbsOps.INSTANCE.mergeToMap(element, elementOf(key), v))
+        );
+
+        return fromElement(merged);
+    }
+
+    private EbsElement toElementUnchecked(Encoded value) {
+        try {
+            return toElement(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't decode value", e);
+        }
+    }
+
+    @Override
+    public DataResult<Stream<Pair<Encoded, Encoded>>> getMapValues(Encoded input) {
+        return decode(input).flatMap(EbsOps.INSTANCE::getMapValues).map(
+                stream -> stream.map(pair -> Pair.of(fromElementUnchecked(pair.getFirst()), fromElementUnchecked(pair.getSecond())))
+        );
+    }
+
+    private Encoded fromElementUnchecked(EbsElement element) {
+        try {
+            return fromElement(element);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't encode element", e);
+        }
+    }
+
+    @Override
+    public Encoded createMap(Stream<Pair<Encoded, Encoded>> map) {
+        return fromElementUnchecked(EbsOps.INSTANCE.createMap(
+                map.map(pair -> Pair.of(toElementUnchecked(pair.getFirst()), toElementUnchecked(pair.getSecond())))
+        ));
+    }
+
+    @Override
+    public DataResult<Stream<Encoded>> getStream(Encoded input) {
+        return decode(input).flatMap(EbsOps.INSTANCE::getStream).map(stream -> stream.map(this::fromElementUnchecked));
+    }
+
+    @Override
+    public Encoded createList(Stream<Encoded> input) {
+        Elements elements = new Elements(null);
+        input.forEach(elements::add);
+
+        return elements.toEncodedUnchecked();
+    }
+
+    @Override
+    public Encoded remove(Encoded input, String key) {
+        if (input == null || input.type != COMPOUND) {
+            return input;
+        }
+
+        return fromElementUnchecked(EbsOps.INSTANCE.remove(toElementUnchecked(input), key));
+    }
+
+    @Override
+    public Encoded createIntList(IntStream input) {
+        Elements elements = new Elements(EbsNumberType.INTEGER);
+
+        try {
+            for (PrimitiveIterator.OfInt it = input.iterator(); it.hasNext(); ) {
+                elements.output.writeInt(it.nextInt());
+                elements.size++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't write int list", e);
+        }
+
+        return elements.toEncodedUnchecked();
+    }
+
+    @Override
+    public Encoded createLongList(LongStream input) {
+        Elements elements = new Elements(EbsNumberType.LONG);
+
+        try {
+            for (PrimitiveIterator.OfLong it = input.iterator(); it.hasNext(); ) {
+                elements.output.writeLong(it.nextLong());
+                elements.size++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't write long list", e);
+        }
+
+        return elements.toEncodedUnchecked();
+    }
+
+    @Override
+    public Encoded createByteList(ByteBuffer input) {
+        Elements elements = new Elements(EbsNumberType.BYTE);
+        int length = input.remaining();
+
+        try {
+            while (input.hasRemaining()) {
+                elements.output.writeByte(input.get());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't write byte list", e);
+        }
+
+        elements.size = length;
+        return elements.toEncodedUnchecked();
+    }
+
+    /* ----------------------------- BUILDERS ------------------------------ */
+
+    /**
+     * Creates a record builder which writes fields straight into
+     * a buffer, in the order the codec adds them, the same order
+     * {@link EbsOps#mapBuilder()} keeps them in
+     * @return The created builder
+     */
+    @Override
+    public RecordBuilder<Encoded> mapBuilder() {
+        return new RecordWriter();
+    }
+
+    /**
+     * Creates a list builder which writes elements straight into
+     * a buffer, elements of a different type than the first one
+     * are dropped, like they are by {@link EbsArray}s
+     * @return The created builder
+     */
+    @Override
+    public ListBuilder<Encoded> listBuilder() {
+        return new ListWriter();
+    }
+
+    private final class RecordWriter extends RecordBuilder.AbstractStringBuilder<Encoded, Fields> {
+        RecordWriter() {
+            super(EbsBinaryOps.this);
+        }
+
+        @Override
+        protected Fields initBuilder() {
+            return new Fields();
+        }
+
+        @Override
+        protected Fields append(String key, Encoded value, Fields builder) {
+            builder.put(key, value);
+            return builder;
+        }
+
+        @Override
+        protected DataResult<Encoded> build(Fields builder, Encoded prefix) {
+            if (prefix != empty() && prefix.type != COMPOUND) {
+                return DataResult.error("Prefix was not compound: " + prefix);
+            }
+
+            if (prefix == null || prefix.body.size == 0) {
+                return builder.result();
+            }
+
+            // Same order EbsOps merges in, the prefix's
+            // fields first, then the builder's
+            DataResult<Encoded> fields = builder.result();
+
+            return fields.flatMap(encoded -> {
+                Fields result = new Fields();
+                result.putAll(prefix);
+                result.putAll(encoded);
+
+                return result.result();
+            });
+        }
+    }
+
+    private final class ListWriter implements ListBuilder<Encoded> {
+        private DataResult<Elements> builder = DataResult.success(new Elements(null));
+
+        @Override
+        public DynamicOps<Encoded> ops() {
+            return EbsBinaryOps.this;
+        }
+
+        @Override
+        public ListBuilder<Encoded> add(Encoded value) {
+            builder = builder.map(b -> {
+                b.add(value);
+                return b;
+            });
+
+            return this;
+        }
+
+        @Override
+        public ListBuilder<Encoded> add(DataResult<Encoded> value) {
+            builder = builder.flatMap(b -> value.map(v -> {
+                b.add(v);
+                return b;
+            }));
+
+            return this;
+        }
+
+        @Override
+        public ListBuilder<Encoded> withErrorsFrom(DataResult<?> result) {
+            builder = builder.flatMap(b -> result.map(r -> b));
+            return this;
+        }
+
+        @Override
+        public ListBuilder<Encoded> mapError(UnaryOperator<String> onError) {
+            builder = builder.mapError(onError);
+            return this;
+        }
+
+        @Override
+        public DataResult<Encoded> build(Encoded prefix) {
+            DataResult<Encoded> result = builder.flatMap(b -> {
+                if (prefix == empty() || (prefix.type == ARRAY && prefix.body.size == 0)) {
+                    return b.result();
+                }
+
+                return b.result().flatMap(elements -> appendList(prefix, elements));
+            });
+
+            builder = DataResult.success(new Elements(null));
+
+            return result;
+        }
+    }
+
+    private DataResult<Encoded> appendList(Encoded list, Encoded elements) {
+        if (list.type != ARRAY) {
+            return DataResult.error("Input is not a list: " + list);
+        }
+
+        Elements result = new Elements(list.body.elementType);
+        result.addAll(list);
+        result.addAll(elements);
+
+        return result.result();
+    }
+
+    /* ----------------------------- CONTAINER WRITERS ------------------------------ */
+
+    // The entries of a record, written in the order they were added.
+    // Adding a key again replaces its value in place, like it does
+    // in an ordered compound
+    private final class Fields {
+        private EbsDataOutput output = EbsDataOutput.growable(BUFFER_SIZE, format);
+        private IOException error;
+
+        private String[] keys = new String[8];
+
+        // Offset of every entry's key in the output
+        private int[] offsets = new int[8];
+        private int size;
+
+        // A bit for every key hash added, so most keys
+        // can skip looking for a duplicate altogether
+        private long hashBits;
+
+        void put(String key, Encoded value) {
+            put(key, value, null, 0, 0);
+        }
+
+        // Adds a key with either a value, or the already
+        // encoded type and data of one
+        private void put(String key, Encoded value, byte[] raw, int offset, int length) {
+            if (error != null) {
+                return;
+            }
+
+            try {
+                int hash = key.hashCode();
+                int index = indexOf(key, hash);
+
+                if (index != -1) {
+                    replace(index, value, raw, offset, length);
+                    return;
+                }
+
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, size * 2);
+                    offsets = Arrays.copyOf(offsets, size * 2);
+                }
+
+                keys[size] = key;
+                offsets[size] = (int) output.written();
+                hashBits |= 1L << hash;
+                size++;
+
+                writeEntry(output, key, value, raw, offset, length);
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+
+        private int indexOf(String key, int hash) {
+            if ((hashBits & (1L << hash)) == 0) {
+                return -1;
+            }
+
+            for (int i = 0; i < size; i++) {
+                if (keys[i].hashCode() == hash && keys[i].equals(key)) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        private void writeEntry(EbsDataOutput output, String key, Encoded value, byte[] raw, int offset, int length) throws IOException {
+            registry.writeKey(key, output);
+
+            if (raw != null) {
+                output.write(raw, offset, length);
+                return;
+            }
+
+            EbsType type = Objects.requireNonNull(value, "Null value").type;
+
+            registry.writeType(type, output);
+            writeValue(value, output);
+        }
+
+        // Rewrites the entries with the entry at the given index replaced
+        private void replace(int index, Encoded value, byte[] raw, int offset, int length) throws IOException {
+            ByteBuffer data = output.toBuffer();
+            int start = offsets[index];
+            int end = index + 1 < size ? offsets[index + 1] : data.limit();
+
+            EbsDataOutput result = EbsDataOutput.growable(data.limit(), format);
+            result.write(data.array(), 0, start);
+            writeEntry(result, keys[index], value, raw, offset, length);
+
+            int shift = (int) result.written() - end;
+            result.write(data.array(), end, data.limit() - end);
+
+            for (int i = index + 1; i < size; i++) {
+                offsets[i] += shift;
+            }
+
+            output = result;
+        }
+
+        // Adds all entries of an encoded compound, without decoding their values
+        void putAll(Encoded compound) {
+            Body body = compound.body;
+            ByteBuffer data = ByteBuffer.wrap(body.data, body.offset, body.length);
+            EbsDataInput input = input(data);
+
+            try {
+                for (int i = 0; i < body.size; i++) {
+                    String key = registry.readKey(input);
+                    int start = data.position();
+
+                    registry.readType(input).skip(registry, input);
+                    put(key, null, body.data, start, data.position() - start);
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+
+        DataResult<Encoded> result() {
+            if (error != null) {
+                return DataResult.error("Couldn't encode record: " + error.getMessage());
+            }
+
+            return DataResult.success(toEncoded());
+        }
+
+        Encoded toEncoded() {
+            ByteBuffer data = output.toBuffer();
+            return new Encoded(COMPOUND, null, new Body(size, null, data.array(), 0, data.limit()));
+        }
+    }
+
+    // The elements of a list, the first added element sets the list's
+    // type, if it doesn't have one yet, elements of other types are dropped
+    private final class Elements {
+        private final EbsDataOutput output = EbsDataOutput.growable(BUFFER_SIZE, format);
+        private IOException error;
+
+        private EbsType elementType;
+        private int size;
+
+        Elements(EbsType elementType) {
+            this.elementType = elementType;
+        }
+
+        void add(Encoded value) {
+            if (value == null || error != null) {
+                return;
+            }
+
+            if (elementType == null) {
+                elementType = value.type;
+            } else if (!elementType.equals(value.type)) {
+                return;
+            }
+
+            try {
+                writeValue(value, output);
+                size++;
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+
+        // Adds all elements of an encoded list, without decoding them
+        void addAll(Encoded list) {
+            Body body = list.body;
+
+            if (body.size == 0 || error != null) {
+                return;
+            }
+
+            if (elementType == null) {
+                elementType = body.elementType;
+            } else if (!elementType.equals(body.elementType)) {
+                return;
+            }
+
+            try {
+                output.write(body.data, body.offset, body.length);
+                size += body.size;
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+
+        DataResult<Encoded> result() {
+            if (error != null) {
+                return DataResult.error("Couldn't encode list: " + error.getMessage());
+            }
+
+            return DataResult.success(toEncoded());
+        }
+
+        Encoded toEncodedUnchecked() {
+            if (error != null) {
+                throw new UncheckedIOException("Couldn't encode list", error);
+            }
+
+            return toEncoded();
+        }
+
+        Encoded toEncoded() {
+            ByteBuffer data = output.toBuffer();
+            return new Encoded(ARRAY, null, new Body(size, elementType, data.array(), 0, data.limit()));
+        }
+    }
+
+    /* ----------------------------- VALUES ------------------------------ */
+
+    /**
+     * A value encoded by {@link EbsBinaryOps}.
+     * <p>
+     * Scalars are kept as their element, records and lists as their
+     * encoded entries, without the size and type in front of them,
+     * those are written when the value is added to its parent, or
+     * written as a document.
+     */
+    public static final class Encoded {
+        private final EbsType type;
+
+        // Only one of these is set
+        private final EbsElement element;
+        private final Body body;
+
+        private Encoded(EbsType type, EbsElement element, Body body) {
+            this.type = type;
+            this.element = element;
+            this.body = body;
+        }
+
+        /**
+         * Gets the type of the encoded value
+         * @return The value's type
+         */
+        public EbsType type() {
+            return type;
+        }
+
+        @Override
+        public String toString() {
+            if (element != null) {
+                return "Encoded[" + element + "]";
+            }
+
+            return "Encoded[type=" + type + ", size=" + body.size + ", bytes=" + body.length + "]";
+        }
+    }
+
+    // The encoded entries of a record or list, without the
+    // container's length, size and element type in front
+    private static final class Body {
+        private final int size;
+        private final EbsType elementType;
+
+        private final byte[] data;
+        private final int offset;
+        private final int length;
+
+        private Body(int size, EbsType elementType, byte[] data, int offset, int length) {
+            this.size = size;
+            this.elementType = elementType;
+            this.data = data;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 
 /**
@@ -36,6 +37,26 @@ public final class EbsIo {
         return globalTypes().read(stream);
     }
 
+    /** @see EbsTypeRegistry#write(EbsElement, ByteBuffer) */
+    public static void write(EbsElement element, ByteBuffer buffer) throws IOException {
+        globalTypes().write(element, buffer);
+    }
+
+    /** @see EbsTypeRegistry#read(ByteBuffer) */
+    public static EbsElement read(ByteBuffer buffer) throws IOException {
+        return globalTypes().read(buffer);
+    }
+
+    /** @see EbsTypeRegistry#readLazy(ByteBuffer) */
+    public static EbsElement readLazy(ByteBuffer buffer) throws IOException {
+        return globalTypes().readLazy(buffer);
+    }
+
+    /** @see EbsTypeRegistry#encode(EbsElement) */
+    public static ByteBuffer encode(EbsElement element) throws IOException {
+        return globalTypes().encode(element);
+    }
+
     /** @see EbsTypeRegistry#writeFile(EbsElement, File) */
     public static void writeFile(EbsElement element, File file) throws IOException {
         globalTypes().writeFile(element, file);
@@ -55,4 +76,44 @@ public final class EbsIo {
     public static EbsElement readFile(Path path) throws IOException {
         return globalTypes().readFile(path);
     }
-}
\ No newline at end of file
+
+    /** @see EbsTypeRegistry#readFileMapped(File) */
+    public static EbsElement readFileMapped(File file) throws IOException {
+        return globalTypes().readFileMapped(file);
+    }
+
+    /** @see EbsTypeRegistry#readFileMapped(Path) */
+    public static EbsElement readFileMapped(Path path) throws IOException {
+        return globalTypes().readFileMapped(path);
+    }
+
+    /** @see EbsTypeRegistry#readFileLazy(File) */
+    public static EbsElement readFileLazy(File file) throws IOException {
+        return globalTypes().readFileLazy(file);
+    }
+
+    /** @see EbsTypeRegistry#readFileLazy(Path) */
+    public static EbsElement readFileLazy(Path path) throws IOException {
+        return globalTypes().readFileLazy(path);
+    }
+
+    /** @see EbsTypeRegistry#writeFileCompressed(EbsElement, File) */
+    public static void writeFileCompressed(EbsElement element, File file) throws IOException {
+        globalTypes().writeFileCompressed(element, file);
+    }
+
+    /** @see EbsTypeRegistry#writeFileCompressed(EbsElement, Path) */
+    public static void writeFileCompressed(EbsElement element, Path path) throws IOException {
+        globalTypes().writeFileCompressed(element, path);
+    }
+
+    /** @see EbsTypeRegistry#readFileCompressed(File) */
+    public static EbsElement readFileCompressed(File file) throws IOException {
+        return globalTypes().readFileCompressed(file);
+    }
+
+    /** @see EbsTypeRegistry#readFileCompressed(Path) */
+    public static EbsElement readFileCompressed(Path path) throws IOException {
+        return globalTypes().readFileCompressed(path);
+    }
+}
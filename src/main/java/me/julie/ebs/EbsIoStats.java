@@ -0,0 +1,171 @@
+package me.julie.ebs;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import me.julie.ebs.element.EbsArray;
+import me.julie.ebs.element.EbsCompound;
+import me.julie.ebs.element.EbsElement;
+import me.julie.ebs.element.LazyEbsCompound;
+import me.julie.ebs.io.EbsFormat;
+import me.julie.ebs.type.EbsNumberType;
+import me.julie.ebs.type.EbsType;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Stats of a single document read or written by an {@link EbsTypeRegistry},
+ * passed to the registry's {@link EbsListener}.
+ * <p>
+ * The byte count, time and format are known up front, while the element
+ * counts and the largest compound and array sizes are collected by walking
+ * the document the first time one of them is requested. Listeners which
+ * don't need them therefore don't pay for them, and those which do should
+ * request them while they're being called, before the document changes.
+ * <p>
+ * Walking the document never decodes {@link LazyEbsCompound}s, compounds
+ * which weren't inflated yet are counted, but their values aren't. Number
+ * arrays are counted by their size, without creating their elements.
+ */
+public final class EbsIoStats {
+    private final EbsElement element;
+    private final long bytes;
+    private final long nanos;
+    private final EbsFormat format;
+
+    /** Element counts by type, null until the document was walked */
+    private Reference2IntOpenHashMap<EbsType> counts;
+    private long elements;
+    private int largestCompound;
+    private int largestArray;
+
+    EbsIoStats(EbsElement element, long bytes, long nanos, EbsFormat format) {
+        this.element = element;
+        this.bytes = bytes;
+        this.nanos = nanos;
+        this.format = format;
+    }
+
+    /**
+     * Gets the document's root element
+     * @return The root element
+     */
+    public EbsElement element() {
+        return element;
+    }
+
+    /**
+     * Gets the size of the document
+     * @return The amount of bytes read or written, -1, if the
+     *         document was read from or written to a {@link java.io.DataInput}
+     *         or {@link java.io.DataOutput} whose position isn't known
+     */
+    public long bytes() {
+        return bytes;
+    }
+
+    /**
+     * Gets how long reading or writing the document took
+     * @return The time taken, in nanoseconds
+     */
+    public long nanos() {
+        return nanos;
+    }
+
+    /**
+     * Gets the format the document was read or written in
+     * @return The document's format
+     */
+    public EbsFormat format() {
+        return format;
+    }
+
+    /**
+     * Gets the amount of elements of the given type in the document
+     * @param type The type to count
+     * @return The amount of elements of that type
+     */
+    public int elementCount(EbsType type) {
+        walk();
+        return counts.getInt(type);
+    }
+
+    /**
+     * Gets the amount of elements of each type in the document
+     * @return An unmodifiable map of types to their element count
+     */
+    public Map<EbsType, Integer> elementCounts() {
+        walk();
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * Gets the amount of elements in the document, including the root
+     * @return The total element count
+     */
+    public long elements() {
+        walk();
+        return elements;
+    }
+
+    /**
+     * Gets the size of the document's largest compound
+     * @return The largest compound's size, 0, if there are no compounds
+     */
+    public int largestCompound() {
+        walk();
+        return largestCompound;
+    }
+
+    /**
+     * Gets the size of the document's largest array
+     * @return The largest array's size, 0, if there are no arrays
+     */
+    public int largestArray() {
+        walk();
+        return largestArray;
+    }
+
+    // Collects the element counts and sizes, the first time they're requested
+    private synchronized void walk() {
+        if (counts != null) {
+            return;
+        }
+
+        counts = new Reference2IntOpenHashMap<>();
+        count(element);
+    }
+
+    private void count(EbsElement element) {
+        counts.addTo(element.getType(), 1);
+        elements++;
+
+        if (element instanceof EbsCompound compound) {
+            largestCompound = Math.max(largestCompound, compound.size());
+
+            if (compound instanceof LazyEbsCompound lazy && !lazy.isInflated()) {
+                return;
+            }
+
+            for (EbsElement value: compound.values()) {
+                count(value);
+            }
+        } else if (element instanceof EbsArray<?> array) {
+            largestArray = Math.max(largestArray, array.size());
+
+            if (array.arrayType() instanceof EbsNumberType type) {
+                counts.addTo(type, array.size());
+                elements += array.size();
+                return;
+            }
+
+            for (EbsElement value: array) {
+                count(value);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "EbsIoStats{bytes=" + bytes + ", nanos=" + nanos + ", format=" + format + "}";
+    }
+}
@@ -0,0 +1,33 @@
+package me.julie.ebs;
+
+/**
+ * Listens to the documents an {@link EbsTypeRegistry} reads and writes.
+ * <p>
+ * A listener is set with {@link EbsTypeRegistry#setListener(EbsListener)},
+ * after which it's called once for every top-level read or write, like
+ * {@link EbsTypeRegistry#read(java.io.InputStream)}, {@link EbsTypeRegistry#encode(me.julie.ebs.element.EbsElement)}
+ * or {@link EbsTypeRegistry#readFile(java.nio.file.Path)}. Nested elements
+ * read or written by types aren't reported on their own.
+ * <p>
+ * Listeners are called on the thread that read or wrote the
+ * document, directly after it was read or written, so they
+ * must be thread safe if the registry is shared between threads.
+ *
+ * @see EbsMetrics
+ */
+public interface EbsListener {
+
+    /**
+     * Called after a document was read
+     * @param stats The read document's stats
+     */
+    default void onRead(EbsIoStats stats) {
+    }
+
+    /**
+     * Called after a document was written
+     * @param stats The written document's stats
+     */
+    default void onWrite(EbsIoStats stats) {
+    }
+}
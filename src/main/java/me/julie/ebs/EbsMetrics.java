@@ -0,0 +1,190 @@
+package me.julie.ebs;
+
+import me.julie.ebs.type.EbsType;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@link EbsListener} which sums up the stats of every document
+ * it's told about, into counters that can be polled at any time,
+ * for example by a metrics exporter.
+ * <p>
+ * All counters are thread safe and don't contend with each other,
+ * so one instance can be shared by registries used from any thread.
+ * Counting elements requires walking every document, see
+ * {@link EbsIoStats}, which can be turned off when only the byte,
+ * document and time counters are needed.
+ */
+public final class EbsMetrics implements EbsListener {
+    private final boolean countElements;
+
+    private final Counters reads = new Counters();
+    private final Counters writes = new Counters();
+
+    private final LongAccumulator largestCompound = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator largestArray = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates metrics which count bytes, documents, time
+     * and elements
+     */
+    public EbsMetrics() {
+        this(true);
+    }
+
+    /**
+     * Creates metrics which count bytes, documents and time
+     * @param countElements True, to also count elements and the
+     *                      largest compound and array sizes
+     */
+    public EbsMetrics(boolean countElements) {
+        this.countElements = countElements;
+    }
+
+    @Override
+    public void onRead(EbsIoStats stats) {
+        record(reads, stats);
+    }
+
+    @Override
+    public void onWrite(EbsIoStats stats) {
+        record(writes, stats);
+    }
+
+    private void record(Counters counters, EbsIoStats stats) {
+        counters.documents.increment();
+        counters.nanos.add(stats.nanos());
+
+        if (stats.bytes() > 0) {
+            counters.bytes.add(stats.bytes());
+        }
+
+        if (!countElements) {
+            return;
+        }
+
+        for (Map.Entry<EbsType, Integer> e: stats.elementCounts().entrySet()) {
+            counters.elements.computeIfAbsent(e.getKey(), type -> new LongAdder()).add(e.getValue());
+        }
+
+        largestCompound.accumulate(stats.largestCompound());
+        largestArray.accumulate(stats.largestArray());
+    }
+
+    /* ----------------------------- READS ------------------------------ */
+
+    /** @return The amount of documents read */
+    public long documentsRead() {
+        return reads.documents.sum();
+    }
+
+    /** @return The amount of bytes read, not counting documents of unknown size */
+    public long bytesRead() {
+        return reads.bytes.sum();
+    }
+
+    /** @return The total time spent reading documents, in nanoseconds */
+    public long readNanos() {
+        return reads.nanos.sum();
+    }
+
+    /**
+     * Gets the amount of elements of the given type read
+     * @param type The element type
+     * @return The amount of read elements of that type
+     */
+    public long elementsRead(EbsType type) {
+        return reads.elements(type);
+    }
+
+    /** @return A snapshot of the amount of elements read, by type */
+    public Map<EbsType, Long> elementsRead() {
+        return reads.elements();
+    }
+
+    /* ----------------------------- WRITES ------------------------------ */
+
+    /** @return The amount of documents written */
+    public long documentsWritten() {
+        return writes.documents.sum();
+    }
+
+    /** @return The amount of bytes written, not counting documents of unknown size */
+    public long bytesWritten() {
+        return writes.bytes.sum();
+    }
+
+    /** @return The total time spent writing documents, in nanoseconds */
+    public long writeNanos() {
+        return writes.nanos.sum();
+    }
+
+    /**
+     * Gets the amount of elements of the given type written
+     * @param type The element type
+     * @return The amount of written elements of that type
+     */
+    public long elementsWritten(EbsType type) {
+        return writes.elements(type);
+    }
+
+    /** @return A snapshot of the amount of elements written, by type */
+    public Map<EbsType, Long> elementsWritten() {
+        return writes.elements();
+    }
+
+    /* ----------------------------- SIZES ------------------------------ */
+
+    /** @return The size of the largest compound read or written */
+    public int largestCompound() {
+        return (int) largestCompound.get();
+    }
+
+    /** @return The size of the largest array read or written */
+    public int largestArray() {
+        return (int) largestArray.get();
+    }
+
+    /**
+     * Resets all counters to 0. Documents being reported
+     * while resetting may be partially counted
+     */
+    public void reset() {
+        reads.reset();
+        writes.reset();
+        largestCompound.reset();
+        largestArray.reset();
+    }
+
+    // The counters of one direction, reads or writes
+    private static final class Counters {
+        private final LongAdder documents = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final Map<EbsType, LongAdder> elements = new ConcurrentHashMap<>();
+
+        private long elements(EbsType type) {
+            LongAdder adder = elements.get(type);
+            return adder == null ? 0 : adder.sum();
+        }
+
+        private Map<EbsType, Long> elements() {
+            Map<EbsType, Long> result = new HashMap<>();
+            elements.forEach((type, adder) -> result.put(type, adder.sum()));
+
+            return Collections.unmodifiableMap(result);
+        }
+
+        private void reset() {
+            documents.reset();
+            bytes.reset();
+            nanos.reset();
+            elements.values().forEach(LongAdder::reset);
+        }
+    }
+}
@@ -3,12 +3,16 @@ package me.julie.ebs;
 import com.mojang.datafixers.util.Pair;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.ListBuilder;
+import com.mojang.serialization.RecordBuilder;
 import me.julie.ebs.element.*;
 import me.julie.ebs.type.EbsNumberType;
 
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.Map;
+import java.util.function.UnaryOperator;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
@@ -73,6 +77,10 @@ public class EbsOps implements DynamicOps<EbsElement> {
             return outOps.createString(uuid.toString());
         }
 
+        if (input instanceof EbsBytes bytes) {
+            return outOps.createByteList(bytes.value());
+        }
+
         if (input instanceof EbsArray<?> array) {
             return convertList(outOps, array);
         }
@@ -132,19 +140,32 @@ public class EbsOps implements DynamicOps<EbsElement> {
 
     @Override
     public DataResult<EbsElement> mergeToList(EbsElement list, EbsElement value) {
-        if (list instanceof EbsArray) {
-            EbsArray result = EbsElements.newArray();
-            result.add(value);
+        return mergeToList(list, List.of(value));
+    }
 
-            return DataResult.success(result);
+    @Override
+    public DataResult<EbsElement> mergeToList(EbsElement list, List<EbsElement> values) {
+        if (list != empty() && !(list instanceof EbsArray)) {
+            return DataResult.error("Input is not a list: " + list);
+        }
+
+        EbsArray<EbsElement> prefix = (EbsArray<EbsElement>) list;
+        EbsArray<EbsElement> result = EbsElements.newArray(
+                prefix == null ? null : prefix.arrayType(),
+                (prefix == null ? 0 : prefix.size()) + values.size()
+        );
+
+        if (prefix != null) {
+            result.addAll(prefix);
         }
 
-        return DataResult.error("Input is not a list: " + list);
+        result.addAll(values);
+        return DataResult.success(result);
     }
 
     @Override
     public DataResult<EbsElement> mergeToMap(EbsElement map, EbsElement key, EbsElement value) {
-        if (!(map instanceof EbsCompound compound)) {
+        if (map != empty() && !(map instanceof EbsCompound)) {
             return DataResult.error("Input was not compound: " + map);
         }
 
@@ -152,9 +173,13 @@ public class EbsOps implements DynamicOps<EbsElement> {
             return DataResult.error("Key was not string: " + key);
         }
 
-        EbsCompound result = compound.deepClone();
-        result.put(string.value(), value);
-        return DataResult.success(result);
+        // Persistent compounds share everything but the changed path,
+        // so merging a record one field at a time stays linear
+        PersistentEbsCompound result = map == empty()
+                ? EbsElements.newPersistentCompound()
+                : PersistentEbsCompound.copyOf((EbsCompound) map);
+
+        return DataResult.success(result.with(string.value(), value));
     }
 
     @Override
@@ -219,6 +244,15 @@ public class EbsOps implements DynamicOps<EbsElement> {
         return numbers;
     }
 
+    @Override
+    public DataResult<ByteBuffer> getByteBuffer(EbsElement input) {
+        if (input instanceof EbsBytes bytes) {
+            return DataResult.success(bytes.value());
+        }
+
+        return DynamicOps.super.getByteBuffer(input);
+    }
+
     @Override
     public EbsArray<EbsNumber> createByteList(ByteBuffer input) {
         EbsArray<EbsNumber> numbers = EbsElements.newArray(EbsNumberType.BYTE);
@@ -244,4 +278,125 @@ public class EbsOps implements DynamicOps<EbsElement> {
         map.forEach((element, element2) -> compound.put(element.toString(), element2));
         return compound;
     }
+
+    /* ----------------------------- BUILDERS ------------------------------ */
+
+    /**
+     * Creates a record builder which places every field into a single
+     * compound, instead of merging each field into the record with
+     * {@link #mergeToMap(EbsElement, EbsElement, EbsElement)}.
+     * <p>
+     * Built compounds keep their fields in the order the codec added
+     * them, so records are always written in the same order, the
+     * same one {@link EbsBinaryOps} writes them in
+     *
+     * @return The created builder
+     */
+    @Override
+    public RecordBuilder<EbsElement> mapBuilder() {
+        return new CompoundBuilder();
+    }
+
+    /**
+     * Creates a list builder which adds every element to a single
+     * array, which is only merged with the prefix when built
+     * @return The created builder
+     */
+    @Override
+    public ListBuilder<EbsElement> listBuilder() {
+        return new ArrayBuilder();
+    }
+
+    private final class CompoundBuilder extends RecordBuilder.AbstractStringBuilder<EbsElement, EbsCompound> {
+        CompoundBuilder() {
+            super(EbsOps.this);
+        }
+
+        @Override
+        protected EbsCompound initBuilder() {
+            return EbsElements.newOrderedCompound();
+        }
+
+        @Override
+        protected EbsCompound append(String key, EbsElement value, EbsCompound builder) {
+            builder.put(key, value);
+            return builder;
+        }
+
+        @Override
+        protected DataResult<EbsElement> build(EbsCompound builder, EbsElement prefix) {
+            if (prefix != empty() && !(prefix instanceof EbsCompound)) {
+                return DataResult.error("Prefix was not compound: " + prefix);
+            }
+
+            EbsCompound compound = (EbsCompound) prefix;
+
+            if (compound == null || compound.isEmpty()) {
+                return DataResult.success(builder);
+            }
+
+            EbsCompound result = EbsElements.newOrderedCompound(compound.size() + builder.size());
+            result.putAll(compound);
+            result.putAll(builder);
+
+            return DataResult.success(result);
+        }
+    }
+
+    private boolean isEmptyList(EbsElement list) {
+        return list == empty() || (list instanceof EbsArray<?> array && array.isEmpty());
+    }
+
+    private final class ArrayBuilder implements ListBuilder<EbsElement> {
+        private DataResult<EbsArray<EbsElement>> builder = DataResult.success(EbsElements.newArray());
+
+        @Override
+        public DynamicOps<EbsElement> ops() {
+            return EbsOps.this;
+        }
+
+        @Override
+        public ListBuilder<EbsElement> add(EbsElement value) {
+            builder = builder.map(b -> {
+                b.add(value);
+                return b;
+            });
+
+            return this;
+        }
+
+        @Override
+        public ListBuilder<EbsElement> add(DataResult<EbsElement> value) {
+            builder = builder.flatMap(b -> value.map(v -> {
+                b.add(v);
+                return b;
+            }));
+
+            return this;
+        }
+
+        @Override
+        public ListBuilder<EbsElement> withErrorsFrom(DataResult<?> result) {
+            builder = builder.flatMap(b -> result.map(r -> b));
+            return this;
+        }
+
+        @Override
+        public ListBuilder<EbsElement> mapError(UnaryOperator<String> onError) {
+            builder = builder.mapError(onError);
+            return this;
+        }
+
+        @Override
+        public DataResult<EbsElement> build(EbsElement prefix) {
+            // Arrays are lists as well, so the cast picks the bulk merge
+            DataResult<EbsElement> result = builder.flatMap(
+                    b -> isEmptyList(prefix) ? DataResult.success(b) : mergeToList(prefix, (List<EbsElement>) b)
+            );
+
+            builder = DataResult.success(EbsElements.newArray());
+
+            return result;
+        }
+    }
 }
\ No newline at end of file
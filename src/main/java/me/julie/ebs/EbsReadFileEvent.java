@@ -0,0 +1,30 @@
+package me.julie.ebs;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for reading a file with one of the
+ * {@link EbsTypeRegistry} file methods, only committed while
+ * the event is enabled in a running recording
+ */
+@Name("me.julie.ebs.ReadFile")
+@Label("EBS File Read")
+@Category("EBS")
+@Description("Reading an element from a file")
+final class EbsReadFileEvent extends Event {
+    @Label("Path")
+    String path;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Mode")
+    @Description("How the file was read, stream, mapped or lazy")
+    String mode;
+}
@@ -1,16 +1,32 @@
 package me.julie.ebs;
 
-import it.unimi.dsi.fastutil.objects.ObjectArrays;
+import it.unimi.dsi.fastutil.objects.ObjectLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import me.julie.ebs.element.*;
+import me.julie.ebs.io.EbsBlockInput;
+import me.julie.ebs.io.EbsBlockOutput;
+import me.julie.ebs.io.EbsDataInput;
+import me.julie.ebs.io.EbsDataOutput;
+import me.julie.ebs.io.EbsFormat;
 import me.julie.ebs.type.EbsArrayType;
 import me.julie.ebs.type.EbsCompoundType;
 import me.julie.ebs.type.EbsNumberType;
 import me.julie.ebs.type.EbsType;
 
 import java.io.*;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * A Type registry is used during IO operations to read and write
@@ -23,6 +39,22 @@ import java.util.Objects;
  * When a registry is created, it will automatically contain all
  * in-built element types, these types are specified in the
  * {@link #BUILT_IN_TYPES} array.
+ * <p>
+ * Elements are written in the registry's write format, see
+ * {@link #setWriteFormat(EbsFormat)}, which is {@link EbsFormat#V1}
+ * by default. Reading detects the format of the read data, so
+ * any registry can read data in any format.
+ * <p>
+ * Registries can be shared between threads, types are looked up
+ * without locking, while {@link #register(EbsType)} is synchronized.
+ * A registry whose types must not change anymore can be frozen
+ * with {@link #freeze()}.
+ * <p>
+ * Top-level reads and writes can be observed with an
+ * {@link EbsListener}, see {@link #setListener(EbsListener)},
+ * and file reads and writes are recorded as flight recorder
+ * events named {@code me.julie.ebs.ReadFile} and
+ * {@code me.julie.ebs.WriteFile}.
  *
  * @see #write(EbsElement, OutputStream) For general writing operations
  * @see #read(InputStream) For general reading operations
@@ -31,6 +63,8 @@ import java.util.Objects;
  * @see #readFile(Path)
  * @see #writeFile(EbsElement, File)
  * @see #readFile(File)
+ * @see #readFileMapped(Path)
+ * @see #readFileLazy(Path)
  */
 public class EbsTypeRegistry {
     /** Array if built-in types which always exist in every type registry */
@@ -49,18 +83,51 @@ public class EbsTypeRegistry {
             EbsBoolean.TYPE
     };
 
-    private TypeEntry[] types;
-    private int size;
+    /**
+     * ID of {@link EbsBytes#TYPE}, which every registry has as well.
+     * <p>
+     * Blobs were added after custom types could already be registered,
+     * and IDs of the types above are their positions, followed by the IDs
+     * of custom types. Blobs use this fixed ID instead of the next position,
+     * so custom types keep the IDs they were written with, and no custom
+     * type can be registered with this ID.
+     */
+    public static final int BYTES_TYPE_ID = 0x3FFE;
 
-    public EbsTypeRegistry() {
-        this.types = new TypeEntry[3];
-        size = 0;
+    /** Size returned by {@link #readSize(DataInput)} for containers that don't state their size */
+    public static final int UNKNOWN_SIZE = -1;
 
-        // Register all built in types
-        for (EbsType t: BUILT_IN_TYPES) {
-            register(t);
-        }
-    }
+    /**
+     * Default amount of entries per run large containers are split into, see
+     * {@link #setWritePool(ForkJoinPool, int)} and {@link #setReadPool(ForkJoinPool, int)}
+     */
+    public static final int DEFAULT_SPLIT_SIZE = 256;
+
+    /** Initial buffer size used by {@link #encode(EbsElement, boolean)} */
+    private static final int ENCODE_START_SIZE = 1024;
+
+    /** Largest buffer {@link #encode(EbsElement, boolean)} will allocate */
+    private static final int MAX_ENCODE_SIZE = Integer.MAX_VALUE - 8;
+
+    /** Table of the built-in types, shared by every new registry */
+    private static final TypeTable BUILT_IN_TABLE = TypeTable.of(BUILT_IN_TYPES);
+
+    /** The registered types, replaced by every registration, and read without locking */
+    private volatile TypeTable table = BUILT_IN_TABLE;
+    private volatile boolean frozen;
+
+    private volatile EbsFormat writeFormat = EbsFormat.V1;
+
+    /** Told about every top-level read and write, null, if there is no listener */
+    private volatile EbsListener listener;
+
+    /** Pool large documents are encoded on, null, if writing sequentially */
+    private volatile ForkJoinPool writePool;
+    private volatile int writeSplitSize = DEFAULT_SPLIT_SIZE;
+
+    /** Pool large documents are decoded on, null, if reading sequentially */
+    private volatile ForkJoinPool readPool;
+    private volatile int readSplitSize = DEFAULT_SPLIT_SIZE;
 
     /* ----------------------------- IO ------------------------------ */
 
@@ -73,18 +140,14 @@ public class EbsTypeRegistry {
      * @see #writeType(EbsType, DataOutput) for documentation on how types are stored
      */
     public EbsType<EbsElement> readType(DataInput input) throws IOException, NullPointerException {
-        int id = input.readInt();
-        EbsType type = get(id);
-
-        Objects.requireNonNull(type, "Unknown type ID: " + id);
-        return type;
+        return typeOf(readTypeId(input));
     }
 
     /**
      * Writes a given type to the given output
      * <p>
      * Types are written by finding their mapped ID with {@link #identifierOf(EbsType)}
-     * and then writing the resulting integer.
+     * and then writing the resulting integer with {@link #writeTypeId(int, DataOutput)}.
      *
      * @param type The type to write
      * @param output The output to write to
@@ -99,174 +162,1528 @@ public class EbsTypeRegistry {
             throw new IOException("Given type " + type + " is not registered");
         }
 
-        output.writeInt(id);
+        writeTypeId(id, output);
     }
 
     /**
-     * Writes the given element to the given stream.
-     * <p>
-     * The given stream is wrapped with a {@link DataOutputStream}
-     * unless the given stream IS a {@link DataOutputStream}, in
-     * which case the given stream is cast instead.
+     * Reads a type ID from the given input.
      * <p>
-     * This uses {@link #writeType(EbsType, DataOutput)} to write the
-     * element's type and then uses the same type to write the element's
-     * data.
-     *
-     * @param element The element to write
-     * @param stream The stream to write to
-     *
-     * @throws IOException If the element cannot be written
-     * @throws NullPointerException If the element, stream or element's type are null
+     * In the {@link EbsFormat#V1} format this is a 4 byte integer,
+     * in the compact format it's a var int of the ID + 1, so
+     * that the -1 'no type' ID still takes up a single byte
      *
-     * @see #writeType(EbsType, DataOutput) for documentation on writing element types
+     * @param input The input to read from
+     * @return The read ID, may be -1 or an ID that's not registered
+     * @throws IOException If the ID couldn't be read
      */
-    public void write(EbsElement element, OutputStream stream) throws IOException, NullPointerException {
-        Objects.requireNonNull(element, "Null element");
-        Objects.requireNonNull(stream, "Null stream");
-
-        DataOutputStream dataOutput = stream instanceof DataOutputStream dOutput ?
-                dOutput : new DataOutputStream(stream);
+    public int readTypeId(DataInput input) throws IOException {
+        if (input instanceof EbsDataInput in && in.format().isCompact()) {
+            return in.readVarInt() - 1;
+        }
 
-        EbsType type = Objects.requireNonNull(element.getType(), "Null type on element");
+        return input.readInt();
+    }
 
-        writeType(type, dataOutput);
-        type.write(this, dataOutput, element);
+    /**
+     * Writes a type ID to the given output
+     * @param id The ID to write, -1 to write 'no type'
+     * @param output The output to write to
+     * @throws IOException If the ID couldn't be written
+     * @see #readTypeId(DataInput)
+     */
+    public void writeTypeId(int id, DataOutput output) throws IOException {
+        if (output instanceof EbsDataOutput out && out.format().isCompact()) {
+            out.writeVarInt(id + 1);
+        } else {
+            output.writeInt(id);
+        }
     }
 
     /**
-     * Reads an element from the given stream.
+     * Reads a container's size from the given input.
      * <p>
-     * The given stream will be wrapped with a {@link DataInputStream}
-     * unless the given stream IS a {@link DataInputStream}, in which
-     * case it'll simply be cast.
+     * In the {@link EbsFormat#V1} format this is a 4 byte integer,
+     * in the compact format it's a var int of the size + 1, a 0
+     * is reserved for containers that don't state their size.
      * <p>
-     * This method uses {@link #readType(DataInput)} to read the element's
-     * type, then uses the read type to read the element's data
+     * The entries of containers without a size must be read with
+     * {@link #hasNext(int, int, DataInput)}, which reads the marker
+     * in front of each entry.
      *
-     * @param stream The stream to read from
-     * @return The read element
+     * @param input The input to read from
+     * @return The read size, or {@link #UNKNOWN_SIZE}
+     * @throws IOException If the size couldn't be read
+     */
+    public int readSize(DataInput input) throws IOException {
+        if (input instanceof EbsDataInput in && in.format().isCompact()) {
+            return in.readVarInt() - 1;
+        }
+
+        return input.readInt();
+    }
+
+    /**
+     * Writes a container's size to the given output
+     * @param size The size to write
+     * @param output The output to write to
+     * @throws IOException If the size couldn't be written
+     * @see #readSize(DataInput)
+     */
+    public void writeSize(int size, DataOutput output) throws IOException {
+        if (output instanceof EbsDataOutput out && out.format().isCompact()) {
+            out.writeVarInt(size + 1);
+        } else {
+            output.writeInt(size);
+        }
+    }
+
+    /**
+     * Writes the size of a container that doesn't know its size
+     * until all of its entries have been written. Every entry must
+     * then be preceded by {@link #writeHasNext(boolean, DataOutput)}
+     * with true, and the container must end with a false one.
+     * <p>
+     * Only the compact format supports this, V1 containers must
+     * always state their size up front.
      *
-     * @throws IOException If the element cannot be read
-     * @throws NullPointerException If the stream is null, or if the read
-     *                              element's type is not known to this registry
+     * @param output The output to write to
+     * @throws IOException If the output's format isn't compact, or
+     *                     the size couldn't be written
+     * @see #readSize(DataInput)
+     */
+    public void writeUnknownSize(DataOutput output) throws IOException {
+        if (output instanceof EbsDataOutput out && out.format().isCompact()) {
+            out.writeVarInt(0);
+        } else {
+            throw new IOException("Unknown sizes require the compact format");
+        }
+    }
+
+    /**
+     * Checks if the container being read has another entry. For
+     * containers with a known size this just compares the index,
+     * for ones with an {@link #UNKNOWN_SIZE}, this reads the
+     * marker byte in front of the next entry.
      *
-     * @see #readType(DataInput) for documentation on reading element types
+     * @param index The index of the entry that would be read next
+     * @param size The container's size returned by {@link #readSize(DataInput)}
+     * @param input The input to read from
+     * @return True, if there's another entry to read, false otherwise
+     * @throws IOException If the marker couldn't be read, or is invalid
      */
-    public EbsElement read(InputStream stream) throws IOException, NullPointerException {
-        Objects.requireNonNull(stream, "Null stream");
+    public boolean hasNext(int index, int size, DataInput input) throws IOException {
+        if (size != UNKNOWN_SIZE) {
+            return index < size;
+        }
+
+        int marker = input.readUnsignedByte();
 
-        DataInputStream input = stream instanceof DataInputStream dInput ?
-                dInput : new DataInputStream(stream);
+        if (marker > 1) {
+            throw new IOException("Invalid entry marker: " + marker);
+        }
 
-        EbsType<EbsElement> type = readType(input);
+        return marker == 1;
+    }
 
-        return type.read(this, input);
+    /**
+     * Writes the marker in front of an entry, or at the end,
+     * of a container written with {@link #writeUnknownSize(DataOutput)}
+     * @param next True, if an entry follows, false to end the container
+     * @param output The output to write to
+     * @throws IOException If the marker couldn't be written
+     * @see #hasNext(int, int, DataInput)
+     */
+    public void writeHasNext(boolean next, DataOutput output) throws IOException {
+        output.writeByte(next ? 1 : 0);
     }
 
-    public void writeFile(EbsElement element, File f) throws IOException {
-        try (FileOutputStream stream = new FileOutputStream(f)) {
-            write(element, stream);
+    /**
+     * Starts writing a container, if the output's format is
+     * {@link EbsFormat#isSized()}, this reserves room for the container's
+     * length in bytes, which {@link #endContainer(int, DataOutput)}
+     * fills in.
+     * <p>
+     * Container types must call this before writing any of their
+     * data and {@link #endContainer(int, DataOutput)} after writing
+     * all of it, both in every format.
+     *
+     * @param output The output the container is written to
+     * @return The marker to pass to {@link #endContainer(int, DataOutput)}
+     * @throws IOException If the length couldn't be reserved
+     */
+    public int startContainer(DataOutput output) throws IOException {
+        if (output instanceof EbsDataOutput out && out.format().isSized()) {
+            return out.beginLength();
         }
+
+        return -1;
     }
 
-    public EbsElement readFile(File f) throws IOException {
-        try (FileInputStream input = new FileInputStream(f)) {
-            var element = read(input);
-            input.close();
-            return element;
+    /**
+     * Finishes writing a container
+     * @param marker The marker returned by {@link #startContainer(DataOutput)}
+     * @param output The output the container was written to
+     * @throws IOException If the container's length couldn't be filled in
+     * @see #startContainer(DataOutput)
+     */
+    public void endContainer(int marker, DataOutput output) throws IOException {
+        if (marker != -1) {
+            ((EbsDataOutput) output).endLength(marker);
         }
     }
 
-    public void writeFile(EbsElement element, Path path) throws IOException {
-        try (OutputStream output = Files.newOutputStream(path)) {
-            write(element, output);
+    /**
+     * Reads a container's length in bytes, if the input's
+     * format is {@link EbsFormat#isSized()}, the length doesn't
+     * include the 4 bytes of the length itself.
+     * <p>
+     * Container types must call this before reading any of their
+     * data, in every format. If a length is returned, the container
+     * can be skipped with {@link EbsUtil#skipFully(DataInput, int)}.
+     *
+     * @param input The input to read from
+     * @return The read length, or -1, if the format doesn't store lengths
+     * @throws IOException If the length couldn't be read
+     */
+    public int readContainerLength(DataInput input) throws IOException {
+        if (input instanceof EbsDataInput in && in.format().isSized()) {
+            return in.readInt();
         }
+
+        return -1;
     }
 
-    public EbsElement readFile(Path path) throws IOException {
-        try (InputStream input = Files.newInputStream(path)) {
-            var element = read(input);
-            input.close();
-            return element;
+    /**
+     * Reads a byte length from the given input, a 4 byte
+     * integer in the {@link EbsFormat#V1} format, and a var int
+     * in the compact format
+     * @param input The input to read from
+     * @return The read length
+     * @throws IOException If the length couldn't be read
+     */
+    public int readLength(DataInput input) throws IOException {
+        if (input instanceof EbsDataInput in && in.format().isCompact()) {
+            return in.readVarInt();
         }
+
+        return input.readInt();
     }
 
-    /* ----------------------------- TYPE REGISTRATION ------------------------------ */
+    /**
+     * Writes a byte length to the given output
+     * @param length The length to write
+     * @param output The output to write to
+     * @throws IOException If the length couldn't be written
+     * @see #readLength(DataInput)
+     */
+    public void writeLength(int length, DataOutput output) throws IOException {
+        if (output instanceof EbsDataOutput out && out.format().isCompact()) {
+            out.writeVarInt(length);
+        } else {
+            output.writeInt(length);
+        }
+    }
 
     /**
-     * Gets the size of the array
-     * @return The registry's size
+     * Reads a string from the given input.
+     * <p>
+     * In the {@link EbsFormat#V1} format, strings are read with
+     * {@link DataInput#readUTF()}, in the compact format, they're
+     * read with {@link EbsDataInput#readUtf8()}
+     *
+     * @param input The input to read from
+     * @return The read string
+     * @throws IOException If the string couldn't be read
      */
-    public int size() {
-        return size;
+    public String readString(DataInput input) throws IOException {
+        if (input instanceof EbsDataInput in && in.format().isCompact()) {
+            return in.readUtf8();
+        }
+
+        return input.readUTF();
     }
 
     /**
-     * Gets the serialization ID of the given type
-     * @param type The type to get the ID of
-     * @return The type's ID, or -1, if the type is not registered
+     * Skips a string in the given input, without decoding it
+     * @param input The input to skip in
+     * @throws IOException If the string couldn't be skipped
+     * @see #readString(DataInput)
      */
-    public int identifierOf(EbsType type) {
-        TypeEntry entry = entry(type);
-        return entry == null ? -1 : entry.identifier;
+    public void skipString(DataInput input) throws IOException {
+        if (input instanceof EbsDataInput in && in.format().isCompact()) {
+            EbsUtil.skipFully(input, in.readVarInt());
+        } else {
+            EbsUtil.skipFully(input, input.readUnsignedShort());
+        }
     }
 
     /**
-     * Gets the type by the given ID
-     * @param id The ID to get the type of
-     * @return The type, null, if there's no type with the given ID registered.
+     * Writes a string to the given output
+     * @param s The string to write
+     * @param output The output to write to
+     * @throws IOException If the string couldn't be written
+     * @see #readString(DataInput)
      */
-    public EbsType get(int id) {
-        return types[id].type;
+    public void writeString(String s, DataOutput output) throws IOException {
+        if (output instanceof EbsDataOutput out && out.format().isCompact()) {
+            out.writeUtf8(s);
+        } else {
+            output.writeUTF(s);
+        }
     }
 
     /**
-     * Registers the given type
-     * @param type The type to register
-     * @throws IllegalArgumentException If the given type is already registered
+     * Reads a compound key from the given input.
+     * <p>
+     * In the {@link EbsFormat#KEY_TABLE} format, keys are a var int of
+     * their index in the document's key table + 1, so the returned
+     * strings are shared by every compound with the same key. A 0
+     * is followed by a key that isn't in the table. In other formats,
+     * this is the same as {@link #readString(DataInput)}
+     *
+     * @param input The input to read from
+     * @return The read key
+     * @throws IOException If the key couldn't be read, or its index is
+     *                     outside the key table
      */
-    public int register(EbsType type) {
-        TypeEntry entry = entry(type);
+    public String readKey(DataInput input) throws IOException {
+        if (!(input instanceof EbsDataInput in && in.format().hasKeyTable())) {
+            return readString(input);
+        }
+
+        int index = in.readVarInt();
 
-        if (entry != null) {
-            throw new IllegalArgumentException("Type " + type + " is already registered with ID " + entry.identifier);
+        if (index == 0) {
+            return in.readUtf8();
         }
 
-        int placeIndex = size;
-        entry = new TypeEntry(type, placeIndex);
-        size++;
+        String[] table = in.keyTable();
+
+        if (index > table.length) {
+            throw new IOException("Key index " + (index - 1) + " outside key table of size " + table.length);
+        }
 
-        types = ObjectArrays.ensureCapacity(types, size);
-        types[placeIndex] = entry;
-        return placeIndex;
+        return table[index - 1];
     }
 
     /**
-     * Checks if the given type is registered
-     * @param type The type to check
-     * @return True, if the type is registered, false otherwise
+     * Skips a compound key in the given input
+     * @param input The input to skip in
+     * @throws IOException If the key couldn't be skipped
+     * @see #readKey(DataInput)
      */
-    public boolean isRegistered(EbsType type) {
-        return entry(type) != null;
+    public void skipKey(DataInput input) throws IOException {
+        if (!(input instanceof EbsDataInput in && in.format().hasKeyTable())) {
+            skipString(input);
+            return;
+        }
+
+        if (in.readVarInt() == 0) {
+            skipString(input);
+        }
     }
 
-    // Gets an entry for a given type
-    private TypeEntry entry(EbsType type) {
-        // Just run a for loop through the array
-        // to find the entry
-        for (TypeEntry e: types) {
-            if (e == null) {
-                continue;
-            }
+    /**
+     * Writes a compound key to the given output
+     * @param key The key to write
+     * @param output The output to write to
+     * @throws IOException If the key couldn't be written
+     * @see #readKey(DataInput)
+     */
+    public void writeKey(String key, DataOutput output) throws IOException {
+        if (!(output instanceof EbsDataOutput out && out.format().hasKeyTable())) {
+            writeString(key, output);
+            return;
+        }
+
+        int index = out.keyIndex(key);
+        out.writeVarInt(index + 1);
+
+        if (index == -1) {
+            out.writeUtf8(key);
+        }
+    }
+
+    /**
+     * Writes the key table of a document and sets it as the
+     * output's key table, this must directly follow the
+     * format's header. Duplicate keys are only written once.
+     *
+     * @param keys The keys to put into the table
+     * @param output The output to write to
+     * @throws IOException If the table couldn't be written, or if the
+     *                     output's format has no key table
+     * @see #readKey(DataInput)
+     */
+    public void writeKeyTable(Collection<String> keys, DataOutput output) throws IOException {
+        if (!(output instanceof EbsDataOutput out && out.format().hasKeyTable())) {
+            throw new IOException("Output's format has no key table");
+        }
+
+        Set<String> table = keys instanceof ObjectLinkedOpenHashSet<String> set ? set : new ObjectLinkedOpenHashSet<>(keys);
+        out.setKeyTable(table);
+        out.writeVarInt(table.size());
+
+        for (String key: table) {
+            out.writeUtf8(key);
+        }
+    }
+
+    // Reads the key table following the header
+    private static void readKeyTable(EbsDataInput input) throws IOException {
+        int size = input.readVarInt();
+
+        if (size < 0) {
+            throw new IOException("Invalid key table size: " + size);
+        }
+
+        String[] table = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            table[i] = input.readUtf8();
+        }
+
+        input.setKeyTable(table);
+    }
+
+    // Collects every compound key in the given element's tree,
+    // in the order they're first written in
+    private static Set<String> collectKeys(EbsElement element) {
+        Set<String> keys = new ObjectLinkedOpenHashSet<>();
+        collectKeys(element, keys);
 
-            if (e.type.equals(type)) {
-                return e;
+        return keys;
+    }
+
+    // Dispatches on the element's type, as alternating instanceof checks
+    // against interfaces are slow on the many leaf values of a tree
+    private static void collectKeys(EbsElement element, Set<String> keys) {
+        EbsType<?> type = element.getType();
+
+        if (type instanceof EbsCompoundType) {
+            for (var e: ((EbsCompound) element).entrySet()) {
+                keys.add(e.getKey());
+                collectKeys(e.getValue(), keys);
             }
+
+            return;
+        }
+
+        if (!(type instanceof EbsArrayType)) {
+            return;
+        }
+
+        // Arrays of values that can't hold compounds are skipped
+        EbsArray<?> array = (EbsArray<?>) element;
+        EbsType<?> elementType = array.arrayType();
+
+        if (elementType != null && !(elementType instanceof EbsCompoundType) && !(elementType instanceof EbsArrayType)) {
+            return;
+        }
+
+        for (EbsElement e: array) {
+            collectKeys(e, keys);
+        }
+    }
+
+    /**
+     * Reads an element's type from the given buffer.
+     * @param buffer The buffer to read from
+     * @return The read type
+     * @throws IOException If the type could not be read
+     * @throws NullPointerException If the type ID was read, but no matching type was registered
+     * @see #readType(DataInput)
+     */
+    public EbsType<EbsElement> readType(ByteBuffer buffer) throws IOException, NullPointerException {
+        return typeOf(buffer.getInt(EbsUtil.advance(buffer, Integer.BYTES)));
+    }
+
+    private EbsType<EbsElement> typeOf(int id) throws NullPointerException {
+        EbsType type = get(id);
+
+        Objects.requireNonNull(type, "Unknown type ID: " + id);
+        return type;
+    }
+
+    /**
+     * Writes a given type to the given buffer
+     * @param type The type to write
+     * @param buffer The buffer to write to
+     * @throws IOException If the type is not registered in this registry
+     * @see #writeType(EbsType, DataOutput)
+     */
+    public void writeType(EbsType type, ByteBuffer buffer) throws IOException {
+        int id = identifierOf(type);
+
+        if (id == -1) {
+            throw new IOException("Given type " + type + " is not registered");
+        }
+
+        buffer.putInt(EbsUtil.reserve(buffer, Integer.BYTES), id);
+    }
+
+    /**
+     * Writes the given element to the given stream.
+     * <p>
+     * The given stream is wrapped with an {@link EbsDataOutput}, which
+     * buffers all written data in a pooled buffer and hands it to the
+     * stream in large chunks, the stream is not flushed or closed
+     * by this method.
+     * <p>
+     * The element is written in this registry's write format.
+     *
+     * @param element The element to write
+     * @param stream The stream to write to
+     *
+     * @throws IOException If the element cannot be written
+     * @throws NullPointerException If the element, stream or element's type are null
+     *
+     * @see #write(EbsElement, DataOutput)
+     */
+    public void write(EbsElement element, OutputStream stream) throws IOException, NullPointerException {
+        Objects.requireNonNull(element, "Null element");
+        Objects.requireNonNull(stream, "Null stream");
+
+        writeBuffered(element, EbsDataOutput.of(stream, writeFormat));
+    }
+
+    // Writes a whole document to an output with a pooled buffer, which is
+    // closed afterwards, returns the amount of bytes written
+    private long writeBuffered(EbsElement element, EbsDataOutput output) throws IOException {
+        EbsListener listener = this.listener;
+        long start = startTime(listener);
+        long bytes;
+
+        try (output) {
+            writeDocument(element, parallel(output), null);
+            bytes = output.written();
         }
 
-        return null;
+        reportWrite(listener, element, bytes, start, output.format());
+        return bytes;
     }
 
-    private record TypeEntry(EbsType type, int identifier) {}
+    /**
+     * Writes the given element to the given output.
+     * <p>
+     * This uses {@link #writeType(EbsType, DataOutput)} to write the
+     * element's type and then uses the same type to write the element's
+     * data.
+     * <p>
+     * If the output is an {@link EbsDataOutput}, the element is written
+     * in the output's format, starting with the format's header, any
+     * other output is written to in the {@link EbsFormat#V1} format.
+     * This writes a whole document, types writing nested elements
+     * should use {@link #writeType(EbsType, DataOutput)} and
+     * {@link EbsType#write(EbsTypeRegistry, DataOutput, EbsElement)}
+     * instead.
+     *
+     * @param element The element to write
+     * @param output The output to write to
+     *
+     * @throws IOException If the element cannot be written
+     * @throws NullPointerException If the element, output or element's type are null
+     *
+     * @see #writeType(EbsType, DataOutput) for documentation on writing element types
+     */
+    public void write(EbsElement element, DataOutput output) throws IOException, NullPointerException {
+        Objects.requireNonNull(element, "Null element");
+        Objects.requireNonNull(output, "Null output");
+
+        EbsListener listener = this.listener;
+        long start = startTime(listener);
+
+        if (output instanceof EbsDataOutput out) {
+            long before = out.written();
+            writeDocument(element, out, null);
+
+            reportWrite(listener, element, out.written() - before, start, out.format());
+            return;
+        }
+
+        writeDocument(element, output, null);
+        reportWrite(listener, element, -1, start, EbsFormat.V1);
+    }
+
+    // Writes a whole document, keys is the document's key table,
+    // or null, to collect it from the element if the format has one
+    private void writeDocument(EbsElement element, DataOutput output, Set<String> keys) throws IOException {
+        EbsType type = Objects.requireNonNull(element.getType(), "Null type on element");
+
+        if (output instanceof EbsDataOutput out) {
+            out.format().writeHeader(out);
+
+            if (out.format().hasKeyTable()) {
+                writeKeyTable(keys == null ? collectKeys(element) : keys, out);
+            }
+        }
+
+        writeType(type, output);
+        type.write(this, output, element);
+    }
+
+    /**
+     * Reads an element from the given stream.
+     * <p>
+     * The given stream will be wrapped with an {@link EbsDataInput}.
+     * Streams which support {@link InputStream#mark(int)} are read
+     * ahead in large chunks, and moved back to directly after the
+     * read element, other streams are only read as far as needed,
+     * so wrap unbuffered streams in a {@link BufferedInputStream}.
+     * Either way, the stream is left directly after the element.
+     *
+     * @param stream The stream to read from
+     * @return The read element
+     *
+     * @throws IOException If the element cannot be read
+     * @throws NullPointerException If the stream is null, or if the read
+     *                              element's type is not known to this registry
+     *
+     * @see #read(DataInput)
+     */
+    public EbsElement read(InputStream stream) throws IOException, NullPointerException {
+        Objects.requireNonNull(stream, "Null stream");
+        return read(stream, stream.markSupported());
+    }
+
+    // Reads and reports a document from a stream
+    private EbsElement read(InputStream stream, boolean readAhead) throws IOException {
+        EbsListener listener = this.listener;
+        long start = startTime(listener);
+
+        try (EbsDataInput input = EbsDataInput.of(stream, readAhead)) {
+            EbsElement element = readDocument(input);
+            reportRead(listener, element, input.bytesRead(), start, input.format());
+
+            return element;
+        }
+    }
+
+    /**
+     * Reads an element from the given input.
+     * <p>
+     * This method uses {@link #readType(DataInput)} to read the element's
+     * type, then uses the read type to read the element's data
+     * <p>
+     * The data's format is detected from its header. Data in
+     * the compact format can only be read from an {@link EbsDataInput},
+     * whose format is set to the detected one.
+     *
+     * @param input The input to read from
+     * @return The read element
+     *
+     * @throws IOException If the element cannot be read, or if the data
+     *                     is in the compact format and the input is
+     *                     not an {@link EbsDataInput}
+     * @throws NullPointerException If the input is null, or if the read
+     *                              element's type is not known to this registry
+     *
+     * @see #readType(DataInput) for documentation on reading element types
+     */
+    public EbsElement read(DataInput input) throws IOException, NullPointerException {
+        Objects.requireNonNull(input, "Null input");
+
+        EbsListener listener = this.listener;
+        long start = startTime(listener);
+
+        if (input instanceof EbsDataInput in) {
+            long before = in.bytesRead();
+            EbsElement element = readDocument(in);
+
+            reportRead(listener, element, in.bytesRead() - before, start, in.format());
+            return element;
+        }
+
+        EbsElement element = readDocument(input);
+        reportRead(listener, element, -1, start, EbsFormat.V1);
+
+        return element;
+    }
+
+    // Reads a whole document, without reporting it to the listener
+    private EbsElement readDocument(DataInput input) throws IOException {
+        EbsType<EbsElement> type = readRootType(input);
+        return type.read(this, input);
+    }
+
+    /**
+     * Reads the start of a document, the format header, if there
+     * is one, and the type of the document's root element.
+     * <p>
+     * If the input is an {@link EbsDataInput}, its format is
+     * set to the detected format, and its key table to the
+     * document's key table, if the format has one.
+     *
+     * @param input The input to read from
+     * @return The root element's type
+     *
+     * @throws IOException If the header or type cannot be read, or if the data
+     *                     is in the compact format and the input is
+     *                     not an {@link EbsDataInput}
+     * @throws NullPointerException If the root element's type is not known to this registry
+     * @see #read(DataInput)
+     */
+    public EbsType<EbsElement> readRootType(DataInput input) throws IOException, NullPointerException {
+        // V1 data has no header, it starts with the type ID,
+        // which can never be equal to the magic number
+        int first = input.readInt();
+
+        if (first == EbsFormat.MAGIC) {
+            EbsFormat format = EbsFormat.fromFlags(input.readUnsignedByte());
+
+            if (!(input instanceof EbsDataInput in)) {
+                throw new IOException("Compact format data can only be read from an EbsDataInput");
+            }
+
+            in.setFormat(format);
+
+            if (format.hasKeyTable()) {
+                readKeyTable(in);
+            }
+
+            return readType(input);
+        }
+
+        if (input instanceof EbsDataInput in) {
+            in.setFormat(EbsFormat.V1);
+        }
+
+        return typeOf(first);
+    }
+
+    /**
+     * Writes the given element into the given buffer, starting at
+     * the buffer's position. After writing, the buffer's position
+     * will be directly after the written element.
+     * <p>
+     * In the {@link EbsFormat#V1} format, data is written with the types'
+     * {@link ByteBuffer} codecs, without any stream in between, other
+     * formats, and registries with a {@link #setWritePool(ForkJoinPool) write pool},
+     * write through an {@link EbsDataOutput} over the buffer.
+     * Both heap and direct buffers are supported, the buffer's byte
+     * order is ignored, data is always written big endian.
+     * <p>
+     * If the element doesn't fit into the buffer, then a
+     * {@link BufferOverflowException} is thrown, the buffer's
+     * position is left unchanged, but the data after the
+     * position may have been overwritten.
+     *
+     * @param element The element to write
+     * @param buffer The buffer to write to
+     *
+     * @throws IOException If the element cannot be written
+     * @throws NullPointerException If the element, buffer or element's type are null
+     * @throws BufferOverflowException If the element does not fit into the buffer
+     *
+     * @see #encode(EbsElement) to write into a buffer that's sized to fit the element
+     */
+    public void write(EbsElement element, ByteBuffer buffer) throws IOException, NullPointerException, BufferOverflowException {
+        Objects.requireNonNull(buffer, "Null buffer");
+
+        EbsListener listener = this.listener;
+        long start = startTime(listener);
+        EbsFormat format = writeFormat;
+        int position = buffer.position();
+
+        write(element, buffer, format, null);
+        reportWrite(listener, element, buffer.position() - position, start, format);
+    }
+
+    private void write(EbsElement element, ByteBuffer buffer, EbsFormat format, Set<String> keys) throws IOException {
+        Objects.requireNonNull(element, "Null element");
+        Objects.requireNonNull(buffer, "Null buffer");
+
+        EbsType type = Objects.requireNonNull(element.getType(), "Null type on element");
+        ByteBuffer target = bigEndian(buffer);
+        int start = buffer.position();
+
+        try {
+            if (format.isCompact() || writePool != null) {
+                writeDocument(element, parallel(EbsDataOutput.of(target, format)), keys);
+            } else {
+                writeType(type, target);
+                type.write(this, target, element);
+            }
+        } catch (BufferOverflowException e) {
+            buffer.position(start);
+            throw e;
+        }
+
+        buffer.position(target.position());
+    }
+
+    /**
+     * Same as {@link #encode(EbsElement, boolean)} with direct as 'false'
+     * @see #encode(EbsElement, boolean)
+     */
+    public ByteBuffer encode(EbsElement element) throws IOException, NullPointerException {
+        return encode(element, false);
+    }
+
+    /**
+     * Encodes the given element into a newly allocated buffer.
+     * <p>
+     * The element is written with {@link #write(EbsElement, ByteBuffer)},
+     * if the element does not fit into the allocated buffer, then a
+     * buffer of twice the size is allocated and the element is written
+     * again.
+     *
+     * @param element The element to encode
+     * @param direct True, to allocate a direct buffer, false for a heap buffer
+     * @return A buffer with the element's data between its position and limit
+     *
+     * @throws IOException If the element cannot be written
+     * @throws NullPointerException If the element or element's type are null
+     */
+    public ByteBuffer encode(EbsElement element, boolean direct) throws IOException, NullPointerException {
+        EbsListener listener = this.listener;
+        long start = startTime(listener);
+        int capacity = ENCODE_START_SIZE;
+
+        // The key table is collected once, not on every attempt
+        EbsFormat format = writeFormat;
+        Set<String> keys = format.hasKeyTable() ? collectKeys(element) : null;
+
+        // Parts are encoded into separate buffers anyway,
+        // so join them in a growing buffer, instead of retrying
+        if (writePool != null) {
+            EbsDataOutput output = parallel(EbsDataOutput.growable(ENCODE_START_SIZE, format));
+            writeDocument(element, output, keys);
+
+            ByteBuffer data = output.toBuffer();
+            ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(data.remaining()).put(data).flip() : data;
+
+            reportWrite(listener, element, buffer.remaining(), start, format);
+            return buffer;
+        }
+
+        while (true) {
+            ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+
+            try {
+                write(element, buffer, format, keys);
+            } catch (BufferOverflowException e) {
+                if (capacity >= MAX_ENCODE_SIZE) {
+                    throw new IOException("Element too large to encode into a buffer", e);
+                }
+
+                capacity = (int) Math.min((long) capacity * 2, MAX_ENCODE_SIZE);
+                continue;
+            }
+
+            buffer.flip();
+            reportWrite(listener, element, buffer.remaining(), start, format);
+
+            return buffer;
+        }
+    }
+
+    /**
+     * Reads an element from the given buffer, starting at the buffer's
+     * position. After reading, the buffer's position will be directly
+     * after the read element.
+     * <p>
+     * V1 data is read with the types' {@link ByteBuffer} codecs, without
+     * any stream in between, compact data, and any data when there is a
+     * read pool, see {@link #setReadPool(ForkJoinPool, int)}, is read
+     * through an {@link EbsDataInput} over the buffer. Both heap and direct buffers
+     * are supported, the buffer's byte order is ignored, data is always
+     * read big endian.
+     *
+     * @param buffer The buffer to read from
+     * @return The read element
+     *
+     * @throws IOException If the element cannot be read
+     * @throws NullPointerException If the buffer is null, or if the read
+     *                              element's type is not known to this registry
+     * @throws java.nio.BufferUnderflowException If the buffer ends before the element does
+     */
+    public EbsElement read(ByteBuffer buffer) throws IOException, NullPointerException {
+        Objects.requireNonNull(buffer, "Null buffer");
+
+        EbsListener listener = this.listener;
+        long start = startTime(listener);
+
+        ByteBuffer source = bigEndian(buffer);
+        int position = source.position();
+        EbsElement element;
+        EbsFormat format;
+
+        if (readPool != null || source.remaining() >= Integer.BYTES && source.getInt(position) == EbsFormat.MAGIC) {
+            EbsDataInput input = parallel(EbsDataInput.of(source));
+            element = readDocument(input);
+            format = input.format();
+        } else {
+            EbsType<EbsElement> type = readType(source);
+            element = type.read(this, source);
+            format = EbsFormat.V1;
+        }
+
+        buffer.position(source.position());
+        reportRead(listener, element, source.position() - position, start, format);
+
+        return element;
+    }
+
+    /**
+     * Reads an element from the given buffer, decoding compounds lazily.
+     * <p>
+     * Compounds are read as {@link LazyEbsCompound}s, which only
+     * decode their keys up front and decode values from the buffer
+     * when they're first requested. Reading only a few values of a
+     * large document is therefore much faster than with
+     * {@link #read(ByteBuffer)}.
+     * <p>
+     * The returned element keeps a reference to the buffer's contents,
+     * which must not change while the element is in use. After reading,
+     * the buffer's position will be directly after the read element.
+     *
+     * @param buffer The buffer to read from
+     * @return The read element
+     *
+     * @throws IOException If the element cannot be read
+     * @throws NullPointerException If the buffer is null, or if the read
+     *                              element's type is not known to this registry
+     * @see LazyEbsCompound
+     */
+    public EbsElement readLazy(ByteBuffer buffer) throws IOException, NullPointerException {
+        Objects.requireNonNull(buffer, "Null buffer");
+
+        EbsListener listener = this.listener;
+        long start = startTime(listener);
+
+        // Duplicates are always big endian, and keep the lazy
+        // compounds independent of the given buffer's position
+        ByteBuffer source = buffer.duplicate();
+
+        EbsDataInput input = EbsDataInput.of(source);
+        input.setLazy(true);
+
+        EbsElement element = readDocument(input);
+
+        buffer.position(source.position());
+        reportRead(listener, element, input.bytesRead(), start, input.format());
+
+        return element;
+    }
+
+    // The codecs use the buffer's own byte order, so give
+    // them a big endian view if the buffer isn't already
+    private static ByteBuffer bigEndian(ByteBuffer buffer) {
+        return buffer.order() == ByteOrder.BIG_ENDIAN ? buffer : buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+    }
+
+    /** @see #writeFile(EbsElement, Path) */
+    public void writeFile(EbsElement element, File f) throws IOException {
+        writeFile(element, f.toPath());
+    }
+
+    /** @see #readFile(Path) */
+    public EbsElement readFile(File f) throws IOException {
+        return readFile(f.toPath());
+    }
+
+    /**
+     * Writes the given element to the given file, like
+     * {@link #write(EbsElement, OutputStream)}, replacing
+     * the file's contents if it already exists.
+     * <p>
+     * Container lengths of {@link EbsFormat#SIZED} documents are
+     * filled in with positional writes, so sized documents aren't
+     * buffered in memory, see {@link EbsDataOutput#of(FileChannel, EbsFormat)}
+     *
+     * @param element The element to write
+     * @param path The path of the file to write
+     * @throws IOException If the file couldn't be opened or the element couldn't be written
+     */
+    public void writeFile(EbsElement element, Path path) throws IOException {
+        Objects.requireNonNull(element, "Null element");
+
+        EbsWriteFileEvent event = new EbsWriteFileEvent();
+        event.begin();
+
+        long bytes;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            bytes = writeBuffered(element, EbsDataOutput.of(channel, writeFormat));
+        }
+
+        commit(event, path, bytes, writeFormat.toString());
+    }
+
+    /**
+     * Reads an element from the given file with {@link #read(InputStream)}
+     *
+     * @param path The path of the file to read
+     * @return The read element
+     * @throws IOException If the file couldn't be opened or the element couldn't be read
+     * @see #readFileMapped(Path)
+     */
+    public EbsElement readFile(Path path) throws IOException {
+        EbsReadFileEvent event = new EbsReadFileEvent();
+        event.begin();
+
+        EbsElement element;
+        long bytes;
+
+        // Nothing else reads the file, so it can be read ahead
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            element = read(Channels.newInputStream(channel), true);
+            bytes = channel.position();
+        }
+
+        commit(event, path, bytes, "stream");
+        return element;
+    }
+
+    /** @see #readFileMapped(Path) */
+    public EbsElement readFileMapped(File f) throws IOException {
+        return readFileMapped(f.toPath());
+    }
+
+    /**
+     * Reads an element from the given file by memory mapping it,
+     * instead of reading it through a stream.
+     * <p>
+     * Files that fit into a single mapping are decoded directly
+     * from the {@link java.nio.MappedByteBuffer} with
+     * {@link #read(ByteBuffer)}, larger files are mapped in chunks
+     * with {@link EbsDataInput#map(FileChannel)}.
+     * <p>
+     * This is generally the fastest way to load large files,
+     * since file data is never copied into an intermediate buffer.
+     *
+     * @param path The path of the file to read
+     * @return The read element
+     * @throws IOException If the file couldn't be mapped or the element couldn't be read
+     * @see #readFile(Path)
+     */
+    public EbsElement readFileMapped(Path path) throws IOException {
+        EbsReadFileEvent event = new EbsReadFileEvent();
+        event.begin();
+
+        EbsElement element;
+        long size;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            size = channel.size();
+            element = readMapped(channel, size);
+        }
+
+        commit(event, path, size, "mapped");
+        return element;
+    }
+
+    /** @see #readFileLazy(Path) */
+    public EbsElement readFileLazy(File f) throws IOException {
+        return readFileLazy(f.toPath());
+    }
+
+    /**
+     * Reads an element from the given file by memory mapping it, decoding
+     * compounds lazily with {@link #readLazy(ByteBuffer)}.
+     * <p>
+     * The mapping stays valid after this method returns, and is
+     * released once the returned element is garbage collected.
+     * Files larger than 2GB can't be read lazily, those are read
+     * with {@link #readFileMapped(Path)} instead.
+     *
+     * @param path The path of the file to read
+     * @return The read element
+     * @throws IOException If the file couldn't be mapped or the element couldn't be read
+     */
+    public EbsElement readFileLazy(Path path) throws IOException {
+        EbsReadFileEvent event = new EbsReadFileEvent();
+        event.begin();
+
+        EbsElement element;
+        String mode;
+        long size;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            size = channel.size();
+
+            if (size > Integer.MAX_VALUE) {
+                element = readMapped(channel, size);
+                mode = "mapped";
+            } else {
+                element = readLazy(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+                mode = "lazy";
+            }
+        }
+
+        commit(event, path, size, mode);
+        return element;
+    }
+
+    /** @see #writeFileCompressed(EbsElement, Path) */
+    public void writeFileCompressed(EbsElement element, File f) throws IOException {
+        writeFileCompressed(element, f.toPath());
+    }
+
+    /** @see #readFileCompressed(Path) */
+    public EbsElement readFileCompressed(File f) throws IOException {
+        return readFileCompressed(f.toPath());
+    }
+
+    /**
+     * Writes the given element to the given file as a block compressed
+     * container, replacing the file's contents if it already exists.
+     * <p>
+     * The encoded element is cut into blocks which are compressed in
+     * parallel, on the write pool, or the common pool if there is none,
+     * see {@link EbsBlockOutput}. Compressed files must be read with
+     * {@link #readFileCompressed(Path)}.
+     *
+     * @param element The element to write
+     * @param path The path of the file to write
+     * @throws IOException If the file couldn't be opened or the element couldn't be written
+     */
+    public void writeFileCompressed(EbsElement element, Path path) throws IOException {
+        EbsWriteFileEvent event = new EbsWriteFileEvent();
+        event.begin();
+
+        EbsBlockOutput output = EbsBlockOutput.of(Files.newOutputStream(path), blockPool(writePool));
+
+        try (output) {
+            write(element, output);
+        }
+
+        commit(event, path, output.written(), writeFormat + " compressed");
+    }
+
+    /**
+     * Reads an element from a block compressed file written by
+     * {@link #writeFileCompressed(EbsElement, Path)}.
+     * <p>
+     * All blocks are decompressed in parallel, on the read pool, or
+     * the common pool if there is none, into a single buffer which is
+     * then read with {@link #read(ByteBuffer)}. Data too large for a
+     * single buffer, see {@link EbsBlockInput#MAX_BUFFER_SIZE}, is
+     * decompressed and read one block at a time instead.
+     *
+     * @param path The path of the file to read
+     * @return The read element
+     * @throws IOException If the file isn't a block compressed container, or the element couldn't be read
+     */
+    public EbsElement readFileCompressed(Path path) throws IOException {
+        EbsReadFileEvent event = new EbsReadFileEvent();
+        event.begin();
+
+        EbsElement element;
+        long size;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            EbsBlockInput input = EbsBlockInput.open(channel);
+            size = input.fileSize();
+
+            if (input.size() > EbsBlockInput.MAX_BUFFER_SIZE) {
+                // Nothing else reads the stream, so it can be read ahead
+                element = read(new BufferedInputStream(input.stream(0)), true);
+            } else {
+                element = read(input.readAll(blockPool(readPool)));
+            }
+        }
+
+        commit(event, path, size, "compressed");
+        return element;
+    }
+
+    // Blocks are always compressed in parallel, on the common pool if no pool was set
+    private static ForkJoinPool blockPool(ForkJoinPool pool) {
+        return pool == null ? ForkJoinPool.commonPool() : pool;
+    }
+
+    // Reads a whole file, directly from a single mapping if
+    // it fits into one, otherwise window by window
+    private EbsElement readMapped(FileChannel channel, long size) throws IOException {
+        if (size <= Integer.MAX_VALUE) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+
+        try (EbsDataInput input = EbsDataInput.map(channel)) {
+            return read(input);
+        }
+    }
+
+    // Commits a file write event, if a recording wants it, bytes are counted
+    // while writing, so recording never touches the file system again
+    private static void commit(EbsWriteFileEvent event, Path path, long bytes, String format) {
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.path = path.toString();
+            event.bytes = bytes;
+            event.format = format;
+            event.commit();
+        }
+    }
+
+    // Commits a file read event, if a recording wants it
+    private static void commit(EbsReadFileEvent event, Path path, long bytes, String mode) {
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.path = path.toString();
+            event.bytes = bytes;
+            event.mode = mode;
+            event.commit();
+        }
+    }
+
+    /* ----------------------------- FORMAT ------------------------------ */
+
+    /**
+     * Gets the format elements are written in
+     * @return The registry's write format
+     */
+    public EbsFormat getWriteFormat() {
+        return writeFormat;
+    }
+
+    /**
+     * Sets the format elements are written in.
+     * <p>
+     * This only affects writing, data in any format can
+     * always be read.
+     *
+     * @param writeFormat The new write format
+     * @throws NullPointerException If the format is null
+     */
+    public void setWriteFormat(EbsFormat writeFormat) throws NullPointerException {
+        this.writeFormat = Objects.requireNonNull(writeFormat, "Null format");
+    }
+
+    /* ----------------------------- PARALLEL WRITES ------------------------------ */
+
+    /**
+     * Same as {@link #setWritePool(ForkJoinPool, int)} with
+     * the {@link #DEFAULT_SPLIT_SIZE}
+     * @see #setWritePool(ForkJoinPool, int)
+     */
+    public void setWritePool(ForkJoinPool pool) {
+        setWritePool(pool, DEFAULT_SPLIT_SIZE);
+    }
+
+    /**
+     * Sets the pool large documents are encoded on.
+     * <p>
+     * With a pool, compounds and arrays with more than splitSize entries
+     * are split into runs of splitSize entries, which are encoded into
+     * separate buffers on the pool, and written in order. Runs split
+     * their own large containers the same way, number arrays are never
+     * split. The written bytes are exactly the same as when writing
+     * sequentially.
+     * <p>
+     * This applies to {@link #write(EbsElement, OutputStream)},
+     * {@link #write(EbsElement, ByteBuffer)}, {@link #encode(EbsElement)}
+     * and the file methods, an {@link EbsDataOutput} passed to
+     * {@link #write(EbsElement, DataOutput)} is written on its own pool,
+     * see {@link EbsDataOutput#setParallel(ForkJoinPool, int)}.
+     *
+     * @param pool The pool to encode on, null, to write sequentially
+     * @param splitSize The amount of entries per run
+     * @throws IllegalArgumentException If the split size isn't positive
+     */
+    public void setWritePool(ForkJoinPool pool, int splitSize) throws IllegalArgumentException {
+        if (splitSize <= 0) {
+            throw new IllegalArgumentException("Split size must be positive: " + splitSize);
+        }
+
+        this.writeSplitSize = splitSize;
+        this.writePool = pool;
+    }
+
+    /**
+     * Gets the pool large documents are encoded on
+     * @return The registry's write pool, null, if it writes sequentially
+     */
+    public ForkJoinPool getWritePool() {
+        return writePool;
+    }
+
+    // Lets the output encode large containers on the write pool, if there is one
+    private EbsDataOutput parallel(EbsDataOutput output) {
+        ForkJoinPool pool = writePool;
+
+        if (pool != null) {
+            output.setParallel(pool, writeSplitSize);
+        }
+
+        return output;
+    }
+
+    /* ----------------------------- PARALLEL READS ------------------------------ */
+
+    /**
+     * Same as {@link #setReadPool(ForkJoinPool, int)} with
+     * the {@link #DEFAULT_SPLIT_SIZE}
+     * @see #setReadPool(ForkJoinPool, int)
+     */
+    public void setReadPool(ForkJoinPool pool) {
+        setReadPool(pool, DEFAULT_SPLIT_SIZE);
+    }
+
+    /**
+     * Sets the pool large documents are decoded on.
+     * <p>
+     * With a pool, compounds and arrays with more than splitSize entries
+     * are split into runs of splitSize entries. The container is scanned
+     * once, skipping over its entries, to find where each run starts, and
+     * the runs are decoded on the pool, then put into the container in
+     * order. Runs split their own large containers the same way, number
+     * arrays are never split. Skipping is a single jump for containers in
+     * the {@link EbsFormat#SIZED} format, which makes it the best format to
+     * read in parallel, other data has to be walked to find the runs.
+     * <p>
+     * This applies to {@link #read(ByteBuffer)} and {@link #readFileMapped(Path)}
+     * for files that fit into a single mapping. Streams, larger files and lazy
+     * reads are read sequentially. An {@link EbsDataInput} passed to
+     * {@link #read(DataInput)} is read on its own pool, see
+     * {@link EbsDataInput#setParallel(ForkJoinPool, int)}.
+     *
+     * @param pool The pool to decode on, null, to read sequentially
+     * @param splitSize The amount of entries per run
+     * @throws IllegalArgumentException If the split size isn't positive
+     */
+    public void setReadPool(ForkJoinPool pool, int splitSize) throws IllegalArgumentException {
+        if (splitSize <= 0) {
+            throw new IllegalArgumentException("Split size must be positive: " + splitSize);
+        }
+
+        this.readSplitSize = splitSize;
+        this.readPool = pool;
+    }
+
+    /**
+     * Gets the pool large documents are decoded on
+     * @return The registry's read pool, null, if it reads sequentially
+     */
+    public ForkJoinPool getReadPool() {
+        return readPool;
+    }
+
+    // Lets the input decode large containers on the read pool, if there is one
+    private EbsDataInput parallel(EbsDataInput input) {
+        ForkJoinPool pool = readPool;
+
+        if (pool != null) {
+            input.setParallel(pool, readSplitSize);
+        }
+
+        return input;
+    }
+
+    /* ----------------------------- LISTENER ------------------------------ */
+
+    /**
+     * Gets the listener told about this registry's reads and writes
+     * @return The registry's listener, null, if there is none
+     */
+    public EbsListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Sets the listener told about every top-level read and write.
+     * <p>
+     * Without a listener, reading and writing doesn't measure
+     * anything, it only checks whether there is a listener.
+     *
+     * @param listener The new listener, null, to remove the current one
+     * @see EbsMetrics
+     */
+    public void setListener(EbsListener listener) {
+        this.listener = listener;
+    }
+
+    // Gets the time a read or write started at, only
+    // asking for it if there's a listener to tell about it
+    private static long startTime(EbsListener listener) {
+        return listener == null ? 0 : System.nanoTime();
+    }
+
+    private static void reportRead(EbsListener listener, EbsElement element, long bytes, long start, EbsFormat format) {
+        if (listener != null) {
+            listener.onRead(new EbsIoStats(element, bytes, System.nanoTime() - start, format));
+        }
+    }
+
+    private static void reportWrite(EbsListener listener, EbsElement element, long bytes, long start, EbsFormat format) {
+        if (listener != null) {
+            listener.onWrite(new EbsIoStats(element, bytes, System.nanoTime() - start, format));
+        }
+    }
+
+    /* ----------------------------- TYPE REGISTRATION ------------------------------ */
+
+    /**
+     * Gets the size of the array, {@link #BYTES_TYPE_ID} isn't counted
+     * @return The registry's size
+     */
+    public int size() {
+        return table.types.length;
+    }
+
+    /**
+     * Gets the serialization ID of the given type
+     * <p>
+     * Types are looked up by identity, so this is a single hash
+     * lookup, types which aren't found that way are compared with
+     * {@link Object#equals(Object)} against every registered type.
+     *
+     * @param type The type to get the ID of
+     * @return The type's ID, or -1, if the type is not registered
+     */
+    public int identifierOf(EbsType type) {
+        // Blobs aren't in the table, see BYTES_TYPE_ID
+        if (type == EbsBytes.TYPE) {
+            return BYTES_TYPE_ID;
+        }
+
+        return table.identifierOf(type);
+    }
+
+    /**
+     * Gets the type by the given ID
+     * @param id The ID to get the type of
+     * @return The type, null, if there's no type with the given ID registered.
+     */
+    public EbsType get(int id) {
+        EbsType[] types = table.types;
+
+        if (id >= 0 && id < types.length) {
+            return types[id];
+        }
+
+        return id == BYTES_TYPE_ID ? EbsBytes.TYPE : null;
+    }
+
+    /**
+     * Registers the given type
+     * <p>
+     * Registering is synchronized and publishes a new copy of the
+     * registry's types, so types can be looked up by any thread
+     * without locking, while another thread registers types.
+     *
+     * @param type The type to register
+     * @return The ID the type was registered with
+     * @throws NullPointerException If the type is null
+     * @throws IllegalArgumentException If the given type is already registered
+     * @throws IllegalStateException If the registry is frozen, or has no IDs left
+     * @see #freeze()
+     */
+    public synchronized int register(EbsType type)
+            throws NullPointerException, IllegalArgumentException, IllegalStateException
+    {
+        Objects.requireNonNull(type, "Null type");
+
+        if (frozen) {
+            throw new IllegalStateException("Registry is frozen, cannot register " + type);
+        }
+
+        int id = identifierOf(type);
+
+        if (id != -1) {
+            throw new IllegalArgumentException("Type " + type + " is already registered with ID " + id);
+        }
+
+        if (table.types.length == BYTES_TYPE_ID) {
+            throw new IllegalStateException("No type IDs left, cannot register " + type);
+        }
+
+        table = table.with(type);
+        return table.types.length - 1;
+    }
+
+    /**
+     * Checks if the given type is registered
+     * @param type The type to check
+     * @return True, if the type is registered, false otherwise
+     */
+    public boolean isRegistered(EbsType type) {
+        return identifierOf(type) != -1;
+    }
+
+    /**
+     * Freezes this registry, after which no more types can be
+     * registered, so every type keeps its ID for as long as the
+     * registry is used. Lookups are lock free either way, this
+     * only stops the registered types from changing.
+     * <p>
+     * Freezing an already frozen registry does nothing.
+     *
+     * @return This registry
+     */
+    public synchronized EbsTypeRegistry freeze() {
+        frozen = true;
+        return this;
+    }
+
+    /**
+     * Checks if this registry is frozen
+     * @return True, if no more types can be registered, false otherwise
+     * @see #freeze()
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * An immutable snapshot of the registered types, which is replaced
+     * as a whole when a type is registered
+     */
+    private static final class TypeTable {
+        /** Types by ID */
+        final EbsType[] types;
+
+        /** IDs by type identity */
+        final Reference2IntOpenHashMap<EbsType> identifiers;
+
+        TypeTable(EbsType[] types, Reference2IntOpenHashMap<EbsType> identifiers) {
+            this.types = types;
+            this.identifiers = identifiers;
+
+            identifiers.defaultReturnValue(-1);
+        }
+
+        static TypeTable of(EbsType[] types) {
+            Reference2IntOpenHashMap<EbsType> identifiers = new Reference2IntOpenHashMap<>(types.length);
+
+            for (int i = 0; i < types.length; i++) {
+                identifiers.put(types[i], i);
+            }
+
+            return new TypeTable(types.clone(), identifiers);
+        }
+
+        int identifierOf(EbsType type) {
+            int id = identifiers.getInt(type);
+
+            if (id != -1 || type == null) {
+                return id;
+            }
+
+            // Types that are only equal to a registered one
+            for (int i = 0; i < types.length; i++) {
+                if (types[i].equals(type)) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        TypeTable with(EbsType type) {
+            EbsType[] newTypes = Arrays.copyOf(types, types.length + 1);
+            newTypes[types.length] = type;
+
+            Reference2IntOpenHashMap<EbsType> newIdentifiers = new Reference2IntOpenHashMap<>(identifiers);
+            newIdentifiers.put(type, types.length);
+
+            return new TypeTable(newTypes, newIdentifiers);
+        }
+    }
 }
\ No newline at end of file
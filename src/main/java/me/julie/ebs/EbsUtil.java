@@ -1,6 +1,386 @@
 package me.julie.ebs;
 
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 public final class EbsUtil {
     private EbsUtil() {}
 
-}
\ No newline at end of file
+    /** The longest string, in encoded bytes, {@link java.io.DataOutput#writeUTF(String)} accepts */
+    public static final int MAX_UTF_LENGTH = 0xFFFF;
+
+    /* ----------------------------- BYTE BUFFERS ------------------------------ */
+
+    // The ByteBuffer codecs read and write with absolute gets and puts,
+    // these 2 methods claim the bytes for those up front, so a value
+    // only costs a single bounds check and position update
+
+    /**
+     * Moves the given buffer's position forward by the given
+     * amount of bytes, so they can be read with absolute gets
+     * @param buffer The buffer to read from
+     * @param bytes The amount of bytes that will be read
+     * @return The position the bytes start at
+     * @throws BufferUnderflowException If the buffer has less than the given amount of bytes remaining
+     */
+    public static int advance(ByteBuffer buffer, int bytes) throws BufferUnderflowException {
+        int position = buffer.position();
+
+        if (buffer.limit() - position < bytes) {
+            throw new BufferUnderflowException();
+        }
+
+        buffer.position(position + bytes);
+        return position;
+    }
+
+    /**
+     * Moves the given buffer's position forward by the given
+     * amount of bytes, so they can be written with absolute puts
+     * @param buffer The buffer to write to
+     * @param bytes The amount of bytes that will be written
+     * @return The position the bytes start at
+     * @throws BufferOverflowException If the buffer has less than the given amount of bytes remaining
+     */
+    public static int reserve(ByteBuffer buffer, int bytes) throws BufferOverflowException {
+        int position = buffer.position();
+
+        if (buffer.limit() - position < bytes) {
+            throw new BufferOverflowException();
+        }
+
+        buffer.position(position + bytes);
+        return position;
+    }
+
+    /**
+     * Skips exactly the given amount of bytes in the given input,
+     * unlike {@link DataInput#skipBytes(int)}, which may skip less
+     * @param input The input to skip in
+     * @param bytes The amount of bytes to skip
+     * @throws IOException If the input ends before all bytes were skipped
+     */
+    public static void skipFully(DataInput input, int bytes) throws IOException {
+        while (bytes > 0) {
+            int skipped = input.skipBytes(bytes);
+
+            if (skipped <= 0) {
+                // Either the end of the input, or an input that
+                // refuses to skip, a read tells us which
+                input.readByte();
+                skipped = 1;
+            }
+
+            bytes -= skipped;
+        }
+    }
+
+    /* ----------------------------- VAR INTS ------------------------------ */
+
+    /** The most bytes a var int can take up */
+    public static final int MAX_VAR_INT_BYTES = 5;
+
+    /**
+     * Gets the amount of bytes the given value takes up
+     * as an unsigned LEB128 var int
+     * @param value The value to measure
+     * @return The value's encoded length, 1 to {@link #MAX_VAR_INT_BYTES}
+     */
+    public static int varIntSize(int value) {
+        // Every 7 significant bits take up a byte,
+        // 0 still takes up a single byte
+        return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
+    /* ----------------------------- MODIFIED UTF-8 ------------------------------ */
+
+    // These mirror DataOutputStream.writeUTF and DataInputStream.readUTF
+    // but work on raw byte arrays, so the buffered IO classes can encode
+    // and decode strings without going through a stream
+
+    /**
+     * Gets the amount of bytes the given string takes up
+     * in the modified UTF-8 format
+     * @param s The string to measure
+     * @return The string's encoded length, not including the 2 length bytes
+     */
+    public static int modifiedUtfLength(String s) {
+        int length = s.length();
+        int utfLength = length;
+
+        for (int i = 0; i < length; i++) {
+            int c = s.charAt(i);
+
+            if (c >= 0x80 || c == 0) {
+                utfLength += c >= 0x800 ? 2 : 1;
+            }
+        }
+
+        return utfLength;
+    }
+
+    /**
+     * Encodes the given string into modified UTF-8.
+     * <p>
+     * The destination array must have at least
+     * {@link #modifiedUtfLength(String)} bytes of room
+     * after the given offset
+     *
+     * @param s The string to encode
+     * @param dest The array to write to
+     * @param offset The index to start writing at
+     * @return The index after the last written byte
+     */
+    public static int encodeModifiedUtf(String s, byte[] dest, int offset) {
+        int length = s.length();
+        int i = 0;
+
+        // ASCII fast path
+        for (; i < length; i++) {
+            int c = s.charAt(i);
+
+            if (c >= 0x80 || c == 0) {
+                break;
+            }
+
+            dest[offset++] = (byte) c;
+        }
+
+        for (; i < length; i++) {
+            int c = s.charAt(i);
+
+            if (c < 0x80 && c != 0) {
+                dest[offset++] = (byte) c;
+            } else if (c >= 0x800) {
+                dest[offset++] = (byte) (0xE0 | ((c >> 12) & 0x0F));
+                dest[offset++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                dest[offset++] = (byte) (0x80 | (c & 0x3F));
+            } else {
+                dest[offset++] = (byte) (0xC0 | ((c >> 6) & 0x1F));
+                dest[offset++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+        return offset;
+    }
+
+    /**
+     * Decodes a modified UTF-8 string
+     * @param src The array to read from
+     * @param offset The index of the first byte of the string
+     * @param length The encoded length of the string
+     * @return The decoded string
+     * @throws UTFDataFormatException If the bytes are not valid modified UTF-8
+     */
+    public static String decodeModifiedUtf(byte[] src, int offset, int length) throws UTFDataFormatException {
+        int end = offset + length;
+        int i = offset;
+
+        while (i < end && src[i] >= 0) {
+            i++;
+        }
+
+        // Pure ASCII, let the String constructor copy it
+        // straight into a compact Latin-1 string
+        if (i == end) {
+            return new String(src, offset, length, StandardCharsets.ISO_8859_1);
+        }
+
+        char[] chars = new char[length];
+        int count = 0;
+
+        for (int j = offset; j < i; j++) {
+            chars[count++] = (char) src[j];
+        }
+
+        while (i < end) {
+            int c = src[i] & 0xFF;
+
+            switch (c >> 4) {
+                case 0, 1, 2, 3, 4, 5, 6, 7 -> {
+                    chars[count++] = (char) c;
+                    i++;
+                }
+
+                case 12, 13 -> {
+                    if (i + 2 > end) {
+                        throw new UTFDataFormatException("malformed input: partial character at end");
+                    }
+
+                    int c2 = src[i + 1];
+
+                    if ((c2 & 0xC0) != 0x80) {
+                        throw new UTFDataFormatException("malformed input around byte " + (i - offset));
+                    }
+
+                    chars[count++] = (char) (((c & 0x1F) << 6) | (c2 & 0x3F));
+                    i += 2;
+                }
+
+                case 14 -> {
+                    if (i + 3 > end) {
+                        throw new UTFDataFormatException("malformed input: partial character at end");
+                    }
+
+                    int c2 = src[i + 1];
+                    int c3 = src[i + 2];
+
+                    if ((c2 & 0xC0) != 0x80 || (c3 & 0xC0) != 0x80) {
+                        throw new UTFDataFormatException("malformed input around byte " + (i - offset));
+                    }
+
+                    chars[count++] = (char) (((c & 0x0F) << 12) | ((c2 & 0x3F) << 6) | (c3 & 0x3F));
+                    i += 3;
+                }
+
+                default -> throw new UTFDataFormatException("malformed input around byte " + (i - offset));
+            }
+        }
+
+        return new String(chars, 0, count);
+    }
+
+    /**
+     * Writes a string to the given buffer in the same format as
+     * {@link java.io.DataOutput#writeUTF(String)}
+     * @param buffer The buffer to write to
+     * @param s The string to write
+     * @throws UTFDataFormatException If the encoded string is longer than {@link #MAX_UTF_LENGTH}
+     * @throws BufferOverflowException If the string doesn't fit into the buffer
+     */
+    public static void writeModifiedUtf(ByteBuffer buffer, String s) throws UTFDataFormatException {
+        int utfLength = modifiedUtfLength(s);
+
+        if (utfLength > MAX_UTF_LENGTH) {
+            throw new UTFDataFormatException("encoded string too long: " + utfLength + " bytes");
+        }
+
+        int position = reserve(buffer, Short.BYTES + utfLength);
+        buffer.putShort(position, (short) utfLength);
+
+        if (buffer.hasArray()) {
+            encodeModifiedUtf(s, buffer.array(), buffer.arrayOffset() + position + Short.BYTES);
+        } else {
+            byte[] bytes = new byte[utfLength];
+            encodeModifiedUtf(s, bytes, 0);
+
+            buffer.put(position + Short.BYTES, bytes);
+        }
+    }
+
+    /**
+     * Reads a string from the given buffer in the same format as
+     * {@link java.io.DataInput#readUTF()}
+     * @param buffer The buffer to read from
+     * @return The read string
+     * @throws UTFDataFormatException If the bytes are not valid modified UTF-8
+     * @throws BufferUnderflowException If the buffer ends before the string does
+     */
+    public static String readModifiedUtf(ByteBuffer buffer) throws UTFDataFormatException {
+        int length = buffer.getShort(advance(buffer, Short.BYTES)) & 0xFFFF;
+        int position = advance(buffer, length);
+
+        if (buffer.hasArray()) {
+            return decodeModifiedUtf(buffer.array(), buffer.arrayOffset() + position, length);
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(position, bytes);
+
+        return decodeModifiedUtf(bytes, 0, length);
+    }
+
+    /* ----------------------------- UTF-8 ------------------------------ */
+
+    // Standard UTF-8, as used by the compact format. Unpaired surrogates
+    // are encoded as '?', the same as String.getBytes(UTF_8) does
+
+    /**
+     * Gets the amount of bytes the given string takes up in UTF-8
+     * @param s The string to measure
+     * @return The string's encoded length
+     */
+    public static int utf8Length(String s) {
+        int length = s.length();
+        int utfLength = length;
+
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+
+            if (c < 0x80) {
+                continue;
+            }
+
+            if (c < 0x800) {
+                utfLength++;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                // 2 chars, 4 bytes
+                utfLength += 2;
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                utfLength += 2;
+            }
+        }
+
+        return utfLength;
+    }
+
+    /**
+     * Encodes the given string into UTF-8.
+     * <p>
+     * The destination array must have at least
+     * {@link #utf8Length(String)} bytes of room
+     * after the given offset
+     *
+     * @param s The string to encode
+     * @param dest The array to write to
+     * @param offset The index to start writing at
+     * @return The index after the last written byte
+     */
+    public static int encodeUtf8(String s, byte[] dest, int offset) {
+        int length = s.length();
+        int i = 0;
+
+        // ASCII fast path
+        for (; i < length; i++) {
+            char c = s.charAt(i);
+
+            if (c >= 0x80) {
+                break;
+            }
+
+            dest[offset++] = (byte) c;
+        }
+
+        for (; i < length; i++) {
+            char c = s.charAt(i);
+
+            if (c < 0x80) {
+                dest[offset++] = (byte) c;
+            } else if (c < 0x800) {
+                dest[offset++] = (byte) (0xC0 | (c >> 6));
+                dest[offset++] = (byte) (0x80 | (c & 0x3F));
+            } else if (!Character.isSurrogate(c)) {
+                dest[offset++] = (byte) (0xE0 | (c >> 12));
+                dest[offset++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                dest[offset++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+
+                dest[offset++] = (byte) (0xF0 | (cp >> 18));
+                dest[offset++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                dest[offset++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                dest[offset++] = (byte) (0x80 | (cp & 0x3F));
+            } else {
+                dest[offset++] = '?';
+            }
+        }
+
+        return offset;
+    }
+}
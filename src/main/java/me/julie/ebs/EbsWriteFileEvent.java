@@ -0,0 +1,29 @@
+package me.julie.ebs;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for writing a file with one of the
+ * {@link EbsTypeRegistry} file methods, only committed while
+ * the event is enabled in a running recording
+ */
+@Name("me.julie.ebs.WriteFile")
+@Label("EBS File Write")
+@Category("EBS")
+@Description("Writing an element to a file")
+final class EbsWriteFileEvent extends Event {
+    @Label("Path")
+    String path;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Format")
+    String format;
+}
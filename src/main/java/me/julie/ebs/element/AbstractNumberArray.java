@@ -0,0 +1,67 @@
+package me.julie.ebs.element;
+
+import me.julie.ebs.type.EbsArrayType;
+import me.julie.ebs.type.EbsNumberType;
+import me.julie.ebs.type.EbsType;
+import me.julie.ebs.visitor.EbsVisitor;
+import me.julie.ebs.visitor.StringEbsVisitor;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Base class for number arrays which store their values in a
+ * primitive fastutil list, instead of as {@link EbsNumber} elements.
+ * <p>
+ * List style access, like {@link #get(int)} or iterating, creates a
+ * new {@link EbsNumber} for every value accessed, while the primitive
+ * methods of each implementation work on the values directly.
+ * <p>
+ * Just like with other arrays, elements of the wrong type are
+ * ignored when added.
+ */
+abstract class AbstractNumberArray extends AbstractList<EbsNumber> implements EbsArray<EbsNumber>, RandomAccess {
+
+    @Override
+    public abstract EbsNumberType arrayType();
+
+    @Override
+    public EbsType<EbsArray> getType() {
+        return EbsArrayType.getInstance();
+    }
+
+    @Override
+    public abstract AbstractNumberArray clone();
+
+    @Override
+    public EbsArray<EbsNumber> deepClone() {
+        // Values are primitives, so a copy is already deep
+        return clone();
+    }
+
+    @Override
+    public EbsArray<EbsNumber> merge(EbsArray<EbsNumber> other) {
+        addAll(other);
+        return this;
+    }
+
+    @Override
+    public void accept(EbsVisitor visitor) {
+        visitor.visitArray(this);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) != -1;
+    }
+
+    // Checks if the given object is a number this array can store
+    boolean isCorrectType(Object o) {
+        return o instanceof EbsNumber n && n.getType() == arrayType();
+    }
+
+    @Override
+    public String toString() {
+        return new StringEbsVisitor().visit(getClass().getSimpleName(), this);
+    }
+}
@@ -8,6 +8,7 @@ import me.julie.ebs.type.EbsType;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
@@ -295,6 +296,19 @@ public interface CompoundGetter {
         return element == null ? def : ((EbsUUID) element).value();
     }
 
+    /**
+     * Gets the bytes of a byte blob
+     * @param name The name of the element
+     * @return A read-only view of the blob's bytes, null,
+     *         if the element doesn't exist or isn't a blob
+     * @see EbsBytes#value()
+     */
+    @Nullable
+    default ByteBuffer getBytes(@Nonnull String name) {
+        EbsElement element = get(name, EbsBytes.TYPE);
+        return element == null ? null : ((EbsBytes) element).value();
+    }
+
     /**
      * Gets an array element
      *
@@ -336,7 +350,9 @@ public interface CompoundGetter {
      * @param name The name of the array
      *
      * @return The found array, null, if the
-     *         element doesn't exist or isn't an int array
+     *         element doesn't exist or isn't an int array.
+     *         The array is a copy, use {@link EbsIntArray#values()}
+     *         to access an array's values without copying them
      */
     @Nullable
     default int[] getIntArray(@Nonnull String name) {
@@ -349,7 +365,9 @@ public interface CompoundGetter {
      * @param name The name of the array
      *
      * @return The found array, null, if the
-     *         element doesn't exist or isn't a long array
+     *         element doesn't exist or isn't a long array.
+     *         The array is a copy, use {@link EbsLongArray#values()}
+     *         to access an array's values without copying them
      */
     @Nullable
     default long[] getLongArray(@Nonnull String name) {
@@ -362,7 +380,9 @@ public interface CompoundGetter {
      * @param name The name of the array
      *
      * @return The found array, null, if the
-     *         element doesn't exist or isn't a double array
+     *         element doesn't exist or isn't a double array.
+     *         The array is a copy, use {@link EbsDoubleArray#values()}
+     *         to access an array's values without copying them
      */
     @Nullable
     default double[] getDoubleArray(@Nonnull String name) {
@@ -375,7 +395,9 @@ public interface CompoundGetter {
      * @param name The name of the array
      *
      * @return The found array, null, if the
-     *         element doesn't exist or isn't a float array
+     *         element doesn't exist or isn't a float array.
+     *         The array is a copy, use {@link EbsFloatArray#values()}
+     *         to access an array's values without copying them
      */
     @Nullable
     default float[] getFloatArray(@Nonnull String name) {
@@ -388,7 +410,9 @@ public interface CompoundGetter {
      * @param name The name of the array
      *
      * @return The found array, null, if the
-     *         element doesn't exist or isn't a byte array
+     *         element doesn't exist or isn't a byte array.
+     *         The array is a copy, use {@link EbsByteArray#values()}
+     *         to access an array's values without copying them
      */
     @Nullable
     default byte[] getByteArray(@Nonnull String name) {
@@ -401,7 +425,9 @@ public interface CompoundGetter {
      * @param name The name of the array
      *
      * @return The found array, null, if the
-     *         element doesn't exist or isn't a short array
+     *         element doesn't exist or isn't a short array.
+     *         The array is a copy, use {@link EbsShortArray#values()}
+     *         to access an array's values without copying them
      */
     @Nullable
     default short[] getShortArray(@Nonnull String name) {
@@ -31,7 +31,7 @@ public interface CompoundSetter extends CompoundGetter {
      * @param val The value of the element
      */
     default void putString(@Nonnull String name, @Nonnull String val) {
-        put(name, new EbsString(val));
+        put(name, EbsElements.of(val));
     }
 
     /**
@@ -43,6 +43,15 @@ public interface CompoundSetter extends CompoundGetter {
         put(name, new EbsUUID(val));
     }
 
+    /**
+     * Puts a byte blob into this compound, the bytes are copied
+     * @param name The name of the element
+     * @param val The value of the element
+     */
+    default void putBytes(@Nonnull String name, @Nonnull byte[] val) {
+        put(name, EbsElements.of(val));
+    }
+
     /**
      * Puts a boolean into this compound
      * @param name The name of the element
@@ -122,7 +131,7 @@ public interface CompoundSetter extends CompoundGetter {
      * @param val The value of the element
      */
     default void putStringList(@Nonnull String name, @Nonnull Collection<String> val) {
-        put(name, EbsElements.fromPrimitive(val, EbsString::new, EbsString.TYPE));
+        put(name, EbsElements.fromPrimitive(val, EbsElements::of, EbsString.TYPE));
     }
 
     /**
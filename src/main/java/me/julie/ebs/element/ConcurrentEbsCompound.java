@@ -0,0 +1,182 @@
+package me.julie.ebs.element;
+
+import me.julie.ebs.type.EbsCompoundType;
+import me.julie.ebs.type.EbsType;
+import me.julie.ebs.visitor.EbsVisitor;
+import me.julie.ebs.visitor.StringEbsVisitor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A compound that can be read and modified by multiple threads
+ * at once, without any external locking.
+ * <p>
+ * Entries are kept in a {@link ConcurrentHashMap}, so reads never
+ * lock, and writes only lock the single hash bin they change. The
+ * entry set, key set and values iterate with weak consistency, they
+ * never throw a {@link java.util.ConcurrentModificationException}
+ * and see every entry that existed when iteration started and wasn't
+ * removed since, changes made while iterating may or may not be seen.
+ * <p>
+ * When written, the compound is written as a {@link #snapshot()}
+ * of its entries, so it can be serialized while other threads
+ * keep modifying it, the written data is always a valid compound.
+ * <p>
+ * The compound only makes its own entry map thread safe, elements
+ * placed into it, such as nested compounds, must be thread safe
+ * themselves if they're shared.
+ *
+ * @see EbsElements#newConcurrentCompound()
+ */
+public final class ConcurrentEbsCompound implements EbsCompound {
+    private final ConcurrentHashMap<String, EbsElement> entries;
+
+    ConcurrentEbsCompound(int size) {
+        entries = new ConcurrentHashMap<>(size);
+    }
+
+    @Override
+    public void accept(EbsVisitor visitor) {
+        visitor.visitCompound(this);
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public EbsElement get(@Nonnull String name) {
+        return entries.get(Objects.requireNonNull(name, "get(String) called, name null"));
+    }
+
+    @Override
+    public void put(@Nonnull String name, @Nonnull EbsElement element) {
+        entries.put(
+                Objects.requireNonNull(name, "put(String, EbsElement) called, name null"),
+                Objects.requireNonNull(element, "Given element cannot be null")
+        );
+    }
+
+    /**
+     * Atomically places the element into this compound,
+     * if there's no entry with the given name yet
+     * @param name The name of the entry
+     * @param element The element to place
+     * @return The existing element, or null, if the element was placed
+     */
+    public @Nullable EbsElement putIfAbsent(@Nonnull String name, @Nonnull EbsElement element) {
+        return entries.putIfAbsent(
+                Objects.requireNonNull(name, "putIfAbsent(String, EbsElement) called, name null"),
+                Objects.requireNonNull(element, "Given element cannot be null")
+        );
+    }
+
+    /**
+     * Atomically replaces an entry's element, if it's
+     * currently the expected element
+     * @param name The name of the entry
+     * @param expected The element the entry must currently hold
+     * @param element The element to replace it with
+     * @return True, if the element was replaced, false otherwise
+     */
+    public boolean replace(@Nonnull String name, @Nonnull EbsElement expected, @Nonnull EbsElement element) {
+        return entries.replace(
+                Objects.requireNonNull(name, "replace(String, EbsElement, EbsElement) called, name null"),
+                Objects.requireNonNull(expected, "Expected element cannot be null"),
+                Objects.requireNonNull(element, "Given element cannot be null")
+        );
+    }
+
+    @Override
+    public void putAll(@Nonnull EbsCompound compound) {
+        for (Map.Entry<String, EbsElement> e: compound.entrySet()) {
+            put(e.getKey(), e.getValue());
+        }
+    }
+
+    @Override
+    public void remove(@Nonnull String name) {
+        entries.remove(Objects.requireNonNull(name, "remove(String) called, name null"));
+    }
+
+    @Override
+    public Set<Map.Entry<String, EbsElement>> entrySet() {
+        return entries.entrySet();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return entries.keySet();
+    }
+
+    @Override
+    public Collection<EbsElement> values() {
+        return entries.values();
+    }
+
+    /**
+     * Copies this compound's entries into an immutable list, which
+     * doesn't change when the compound is modified afterwards.
+     * <p>
+     * Like iteration, the snapshot is weakly consistent, it's not
+     * a copy of the compound at a single point in time if other
+     * threads modify it meanwhile, but each entry is consistent
+     * and the list's size always matches its entries.
+     *
+     * @return The compound's entries
+     */
+    public List<Map.Entry<String, EbsElement>> snapshot() {
+        List<Map.Entry<String, EbsElement>> result = new ArrayList<>(entries.size());
+
+        for (Map.Entry<String, EbsElement> e: entries.entrySet()) {
+            result.add(Map.entry(e.getKey(), e.getValue()));
+        }
+
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public EbsType<EbsCompound> getType() {
+        return EbsCompoundType.getInstance();
+    }
+
+    @Override
+    public EbsCompound clone() {
+        ConcurrentEbsCompound result = new ConcurrentEbsCompound(entries.size());
+        result.entries.putAll(entries);
+
+        return result;
+    }
+
+    @Override
+    public EbsCompound deepClone() {
+        ConcurrentEbsCompound result = new ConcurrentEbsCompound(entries.size());
+
+        for (Map.Entry<String, EbsElement> e: entrySet()) {
+            EbsElement value = EbsElements.deepClone(e.getValue());
+            result.put(e.getKey(), value);
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return new StringEbsVisitor()
+                .visit(getClass().getSimpleName(), this);
+    }
+}
@@ -9,6 +9,8 @@ import me.julie.ebs.visitor.StringEbsVisitor;
 import java.util.Objects;
 
 class EbsArrayImpl<T extends EbsElement> extends ObjectArrayList<T> implements EbsArray<T> {
+    private static final long serialVersionUID = 1L;
+
     private EbsType<T> arrayType;
 
     public EbsArrayImpl(int capacity, EbsType<T> arrayType) {
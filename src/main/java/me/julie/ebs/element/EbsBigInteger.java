@@ -0,0 +1,63 @@
+package me.julie.ebs.element;
+
+import me.julie.ebs.type.EbsNumberType;
+
+import java.math.BigInteger;
+
+/**
+ * A big integer number
+ */
+public final class EbsBigInteger extends EbsNumber {
+    private static final long serialVersionUID = 1L;
+
+    private final BigInteger value;
+
+    EbsBigInteger(BigInteger value) {
+        this.value = value;
+    }
+
+    @Override
+    public BigInteger value() {
+        return value;
+    }
+
+    @Override
+    public EbsNumberType getType() {
+        return EbsNumberType.BIG_INTEGER;
+    }
+
+    @Override
+    public int intValue() {
+        return value.intValue();
+    }
+
+    @Override
+    public long longValue() {
+        return value.longValue();
+    }
+
+    @Override
+    public float floatValue() {
+        return value.floatValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        return value.doubleValue();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof EbsBigInteger other && value.equals(other.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return value.toString();
+    }
+}
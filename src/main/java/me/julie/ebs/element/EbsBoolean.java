@@ -1,12 +1,14 @@
 package me.julie.ebs.element;
 
 import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.EbsUtil;
 import me.julie.ebs.type.EbsType;
 import me.julie.ebs.visitor.EbsVisitor;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public class EbsBoolean extends AbstractValuedElement<Boolean> {
     public static final EbsType<EbsBoolean> TYPE = new EbsType<>() {
@@ -19,6 +21,16 @@ public class EbsBoolean extends AbstractValuedElement<Boolean> {
         public void write(EbsTypeRegistry registry, DataOutput output, EbsBoolean val) throws IOException {
             output.writeBoolean(val.value());
         }
+
+        @Override
+        public EbsBoolean read(EbsTypeRegistry registry, ByteBuffer buffer) {
+            return EbsElements.of(buffer.get(EbsUtil.advance(buffer, 1)) != 0);
+        }
+
+        @Override
+        public void write(EbsTypeRegistry registry, ByteBuffer buffer, EbsBoolean val) {
+            buffer.put(EbsUtil.reserve(buffer, 1), EbsElements.boolToByte(val.value()));
+        }
     };
 
     public static final EbsBoolean TRUE = new EbsBoolean(true);
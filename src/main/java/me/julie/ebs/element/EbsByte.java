@@ -0,0 +1,71 @@
+package me.julie.ebs.element;
+
+import me.julie.ebs.type.EbsNumberType;
+
+/**
+ * A byte number, stored as a primitive
+ */
+public final class EbsByte extends EbsNumber {
+    private static final long serialVersionUID = 1L;
+
+    private final byte value;
+
+    EbsByte(byte value) {
+        this.value = value;
+    }
+
+    @Override
+    public Byte value() {
+        return value;
+    }
+
+    @Override
+    public EbsNumberType getType() {
+        return EbsNumberType.BYTE;
+    }
+
+    @Override
+    public int intValue() {
+        return value;
+    }
+
+    @Override
+    public long longValue() {
+        return value;
+    }
+
+    @Override
+    public float floatValue() {
+        return value;
+    }
+
+    @Override
+    public double doubleValue() {
+        return value;
+    }
+
+    @Override
+    public byte byteValue() {
+        return value;
+    }
+
+    @Override
+    public short shortValue() {
+        return (short) value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof EbsByte other && value == other.value;
+    }
+
+    @Override
+    public int hashCode() {
+        return Byte.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+        return Byte.toString(value);
+    }
+}
@@ -0,0 +1,168 @@
+package me.julie.ebs.element;
+
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
+import it.unimi.dsi.fastutil.bytes.ByteConsumer;
+import me.julie.ebs.type.EbsNumberType;
+
+/**
+ * A byte array, which stores its values in a {@link ByteArrayList}
+ * @see AbstractNumberArray
+ */
+public final class EbsByteArray extends AbstractNumberArray {
+    private final ByteArrayList values;
+
+    private EbsByteArray(ByteArrayList values) {
+        this.values = values;
+    }
+
+    /**
+     * Creates an empty array
+     * @param capacity The amount of values the array has room for initially
+     */
+    public EbsByteArray(int capacity) {
+        this(new ByteArrayList(capacity));
+    }
+
+    /**
+     * Creates an array which uses the given array as its
+     * storage, changes to either are visible in both
+     * @param values The values of the array
+     * @return The created array
+     */
+    public static EbsByteArray wrap(byte[] values) {
+        return new EbsByteArray(ByteArrayList.wrap(values));
+    }
+
+    /**
+     * Gets the list storing this array's values,
+     * changes to the list are changes to this array
+     * @return This array's values
+     */
+    public ByteArrayList values() {
+        return values;
+    }
+
+    /**
+     * Gets a value, without creating an element for it
+     * @param index The index of the value
+     * @return The value
+     */
+    public byte getByte(int index) {
+        return values.getByte(index);
+    }
+
+    /**
+     * Sets a value
+     * @param index The index of the value
+     * @param value The new value
+     * @return The value that was replaced
+     */
+    public byte setByte(int index, byte value) {
+        return values.set(index, value);
+    }
+
+    /**
+     * Adds a value to the end of this array
+     * @param value The value to add
+     */
+    public void addByte(byte value) {
+        values.add(value);
+    }
+
+    /**
+     * Performs the given action for each value, in order
+     * @param action The action to perform
+     */
+    public void forEachByte(ByteConsumer action) {
+        values.forEach(action);
+    }
+
+    /**
+     * Copies this array's values into a new array
+     * @return The copied values
+     */
+    public byte[] toByteArray() {
+        return values.toByteArray();
+    }
+
+    @Override
+    public EbsNumberType arrayType() {
+        return EbsNumberType.BYTE;
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+
+    @Override
+    public EbsNumber get(int index) {
+        return EbsElements.of(values.getByte(index));
+    }
+
+    @Override
+    public EbsNumber set(int index, EbsNumber element) {
+        if (!isCorrectType(element)) {
+            return null;
+        }
+
+        return EbsElements.of(values.set(index, element.byteValue()));
+    }
+
+    @Override
+    public boolean add(EbsNumber element) {
+        if (!isCorrectType(element)) {
+            return false;
+        }
+
+        return values.add(element.byteValue());
+    }
+
+    @Override
+    public void add(int index, EbsNumber element) {
+        if (!isCorrectType(element)) {
+            return;
+        }
+
+        values.add(index, element.byteValue());
+    }
+
+    @Override
+    public EbsNumber remove(int index) {
+        return EbsElements.of(values.removeByte(index));
+    }
+
+    @Override
+    public void clear() {
+        values.clear();
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return isCorrectType(o) ? values.indexOf(((EbsNumber) o).byteValue()) : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return isCorrectType(o) ? values.lastIndexOf(((EbsNumber) o).byteValue()) : -1;
+    }
+
+    @Override
+    public EbsByteArray clone() {
+        return new EbsByteArray(values.clone());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof EbsByteArray other) {
+            return values.equals(other.values);
+        }
+
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return values.hashCode();
+    }
+}
@@ -0,0 +1,213 @@
+package me.julie.ebs.element;
+
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.EbsUtil;
+import me.julie.ebs.io.EbsDataInput;
+import me.julie.ebs.type.EbsType;
+import me.julie.ebs.visitor.EbsVisitor;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Objects;
+
+/**
+ * A binary blob, a sequence of bytes stored as a single element,
+ * instead of as one number element per byte like an {@link EbsByteArray}.
+ * <p>
+ * Blobs are immutable, their bytes are only handed out as read-only
+ * buffers or copies. When read lazily, see {@link EbsTypeRegistry#readLazy(ByteBuffer)},
+ * a blob is a slice of the source buffer, so its bytes aren't copied at
+ * all, and the source's contents must not change while the blob is in use.
+ */
+public final class EbsBytes implements EbsValuedElement<ByteBuffer> {
+    /** Most bytes allocated before any are read, larger blobs are read into a growing array */
+    private static final int READ_CHUNK_SIZE = 1 << 16;
+
+    /**
+     * A type which writes the blob's length, followed by its bytes
+     */
+    public static final EbsType<EbsBytes> TYPE = new EbsType<>() {
+        @Override
+        public EbsBytes read(EbsTypeRegistry registry, DataInput input) throws IOException {
+            int length = readLength(registry, input);
+
+            // Lazy inputs slice the source instead of copying
+            if (input instanceof EbsDataInput in && in.isLazy()) {
+                ByteBuffer source = in.source();
+
+                if (length > source.remaining()) {
+                    throw new EOFException("Byte blob of length " + length + " past the end of the data");
+                }
+
+                ByteBuffer slice = source.slice(source.position(), length);
+
+                EbsUtil.skipFully(input, length);
+                return new EbsBytes(slice);
+            }
+
+            // The length can't be trusted before the bytes are there, so
+            // the array only grows as far as the read data goes
+            byte[] bytes = new byte[Math.min(length, READ_CHUNK_SIZE)];
+            input.readFully(bytes);
+
+            while (bytes.length < length) {
+                int read = bytes.length;
+                bytes = Arrays.copyOf(bytes, (int) Math.min(length, read * 2L));
+                input.readFully(bytes, read, bytes.length - read);
+            }
+
+            return wrap(bytes);
+        }
+
+        @Override
+        public void write(EbsTypeRegistry registry, DataOutput output, EbsBytes val) throws IOException {
+            ByteBuffer data = val.data;
+            registry.writeLength(data.limit(), output);
+
+            if (data.hasArray()) {
+                output.write(data.array(), data.arrayOffset(), data.limit());
+            } else {
+                output.write(val.toByteArray());
+            }
+        }
+
+        @Override
+        public void skip(EbsTypeRegistry registry, DataInput input) throws IOException {
+            EbsUtil.skipFully(input, readLength(registry, input));
+        }
+
+        @Override
+        public EbsBytes read(EbsTypeRegistry registry, ByteBuffer buffer) throws IOException {
+            int length = buffer.getInt(EbsUtil.advance(buffer, Integer.BYTES));
+
+            if (length < 0) {
+                throw new IOException("Negative byte blob length: " + length);
+            }
+
+            if (length > buffer.remaining()) {
+                throw new EOFException("Byte blob of length " + length + " past the end of the data");
+            }
+
+            byte[] bytes = new byte[length];
+            buffer.get(EbsUtil.advance(buffer, length), bytes);
+
+            return wrap(bytes);
+        }
+
+        @Override
+        public void write(EbsTypeRegistry registry, ByteBuffer buffer, EbsBytes val) {
+            int length = val.size();
+            int position = EbsUtil.reserve(buffer, Integer.BYTES + length);
+
+            buffer.putInt(position, length);
+            buffer.put(position + Integer.BYTES, val.data, 0, length);
+        }
+
+        private int readLength(EbsTypeRegistry registry, DataInput input) throws IOException {
+            int length = registry.readLength(input);
+
+            if (length < 0) {
+                throw new IOException("Negative byte blob length: " + length);
+            }
+
+            return length;
+        }
+    };
+
+    /** The blob's bytes, between 0 and the limit, never read with relative gets */
+    private final ByteBuffer data;
+
+    private EbsBytes(ByteBuffer data) {
+        this.data = data;
+    }
+
+    /**
+     * Creates a blob which uses the given array as its bytes,
+     * without copying it, so the array must not be changed
+     * afterwards
+     * @param bytes The blob's bytes
+     * @return The created blob
+     * @throws NullPointerException If the array is null
+     * @see EbsElements#of(byte[])
+     */
+    public static EbsBytes wrap(byte[] bytes) throws NullPointerException {
+        Objects.requireNonNull(bytes, "Null bytes");
+        return new EbsBytes(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Gets the blob's bytes as a read-only buffer, which doesn't
+     * copy them. The buffer's position is 0 and its limit is
+     * the blob's size
+     * @return A read-only view of the blob's bytes
+     */
+    @Override
+    public ByteBuffer value() {
+        return data.asReadOnlyBuffer();
+    }
+
+    /**
+     * Gets the amount of bytes in this blob
+     * @return The blob's size
+     */
+    public int size() {
+        return data.limit();
+    }
+
+    /**
+     * Gets a single byte of this blob
+     * @param index The index of the byte
+     * @return The byte at the index
+     * @throws IndexOutOfBoundsException If the index is outside the blob
+     */
+    public byte get(int index) throws IndexOutOfBoundsException {
+        return data.get(index);
+    }
+
+    /**
+     * Copies this blob's bytes into a new array
+     * @return The blob's bytes
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[data.limit()];
+        data.get(0, bytes);
+
+        return bytes;
+    }
+
+    @Override
+    public EbsType<EbsBytes> getType() {
+        return TYPE;
+    }
+
+    @Override
+    public EbsBytes clone() {
+        // Blobs are immutable, so they can be shared
+        return this;
+    }
+
+    @Override
+    public void accept(EbsVisitor visitor) {
+        visitor.visitBytes(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof EbsBytes other && data.equals(other.data));
+    }
+
+    @Override
+    public int hashCode() {
+        return data.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "0x" + HexFormat.of().formatHex(toByteArray());
+    }
+}
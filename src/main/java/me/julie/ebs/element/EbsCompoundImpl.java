@@ -1,5 +1,6 @@
 package me.julie.ebs.element;
 
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import me.julie.ebs.type.EbsCompoundType;
 import me.julie.ebs.type.EbsType;
@@ -19,6 +20,19 @@ class EbsCompoundImpl implements EbsCompound {
         entries = new Object2ObjectOpenHashMap<>(size);
     }
 
+    EbsCompoundImpl(Map<String, EbsElement> entries) {
+        this.entries = entries;
+    }
+
+    // Creates an empty compound that keeps the same iteration order as this one
+    private EbsCompoundImpl newEmpty(int size) {
+        if (entries instanceof Object2ObjectLinkedOpenHashMap) {
+            return new EbsCompoundImpl(new Object2ObjectLinkedOpenHashMap<>(size));
+        }
+
+        return new EbsCompoundImpl(size);
+    }
+
     @Override
     public void accept(EbsVisitor visitor) {
         visitor.visitCompound(this);
@@ -44,7 +58,14 @@ class EbsCompoundImpl implements EbsCompound {
 
     @Override
     public void putAll(@Nonnull EbsCompound compound) {
-        entries.putAll(((EbsCompoundImpl) compound).entries);
+        if (compound instanceof EbsCompoundImpl impl) {
+            entries.putAll(impl.entries);
+            return;
+        }
+
+        for (Map.Entry<String, EbsElement> e: compound.entrySet()) {
+            put(e.getKey(), e.getValue());
+        }
     }
 
     @Override
@@ -79,7 +100,7 @@ class EbsCompoundImpl implements EbsCompound {
 
     @Override
     public EbsCompound clone() {
-        EbsCompoundImpl result = new EbsCompoundImpl(entries.size());
+        EbsCompoundImpl result = newEmpty(entries.size());
         result.entries.putAll(entries);
 
         return result;
@@ -87,7 +108,7 @@ class EbsCompoundImpl implements EbsCompound {
 
     @Override
     public EbsCompound deepClone() {
-        EbsCompoundImpl result = new EbsCompoundImpl(entries.size());
+        EbsCompoundImpl result = newEmpty(entries.size());
 
         for (Map.Entry<String, EbsElement> e: entrySet()) {
             EbsElement value = EbsElements.deepClone(e.getValue());
@@ -0,0 +1,71 @@
+package me.julie.ebs.element;
+
+import me.julie.ebs.type.EbsNumberType;
+
+/**
+ * A double number, stored as a primitive
+ */
+public final class EbsDouble extends EbsNumber {
+    private static final long serialVersionUID = 1L;
+
+    private final double value;
+
+    EbsDouble(double value) {
+        this.value = value;
+    }
+
+    @Override
+    public Double value() {
+        return value;
+    }
+
+    @Override
+    public EbsNumberType getType() {
+        return EbsNumberType.DOUBLE;
+    }
+
+    @Override
+    public int intValue() {
+        return (int) value;
+    }
+
+    @Override
+    public long longValue() {
+        return (long) value;
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) value;
+    }
+
+    @Override
+    public double doubleValue() {
+        return value;
+    }
+
+    @Override
+    public byte byteValue() {
+        return (byte) value;
+    }
+
+    @Override
+    public short shortValue() {
+        return (short) value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof EbsDouble other && Double.compare(value, other.value) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Double.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+        return Double.toString(value);
+    }
+}
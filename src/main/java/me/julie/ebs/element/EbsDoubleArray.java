@@ -0,0 +1,168 @@
+package me.julie.ebs.element;
+
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.doubles.DoubleConsumer;
+import me.julie.ebs.type.EbsNumberType;
+
+/**
+ * A double array, which stores its values in a {@link DoubleArrayList}
+ * @see AbstractNumberArray
+ */
+public final class EbsDoubleArray extends AbstractNumberArray {
+    private final DoubleArrayList values;
+
+    private EbsDoubleArray(DoubleArrayList values) {
+        this.values = values;
+    }
+
+    /**
+     * Creates an empty array
+     * @param capacity The amount of values the array has room for initially
+     */
+    public EbsDoubleArray(int capacity) {
+        this(new DoubleArrayList(capacity));
+    }
+
+    /**
+     * Creates an array which uses the given array as its
+     * storage, changes to either are visible in both
+     * @param values The values of the array
+     * @return The created array
+     */
+    public static EbsDoubleArray wrap(double[] values) {
+        return new EbsDoubleArray(DoubleArrayList.wrap(values));
+    }
+
+    /**
+     * Gets the list storing this array's values,
+     * changes to the list are changes to this array
+     * @return This array's values
+     */
+    public DoubleArrayList values() {
+        return values;
+    }
+
+    /**
+     * Gets a value, without creating an element for it
+     * @param index The index of the value
+     * @return The value
+     */
+    public double getDouble(int index) {
+        return values.getDouble(index);
+    }
+
+    /**
+     * Sets a value
+     * @param index The index of the value
+     * @param value The new value
+     * @return The value that was replaced
+     */
+    public double setDouble(int index, double value) {
+        return values.set(index, value);
+    }
+
+    /**
+     * Adds a value to the end of this array
+     * @param value The value to add
+     */
+    public void addDouble(double value) {
+        values.add(value);
+    }
+
+    /**
+     * Performs the given action for each value, in order
+     * @param action The action to perform
+     */
+    public void forEachDouble(DoubleConsumer action) {
+        values.forEach(action);
+    }
+
+    /**
+     * Copies this array's values into a new array
+     * @return The copied values
+     */
+    public double[] toDoubleArray() {
+        return values.toDoubleArray();
+    }
+
+    @Override
+    public EbsNumberType arrayType() {
+        return EbsNumberType.DOUBLE;
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+
+    @Override
+    public EbsNumber get(int index) {
+        return EbsElements.of(values.getDouble(index));
+    }
+
+    @Override
+    public EbsNumber set(int index, EbsNumber element) {
+        if (!isCorrectType(element)) {
+            return null;
+        }
+
+        return EbsElements.of(values.set(index, element.doubleValue()));
+    }
+
+    @Override
+    public boolean add(EbsNumber element) {
+        if (!isCorrectType(element)) {
+            return false;
+        }
+
+        return values.add(element.doubleValue());
+    }
+
+    @Override
+    public void add(int index, EbsNumber element) {
+        if (!isCorrectType(element)) {
+            return;
+        }
+
+        values.add(index, element.doubleValue());
+    }
+
+    @Override
+    public EbsNumber remove(int index) {
+        return EbsElements.of(values.removeDouble(index));
+    }
+
+    @Override
+    public void clear() {
+        values.clear();
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return isCorrectType(o) ? values.indexOf(((EbsNumber) o).doubleValue()) : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return isCorrectType(o) ? values.lastIndexOf(((EbsNumber) o).doubleValue()) : -1;
+    }
+
+    @Override
+    public EbsDoubleArray clone() {
+        return new EbsDoubleArray(values.clone());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof EbsDoubleArray other) {
+            return values.equals(other.values);
+        }
+
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return values.hashCode();
+    }
+}
@@ -1,5 +1,6 @@
 package me.julie.ebs.element;
 
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
 import me.julie.ebs.type.EbsNumberType;
 import me.julie.ebs.type.EbsType;
 
@@ -50,6 +51,63 @@ public final class EbsElements {
         return new EbsCompoundImpl(expectedSize);
     }
 
+    /**
+     * Creates a new compound which iterates over its entries, and so
+     * is also written, in the order they were first put into it,
+     * replacing an entry's value keeps the entry's place. This calls
+     * {@link #newOrderedCompound(int)} with {@link #DEFAULT_SIZE}
+     *
+     * @return The created element
+     */
+    @Nonnull
+    public static EbsCompound newOrderedCompound() {
+        return newOrderedCompound(DEFAULT_SIZE);
+    }
+
+    /**
+     * Creates a new insertion ordered compound with the given size
+     * @param expectedSize The expected size to create the compound with
+     * @return The created element
+     * @see #newOrderedCompound()
+     */
+    @Nonnull
+    public static EbsCompound newOrderedCompound(int expectedSize) {
+        return new EbsCompoundImpl(new Object2ObjectLinkedOpenHashMap<>(expectedSize));
+    }
+
+    /**
+     * Creates a new compound that can be shared between threads,
+     * see {@link ConcurrentEbsCompound}. This calls
+     * {@link #newConcurrentCompound(int)} with {@link #DEFAULT_SIZE}
+     *
+     * @return The created element
+     */
+    @Nonnull
+    public static ConcurrentEbsCompound newConcurrentCompound() {
+        return newConcurrentCompound(DEFAULT_SIZE);
+    }
+
+    /**
+     * Creates a new compound that can be shared between threads
+     * with the given size
+     * @param expectedSize The expected size to create the compound with
+     * @return The created element
+     * @see ConcurrentEbsCompound
+     */
+    @Nonnull
+    public static ConcurrentEbsCompound newConcurrentCompound(int expectedSize) {
+        return new ConcurrentEbsCompound(expectedSize);
+    }
+
+    /**
+     * Creates a new, empty, persistent compound, see {@link PersistentEbsCompound}
+     * @return The created element
+     */
+    @Nonnull
+    public static PersistentEbsCompound newPersistentCompound() {
+        return PersistentEbsCompound.empty();
+    }
+
     @Nonnull
     public static EbsCompound of(@Nonnull Map<String, EbsElement> map) {
         var compound = newCompound(
@@ -64,7 +122,7 @@ public final class EbsElements {
 
     @Nonnull
     public static EbsString of(@Nonnull String s) {
-        return new EbsString(Objects.requireNonNull(s, "Null string"));
+        return ElementCache.ofString(Objects.requireNonNull(s, "Null string"));
     }
 
     @Nonnull
@@ -72,6 +130,17 @@ public final class EbsElements {
         return new EbsUUID(Objects.requireNonNull(uuid, "Null UUID"));
     }
 
+    /**
+     * Creates a byte blob, the bytes are copied into the created element
+     * @param bytes The blob's bytes
+     * @return The created element
+     * @see EbsBytes#wrap(byte[]) to create a blob without copying
+     */
+    @Nonnull
+    public static EbsBytes of(@Nonnull byte[] bytes) {
+        return EbsBytes.wrap(Objects.requireNonNull(bytes, "Null bytes").clone());
+    }
+
     /* ----------------------------- CLONING ------------------------------ */
 
     /**
@@ -116,6 +185,9 @@ public final class EbsElements {
 
     /* ----------------------------- NUMERICAL VALUES ------------------------------ */
 
+    // Numbers are immutable, so small byte, short, int and long
+    // values are shared instances, see ElementCache for the range
+
     /**
      * Creates a byte number
      * @param val The number value
@@ -123,7 +195,7 @@ public final class EbsElements {
      */
     @Nonnull
     public static EbsNumber of(byte val) {
-        return new EbsNumber(val, EbsNumberType.BYTE);
+        return ElementCache.ofByte(val);
     }
 
     /**
@@ -133,7 +205,7 @@ public final class EbsElements {
      */
     @Nonnull
     public static EbsNumber of(short val) {
-        return new EbsNumber(val, EbsNumberType.SHORT);
+        return ElementCache.ofShort(val);
     }
 
     /**
@@ -143,7 +215,7 @@ public final class EbsElements {
      */
     @Nonnull
     public static EbsNumber of(int val) {
-        return new EbsNumber(val, EbsNumberType.INTEGER);
+        return ElementCache.ofInt(val);
     }
 
     /**
@@ -153,7 +225,7 @@ public final class EbsElements {
      */
     @Nonnull
     public static EbsNumber of(long val) {
-        return new EbsNumber(val, EbsNumberType.LONG);
+        return ElementCache.ofLong(val);
     }
 
     /**
@@ -163,7 +235,7 @@ public final class EbsElements {
      */
     @Nonnull
     public static EbsNumber of(float val) {
-        return new EbsNumber(val, EbsNumberType.FLOAT);
+        return new EbsFloat(val);
     }
 
     /**
@@ -173,7 +245,7 @@ public final class EbsElements {
      */
     @Nonnull
     public static EbsNumber of(double val) {
-        return new EbsNumber(val, EbsNumberType.DOUBLE);
+        return new EbsDouble(val);
     }
 
     /**
@@ -183,10 +255,7 @@ public final class EbsElements {
      */
     @Nonnull
     public static EbsNumber of(@Nonnull BigInteger val) {
-        return new EbsNumber(
-                Objects.requireNonNull(val, "Null BigInteger"),
-                EbsNumberType.BIG_INTEGER
-        );
+        return new EbsBigInteger(Objects.requireNonNull(val, "Null BigInteger"));
     }
 
     /**
@@ -207,7 +276,15 @@ public final class EbsElements {
                 "Unsupported number type: " + number.getClass().getName()
         );
 
-        return new EbsNumber(number, type);
+        return switch (type) {
+            case BYTE -> of(number.byteValue());
+            case SHORT -> of(number.shortValue());
+            case INTEGER -> of(number.intValue());
+            case LONG -> of(number.longValue());
+            case FLOAT -> of(number.floatValue());
+            case DOUBLE -> of(number.doubleValue());
+            case BIG_INTEGER -> of((BigInteger) number);
+        };
     }
 
     /**
@@ -230,9 +307,25 @@ public final class EbsElements {
      */
     @Nonnull
     public static <T extends EbsElement> EbsArray<T> newArray(@Nullable EbsType<T> type, int expectedSize) {
+        // Fixed size numbers are stored as primitives
+        if (type instanceof EbsNumberType number && number.isPacked()) {
+            return (EbsArray<T>) newNumberArray(number, expectedSize);
+        }
+
         return new EbsArrayImpl<>(expectedSize, type);
     }
 
+    private static EbsArray<EbsNumber> newNumberArray(EbsNumberType type, int expectedSize) {
+        return switch (type) {
+            case BYTE -> new EbsByteArray(expectedSize);
+            case SHORT -> new EbsShortArray(expectedSize);
+            case INTEGER -> new EbsIntArray(expectedSize);
+            case LONG -> new EbsLongArray(expectedSize);
+            case FLOAT -> new EbsFloatArray(expectedSize);
+            default -> new EbsDoubleArray(expectedSize);
+        };
+    }
+
     /**
      * Creates a new array
      * @param type The array's type
@@ -260,6 +353,10 @@ public final class EbsElements {
      * @return The converted array
      */
     public static int[] toIntArray(EbsArray<EbsNumber> array) {
+        if (array instanceof EbsIntArray values) {
+            return values.toIntArray();
+        }
+
         int[] result = new int[array.size()];
 
         for (int i = 0; i < array.size(); i++) {
@@ -275,6 +372,10 @@ public final class EbsElements {
      * @return The converted array
      */
     public static float[] toFloatArray(EbsArray<EbsNumber> array) {
+        if (array instanceof EbsFloatArray values) {
+            return values.toFloatArray();
+        }
+
         float[] result = new float[array.size()];
 
         for (int i = 0; i < array.size(); i++) {
@@ -290,6 +391,10 @@ public final class EbsElements {
      * @return The converted array
      */
     public static double[] toDoubleArray(EbsArray<EbsNumber> array) {
+        if (array instanceof EbsDoubleArray values) {
+            return values.toDoubleArray();
+        }
+
         double[] result = new double[array.size()];
 
         for (int i = 0; i < array.size(); i++) {
@@ -305,6 +410,10 @@ public final class EbsElements {
      * @return The converted array
      */
     public static long[] toLongArray(EbsArray<EbsNumber> array) {
+        if (array instanceof EbsLongArray values) {
+            return values.toLongArray();
+        }
+
         long[] result = new long[array.size()];
 
         for (int i = 0; i < array.size(); i++) {
@@ -320,6 +429,10 @@ public final class EbsElements {
      * @return The converted array
      */
     public static byte[] toByteArray(EbsArray<EbsNumber> array) {
+        if (array instanceof EbsByteArray values) {
+            return values.toByteArray();
+        }
+
         byte[] result = new byte[array.size()];
 
         for (int i = 0; i < array.size(); i++) {
@@ -335,6 +448,10 @@ public final class EbsElements {
      * @return The converted array
      */
     public static short[] toShortArray(EbsArray<EbsNumber> array) {
+        if (array instanceof EbsShortArray values) {
+            return values.toShortArray();
+        }
+
         short[] result = new short[array.size()];
 
         for (int i = 0; i < array.size(); i++) {
@@ -345,93 +462,63 @@ public final class EbsElements {
     }
 
     /**
-     * Turns the given primitive array into an EBS array
+     * Turns the given primitive array into an EBS array,
+     * the values are copied into the created array
      * @param arr The array to convert
      * @return The created
      */
     public static EbsArray<EbsNumber> fromIntArray(int... arr) {
-        EbsArray<EbsNumber> result = newArray(EbsNumberType.INTEGER, arr.length);
-
-        for (int i: arr) {
-            result.add(of(i));
-        }
-
-        return result;
+        return EbsIntArray.wrap(arr.clone());
     }
 
     /**
-     * Turns the given primitive array into an EBS array
+     * Turns the given primitive array into an EBS array,
+     * the values are copied into the created array
      * @param arr The array to convert
      * @return The created
      */
     public static EbsArray<EbsNumber> fromLongArray(long... arr) {
-        EbsArray<EbsNumber> result = newArray(EbsNumberType.LONG, arr.length);
-
-        for (long i: arr) {
-            result.add(of(i));
-        }
-
-        return result;
+        return EbsLongArray.wrap(arr.clone());
     }
 
     /**
-     * Turns the given primitive array into an EBS array
+     * Turns the given primitive array into an EBS array,
+     * the values are copied into the created array
      * @param arr The array to convert
      * @return The created
      */
     public static EbsArray<EbsNumber> fromFloatArray(float... arr) {
-        EbsArray<EbsNumber> result = newArray(EbsNumberType.FLOAT, arr.length);
-
-        for (float i: arr) {
-            result.add(of(i));
-        }
-
-        return result;
+        return EbsFloatArray.wrap(arr.clone());
     }
 
     /**
-     * Turns the given primitive array into an EBS array
+     * Turns the given primitive array into an EBS array,
+     * the values are copied into the created array
      * @param arr The array to convert
      * @return The created
      */
     public static EbsArray<EbsNumber> fromDoubleArray(double... arr) {
-        EbsArray<EbsNumber> result = newArray(EbsNumberType.DOUBLE, arr.length);
-
-        for (double i: arr) {
-            result.add(of(i));
-        }
-
-        return result;
+        return EbsDoubleArray.wrap(arr.clone());
     }
 
     /**
-     * Turns the given primitive array into an EBS array
+     * Turns the given primitive array into an EBS array,
+     * the values are copied into the created array
      * @param arr The array to convert
      * @return The created
      */
     public static EbsArray<EbsNumber> fromByteArray(byte... arr) {
-        EbsArray<EbsNumber> result = newArray(EbsNumberType.BYTE, arr.length);
-
-        for (byte i: arr) {
-            result.add(of(i));
-        }
-
-        return result;
+        return EbsByteArray.wrap(arr.clone());
     }
 
     /**
-     * Turns the given primitive array into an EBS array
+     * Turns the given primitive array into an EBS array,
+     * the values are copied into the created array
      * @param arr The array to convert
      * @return The created
      */
     public static EbsArray<EbsNumber> fromShortArray(short... arr) {
-        EbsArray<EbsNumber> result = newArray(EbsNumberType.SHORT, arr.length);
-
-        for (short i: arr) {
-            result.add(of(i));
-        }
-
-        return result;
+        return EbsShortArray.wrap(arr.clone());
     }
 
     /**
@@ -0,0 +1,71 @@
+package me.julie.ebs.element;
+
+import me.julie.ebs.type.EbsNumberType;
+
+/**
+ * A float number, stored as a primitive
+ */
+public final class EbsFloat extends EbsNumber {
+    private static final long serialVersionUID = 1L;
+
+    private final float value;
+
+    EbsFloat(float value) {
+        this.value = value;
+    }
+
+    @Override
+    public Float value() {
+        return value;
+    }
+
+    @Override
+    public EbsNumberType getType() {
+        return EbsNumberType.FLOAT;
+    }
+
+    @Override
+    public int intValue() {
+        return (int) value;
+    }
+
+    @Override
+    public long longValue() {
+        return (long) value;
+    }
+
+    @Override
+    public float floatValue() {
+        return value;
+    }
+
+    @Override
+    public double doubleValue() {
+        return value;
+    }
+
+    @Override
+    public byte byteValue() {
+        return (byte) value;
+    }
+
+    @Override
+    public short shortValue() {
+        return (short) value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof EbsFloat other && Float.compare(value, other.value) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Float.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+        return Float.toString(value);
+    }
+}
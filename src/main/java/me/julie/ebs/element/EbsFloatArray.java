@@ -0,0 +1,168 @@
+package me.julie.ebs.element;
+
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
+import it.unimi.dsi.fastutil.floats.FloatConsumer;
+import me.julie.ebs.type.EbsNumberType;
+
+/**
+ * A float array, which stores its values in a {@link FloatArrayList}
+ * @see AbstractNumberArray
+ */
+public final class EbsFloatArray extends AbstractNumberArray {
+    private final FloatArrayList values;
+
+    private EbsFloatArray(FloatArrayList values) {
+        this.values = values;
+    }
+
+    /**
+     * Creates an empty array
+     * @param capacity The amount of values the array has room for initially
+     */
+    public EbsFloatArray(int capacity) {
+        this(new FloatArrayList(capacity));
+    }
+
+    /**
+     * Creates an array which uses the given array as its
+     * storage, changes to either are visible in both
+     * @param values The values of the array
+     * @return The created array
+     */
+    public static EbsFloatArray wrap(float[] values) {
+        return new EbsFloatArray(FloatArrayList.wrap(values));
+    }
+
+    /**
+     * Gets the list storing this array's values,
+     * changes to the list are changes to this array
+     * @return This array's values
+     */
+    public FloatArrayList values() {
+        return values;
+    }
+
+    /**
+     * Gets a value, without creating an element for it
+     * @param index The index of the value
+     * @return The value
+     */
+    public float getFloat(int index) {
+        return values.getFloat(index);
+    }
+
+    /**
+     * Sets a value
+     * @param index The index of the value
+     * @param value The new value
+     * @return The value that was replaced
+     */
+    public float setFloat(int index, float value) {
+        return values.set(index, value);
+    }
+
+    /**
+     * Adds a value to the end of this array
+     * @param value The value to add
+     */
+    public void addFloat(float value) {
+        values.add(value);
+    }
+
+    /**
+     * Performs the given action for each value, in order
+     * @param action The action to perform
+     */
+    public void forEachFloat(FloatConsumer action) {
+        values.forEach(action);
+    }
+
+    /**
+     * Copies this array's values into a new array
+     * @return The copied values
+     */
+    public float[] toFloatArray() {
+        return values.toFloatArray();
+    }
+
+    @Override
+    public EbsNumberType arrayType() {
+        return EbsNumberType.FLOAT;
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+
+    @Override
+    public EbsNumber get(int index) {
+        return EbsElements.of(values.getFloat(index));
+    }
+
+    @Override
+    public EbsNumber set(int index, EbsNumber element) {
+        if (!isCorrectType(element)) {
+            return null;
+        }
+
+        return EbsElements.of(values.set(index, element.floatValue()));
+    }
+
+    @Override
+    public boolean add(EbsNumber element) {
+        if (!isCorrectType(element)) {
+            return false;
+        }
+
+        return values.add(element.floatValue());
+    }
+
+    @Override
+    public void add(int index, EbsNumber element) {
+        if (!isCorrectType(element)) {
+            return;
+        }
+
+        values.add(index, element.floatValue());
+    }
+
+    @Override
+    public EbsNumber remove(int index) {
+        return EbsElements.of(values.removeFloat(index));
+    }
+
+    @Override
+    public void clear() {
+        values.clear();
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return isCorrectType(o) ? values.indexOf(((EbsNumber) o).floatValue()) : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return isCorrectType(o) ? values.lastIndexOf(((EbsNumber) o).floatValue()) : -1;
+    }
+
+    @Override
+    public EbsFloatArray clone() {
+        return new EbsFloatArray(values.clone());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof EbsFloatArray other) {
+            return values.equals(other.values);
+        }
+
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return values.hashCode();
+    }
+}
@@ -0,0 +1,71 @@
+package me.julie.ebs.element;
+
+import me.julie.ebs.type.EbsNumberType;
+
+/**
+ * An int number, stored as a primitive
+ */
+public final class EbsInt extends EbsNumber {
+    private static final long serialVersionUID = 1L;
+
+    private final int value;
+
+    EbsInt(int value) {
+        this.value = value;
+    }
+
+    @Override
+    public Integer value() {
+        return value;
+    }
+
+    @Override
+    public EbsNumberType getType() {
+        return EbsNumberType.INTEGER;
+    }
+
+    @Override
+    public int intValue() {
+        return value;
+    }
+
+    @Override
+    public long longValue() {
+        return value;
+    }
+
+    @Override
+    public float floatValue() {
+        return value;
+    }
+
+    @Override
+    public double doubleValue() {
+        return value;
+    }
+
+    @Override
+    public byte byteValue() {
+        return (byte) value;
+    }
+
+    @Override
+    public short shortValue() {
+        return (short) value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof EbsInt other && value == other.value;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+        return Integer.toString(value);
+    }
+}
@@ -0,0 +1,168 @@
+package me.julie.ebs.element;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntConsumer;
+import me.julie.ebs.type.EbsNumberType;
+
+/**
+ * An int array, which stores its values in a {@link IntArrayList}
+ * @see AbstractNumberArray
+ */
+public final class EbsIntArray extends AbstractNumberArray {
+    private final IntArrayList values;
+
+    private EbsIntArray(IntArrayList values) {
+        this.values = values;
+    }
+
+    /**
+     * Creates an empty array
+     * @param capacity The amount of values the array has room for initially
+     */
+    public EbsIntArray(int capacity) {
+        this(new IntArrayList(capacity));
+    }
+
+    /**
+     * Creates an array which uses the given array as its
+     * storage, changes to either are visible in both
+     * @param values The values of the array
+     * @return The created array
+     */
+    public static EbsIntArray wrap(int[] values) {
+        return new EbsIntArray(IntArrayList.wrap(values));
+    }
+
+    /**
+     * Gets the list storing this array's values,
+     * changes to the list are changes to this array
+     * @return This array's values
+     */
+    public IntArrayList values() {
+        return values;
+    }
+
+    /**
+     * Gets a value, without creating an element for it
+     * @param index The index of the value
+     * @return The value
+     */
+    public int getInt(int index) {
+        return values.getInt(index);
+    }
+
+    /**
+     * Sets a value
+     * @param index The index of the value
+     * @param value The new value
+     * @return The value that was replaced
+     */
+    public int setInt(int index, int value) {
+        return values.set(index, value);
+    }
+
+    /**
+     * Adds a value to the end of this array
+     * @param value The value to add
+     */
+    public void addInt(int value) {
+        values.add(value);
+    }
+
+    /**
+     * Performs the given action for each value, in order
+     * @param action The action to perform
+     */
+    public void forEachInt(IntConsumer action) {
+        values.forEach(action);
+    }
+
+    /**
+     * Copies this array's values into a new array
+     * @return The copied values
+     */
+    public int[] toIntArray() {
+        return values.toIntArray();
+    }
+
+    @Override
+    public EbsNumberType arrayType() {
+        return EbsNumberType.INTEGER;
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+
+    @Override
+    public EbsNumber get(int index) {
+        return EbsElements.of(values.getInt(index));
+    }
+
+    @Override
+    public EbsNumber set(int index, EbsNumber element) {
+        if (!isCorrectType(element)) {
+            return null;
+        }
+
+        return EbsElements.of(values.set(index, element.intValue()));
+    }
+
+    @Override
+    public boolean add(EbsNumber element) {
+        if (!isCorrectType(element)) {
+            return false;
+        }
+
+        return values.add(element.intValue());
+    }
+
+    @Override
+    public void add(int index, EbsNumber element) {
+        if (!isCorrectType(element)) {
+            return;
+        }
+
+        values.add(index, element.intValue());
+    }
+
+    @Override
+    public EbsNumber remove(int index) {
+        return EbsElements.of(values.removeInt(index));
+    }
+
+    @Override
+    public void clear() {
+        values.clear();
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return isCorrectType(o) ? values.indexOf(((EbsNumber) o).intValue()) : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return isCorrectType(o) ? values.lastIndexOf(((EbsNumber) o).intValue()) : -1;
+    }
+
+    @Override
+    public EbsIntArray clone() {
+        return new EbsIntArray(values.clone());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof EbsIntArray other) {
+            return values.equals(other.values);
+        }
+
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return values.hashCode();
+    }
+}
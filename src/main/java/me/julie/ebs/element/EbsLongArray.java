@@ -0,0 +1,168 @@
+package me.julie.ebs.element;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongConsumer;
+import me.julie.ebs.type.EbsNumberType;
+
+/**
+ * A long array, which stores its values in a {@link LongArrayList}
+ * @see AbstractNumberArray
+ */
+public final class EbsLongArray extends AbstractNumberArray {
+    private final LongArrayList values;
+
+    private EbsLongArray(LongArrayList values) {
+        this.values = values;
+    }
+
+    /**
+     * Creates an empty array
+     * @param capacity The amount of values the array has room for initially
+     */
+    public EbsLongArray(int capacity) {
+        this(new LongArrayList(capacity));
+    }
+
+    /**
+     * Creates an array which uses the given array as its
+     * storage, changes to either are visible in both
+     * @param values The values of the array
+     * @return The created array
+     */
+    public static EbsLongArray wrap(long[] values) {
+        return new EbsLongArray(LongArrayList.wrap(values));
+    }
+
+    /**
+     * Gets the list storing this array's values,
+     * changes to the list are changes to this array
+     * @return This array's values
+     */
+    public LongArrayList values() {
+        return values;
+    }
+
+    /**
+     * Gets a value, without creating an element for it
+     * @param index The index of the value
+     * @return The value
+     */
+    public long getLong(int index) {
+        return values.getLong(index);
+    }
+
+    /**
+     * Sets a value
+     * @param index The index of the value
+     * @param value The new value
+     * @return The value that was replaced
+     */
+    public long setLong(int index, long value) {
+        return values.set(index, value);
+    }
+
+    /**
+     * Adds a value to the end of this array
+     * @param value The value to add
+     */
+    public void addLong(long value) {
+        values.add(value);
+    }
+
+    /**
+     * Performs the given action for each value, in order
+     * @param action The action to perform
+     */
+    public void forEachLong(LongConsumer action) {
+        values.forEach(action);
+    }
+
+    /**
+     * Copies this array's values into a new array
+     * @return The copied values
+     */
+    public long[] toLongArray() {
+        return values.toLongArray();
+    }
+
+    @Override
+    public EbsNumberType arrayType() {
+        return EbsNumberType.LONG;
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+
+    @Override
+    public EbsNumber get(int index) {
+        return EbsElements.of(values.getLong(index));
+    }
+
+    @Override
+    public EbsNumber set(int index, EbsNumber element) {
+        if (!isCorrectType(element)) {
+            return null;
+        }
+
+        return EbsElements.of(values.set(index, element.longValue()));
+    }
+
+    @Override
+    public boolean add(EbsNumber element) {
+        if (!isCorrectType(element)) {
+            return false;
+        }
+
+        return values.add(element.longValue());
+    }
+
+    @Override
+    public void add(int index, EbsNumber element) {
+        if (!isCorrectType(element)) {
+            return;
+        }
+
+        values.add(index, element.longValue());
+    }
+
+    @Override
+    public EbsNumber remove(int index) {
+        return EbsElements.of(values.removeLong(index));
+    }
+
+    @Override
+    public void clear() {
+        values.clear();
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return isCorrectType(o) ? values.indexOf(((EbsNumber) o).longValue()) : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return isCorrectType(o) ? values.lastIndexOf(((EbsNumber) o).longValue()) : -1;
+    }
+
+    @Override
+    public EbsLongArray clone() {
+        return new EbsLongArray(values.clone());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof EbsLongArray other) {
+            return values.equals(other.values);
+        }
+
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return values.hashCode();
+    }
+}
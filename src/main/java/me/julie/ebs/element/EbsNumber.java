@@ -3,58 +3,37 @@ package me.julie.ebs.element;
 import me.julie.ebs.type.EbsNumberType;
 import me.julie.ebs.visitor.EbsVisitor;
 
-public class EbsNumber extends Number implements EbsValuedElement<Number> {
-    private final Number number;
-    private final EbsNumberType type;
+/**
+ * A number element.
+ * <p>
+ * Every {@link EbsNumberType} has its own final subclass, which
+ * stores the number as a primitive field, so the numeric accessors
+ * like {@link #intValue()} don't go through a boxed {@link Number}.
+ * {@link #value()} only boxes the number when called.
+ * <p>
+ * Numbers are immutable, 2 numbers are equal if they have the
+ * same type and value, following the rules of the boxed types'
+ * equals methods.
+ *
+ * @see EbsElements#of(int) and the other factory methods
+ */
+public abstract class EbsNumber extends Number implements EbsValuedElement<Number> {
+    private static final long serialVersionUID = 1L;
 
-    EbsNumber(Number number, EbsNumberType type) {
-        this.number = number;
-        this.type = type;
+    // Only the subclasses in this package can exist
+    EbsNumber() {
     }
 
     @Override
-    public Number value() {
-        return number;
-    }
+    public abstract Number value();
 
     @Override
-    public EbsNumberType getType() {
-        return type;
-    }
+    public abstract EbsNumberType getType();
 
     @Override
     public EbsNumber clone() {
-        return new EbsNumber(value(), getType());
-    }
-
-    @Override
-    public int intValue() {
-        return value().intValue();
-    }
-
-    @Override
-    public long longValue() {
-        return value().longValue();
-    }
-
-    @Override
-    public float floatValue() {
-        return value().floatValue();
-    }
-
-    @Override
-    public double doubleValue() {
-        return value().doubleValue();
-    }
-
-    @Override
-    public byte byteValue() {
-        return value().byteValue();
-    }
-
-    @Override
-    public short shortValue() {
-        return value().shortValue();
+        // Immutable, no need to copy
+        return this;
     }
 
     @Override
@@ -64,6 +43,6 @@ public class EbsNumber extends Number implements EbsValuedElement<Number> {
 
     @Override
     public String toString() {
-        return number.toString();
+        return value().toString();
     }
-}
\ No newline at end of file
+}
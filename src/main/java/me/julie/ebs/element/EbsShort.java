@@ -0,0 +1,71 @@
+package me.julie.ebs.element;
+
+import me.julie.ebs.type.EbsNumberType;
+
+/**
+ * A short number, stored as a primitive
+ */
+public final class EbsShort extends EbsNumber {
+    private static final long serialVersionUID = 1L;
+
+    private final short value;
+
+    EbsShort(short value) {
+        this.value = value;
+    }
+
+    @Override
+    public Short value() {
+        return value;
+    }
+
+    @Override
+    public EbsNumberType getType() {
+        return EbsNumberType.SHORT;
+    }
+
+    @Override
+    public int intValue() {
+        return value;
+    }
+
+    @Override
+    public long longValue() {
+        return value;
+    }
+
+    @Override
+    public float floatValue() {
+        return value;
+    }
+
+    @Override
+    public double doubleValue() {
+        return value;
+    }
+
+    @Override
+    public byte byteValue() {
+        return (byte) value;
+    }
+
+    @Override
+    public short shortValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof EbsShort other && value == other.value;
+    }
+
+    @Override
+    public int hashCode() {
+        return Short.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+        return Short.toString(value);
+    }
+}
@@ -1,24 +1,41 @@
 package me.julie.ebs.element;
 
 import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.EbsUtil;
 import me.julie.ebs.type.EbsType;
 import me.julie.ebs.visitor.EbsVisitor;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.stream.IntStream;
 
 public class EbsString extends AbstractValuedElement<String> implements CharSequence {
     public static final EbsType<EbsString> TYPE = new EbsType<>() {
         @Override
         public EbsString read(EbsTypeRegistry registry, DataInput input) throws IOException {
-            return new EbsString(input.readUTF());
+            return EbsElements.of(registry.readString(input));
         }
 
         @Override
         public void write(EbsTypeRegistry registry, DataOutput output, EbsString val) throws IOException {
-            output.writeUTF(val.value());
+            registry.writeString(val.value(), output);
+        }
+
+        @Override
+        public void skip(EbsTypeRegistry registry, DataInput input) throws IOException {
+            registry.skipString(input);
+        }
+
+        @Override
+        public EbsString read(EbsTypeRegistry registry, ByteBuffer buffer) throws IOException {
+            return EbsElements.of(EbsUtil.readModifiedUtf(buffer));
+        }
+
+        @Override
+        public void write(EbsTypeRegistry registry, ByteBuffer buffer, EbsString val) throws IOException {
+            EbsUtil.writeModifiedUtf(buffer, val.value());
         }
     };
 
@@ -1,12 +1,14 @@
 package me.julie.ebs.element;
 
 import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.EbsUtil;
 import me.julie.ebs.type.EbsType;
 import me.julie.ebs.visitor.EbsVisitor;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.UUID;
 
 /**
@@ -28,6 +30,25 @@ public class EbsUUID extends AbstractValuedElement<UUID> {
             output.writeLong(val.value().getMostSignificantBits());
             output.writeLong(val.value().getLeastSignificantBits());
         }
+
+        @Override
+        public void skip(EbsTypeRegistry registry, DataInput input) throws IOException {
+            EbsUtil.skipFully(input, Long.BYTES * 2);
+        }
+
+        @Override
+        public EbsUUID read(EbsTypeRegistry registry, ByteBuffer buffer) {
+            int position = EbsUtil.advance(buffer, Long.BYTES * 2);
+            return new EbsUUID(buffer.getLong(position), buffer.getLong(position + Long.BYTES));
+        }
+
+        @Override
+        public void write(EbsTypeRegistry registry, ByteBuffer buffer, EbsUUID val) {
+            int position = EbsUtil.reserve(buffer, Long.BYTES * 2);
+
+            buffer.putLong(position, val.value().getMostSignificantBits());
+            buffer.putLong(position + Long.BYTES, val.value().getLeastSignificantBits());
+        }
     };
 
     public EbsUUID(long most, long least) {
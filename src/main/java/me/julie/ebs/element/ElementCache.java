@@ -0,0 +1,89 @@
+package me.julie.ebs.element;
+
+/**
+ * Flyweight instances of immutable scalar elements.
+ * <p>
+ * Byte, short, int and long numbers within a fixed range are created
+ * once and shared by every {@link EbsElements} factory call, and so by
+ * every decoded number as well. By default the range is -128 to 1023,
+ * it can be changed with the {@value #LOW_PROPERTY} and
+ * {@value #HIGH_PROPERTY} system properties, setting the upper bound
+ * below the lower one disables the number caches. Ranges holding more
+ * than {@value #MAX_SIZE} values are cut off at the top.
+ * <p>
+ * The empty string is shared as well, unless the
+ * {@value #EMPTY_STRING_PROPERTY} system property is set to false.
+ */
+final class ElementCache {
+    private ElementCache() {}
+
+    static final String LOW_PROPERTY = "me.julie.ebs.numberCache.low";
+    static final String HIGH_PROPERTY = "me.julie.ebs.numberCache.high";
+    static final String EMPTY_STRING_PROPERTY = "me.julie.ebs.emptyStringCache";
+
+    /** Most values a number cache holds */
+    static final int MAX_SIZE = 1 << 16;
+
+    static final int LOW = Integer.getInteger(LOW_PROPERTY, -128);
+    static final int HIGH = clampHigh(LOW, Integer.getInteger(HIGH_PROPERTY, 1023));
+
+    // Byte and short ranges are clamped to the values the type can hold
+    private static final int BYTE_LOW = Math.max(LOW, Byte.MIN_VALUE);
+    private static final int BYTE_HIGH = Math.min(HIGH, Byte.MAX_VALUE);
+    private static final int SHORT_LOW = Math.max(LOW, Short.MIN_VALUE);
+    private static final int SHORT_HIGH = Math.min(HIGH, Short.MAX_VALUE);
+
+    private static final EbsByte[] BYTES = new EbsByte[size(BYTE_LOW, BYTE_HIGH)];
+    private static final EbsShort[] SHORTS = new EbsShort[size(SHORT_LOW, SHORT_HIGH)];
+    private static final EbsInt[] INTS = new EbsInt[size(LOW, HIGH)];
+    private static final EbsLong[] LONGS = new EbsLong[INTS.length];
+
+    static final EbsString EMPTY_STRING = Boolean.parseBoolean(System.getProperty(EMPTY_STRING_PROPERTY, "true"))
+            ? new EbsString("")
+            : null;
+
+    static {
+        for (int i = 0; i < BYTES.length; i++) {
+            BYTES[i] = new EbsByte((byte) (BYTE_LOW + i));
+        }
+
+        for (int i = 0; i < SHORTS.length; i++) {
+            SHORTS[i] = new EbsShort((short) (SHORT_LOW + i));
+        }
+
+        for (int i = 0; i < INTS.length; i++) {
+            INTS[i] = new EbsInt(LOW + i);
+            LONGS[i] = new EbsLong(LOW + i);
+        }
+    }
+
+    // Lowers the upper bound so the range holds at most MAX_SIZE values
+    static int clampHigh(int low, int high) {
+        return (int) Math.min(high, low + (long) MAX_SIZE - 1);
+    }
+
+    // Gets the amount of values in a range, 0, if the bounds are reversed
+    static int size(int low, int high) {
+        return (int) Math.max((long) high - low + 1, 0);
+    }
+
+    static EbsByte ofByte(byte val) {
+        return val >= BYTE_LOW && val <= BYTE_HIGH ? BYTES[val - BYTE_LOW] : new EbsByte(val);
+    }
+
+    static EbsShort ofShort(short val) {
+        return val >= SHORT_LOW && val <= SHORT_HIGH ? SHORTS[val - SHORT_LOW] : new EbsShort(val);
+    }
+
+    static EbsInt ofInt(int val) {
+        return val >= LOW && val <= HIGH ? INTS[val - LOW] : new EbsInt(val);
+    }
+
+    static EbsLong ofLong(long val) {
+        return val >= LOW && val <= HIGH ? LONGS[(int) (val - LOW)] : new EbsLong(val);
+    }
+
+    static EbsString ofString(String val) {
+        return EMPTY_STRING != null && val.isEmpty() ? EMPTY_STRING : new EbsString(val);
+    }
+}
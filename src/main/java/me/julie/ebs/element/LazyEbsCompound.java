@@ -0,0 +1,312 @@
+package me.julie.ebs.element;
+
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.io.EbsDataInput;
+import me.julie.ebs.io.EbsFormat;
+import me.julie.ebs.type.EbsCompoundType;
+import me.julie.ebs.type.EbsType;
+import me.julie.ebs.visitor.EbsVisitor;
+import me.julie.ebs.visitor.StringEbsVisitor;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A compound which decodes its values on demand.
+ * <p>
+ * When read, a lazy compound only decodes its keys and entry
+ * types and remembers where each value starts in the source
+ * buffer, values are skipped over, in a single jump for containers
+ * in the {@link EbsFormat#SIZED} format. A value is then decoded the
+ * first time it's requested with {@link #get(String)} and cached,
+ * nested compounds are themselves read lazily.
+ * <p>
+ * The first modification, or any call to {@link #entrySet()},
+ * {@link #keySet()} or {@link #values()}, decodes all remaining
+ * values and turns this compound into a regular compound, which
+ * all further calls are forwarded to.
+ * <p>
+ * Since values are decoded from the source buffer, the buffer's
+ * contents must not change while the compound is in use. Errors
+ * in the data of a value are only found when the value is decoded,
+ * and are thrown as an {@link UncheckedIOException}.
+ * <p>
+ * Lazy compounds are not thread safe, not even for reading.
+ *
+ * @see EbsTypeRegistry#readLazy(ByteBuffer)
+ */
+public final class LazyEbsCompound implements EbsCompound {
+    /** Starting capacity for compounds that don't state their size */
+    private static final int UNKNOWN_SIZE_CAPACITY = 16;
+
+    private final EbsTypeRegistry registry;
+    private final EbsFormat format;
+    private final String[] keyTable;
+    private ByteBuffer source;
+
+    /** Maps keys to their index in the arrays below */
+    private Object2IntOpenHashMap<String> index;
+    private EbsType[] types;
+    private int[] positions;
+
+    /** Values decoded so far, null if not yet decoded */
+    private EbsElement[] values;
+
+    /** The compound this has been inflated into, null, if still lazy */
+    private EbsCompoundImpl delegate;
+
+    private LazyEbsCompound(EbsTypeRegistry registry, EbsDataInput input, ByteBuffer source, int size) {
+        this.registry = registry;
+        this.format = input.format();
+        this.keyTable = input.keyTable();
+        this.source = source;
+
+        this.index = new Object2IntOpenHashMap<>(size);
+        this.types = new EbsType[size];
+        this.positions = new int[size];
+        this.values = new EbsElement[size];
+
+        index.defaultReturnValue(-1);
+    }
+
+    /**
+     * Reads a lazy compound from the given input, the input's
+     * position is moved past the compound's data, just like
+     * with a regular compound read.
+     * <p>
+     * This is called by {@link EbsCompoundType} for inputs that
+     * are {@link EbsDataInput#isLazy()}.
+     *
+     * @param registry The registry to read entry types with
+     * @param input The input to read from, must read directly from a buffer
+     * @return The read compound
+     * @throws IOException If the compound's keys couldn't be read, or its values couldn't be skipped
+     * @throws IllegalArgumentException If the input doesn't read directly from a buffer
+     */
+    public static EbsCompound read(EbsTypeRegistry registry, EbsDataInput input) throws IOException, IllegalArgumentException {
+        ByteBuffer source = input.source();
+
+        if (source == null) {
+            throw new IllegalArgumentException("Input must read directly from a buffer");
+        }
+
+        registry.readContainerLength(input);
+        int size = registry.readSize(input);
+
+        if (size == 0) {
+            return EbsElements.newCompound(0);
+        }
+
+        LazyEbsCompound compound = new LazyEbsCompound(
+                registry, input, source,
+                size == EbsTypeRegistry.UNKNOWN_SIZE ? UNKNOWN_SIZE_CAPACITY : size
+        );
+
+        for (int i = 0; registry.hasNext(i, size, input); i++) {
+            String key = registry.readKey(input);
+            EbsType type = registry.readType(input);
+
+            if (i == compound.types.length) {
+                compound.grow();
+            }
+
+            compound.index.put(key, i);
+            compound.types[i] = type;
+            compound.positions[i] = source.position();
+
+            type.skip(registry, input);
+        }
+
+        return compound;
+    }
+
+    // Makes room for more entries, when the size isn't known up front
+    private void grow() {
+        int capacity = types.length * 2;
+
+        types = Arrays.copyOf(types, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    /**
+     * Checks if this compound has been turned into
+     * a regular compound, either by being modified, or
+     * by having all its entries requested
+     * @return True, if all values have been decoded, false otherwise
+     */
+    public boolean isInflated() {
+        return delegate != null;
+    }
+
+    // Decodes the value at the given index
+    private EbsElement value(int i) {
+        EbsElement value = values[i];
+
+        if (value != null) {
+            return value;
+        }
+
+        try {
+            EbsDataInput input = EbsDataInput.of(source.duplicate().position(positions[i]));
+            input.setFormat(format);
+            input.setKeyTable(keyTable);
+            input.setLazy(true);
+
+            value = types[i].read(registry, input);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't decode lazy compound value", e);
+        }
+
+        values[i] = value;
+        return value;
+    }
+
+    // Decodes all values and turns this into a regular compound
+    private EbsCompoundImpl inflate() {
+        if (delegate != null) {
+            return delegate;
+        }
+
+        EbsCompoundImpl result = new EbsCompoundImpl(index.size());
+
+        for (var e: index.object2IntEntrySet()) {
+            result.put(e.getKey(), value(e.getIntValue()));
+        }
+
+        delegate = result;
+
+        // The buffer and per entry data aren't needed anymore
+        source = null;
+        index = null;
+        types = null;
+        positions = null;
+        values = null;
+
+        return result;
+    }
+
+    @Override
+    public void accept(EbsVisitor visitor) {
+        visitor.visitCompound(this);
+    }
+
+    @Override
+    public int size() {
+        return delegate != null ? delegate.size() : index.size();
+    }
+
+    @Override
+    public EbsElement get(@Nonnull String name) {
+        if (delegate != null) {
+            return delegate.get(name);
+        }
+
+        int i = index.getInt(Objects.requireNonNull(name, "get(String) called, name null"));
+        return i == -1 ? null : value(i);
+    }
+
+    @Override
+    public boolean contains(@Nonnull String name) {
+        if (delegate != null) {
+            return delegate.contains(name);
+        }
+
+        return index.containsKey(Objects.requireNonNull(name, "contains(String) called, name null"));
+    }
+
+    @Override
+    public boolean contains(@Nonnull String name, @Nonnull EbsType type) {
+        if (delegate != null) {
+            return delegate.contains(name, type);
+        }
+
+        // Types are known without decoding the value
+        int i = index.getInt(Objects.requireNonNull(name, "contains(String, EbsType) called, name null"));
+        return i != -1 && types[i].equals(type);
+    }
+
+    @Override
+    public void put(@Nonnull String name, @Nonnull EbsElement element) {
+        inflate().put(name, element);
+    }
+
+    @Override
+    public void putAll(@Nonnull EbsCompound compound) {
+        inflate().putAll(compound);
+    }
+
+    @Override
+    public void remove(@Nonnull String name) {
+        inflate().remove(name);
+    }
+
+    @Override
+    public Set<Map.Entry<String, EbsElement>> entrySet() {
+        return inflate().entrySet();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return inflate().keySet();
+    }
+
+    @Override
+    public Collection<EbsElement> values() {
+        return inflate().values();
+    }
+
+    @Override
+    public void clear() {
+        inflate().clear();
+    }
+
+    @Override
+    public EbsType<EbsCompound> getType() {
+        return EbsCompoundType.getInstance();
+    }
+
+    @Override
+    public EbsCompound clone() {
+        if (delegate != null) {
+            return delegate.clone();
+        }
+
+        EbsCompoundImpl result = new EbsCompoundImpl(index.size());
+
+        for (var e: index.object2IntEntrySet()) {
+            result.put(e.getKey(), value(e.getIntValue()));
+        }
+
+        return result;
+    }
+
+    @Override
+    public EbsCompound deepClone() {
+        if (delegate != null) {
+            return delegate.deepClone();
+        }
+
+        EbsCompoundImpl result = new EbsCompoundImpl(index.size());
+
+        for (var e: index.object2IntEntrySet()) {
+            result.put(e.getKey(), EbsElements.deepClone(value(e.getIntValue())));
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return new StringEbsVisitor()
+                .visit(getClass().getSimpleName(), this);
+    }
+}
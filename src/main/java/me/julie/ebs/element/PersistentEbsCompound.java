@@ -0,0 +1,605 @@
+package me.julie.ebs.element;
+
+import me.julie.ebs.type.EbsCompoundType;
+import me.julie.ebs.type.EbsType;
+import me.julie.ebs.visitor.EbsVisitor;
+import me.julie.ebs.visitor.StringEbsVisitor;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A compound whose entries are stored in a persistent hash array
+ * mapped trie, which is shared between compounds derived from
+ * each other.
+ * <p>
+ * {@link #with(String, EbsElement)} and {@link #without(String)}
+ * return a new compound, and only copy the path from the trie's
+ * root to the changed entry, at most 7 small nodes, the rest of the
+ * trie is shared with this compound. This makes adding entries one
+ * at a time to a growing compound, while keeping every previous
+ * version intact, linear instead of quadratic.
+ * <p>
+ * The compound can still be modified in place like any other
+ * compound, modifications only replace this compound's own trie
+ * root, so they never affect the compounds this one was derived
+ * from or that were derived from it. Its entry set, key set and
+ * values are read-only views, and like regular compounds, persistent
+ * compounds are not thread safe.
+ * <p>
+ * Entries aren't in any particular order, the values themselves
+ * aren't copied, so shared mutable values, like nested compounds,
+ * are shared by every version.
+ *
+ * @see #toCompound()
+ */
+public final class PersistentEbsCompound implements EbsCompound {
+    /** Bits of the hash used per trie level */
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    /** Deepest path, 7 levels of bitmap nodes and a collision node */
+    private static final int MAX_DEPTH = 8;
+
+    private Node root;
+    private int size;
+
+    private PersistentEbsCompound(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Gets a compound without any entries
+     * @return An empty compound
+     * @see EbsElements#newPersistentCompound()
+     */
+    public static PersistentEbsCompound empty() {
+        return new PersistentEbsCompound(BitmapNode.EMPTY, 0);
+    }
+
+    /**
+     * Creates a persistent compound with the entries of the given
+     * compound, if it's already persistent, this only shares its trie
+     * @param compound The compound to copy
+     * @return The created compound
+     * @throws NullPointerException If the compound is null
+     */
+    public static PersistentEbsCompound copyOf(@Nonnull EbsCompound compound) throws NullPointerException {
+        Objects.requireNonNull(compound, "Null compound");
+
+        if (compound instanceof PersistentEbsCompound persistent) {
+            return persistent.clone();
+        }
+
+        PersistentEbsCompound result = empty();
+        result.putAll(compound);
+
+        return result;
+    }
+
+    /**
+     * Creates a compound with the entries of this compound, and the
+     * given entry added, or replacing the existing entry with the name
+     * @param name The name of the entry
+     * @param element The element to place
+     * @return The created compound, this compound is unchanged
+     * @throws NullPointerException If the name or element are null
+     */
+    public PersistentEbsCompound with(@Nonnull String name, @Nonnull EbsElement element) throws NullPointerException {
+        PersistentEbsCompound result = clone();
+        result.put(name, element);
+
+        return result;
+    }
+
+    /**
+     * Creates a compound with the entries of this compound,
+     * except the entry with the given name
+     * @param name The name of the entry to leave out
+     * @return The created compound, this compound is unchanged
+     * @throws NullPointerException If the name is null
+     */
+    public PersistentEbsCompound without(@Nonnull String name) throws NullPointerException {
+        PersistentEbsCompound result = clone();
+        result.remove(name);
+
+        return result;
+    }
+
+    /**
+     * Copies this compound's entries into a regular compound,
+     * see {@link EbsElements#newCompound(int)}
+     * @return The created compound
+     */
+    public EbsCompound toCompound() {
+        EbsCompound result = EbsElements.newCompound(size);
+        EntryIterator it = new EntryIterator(root);
+
+        while (it.advance()) {
+            result.put(it.key, it.value);
+        }
+
+        return result;
+    }
+
+    @Override
+    public void accept(EbsVisitor visitor) {
+        visitor.visitCompound(this);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public EbsElement get(@Nonnull String name) {
+        Objects.requireNonNull(name, "get(String) called, name null");
+        return root.get(name, hash(name), 0);
+    }
+
+    @Override
+    public void put(@Nonnull String name, @Nonnull EbsElement element) {
+        Objects.requireNonNull(name, "put(String, EbsElement) called, name null");
+        Objects.requireNonNull(element, "Given element cannot be null");
+
+        int hash = hash(name);
+
+        if (root.get(name, hash, 0) == null) {
+            size++;
+        }
+
+        root = root.put(name, hash, element, 0);
+    }
+
+    @Override
+    public void putAll(@Nonnull EbsCompound compound) {
+        for (Map.Entry<String, EbsElement> e: compound.entrySet()) {
+            put(e.getKey(), e.getValue());
+        }
+    }
+
+    @Override
+    public void remove(@Nonnull String name) {
+        Objects.requireNonNull(name, "remove(String) called, name null");
+        Node newRoot = root.remove(name, hash(name), 0);
+
+        if (newRoot == root) {
+            return;
+        }
+
+        root = newRoot == null ? BitmapNode.EMPTY : newRoot;
+        size--;
+    }
+
+    @Override
+    public Set<Map.Entry<String, EbsElement>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, EbsElement>> iterator() {
+                return new ViewIterator<>(root) {
+                    @Override
+                    Map.Entry<String, EbsElement> current() {
+                        return Map.entry(entries.key, entries.value);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new ViewIterator<>(root) {
+                    @Override
+                    String current() {
+                        return entries.key;
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof String s && PersistentEbsCompound.this.contains(s);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Collection<EbsElement> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<EbsElement> iterator() {
+                return new ViewIterator<>(root) {
+                    @Override
+                    EbsElement current() {
+                        return entries.value;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public void clear() {
+        root = BitmapNode.EMPTY;
+        size = 0;
+    }
+
+    @Override
+    public EbsType<EbsCompound> getType() {
+        return EbsCompoundType.getInstance();
+    }
+
+    @Override
+    public PersistentEbsCompound clone() {
+        // The trie is never modified, so it can be shared
+        return new PersistentEbsCompound(root, size);
+    }
+
+    @Override
+    public EbsCompound deepClone() {
+        PersistentEbsCompound result = empty();
+        EntryIterator it = new EntryIterator(root);
+
+        while (it.advance()) {
+            result.put(it.key, EbsElements.deepClone(it.value));
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return new StringEbsVisitor()
+                .visit(getClass().getSimpleName(), this);
+    }
+
+    /* ----------------------------- TRIE ------------------------------ */
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * A node of the trie, nodes are immutable. Both kinds of node
+     * store their contents in an array of key and value pairs, where
+     * a null key means the value is a child node
+     */
+    private static abstract sealed class Node permits BitmapNode, CollisionNode {
+        final Object[] array;
+
+        Node(Object[] array) {
+            this.array = array;
+        }
+
+        abstract EbsElement get(String key, int hash, int shift);
+
+        /** Returns this node, if nothing changed */
+        abstract Node put(String key, int hash, EbsElement value, int shift);
+
+        /** Returns this node, if nothing changed, and null, if the node is now empty */
+        abstract Node remove(String key, int hash, int shift);
+
+        /** Checks if the node only holds a single entry, which can be moved into its parent */
+        boolean isSingleEntry() {
+            return array.length == 2 && array[0] != null;
+        }
+    }
+
+    /** Node which maps 5 bits of the hash to its pairs with a bitmap */
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        final int bitmap;
+
+        BitmapNode(int bitmap, Object[] array) {
+            super(array);
+            this.bitmap = bitmap;
+        }
+
+        @Override
+        EbsElement get(String key, int hash, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+
+            int index = Integer.bitCount(bitmap & (bit - 1)) << 1;
+            Object k = array[index];
+            Object v = array[index + 1];
+
+            if (k == null) {
+                return ((Node) v).get(key, hash, shift + BITS);
+            }
+
+            return key.equals(k) ? (EbsElement) v : null;
+        }
+
+        @Override
+        Node put(String key, int hash, EbsElement value, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            int index = Integer.bitCount(bitmap & (bit - 1)) << 1;
+
+            if ((bitmap & bit) == 0) {
+                Object[] result = new Object[array.length + 2];
+                System.arraycopy(array, 0, result, 0, index);
+                System.arraycopy(array, index, result, index + 2, array.length - index);
+
+                result[index] = key;
+                result[index + 1] = value;
+
+                return new BitmapNode(bitmap | bit, result);
+            }
+
+            Object k = array[index];
+            Object v = array[index + 1];
+
+            if (k == null) {
+                Node child = (Node) v;
+                Node newChild = child.put(key, hash, value, shift + BITS);
+
+                return newChild == child ? this : with(index + 1, newChild);
+            }
+
+            if (key.equals(k)) {
+                return v == value ? this : with(index + 1, value);
+            }
+
+            // Two keys in the same slot, move both into a child
+            Node child = node(shift + BITS, (String) k, (EbsElement) v, key, hash, value);
+            Object[] result = array.clone();
+
+            result[index] = null;
+            result[index + 1] = child;
+
+            return new BitmapNode(bitmap, result);
+        }
+
+        @Override
+        Node remove(String key, int hash, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+
+            int index = Integer.bitCount(bitmap & (bit - 1)) << 1;
+            Object k = array[index];
+            Object v = array[index + 1];
+
+            if (k == null) {
+                Node child = (Node) v;
+                Node newChild = child.remove(key, hash, shift + BITS);
+
+                if (newChild == child) {
+                    return this;
+                }
+
+                if (newChild == null) {
+                    return without(bit, index);
+                }
+
+                // Keep the trie compact, single entries move up
+                if (newChild.isSingleEntry()) {
+                    Object[] result = array.clone();
+                    result[index] = newChild.array[0];
+                    result[index + 1] = newChild.array[1];
+
+                    return new BitmapNode(bitmap, result);
+                }
+
+                return with(index + 1, newChild);
+            }
+
+            return key.equals(k) ? without(bit, index) : this;
+        }
+
+        private BitmapNode with(int index, Object value) {
+            Object[] result = array.clone();
+            result[index] = value;
+
+            return new BitmapNode(bitmap, result);
+        }
+
+        private BitmapNode without(int bit, int index) {
+            if (bitmap == bit) {
+                return null;
+            }
+
+            Object[] result = new Object[array.length - 2];
+            System.arraycopy(array, 0, result, 0, index);
+            System.arraycopy(array, index + 2, result, index, result.length - index);
+
+            return new BitmapNode(bitmap & ~bit, result);
+        }
+
+        private static Node node(int shift, String key1, EbsElement value1, String key2, int hash2, EbsElement value2) {
+            int hash1 = hash(key1);
+
+            // Keys with different hashes always split before the
+            // hash runs out of bits
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[] {key1, value1, key2, value2});
+            }
+
+            return EMPTY
+                    .put(key1, hash1, value1, shift)
+                    .put(key2, hash2, value2, shift);
+        }
+    }
+
+    /** Node holding keys with the exact same hash */
+    private static final class CollisionNode extends Node {
+        final int hash;
+
+        CollisionNode(int hash, Object[] array) {
+            super(array);
+            this.hash = hash;
+        }
+
+        private int indexOf(String key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        @Override
+        EbsElement get(String key, int hash, int shift) {
+            int index = indexOf(key);
+            return index == -1 ? null : (EbsElement) array[index + 1];
+        }
+
+        @Override
+        Node put(String key, int hash, EbsElement value, int shift) {
+            // A key that only shares part of the hash, move this
+            // node down into a bitmap node, which splits them
+            if (hash != this.hash) {
+                return new BitmapNode(1 << ((this.hash >>> shift) & MASK), new Object[] {null, this})
+                        .put(key, hash, value, shift);
+            }
+
+            int index = indexOf(key);
+
+            if (index != -1) {
+                if (array[index + 1] == value) {
+                    return this;
+                }
+
+                Object[] result = array.clone();
+                result[index + 1] = value;
+
+                return new CollisionNode(hash, result);
+            }
+
+            Object[] result = new Object[array.length + 2];
+            System.arraycopy(array, 0, result, 0, array.length);
+
+            result[array.length] = key;
+            result[array.length + 1] = value;
+
+            return new CollisionNode(hash, result);
+        }
+
+        @Override
+        Node remove(String key, int hash, int shift) {
+            int index = indexOf(key);
+
+            if (index == -1) {
+                return this;
+            }
+
+            Object[] result = new Object[array.length - 2];
+            System.arraycopy(array, 0, result, 0, index);
+            System.arraycopy(array, index + 2, result, index, result.length - index);
+
+            return new CollisionNode(hash, result);
+        }
+    }
+
+    /** Walks through the trie's entries depth first */
+    private static final class EntryIterator {
+        private final Object[][] arrays = new Object[MAX_DEPTH][];
+        private final int[] positions = new int[MAX_DEPTH];
+        private int depth;
+
+        String key;
+        EbsElement value;
+
+        EntryIterator(Node root) {
+            arrays[0] = root.array;
+        }
+
+        /** Moves to the next entry, returns false, if there's none left */
+        boolean advance() {
+            while (depth >= 0) {
+                Object[] array = arrays[depth];
+                int position = positions[depth];
+
+                if (position >= array.length) {
+                    depth--;
+                    continue;
+                }
+
+                positions[depth] = position + 2;
+                Object k = array[position];
+
+                if (k == null) {
+                    depth++;
+                    arrays[depth] = ((Node) array[position + 1]).array;
+                    positions[depth] = 0;
+                    continue;
+                }
+
+                key = (String) k;
+                value = (EbsElement) array[position + 1];
+                return true;
+            }
+
+            return false;
+        }
+    }
+
+    private static abstract class ViewIterator<T> implements Iterator<T> {
+        final EntryIterator entries;
+        private boolean ready;
+        private boolean hasNext;
+
+        ViewIterator(Node root) {
+            entries = new EntryIterator(root);
+        }
+
+        abstract T current();
+
+        @Override
+        public boolean hasNext() {
+            if (!ready) {
+                hasNext = entries.advance();
+                ready = true;
+            }
+
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            ready = false;
+            return current();
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package me.julie.ebs.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a block compressed container written by {@link EbsBlockOutput}.
+ * <p>
+ * Opening an input only reads the container's header and block index,
+ * after that any block can be decompressed on its own, with
+ * {@link #readBlock(int)}, and {@link #blockAt(long)} finds the block
+ * holding any uncompressed position. {@link #readAll(ForkJoinPool)}
+ * decompresses all blocks at once, in parallel, straight into a single
+ * buffer, which can then be read like any other encoded document.
+ * <p>
+ * Blocks are read with positional reads, so an input can be used
+ * from multiple threads at once. The channel is not closed by this
+ * input, however it must be kept open until reading has finished.
+ */
+public final class EbsBlockInput {
+    /** Largest uncompressed size {@link #readAll(ForkJoinPool)} can decompress */
+    public static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+
+    private final FileChannel channel;
+    private final int blockSize;
+
+    /** Position of every block in the file, with the index's position as the last entry */
+    private final long[] positions;
+    /** Uncompressed length of every block */
+    private final int[] lengths;
+    private final long size;
+
+    private EbsBlockInput(FileChannel channel, int blockSize, long[] positions, int[] lengths, long size) {
+        this.channel = channel;
+        this.blockSize = blockSize;
+        this.positions = positions;
+        this.lengths = lengths;
+        this.size = size;
+    }
+
+    /**
+     * Opens a block compressed container, reading its header and index
+     * @param channel The channel of the file to read, must be readable
+     * @return The opened input
+     * @throws IOException If the file isn't a valid block compressed container
+     * @throws NullPointerException If the channel is null
+     */
+    public static EbsBlockInput open(FileChannel channel) throws IOException, NullPointerException {
+        Objects.requireNonNull(channel, "Null channel");
+
+        long fileSize = channel.size();
+
+        if (fileSize < EbsBlockOutput.HEADER_SIZE + Integer.BYTES + EbsBlockOutput.TRAILER_SIZE) {
+            throw new IOException("Not a block compressed container, too small: " + fileSize);
+        }
+
+        ByteBuffer header = read(channel, 0, EbsBlockOutput.HEADER_SIZE);
+        ByteBuffer trailer = read(channel, fileSize - EbsBlockOutput.TRAILER_SIZE, EbsBlockOutput.TRAILER_SIZE);
+
+        if (header.getInt() != EbsBlockOutput.MAGIC || trailer.getInt(Long.BYTES) != EbsBlockOutput.MAGIC) {
+            throw new IOException("Not a block compressed container");
+        }
+
+        int version = header.get();
+
+        if (version != EbsBlockOutput.VERSION) {
+            throw new IOException("Unsupported block container version: " + version);
+        }
+
+        int blockSize = header.getInt();
+
+        if (blockSize <= 0) {
+            throw new IOException("Invalid block size: " + blockSize);
+        }
+
+        long indexPosition = trailer.getLong();
+        long indexSize = fileSize - EbsBlockOutput.TRAILER_SIZE - indexPosition;
+
+        if (indexPosition < EbsBlockOutput.HEADER_SIZE || indexSize < Integer.BYTES) {
+            throw new IOException("Invalid block index position: " + indexPosition);
+        }
+
+        ByteBuffer index = read(channel, indexPosition, (int) Math.min(indexSize, Integer.MAX_VALUE));
+        int count = index.getInt();
+
+        if (count < 0 || indexSize != Integer.BYTES + count * 2L * Integer.BYTES) {
+            throw new IOException("Invalid block count: " + count);
+        }
+
+        long[] positions = new long[count + 1];
+        int[] lengths = new int[count];
+        long position = EbsBlockOutput.HEADER_SIZE;
+        long size = 0;
+
+        for (int i = 0; i < count; i++) {
+            positions[i] = position;
+            long compressedLength = index.getInt() & 0xFFFFFFFFL;
+
+            // Blocks are non-empty zlib streams, each read into a single buffer
+            if (compressedLength == 0 || compressedLength > Integer.MAX_VALUE) {
+                throw new IOException("Invalid compressed length of block " + i + ": " + compressedLength);
+            }
+
+            position += compressedLength;
+
+            lengths[i] = index.getInt();
+            size += lengths[i];
+
+            // Only the last block may be shorter than the block size
+            if (lengths[i] < 0 || lengths[i] > blockSize || lengths[i] != blockSize && i != count - 1) {
+                throw new IOException("Invalid length of block " + i + ": " + lengths[i]);
+            }
+        }
+
+        if (position != indexPosition) {
+            throw new IOException("Block lengths don't match the index position");
+        }
+
+        positions[count] = position;
+        return new EbsBlockInput(channel, blockSize, positions, lengths, size);
+    }
+
+    /**
+     * Gets the size of the container, header, compressed blocks and index
+     * @return The container's size in bytes
+     */
+    public long fileSize() {
+        return positions[lengths.length] + Integer.BYTES + 2L * Integer.BYTES * lengths.length
+                + EbsBlockOutput.TRAILER_SIZE;
+    }
+
+    /**
+     * Gets the uncompressed size of every block, except the last one
+     * @return The container's block size
+     */
+    public int blockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Gets the amount of blocks in the container
+     * @return The block count
+     */
+    public int blockCount() {
+        return lengths.length;
+    }
+
+    /**
+     * Gets the total uncompressed size of the container's data
+     * @return The uncompressed size, in bytes
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Gets the block holding the given uncompressed position
+     * @param position The uncompressed position
+     * @return The index of the block holding that position
+     * @throws IndexOutOfBoundsException If the position is outside the container's data
+     */
+    public int blockAt(long position) throws IndexOutOfBoundsException {
+        Objects.checkIndex(position, size);
+        return (int) (position / blockSize);
+    }
+
+    /**
+     * Decompresses a single block
+     * @param block The index of the block
+     * @return A heap buffer with the block's uncompressed data
+     * @throws IOException If the block couldn't be read or is corrupt
+     * @throws IndexOutOfBoundsException If there is no such block
+     */
+    public ByteBuffer readBlock(int block) throws IOException, IndexOutOfBoundsException {
+        Objects.checkIndex(block, lengths.length);
+
+        byte[] data = new byte[lengths[block]];
+        inflate(block, data, 0);
+
+        return ByteBuffer.wrap(data);
+    }
+
+    /**
+     * Decompresses all blocks on the given pool, into a single buffer
+     * @param pool The pool to decompress on
+     * @return A heap buffer with all of the container's uncompressed data
+     * @throws IOException If any block couldn't be read or is corrupt,
+     *                     or the data is larger than {@link #MAX_BUFFER_SIZE}
+     * @throws NullPointerException If the pool is null
+     */
+    public ByteBuffer readAll(ForkJoinPool pool) throws IOException, NullPointerException {
+        Objects.requireNonNull(pool, "Null pool");
+
+        if (size > MAX_BUFFER_SIZE) {
+            throw new IOException("Data too large for a single buffer: " + size);
+        }
+
+        byte[] data = new byte[(int) size];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(lengths.length);
+
+        for (int i = 0; i < lengths.length; i++) {
+            int block = i;
+
+            tasks.add(pool.submit(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    try {
+                        inflate(block, data, (int) ((long) block * blockSize));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            }));
+        }
+
+        try {
+            for (ForkJoinTask<?> task: tasks) {
+                task.join();
+            }
+        } catch (RuntimeException e) {
+            // The data is broken, other blocks don't need to finish
+            tasks.forEach(task -> task.cancel(false));
+
+            if (e instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+
+            throw e;
+        }
+
+        return ByteBuffer.wrap(data);
+    }
+
+    /**
+     * Creates a stream which reads the container's uncompressed data,
+     * starting at the given position, one block at a time
+     * @param position The uncompressed position to start at
+     * @return The created stream
+     * @throws IOException If the first block couldn't be read
+     * @throws IndexOutOfBoundsException If the position is outside the container's data
+     */
+    public InputStream stream(long position) throws IOException, IndexOutOfBoundsException {
+        if (position == size) {
+            return InputStream.nullInputStream();
+        }
+
+        int first = blockAt(position);
+        ByteBuffer buffer = readBlock(first);
+        buffer.position((int) (position - (long) first * blockSize));
+
+        return new BlockStream(first, buffer);
+    }
+
+    // Decompresses a block into the given array
+    private void inflate(int block, byte[] dest, int offset) throws IOException {
+        // Compressed lengths were checked to fit an int when opening
+        int compressedSize = (int) (positions[block + 1] - positions[block]);
+        ByteBuffer compressed = read(channel, positions[block], compressedSize);
+
+        Inflater inflater = new Inflater();
+
+        try {
+            inflater.setInput(compressed);
+            int length = lengths[block];
+            int read = 0;
+
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(dest, offset + read, length - read);
+
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+
+                read += n;
+            }
+
+            if (read != length || !inflater.finished()) {
+                throw new IOException("Corrupt block " + block + ", wrong uncompressed length");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt block " + block, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    // Reads a range of the file, with positional reads
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+
+        return buffer.flip();
+    }
+
+    // Reads the uncompressed data block by block
+    private final class BlockStream extends InputStream {
+        private int block;
+        private ByteBuffer buffer;
+
+        private BlockStream(int block, ByteBuffer buffer) {
+            this.block = block;
+            this.buffer = buffer;
+        }
+
+        // Moves to the next block if the current one is used up,
+        // returns false at the end of the data
+        private boolean fill() throws IOException {
+            while (!buffer.hasRemaining()) {
+                if (block + 1 >= lengths.length) {
+                    return false;
+                }
+
+                buffer = readBlock(++block);
+            }
+
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return fill() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+
+            if (len == 0) {
+                return 0;
+            }
+
+            if (!fill()) {
+                return -1;
+            }
+
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package me.julie.ebs.io;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.Deflater;
+
+/**
+ * Output stream which writes a block compressed container.
+ * <p>
+ * Data written to the stream is cut into blocks of a fixed
+ * uncompressed size, which are compressed independently of each
+ * other with a {@link Deflater}, on a pool, while more data is
+ * written. Compressed blocks are written to the underlying stream
+ * in order, and {@link #finish()} ends the container with an index
+ * of every block, which lets {@link EbsBlockInput} find, and
+ * decompress, any block on its own.
+ * <p>
+ * The container's layout is:
+ * <pre>
+ * int    {@link #MAGIC}
+ * byte   {@link #VERSION}
+ * int    block size, uncompressed
+ * blocks zlib streams, one per block
+ * int    block count
+ * int[]  compressed and uncompressed length of every block
+ * long   position of the block count
+ * int    {@link #MAGIC}
+ * </pre>
+ * Every block except the last one holds exactly block size
+ * uncompressed bytes. All numbers are big endian.
+ * <p>
+ * At most a few blocks per pool thread are compressed at once,
+ * writing blocks further ahead waits for earlier blocks to be
+ * written, so memory use doesn't depend on the amount of data.
+ * <p>
+ * Closing this stream finishes the container and closes the
+ * underlying stream, like a {@link java.util.zip.GZIPOutputStream}.
+ */
+public final class EbsBlockOutput extends OutputStream {
+    /** Magic number at the start and end of every container, "EBSZ" */
+    public static final int MAGIC = 0x4542535A;
+    /** Version of the container layout written */
+    public static final byte VERSION = 1;
+
+    /** Default uncompressed size of a block */
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+    /** Size of the header, magic, version and block size */
+    static final int HEADER_SIZE = Integer.BYTES + 1 + Integer.BYTES;
+    /** Size of the trailer, index position and magic */
+    static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES;
+
+    /** Blocks compressed at once, per thread of the pool */
+    private static final int PENDING_PER_THREAD = 2;
+
+    private final OutputStream output;
+    private final ForkJoinPool pool;
+    private final int blockSize;
+    private final int level;
+    private final int maxPending;
+
+    /** The block being filled, null, once finished, or once writing a block failed */
+    private byte[] block;
+    private int count;
+
+    /** Blocks being compressed, in order */
+    private final ArrayDeque<ForkJoinTask<byte[]>> pending = new ArrayDeque<>();
+
+    /** Compressed and uncompressed length of every block, compressed lengths are set once written */
+    private final IntArrayList index = new IntArrayList();
+    private int written;
+
+    /** Bytes written to the underlying stream so far */
+    private long position;
+
+    private EbsBlockOutput(OutputStream output, ForkJoinPool pool, int blockSize, int level) {
+        this.output = output;
+        this.pool = pool;
+        this.blockSize = blockSize;
+        this.level = level;
+        this.maxPending = pool.getParallelism() * PENDING_PER_THREAD;
+
+        this.block = new byte[blockSize];
+    }
+
+    /**
+     * Same as {@link #of(OutputStream, ForkJoinPool, int, int)}, with
+     * the {@link #DEFAULT_BLOCK_SIZE} and default compression level
+     * @see #of(OutputStream, ForkJoinPool, int, int)
+     */
+    public static EbsBlockOutput of(OutputStream output, ForkJoinPool pool) throws IOException, NullPointerException {
+        return of(output, pool, DEFAULT_BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Creates a stream which writes a block compressed container
+     * to the given stream, the container's header is written
+     * immediately
+     *
+     * @param output The stream to write the container to
+     * @param pool The pool to compress blocks on
+     * @param blockSize The uncompressed size of each block
+     * @param level The {@link Deflater} compression level
+     * @return The created stream
+     *
+     * @throws IOException If the header couldn't be written
+     * @throws NullPointerException If the stream or pool is null
+     * @throws IllegalArgumentException If the block size isn't positive, or the level is invalid
+     */
+    public static EbsBlockOutput of(OutputStream output, ForkJoinPool pool, int blockSize, int level)
+            throws IOException, NullPointerException, IllegalArgumentException
+    {
+        Objects.requireNonNull(output, "Null output");
+        Objects.requireNonNull(pool, "Null pool");
+
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC)
+                .put(VERSION)
+                .putInt(blockSize);
+
+        output.write(header.array());
+
+        EbsBlockOutput result = new EbsBlockOutput(output, pool, blockSize, level);
+        result.position = HEADER_SIZE;
+
+        return result;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+
+        block[count++] = (byte) b;
+
+        if (count == blockSize) {
+            submit();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        ensureOpen();
+
+        while (len > 0) {
+            int n = Math.min(len, blockSize - count);
+            System.arraycopy(b, off, block, count, n);
+
+            count += n;
+            off += n;
+            len -= n;
+
+            if (count == blockSize) {
+                submit();
+            }
+        }
+    }
+
+    /**
+     * Writes all compressed blocks and pending data to the
+     * underlying stream and flushes it. The last block isn't
+     * compressed until it's full, or the container is finished
+     * @throws IOException If the data couldn't be written
+     */
+    @Override
+    public void flush() throws IOException {
+        while (!pending.isEmpty()) {
+            writeNext();
+        }
+
+        output.flush();
+    }
+
+    /**
+     * Compresses the last block, and ends the container with its
+     * index, without closing the underlying stream. Nothing can be
+     * written after finishing
+     * @throws IOException If the data couldn't be written
+     */
+    public void finish() throws IOException {
+        if (block == null) {
+            return;
+        }
+
+        if (count > 0) {
+            submit();
+        }
+
+        block = null;
+
+        while (!pending.isEmpty()) {
+            writeNext();
+        }
+
+        // The index, as compressed and uncompressed length pairs
+        ByteBuffer footer = ByteBuffer.allocate(Integer.BYTES * (1 + index.size()) + TRAILER_SIZE);
+        footer.putInt(written);
+
+        for (int i = 0; i < index.size(); i++) {
+            footer.putInt(index.getInt(i));
+        }
+
+        footer.putLong(position).putInt(MAGIC);
+
+        output.write(footer.array());
+        output.flush();
+
+        position += footer.capacity();
+    }
+
+    /**
+     * Gets the amount of bytes written to the underlying stream so
+     * far, once finished, this is the size of the whole container
+     * @return The amount of bytes written
+     */
+    public long written() {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            output.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (block == null) {
+            throw new IOException("Container already finished");
+        }
+    }
+
+    // Starts compressing the current block, writing earlier
+    // blocks first if too many are already being compressed
+    private void submit() throws IOException {
+        while (pending.size() >= maxPending) {
+            writeNext();
+        }
+
+        byte[] data = block;
+        int length = count;
+
+        pending.add(pool.submit(() -> compress(data, length, level)));
+        index.add(0);
+        index.add(length);
+
+        block = new byte[blockSize];
+        count = 0;
+    }
+
+    // Writes the oldest block being compressed, once it's done
+    private void writeNext() throws IOException {
+        try {
+            byte[] compressed = pending.remove().join();
+
+            // The block's compressed length goes in front of its uncompressed one
+            index.set(written++ * 2, compressed.length);
+
+            output.write(compressed);
+            position += compressed.length;
+        } catch (IOException | RuntimeException e) {
+            // The container is broken, later blocks don't need to finish,
+            // and closing mustn't write an index for it
+            pending.forEach(task -> task.cancel(false));
+            pending.clear();
+            block = null;
+
+            throw e;
+        }
+    }
+
+    // Compresses a single block into its own zlib stream
+    private static byte[] compress(byte[] data, int length, int level) {
+        Deflater deflater = new Deflater(level);
+
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+
+            // Incompressible data grows a little, the result is grown if needed
+            byte[] result = new byte[length + (length >> 12) + 64];
+            int size = 0;
+
+            while (!deflater.finished()) {
+                if (size == result.length) {
+                    result = Arrays.copyOf(result, result.length * 2);
+                }
+
+                size += deflater.deflate(result, size, result.length - size);
+            }
+
+            return Arrays.copyOf(result, size);
+        } finally {
+            deflater.end();
+        }
+    }
+}
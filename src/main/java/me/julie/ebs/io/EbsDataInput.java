@@ -0,0 +1,899 @@
+package me.julie.ebs.io;
+
+import me.julie.ebs.EbsUtil;
+
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Buffered {@link DataInput} used as the decoding context
+ * when reading elements.
+ * <p>
+ * Data is pulled from the underlying stream in large chunks
+ * into a thread confined, pooled, byte buffer and decoded
+ * from there, the buffer is refilled whenever it runs dry.
+ * <p>
+ * Inputs can also be created over an existing {@link ByteBuffer}
+ * with {@link #of(ByteBuffer)}, in which case data is decoded
+ * straight from that buffer, or over a file with {@link #map(FileChannel)},
+ * which decodes from memory mapped windows of the file.
+ * <p>
+ * Inputs start out in the {@link EbsFormat#V1} format, the
+ * format is changed to the one declared by a document's header
+ * with {@link #setFormat(EbsFormat)} when the header is read.
+ * <p>
+ * An input over a buffer with a pool, see {@link #setParallel(ForkJoinPool, int)},
+ * lets container types decode parts of large containers on the pool,
+ * each from its own {@link #fork(int)} of the input.
+ * <p>
+ * Data is only read ahead from streams which support
+ * {@link InputStream#mark(int)}, closing this input moves
+ * such a stream back to directly after the last byte that
+ * was actually decoded. Other streams are read exactly as
+ * far as needed, so further data, like another document,
+ * can still be read from them afterwards.
+ * <p>
+ * Closing this input will not close the underlying stream,
+ * it only returns the buffer to the pool. An input must
+ * not be used after it's been closed.
+ */
+public final class EbsDataInput implements DataInput, Closeable {
+    /** Size of the windows {@link #map(FileChannel)} maps files with */
+    public static final int MAP_WINDOW_SIZE = 1 << 30;
+
+    /** The stream the buffer is filled from, null, if reading directly from a buffer */
+    private final InputStream stream;
+    private ByteBuffer buffer;
+
+    /** The file being mapped window by window, null, if not reading a mapped file */
+    private final FileChannel channel;
+    private final long channelSize;
+    private final int windowSize;
+
+    /** File position of the currently mapped window */
+    private long windowStart;
+
+    // The amount of bytes the last fill read from the stream, since
+    // the stream was marked right before that fill, this is used to
+    // give unread bytes back to the stream when closing. -1 if the
+    // stream can't be reset to before the last fill
+    private int lastRead = -1;
+
+    /** Whether the stream may be read past the bytes that are needed */
+    private final boolean readAhead;
+
+    /** Bytes taken from the stream so far, including the ones still buffered */
+    private long streamRead;
+    /** Position the given buffer started at, for inputs reading directly from a buffer */
+    private final int start;
+
+    private EbsFormat format = EbsFormat.V1;
+    private boolean lazy;
+
+    /** The document's key table, empty if the format has no key table */
+    private String[] keyTable = new String[0];
+
+    /** Pool large containers are decoded on, null, if reading sequentially */
+    private ForkJoinPool pool;
+    private int splitSize;
+
+    private EbsDataInput(InputStream stream, ByteBuffer buffer, boolean readAhead) {
+        this.stream = stream;
+        this.buffer = buffer;
+        this.readAhead = readAhead;
+        this.start = buffer.position();
+
+        this.channel = null;
+        this.channelSize = 0;
+        this.windowSize = 0;
+    }
+
+    private EbsDataInput(FileChannel channel, long channelSize, int windowSize) {
+        this.stream = null;
+        this.channel = channel;
+        this.channelSize = channelSize;
+        this.windowSize = windowSize;
+        this.readAhead = false;
+        this.start = 0;
+    }
+
+    /**
+     * Creates an input which reads from the given stream. Data is
+     * only read ahead if the stream supports {@link InputStream#mark(int)}
+     * @param stream The stream to read from
+     * @return The created input
+     * @throws NullPointerException If the stream is null
+     */
+    public static EbsDataInput of(InputStream stream) throws NullPointerException {
+        Objects.requireNonNull(stream, "Null stream");
+        return of(stream, stream.markSupported());
+    }
+
+    /**
+     * Creates an input which reads from the given stream.
+     * <p>
+     * Reading ahead from a stream which doesn't support
+     * {@link InputStream#mark(int)} consumes bytes past the end
+     * of the decoded data, which are lost when this input is closed,
+     * so that's only suitable for streams nothing else is read from
+     * afterwards, like a file opened just to read one document.
+     *
+     * @param stream The stream to read from
+     * @param readAhead True, to read the stream in large chunks,
+     *                  false, to only read as many bytes as needed
+     * @return The created input
+     * @throws NullPointerException If the stream is null
+     */
+    public static EbsDataInput of(InputStream stream, boolean readAhead) throws NullPointerException {
+        Objects.requireNonNull(stream, "Null stream");
+
+        ByteBuffer buffer = IoBuffers.acquire();
+        buffer.limit(0);
+
+        return new EbsDataInput(stream, buffer, readAhead);
+    }
+
+    /**
+     * Creates an input which reads directly from the given
+     * buffer, starting at the buffer's current position.
+     * <p>
+     * The buffer's position is moved forward as data is
+     * read, reaching the buffer's limit is treated as
+     * the end of the input.
+     *
+     * @param buffer The buffer to read from, must be big endian
+     * @return The created input
+     * @throws NullPointerException If the buffer is null
+     * @throws IllegalArgumentException If the buffer is not big endian
+     */
+    public static EbsDataInput of(ByteBuffer buffer) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(buffer, "Null buffer");
+
+        if (buffer.order() != ByteOrder.BIG_ENDIAN) {
+            throw new IllegalArgumentException("Buffer must be big endian");
+        }
+
+        return new EbsDataInput(null, buffer, false);
+    }
+
+    /**
+     * Creates an input which reads the given file, from its start,
+     * by memory mapping it.
+     * <p>
+     * Files are mapped in windows of {@link #MAP_WINDOW_SIZE} bytes,
+     * when a read reaches the end of a window, a new window is
+     * mapped starting at the current read position. This allows
+     * reading files larger than a single {@link ByteBuffer} can map.
+     * <p>
+     * The channel is not closed by this input, however it must be
+     * kept open until reading has finished.
+     *
+     * @param channel The channel of the file to read, must be readable
+     * @return The created input
+     * @throws IOException If the file couldn't be mapped
+     * @throws NullPointerException If the channel is null
+     */
+    public static EbsDataInput map(FileChannel channel) throws IOException, NullPointerException {
+        return map(channel, MAP_WINDOW_SIZE);
+    }
+
+    static EbsDataInput map(FileChannel channel, int windowSize) throws IOException {
+        Objects.requireNonNull(channel, "Null channel");
+
+        EbsDataInput input = new EbsDataInput(channel, channel.size(), windowSize);
+        input.mapWindow(0);
+
+        return input;
+    }
+
+    /**
+     * Gets the format elements read from this input
+     * are decoded with
+     * @return The input's format
+     */
+    public EbsFormat format() {
+        return format;
+    }
+
+    /**
+     * Sets the format elements read from this input
+     * are decoded with
+     * @param format The new format
+     * @throws NullPointerException If the format is null
+     */
+    public void setFormat(EbsFormat format) throws NullPointerException {
+        this.format = Objects.requireNonNull(format, "Null format");
+    }
+
+    /**
+     * Gets the key table of the document being read, the
+     * strings compound keys reference by index in the
+     * {@link EbsFormat#KEY_TABLE} format
+     * @return The key table, empty, if there is none
+     */
+    public String[] keyTable() {
+        return keyTable;
+    }
+
+    /**
+     * Sets the key table of the document being read
+     * @param keyTable The new key table
+     * @throws NullPointerException If the key table is null
+     */
+    public void setKeyTable(String[] keyTable) throws NullPointerException {
+        this.keyTable = Objects.requireNonNull(keyTable, "Null key table");
+    }
+
+    /**
+     * Gets the amount of bytes consumed from this input so far,
+     * counting from the position it was created at. Bytes which
+     * were buffered from a stream but not read yet aren't counted
+     * @return The amount of bytes read
+     */
+    public long bytesRead() {
+        if (channel != null) {
+            return windowStart + buffer.position();
+        }
+
+        if (stream != null) {
+            return streamRead - buffer.remaining();
+        }
+
+        return buffer.position() - start;
+    }
+
+    /**
+     * Gets the buffer this input reads directly from
+     * @return The buffer given to {@link #of(ByteBuffer)}, null,
+     *         if this input reads from a stream or mapped file
+     */
+    public ByteBuffer source() {
+        return stream == null && channel == null ? buffer : null;
+    }
+
+    /**
+     * Checks if compounds read from this input are decoded lazily
+     * @return True, if compounds are read as {@link me.julie.ebs.element.LazyEbsCompound}s
+     */
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * Sets whether compounds read from this input are decoded lazily.
+     * <p>
+     * Lazy compounds keep a reference to this input's buffer
+     * and decode their entries from it on demand, so this is
+     * only supported by inputs created with {@link #of(ByteBuffer)}
+     *
+     * @param lazy True, to decode compounds lazily
+     * @throws IllegalStateException If this input doesn't read directly from a buffer
+     * @see me.julie.ebs.element.LazyEbsCompound
+     */
+    public void setLazy(boolean lazy) throws IllegalStateException {
+        if (lazy && source() == null) {
+            throw new IllegalStateException("Lazy decoding requires an input over a ByteBuffer");
+        }
+
+        this.lazy = lazy;
+    }
+
+    /**
+     * Sets the pool container types may decode large containers on.
+     * <p>
+     * Containers with more than splitSize entries are split into
+     * runs of splitSize entries, which are decoded in parallel, each
+     * from a fork of this input starting where the run starts. Since
+     * runs are found by skipping over entries, this is cheapest for
+     * data in the {@link EbsFormat#SIZED} format.
+     * <p>
+     * Only inputs which read directly from a buffer can be read
+     * in parallel.
+     *
+     * @param pool The pool to decode on, null, to decode sequentially
+     * @param splitSize The amount of entries per run
+     * @throws IllegalArgumentException If the split size isn't positive
+     * @throws IllegalStateException If given a pool, and this input doesn't read directly from a buffer
+     */
+    public void setParallel(ForkJoinPool pool, int splitSize) throws IllegalArgumentException, IllegalStateException {
+        if (splitSize <= 0) {
+            throw new IllegalArgumentException("Split size must be positive: " + splitSize);
+        }
+
+        if (pool != null && source() == null) {
+            throw new IllegalStateException("Parallel decoding requires an input over a ByteBuffer");
+        }
+
+        this.pool = pool;
+        this.splitSize = splitSize;
+    }
+
+    /**
+     * Gets the pool container types may decode large containers on
+     * @return The input's pool, null, if it's read sequentially
+     */
+    public ForkJoinPool pool() {
+        return pool;
+    }
+
+    /**
+     * Gets the amount of entries per run large containers are split into
+     * @return The split size, only set when there is a pool
+     */
+    public int splitSize() {
+        return splitSize;
+    }
+
+    /**
+     * Creates an input which reads the same buffer as this input,
+     * starting at the given position, with the same format, key
+     * table and pool. Forks can be read on other threads
+     *
+     * @param position The position in the buffer to start reading at
+     * @return The created fork
+     * @throws IllegalStateException If this input doesn't read directly from a buffer
+     * @throws IllegalArgumentException If the position is outside the buffer
+     */
+    public EbsDataInput fork(int position) throws IllegalStateException, IllegalArgumentException {
+        ByteBuffer source = source();
+
+        if (source == null) {
+            throw new IllegalStateException("Only inputs over a ByteBuffer can be forked");
+        }
+
+        EbsDataInput fork = of(source.duplicate().position(position));
+        fork.format = format;
+        fork.keyTable = keyTable;
+        fork.lazy = lazy;
+        fork.pool = pool;
+        fork.splitSize = splitSize;
+
+        return fork;
+    }
+
+    /* ----------------------------- BUFFER MANAGEMENT ------------------------------ */
+
+    // Makes sure the given amount of bytes is readable from
+    // the buffer, the amount must never be larger than the buffer
+    private void require(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            fill(bytes);
+        }
+    }
+
+    private void fill(int bytes) throws IOException {
+        if (channel != null) {
+            long position = windowStart + buffer.position();
+
+            if (channelSize - position < bytes) {
+                throw new EOFException();
+            }
+
+            mapWindow(position);
+            return;
+        }
+
+        if (stream == null) {
+            throw new EOFException();
+        }
+
+        buffer.compact();
+
+        // Without reading ahead, only the missing bytes are read
+        if (!readAhead) {
+            buffer.limit(bytes);
+        }
+
+        // The mark covers the whole fill, since the bytes left
+        // over before it are decoded by the read that needed the
+        // fill, unread bytes always come from the latest fill
+        boolean marked = readAhead && stream.markSupported();
+
+        if (marked) {
+            stream.mark(buffer.remaining());
+        }
+
+        int filled = 0;
+        lastRead = -1;
+
+        try {
+            while (buffer.position() < bytes) {
+                int read = stream.read(
+                        buffer.array(),
+                        buffer.arrayOffset() + buffer.position(),
+                        buffer.remaining()
+                );
+
+                if (read == -1) {
+                    throw new EOFException();
+                }
+
+                filled += read;
+                streamRead += read;
+                buffer.position(buffer.position() + read);
+            }
+        } finally {
+            lastRead = marked ? filled : -1;
+            buffer.flip();
+        }
+    }
+
+    // Maps the window starting at the given file position,
+    // values can straddle the old window's end, since the new
+    // one starts exactly where reading left off
+    private void mapWindow(long position) throws IOException {
+        long length = Math.min(channelSize - position, windowSize);
+
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        windowStart = position;
+    }
+
+    // Reads a single byte, or returns -1 on end of stream
+    private int read() throws IOException {
+        if (!buffer.hasRemaining()) {
+            try {
+                fill(1);
+            } catch (EOFException e) {
+                return -1;
+            }
+        }
+
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * Returns this input's buffer to the pool and, if
+     * possible, moves the underlying stream back to the
+     * position directly after the last decoded byte.
+     * <p>
+     * Does not close the underlying stream.
+     *
+     * @throws IOException If the stream couldn't be reset
+     */
+    @Override
+    public void close() throws IOException {
+        // Inputs over a given buffer have nothing to give back
+        if (buffer == null || stream == null) {
+            buffer = null;
+            return;
+        }
+
+        try {
+            int unread = buffer.remaining();
+
+            // Unread bytes always come from the last fill
+            if (unread > 0 && lastRead >= unread) {
+                stream.reset();
+                stream.skipNBytes(lastRead - unread);
+            } else if (unread > 0 && stream.markSupported()) {
+                throw new IOException("Couldn't give " + unread + " unread bytes back to the stream");
+            }
+        } finally {
+            IoBuffers.release(buffer);
+            buffer = null;
+        }
+    }
+
+    /* ----------------------------- DATA INPUT ------------------------------ */
+
+    @Override
+    public void readFully(byte[] b) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+
+        int buffered = Math.min(len, buffer.remaining());
+        buffer.get(b, off, buffered);
+
+        off += buffered;
+        len -= buffered;
+
+        if (len == 0) {
+            return;
+        }
+
+        if (channel != null) {
+            while (len > 0) {
+                require(1);
+
+                int read = Math.min(len, buffer.remaining());
+                buffer.get(b, off, read);
+
+                off += read;
+                len -= read;
+            }
+
+            return;
+        }
+
+        if (stream == null) {
+            throw new EOFException();
+        }
+
+        // Large reads skip the buffer entirely
+        if (len >= buffer.capacity()) {
+            lastRead = -1;
+
+            if (stream.readNBytes(b, off, len) < len) {
+                throw new EOFException();
+            }
+
+            streamRead += len;
+
+            return;
+        }
+
+        require(len);
+        buffer.get(b, off, len);
+    }
+
+    @Override
+    public int skipBytes(int n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+
+        int buffered = Math.min(n, buffer.remaining());
+        buffer.position(buffer.position() + buffered);
+
+        int skipped = buffered;
+
+        if (skipped == n || (stream == null && channel == null)) {
+            return skipped;
+        }
+
+        if (channel != null) {
+            long position = windowStart + buffer.position();
+            int toSkip = (int) Math.min(n - skipped, channelSize - position);
+
+            mapWindow(position + toSkip);
+            return skipped + toSkip;
+        }
+
+        lastRead = -1;
+
+        while (skipped < n) {
+            long s = stream.skip(n - skipped);
+
+            if (s <= 0) {
+                // skip() may return 0 before the end of
+                // the stream, so check with a read
+                if (stream.read() == -1) {
+                    break;
+                }
+
+                s = 1;
+            }
+
+            skipped += (int) s;
+            streamRead += s;
+        }
+
+        return skipped;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        require(Byte.BYTES);
+        return buffer.get();
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return readByte() & 0xFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        require(Short.BYTES);
+        return buffer.getShort();
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xFFFF;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        require(Character.BYTES);
+        return buffer.getChar();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        require(Integer.BYTES);
+        return buffer.getInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        require(Long.BYTES);
+        return buffer.getLong();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        require(Float.BYTES);
+        return buffer.getFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        require(Double.BYTES);
+        return buffer.getDouble();
+    }
+
+    @Override
+    @Deprecated
+    public String readLine() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        int c = read();
+
+        if (c == -1) {
+            return null;
+        }
+
+        while (c != -1 && c != '\n') {
+            if (c == '\r') {
+                int next = read();
+
+                // Not a \r\n line end, give the byte back
+                if (next != '\n' && next != -1) {
+                    buffer.position(buffer.position() - 1);
+                }
+
+                break;
+            }
+
+            builder.append((char) c);
+            c = read();
+        }
+
+        return builder.toString();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        int length = readUnsignedShort();
+
+        // Pooled buffers always fit the max UTF
+        // length, so decode the string in place
+        if (buffer.hasArray() && length <= buffer.capacity()) {
+            require(length);
+
+            String result = EbsUtil.decodeModifiedUtf(
+                    buffer.array(),
+                    buffer.arrayOffset() + buffer.position(),
+                    length
+            );
+
+            buffer.position(buffer.position() + length);
+            return result;
+        }
+
+        byte[] bytes = new byte[length];
+        readFully(bytes);
+
+        return EbsUtil.decodeModifiedUtf(bytes, 0, length);
+    }
+
+    /* ----------------------------- BULK ------------------------------ */
+
+    /**
+     * Reads big endian short values into the given array, copying
+     * as many values at once as the buffer holds
+     * @param dest The array to read into
+     * @param off The index of the first value to read
+     * @param len The amount of values to read
+     * @throws IOException If the values couldn't be read
+     */
+    public void readShorts(short[] dest, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, dest.length);
+
+        while (len > 0) {
+            int count = Math.min(len, buffer.remaining() / Short.BYTES);
+
+            // Value straddles the buffer's end, read it on its own
+            if (count == 0) {
+                dest[off++] = readShort();
+                len--;
+                continue;
+            }
+
+            buffer.asShortBuffer().get(dest, off, count);
+            buffer.position(buffer.position() + count * Short.BYTES);
+
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * Reads big endian int values into the given array, copying
+     * as many values at once as the buffer holds
+     * @param dest The array to read into
+     * @param off The index of the first value to read
+     * @param len The amount of values to read
+     * @throws IOException If the values couldn't be read
+     */
+    public void readInts(int[] dest, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, dest.length);
+
+        while (len > 0) {
+            int count = Math.min(len, buffer.remaining() / Integer.BYTES);
+
+            // Value straddles the buffer's end, read it on its own
+            if (count == 0) {
+                dest[off++] = readInt();
+                len--;
+                continue;
+            }
+
+            buffer.asIntBuffer().get(dest, off, count);
+            buffer.position(buffer.position() + count * Integer.BYTES);
+
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * Reads big endian long values into the given array, copying
+     * as many values at once as the buffer holds
+     * @param dest The array to read into
+     * @param off The index of the first value to read
+     * @param len The amount of values to read
+     * @throws IOException If the values couldn't be read
+     */
+    public void readLongs(long[] dest, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, dest.length);
+
+        while (len > 0) {
+            int count = Math.min(len, buffer.remaining() / Long.BYTES);
+
+            // Value straddles the buffer's end, read it on its own
+            if (count == 0) {
+                dest[off++] = readLong();
+                len--;
+                continue;
+            }
+
+            buffer.asLongBuffer().get(dest, off, count);
+            buffer.position(buffer.position() + count * Long.BYTES);
+
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * Reads big endian float values into the given array, copying
+     * as many values at once as the buffer holds
+     * @param dest The array to read into
+     * @param off The index of the first value to read
+     * @param len The amount of values to read
+     * @throws IOException If the values couldn't be read
+     */
+    public void readFloats(float[] dest, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, dest.length);
+
+        while (len > 0) {
+            int count = Math.min(len, buffer.remaining() / Float.BYTES);
+
+            // Value straddles the buffer's end, read it on its own
+            if (count == 0) {
+                dest[off++] = readFloat();
+                len--;
+                continue;
+            }
+
+            buffer.asFloatBuffer().get(dest, off, count);
+            buffer.position(buffer.position() + count * Float.BYTES);
+
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * Reads big endian double values into the given array, copying
+     * as many values at once as the buffer holds
+     * @param dest The array to read into
+     * @param off The index of the first value to read
+     * @param len The amount of values to read
+     * @throws IOException If the values couldn't be read
+     */
+    public void readDoubles(double[] dest, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, dest.length);
+
+        while (len > 0) {
+            int count = Math.min(len, buffer.remaining() / Double.BYTES);
+
+            // Value straddles the buffer's end, read it on its own
+            if (count == 0) {
+                dest[off++] = readDouble();
+                len--;
+                continue;
+            }
+
+            buffer.asDoubleBuffer().get(dest, off, count);
+            buffer.position(buffer.position() + count * Double.BYTES);
+
+            off += count;
+            len -= count;
+        }
+    }
+
+    /* ----------------------------- COMPACT FORMAT ------------------------------ */
+
+    /**
+     * Reads an unsigned LEB128 var int
+     * @return The read value
+     * @throws IOException If the var int is longer than 5 bytes,
+     *                     or the input ends before the var int does
+     */
+    public int readVarInt() throws IOException {
+        int result = 0;
+
+        for (int shift = 0; shift < EbsUtil.MAX_VAR_INT_BYTES * 7; shift += 7) {
+            byte b = readByte();
+            result |= (b & 0x7F) << shift;
+
+            if (b >= 0) {
+                return result;
+            }
+        }
+
+        throw new IOException("Malformed var int");
+    }
+
+    /**
+     * Reads a string written by {@link EbsDataOutput#writeUtf8(String)}
+     * @return The read string
+     * @throws IOException If the string couldn't be read
+     */
+    public String readUtf8() throws IOException {
+        int length = readVarInt();
+
+        if (length < 0) {
+            throw new IOException("Negative string length: " + length);
+        }
+
+        if (buffer.hasArray() && length <= buffer.capacity()) {
+            require(length);
+
+            String result = new String(
+                    buffer.array(),
+                    buffer.arrayOffset() + buffer.position(),
+                    length,
+                    StandardCharsets.UTF_8
+            );
+
+            buffer.position(buffer.position() + length);
+            return result;
+        }
+
+        byte[] bytes = new byte[length];
+        readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,909 @@
+package me.julie.ebs.io;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import me.julie.ebs.EbsUtil;
+
+import java.io.Closeable;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UTFDataFormatException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Buffered {@link DataOutput} used as the encoding context
+ * when writing elements.
+ * <p>
+ * Instead of turning every {@link #writeInt(int)} into a
+ * write call on the underlying stream, values are placed
+ * into a thread confined, pooled, byte buffer which is
+ * only handed to the stream once it's full or when the
+ * output is flushed/closed.
+ * <p>
+ * Outputs can also be created over an existing {@link ByteBuffer}
+ * with {@link #of(ByteBuffer)}, in which case data is written
+ * straight into that buffer, or with {@link #growable(int, EbsFormat)},
+ * in which case data is written into a heap buffer that grows as needed.
+ * <p>
+ * An output with a pool, see {@link #setParallel(ForkJoinPool, int)},
+ * lets container types encode parts of large containers on the pool,
+ * each into its own {@link #fork(int)}, which are then {@link #append(EbsDataOutput) appended}
+ * in order, the written bytes don't change.
+ * <p>
+ * The encoded bytes are exactly the same as the ones a
+ * {@link java.io.DataOutputStream} would produce. On top of
+ * the {@link DataOutput} methods, outputs can also write the
+ * var ints and UTF-8 strings used by {@link EbsFormat#V2}.
+ * <p>
+ * Lengths and sizes that are only known after their data is
+ * written can be reserved with {@link #reserveInt()} or {@link #beginLength()},
+ * while an int is reserved, the buffer grows instead of being
+ * written to the stream, so the int can be filled in later.
+ * Outputs writing to a file, see {@link #of(FileChannel, EbsFormat)},
+ * keep handing data to the file instead, and fill reserved ints
+ * in with positional writes.
+ * <p>
+ * Closing this output will not close the underlying
+ * stream, it only writes out any buffered data and
+ * returns the buffer to the pool. An output must not
+ * be used after it's been closed.
+ */
+public final class EbsDataOutput implements DataOutput, Closeable {
+    /** Largest size a buffer can grow to, while ints are reserved */
+    private static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+
+    /** Marks filled in reserved ints */
+    private static final long FILLED = -1;
+
+    /** Longest string, in chars, whose UTF-8 length always fits into a single var int byte */
+    private static final int SHORT_STRING_CHARS = 0x7F / 3;
+
+    /** The stream buffered data is written to, null, if writing directly into a buffer */
+    private final OutputStream stream;
+    /** The file the stream writes to, null, if the stream isn't a file's */
+    private final FileChannel channel;
+    /** Position in the file this output started writing at */
+    private final long channelStart;
+    private ByteBuffer buffer;
+
+    /** True, if the buffer is grown when it runs out of room, instead of overflowing */
+    private final boolean growable;
+
+    private final EbsFormat format;
+
+    /** Bytes already handed to the stream */
+    private long drained;
+    /** Position the buffer started at, for outputs writing directly into a given buffer */
+    private final int start;
+
+    /** Maps keys to their index in the document's key table, null, if there is no key table */
+    private Object2IntOpenHashMap<String> keyTable;
+
+    /** Pool large containers are encoded on, null, if writing sequentially */
+    private ForkJoinPool pool;
+    private int splitSize;
+
+    /**
+     * Amount of reserved ints that still have to be filled in, the buffer
+     * can't be drained until then, unless the output writes to a file
+     */
+    private int openReserved;
+    /** Positions of reserved ints, counted like {@link #written()}, by marker, {@link #FILLED} once filled in */
+    private final LongArrayList reserved = new LongArrayList();
+
+    private EbsDataOutput(OutputStream stream, FileChannel channel, long channelStart,
+                          ByteBuffer buffer, boolean growable, EbsFormat format)
+    {
+        this.stream = stream;
+        this.channel = channel;
+        this.channelStart = channelStart;
+        this.buffer = buffer;
+        this.growable = growable;
+        this.format = format;
+        this.start = buffer.position();
+    }
+
+    /**
+     * Creates an output which writes to the given stream
+     * in the {@link EbsFormat#V1} format
+     * @param stream The stream to write to
+     * @return The created output
+     * @throws NullPointerException If the stream is null
+     */
+    public static EbsDataOutput of(OutputStream stream) throws NullPointerException {
+        return of(stream, EbsFormat.V1);
+    }
+
+    /**
+     * Creates an output which writes to the given stream
+     * @param stream The stream to write to
+     * @param format The format elements are encoded with
+     * @return The created output
+     * @throws NullPointerException If the stream or format is null
+     */
+    public static EbsDataOutput of(OutputStream stream, EbsFormat format) throws NullPointerException {
+        Objects.requireNonNull(stream, "Null stream");
+        Objects.requireNonNull(format, "Null format");
+
+        return new EbsDataOutput(stream, null, 0, IoBuffers.acquire(), false, format);
+    }
+
+    /**
+     * Creates an output which writes to the given file, starting at
+     * the channel's position.
+     * <p>
+     * Unlike outputs writing to a stream, reserved ints don't keep
+     * data in memory, data is written to the file as usual, and
+     * reserved ints are filled in with positional writes. The channel
+     * must not be written to by anything else until this output is closed
+     *
+     * @param channel The channel of the file to write to, must be writable
+     * @param format The format elements are encoded with
+     * @return The created output
+     * @throws IOException If the channel's position couldn't be gotten
+     * @throws NullPointerException If the channel or format is null
+     */
+    public static EbsDataOutput of(FileChannel channel, EbsFormat format) throws IOException, NullPointerException {
+        Objects.requireNonNull(channel, "Null channel");
+        Objects.requireNonNull(format, "Null format");
+
+        return new EbsDataOutput(Channels.newOutputStream(channel), channel, channel.position(),
+                IoBuffers.acquire(), false, format);
+    }
+
+    /**
+     * Creates an output which writes directly into the given
+     * buffer, starting at the buffer's current position, in
+     * the {@link EbsFormat#V1} format.
+     * <p>
+     * The buffer's position is moved forward as data is
+     * written, writing more data than there is room for in
+     * the buffer throws a {@link BufferOverflowException}
+     *
+     * @param buffer The buffer to write to, must be big endian
+     * @return The created output
+     * @throws NullPointerException If the buffer is null
+     * @throws IllegalArgumentException If the buffer is not big endian
+     * @throws java.nio.ReadOnlyBufferException If the buffer is read only
+     */
+    public static EbsDataOutput of(ByteBuffer buffer) throws NullPointerException, IllegalArgumentException {
+        return of(buffer, EbsFormat.V1);
+    }
+
+    /**
+     * Creates an output which writes directly into the given
+     * buffer, starting at the buffer's current position.
+     *
+     * @param buffer The buffer to write to, must be big endian
+     * @param format The format elements are encoded with
+     * @return The created output
+     * @throws NullPointerException If the buffer or format is null
+     * @throws IllegalArgumentException If the buffer is not big endian
+     * @throws java.nio.ReadOnlyBufferException If the buffer is read only
+     * @see #of(ByteBuffer)
+     */
+    public static EbsDataOutput of(ByteBuffer buffer, EbsFormat format) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(buffer, "Null buffer");
+        Objects.requireNonNull(format, "Null format");
+
+        if (buffer.order() != ByteOrder.BIG_ENDIAN) {
+            throw new IllegalArgumentException("Buffer must be big endian");
+        }
+
+        if (buffer.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+
+        return new EbsDataOutput(null, null, 0, buffer, false, format);
+    }
+
+    /**
+     * Creates an output which writes into a heap buffer of its own,
+     * which is grown whenever it runs out of room. The written data
+     * can be gotten with {@link #toBuffer()}.
+     * <p>
+     * The buffer is never taken from the pool, so any amount of
+     * these outputs can be open at the same time, and there's
+     * no need to close them.
+     *
+     * @param capacity The initial capacity of the buffer
+     * @param format The format elements are encoded with
+     * @return The created output
+     * @throws NullPointerException If the format is null
+     * @throws IllegalArgumentException If the capacity is negative
+     */
+    public static EbsDataOutput growable(int capacity, EbsFormat format) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(format, "Null format");
+
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Negative capacity: " + capacity);
+        }
+
+        return new EbsDataOutput(null, null, 0, ByteBuffer.allocate(capacity), true, format);
+    }
+
+    /**
+     * Gets the format elements written to this output
+     * are encoded with
+     * @return The output's format
+     */
+    public EbsFormat format() {
+        return format;
+    }
+
+    /**
+     * Sets the key table of the document being written,
+     * the keys are given indices in iteration order
+     * @param keys The keys in the table
+     * @throws NullPointerException If the keys are null
+     */
+    public void setKeyTable(Collection<String> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "Null keys");
+
+        keyTable = new Object2IntOpenHashMap<>(keys.size());
+        keyTable.defaultReturnValue(-1);
+
+        for (String key: keys) {
+            keyTable.putIfAbsent(key, keyTable.size());
+        }
+    }
+
+    /**
+     * Gets the index of a key in the document's key table
+     * @param key The key to look up
+     * @return The key's index, or -1, if the key isn't in
+     *         the table, or there is no key table
+     */
+    public int keyIndex(String key) {
+        return keyTable == null ? -1 : keyTable.getInt(key);
+    }
+
+    /**
+     * Sets the pool container types may encode large containers on.
+     * <p>
+     * Containers with more than splitSize entries are split into
+     * runs of splitSize entries, which are encoded in parallel
+     * and written in order.
+     *
+     * @param pool The pool to encode on, null, to encode sequentially
+     * @param splitSize The amount of entries per run
+     * @throws IllegalArgumentException If the split size isn't positive
+     */
+    public void setParallel(ForkJoinPool pool, int splitSize) throws IllegalArgumentException {
+        if (splitSize <= 0) {
+            throw new IllegalArgumentException("Split size must be positive: " + splitSize);
+        }
+
+        this.pool = pool;
+        this.splitSize = splitSize;
+    }
+
+    /**
+     * Gets the pool container types may encode large containers on
+     * @return The output's pool, null, if it's written sequentially
+     */
+    public ForkJoinPool pool() {
+        return pool;
+    }
+
+    /**
+     * Gets the amount of entries per run large containers are split into
+     * @return The split size, only set when there is a pool
+     */
+    public int splitSize() {
+        return splitSize;
+    }
+
+    /**
+     * Creates a growable output to encode part of this output's
+     * document in, with the same format, key table and pool.
+     * <p>
+     * Forks can be written on other threads, and are written to
+     * this output, in order, with {@link #append(EbsDataOutput)}
+     *
+     * @param capacity The initial capacity of the fork's buffer
+     * @return The created fork
+     * @throws IllegalArgumentException If the capacity is negative
+     */
+    public EbsDataOutput fork(int capacity) throws IllegalArgumentException {
+        EbsDataOutput fork = growable(capacity, format);
+        fork.keyTable = keyTable;
+        fork.pool = pool;
+        fork.splitSize = splitSize;
+
+        return fork;
+    }
+
+    /**
+     * Writes all data written to a fork of this output
+     * @param fork The fork to append
+     * @throws IOException If the data couldn't be written
+     * @see #fork(int)
+     */
+    public void append(EbsDataOutput fork) throws IOException {
+        write(fork.buffer.array(), fork.buffer.arrayOffset(), fork.buffer.position());
+    }
+
+    /* ----------------------------- BUFFER MANAGEMENT ------------------------------ */
+
+    // Makes sure there's room for the given amount of bytes in
+    // the buffer, the amount must never be larger than the buffer
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+
+        if (stream == null) {
+            if (!growable) {
+                throw new BufferOverflowException();
+            }
+
+            grow(bytes);
+            return;
+        }
+
+        if (openReserved > 0 && channel == null) {
+            grow(bytes);
+            return;
+        }
+
+        drain();
+    }
+
+    // Grows the buffer to fit the given amount of bytes more, used when
+    // the buffered data can't be handed to the stream yet, or the output
+    // is growable
+    private void grow(int bytes) throws IOException {
+        long needed = (long) buffer.position() + bytes;
+
+        if (needed > MAX_BUFFER_SIZE) {
+            throw new IOException(openReserved > 0
+                    ? "Sized data exceeds 2 GiB, the most that can be buffered, write it to a file instead"
+                    : "Written data exceeds 2 GiB, the largest possible buffer");
+        }
+
+        int capacity = (int) Math.min(Math.max((long) buffer.capacity() * 2, needed), MAX_BUFFER_SIZE);
+        ByteBuffer grown = ByteBuffer.allocate(capacity);
+
+        grown.put(buffer.flip());
+
+        if (stream != null) {
+            IoBuffers.release(buffer);
+        }
+
+        buffer = grown;
+    }
+
+    // Writes the buffer's contents to the stream
+    private void drain() throws IOException {
+        if (stream == null || buffer.position() == 0) {
+            return;
+        }
+
+        stream.write(buffer.array(), buffer.arrayOffset(), buffer.position());
+        drained += buffer.position();
+        buffer.clear();
+    }
+
+    /**
+     * Gets the data written to an output created with
+     * {@link #growable(int, EbsFormat)}. The returned buffer
+     * shares this output's array, its position is 0 and its
+     * limit is the amount of bytes written.
+     * <p>
+     * The buffer is only valid until more data is written,
+     * which may move the data into a bigger array
+     *
+     * @return The written data
+     * @throws IllegalStateException If this output isn't growable
+     */
+    public ByteBuffer toBuffer() throws IllegalStateException {
+        if (!growable) {
+            throw new IllegalStateException("Output is not growable");
+        }
+
+        return ByteBuffer.wrap(buffer.array(), 0, buffer.position());
+    }
+
+    /**
+     * Gets the amount of bytes written to this output so far,
+     * counting from the position it was created at. Bytes which
+     * are still buffered for the stream are counted as written
+     * @return The amount of bytes written
+     */
+    public long written() {
+        return drained + buffer.position() - start;
+    }
+
+    /**
+     * Writes all buffered data to the underlying stream
+     * and flushes it. While any int is reserved, the
+     * buffered data is kept and only the stream is flushed,
+     * unless the output writes to a file
+     * @throws IOException If the data couldn't be written
+     */
+    public void flush() throws IOException {
+        if (stream == null) {
+            return;
+        }
+
+        if (openReserved == 0 || channel != null) {
+            drain();
+        }
+
+        stream.flush();
+    }
+
+    /**
+     * Writes any remaining buffered data to the underlying
+     * stream and returns this output's buffer to the pool.
+     * <p>
+     * Does not close the underlying stream.
+     *
+     * @throws IOException If the buffered data couldn't be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+
+        try {
+            drain();
+        } finally {
+            // Only pooled buffers are given back,
+            // never the one we were given to write to
+            if (stream != null) {
+                IoBuffers.release(buffer);
+            }
+
+            buffer = null;
+        }
+    }
+
+    /* ----------------------------- DATA OUTPUT ------------------------------ */
+
+    @Override
+    public void write(int b) throws IOException {
+        ensure(1);
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+
+        if (len <= buffer.remaining()) {
+            buffer.put(b, off, len);
+            return;
+        }
+
+        if (stream == null && !growable) {
+            throw new BufferOverflowException();
+        }
+
+        if (stream == null || openReserved > 0 && channel == null) {
+            grow(len);
+            buffer.put(b, off, len);
+            return;
+        }
+
+        drain();
+
+        // Too big to be worth buffering, hand it
+        // to the stream directly
+        if (len >= buffer.capacity()) {
+            stream.write(b, off, len);
+            drained += len;
+        } else {
+            buffer.put(b, off, len);
+        }
+    }
+
+    @Override
+    public void writeBoolean(boolean v) throws IOException {
+        write(v ? 1 : 0);
+    }
+
+    @Override
+    public void writeByte(int v) throws IOException {
+        write(v);
+    }
+
+    @Override
+    public void writeShort(int v) throws IOException {
+        ensure(Short.BYTES);
+        buffer.putShort((short) v);
+    }
+
+    @Override
+    public void writeChar(int v) throws IOException {
+        ensure(Character.BYTES);
+        buffer.putChar((char) v);
+    }
+
+    @Override
+    public void writeInt(int v) throws IOException {
+        ensure(Integer.BYTES);
+        buffer.putInt(v);
+    }
+
+    @Override
+    public void writeLong(long v) throws IOException {
+        ensure(Long.BYTES);
+        buffer.putLong(v);
+    }
+
+    @Override
+    public void writeFloat(float v) throws IOException {
+        ensure(Float.BYTES);
+        buffer.putFloat(v);
+    }
+
+    @Override
+    public void writeDouble(double v) throws IOException {
+        ensure(Double.BYTES);
+        buffer.putDouble(v);
+    }
+
+    @Override
+    public void writeBytes(String s) throws IOException {
+        int length = s.length();
+
+        for (int i = 0; i < length; i++) {
+            write(s.charAt(i));
+        }
+    }
+
+    @Override
+    public void writeChars(String s) throws IOException {
+        int length = s.length();
+
+        for (int i = 0; i < length; i++) {
+            writeChar(s.charAt(i));
+        }
+    }
+
+    @Override
+    public void writeUTF(String s) throws IOException {
+        int utfLength = EbsUtil.modifiedUtfLength(s);
+
+        if (utfLength > EbsUtil.MAX_UTF_LENGTH) {
+            throw new UTFDataFormatException("encoded string too long: " + utfLength + " bytes");
+        }
+
+        writeShort(utfLength);
+
+        // Pooled buffers always fit the max UTF
+        // length, so encode the string in place
+        if (buffer.hasArray() && buffer.remaining() >= utfLength) {
+            int start = buffer.arrayOffset() + buffer.position();
+            int end = EbsUtil.encodeModifiedUtf(s, buffer.array(), start);
+
+            buffer.position(buffer.position() + (end - start));
+            return;
+        }
+
+        byte[] bytes = new byte[utfLength];
+        EbsUtil.encodeModifiedUtf(s, bytes, 0);
+
+        write(bytes);
+    }
+
+    /* ----------------------------- BULK ------------------------------ */
+
+    /**
+     * Writes the given short values big endian, copying as
+     * many values at once as there's room for in the buffer
+     * @param src The array to write from
+     * @param off The index of the first value to write
+     * @param len The amount of values to write
+     * @throws IOException If the values couldn't be written
+     */
+    public void writeShorts(short[] src, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, src.length);
+
+        while (len > 0) {
+            int count = Math.min(len, buffer.remaining() / Short.BYTES);
+
+            // No room for a whole value, make room with a single write
+            if (count == 0) {
+                writeShort(src[off++]);
+                len--;
+                continue;
+            }
+
+            buffer.asShortBuffer().put(src, off, count);
+            buffer.position(buffer.position() + count * Short.BYTES);
+
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * Writes the given int values big endian, copying as
+     * many values at once as there's room for in the buffer
+     * @param src The array to write from
+     * @param off The index of the first value to write
+     * @param len The amount of values to write
+     * @throws IOException If the values couldn't be written
+     */
+    public void writeInts(int[] src, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, src.length);
+
+        while (len > 0) {
+            int count = Math.min(len, buffer.remaining() / Integer.BYTES);
+
+            // No room for a whole value, make room with a single write
+            if (count == 0) {
+                writeInt(src[off++]);
+                len--;
+                continue;
+            }
+
+            buffer.asIntBuffer().put(src, off, count);
+            buffer.position(buffer.position() + count * Integer.BYTES);
+
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * Writes the given long values big endian, copying as
+     * many values at once as there's room for in the buffer
+     * @param src The array to write from
+     * @param off The index of the first value to write
+     * @param len The amount of values to write
+     * @throws IOException If the values couldn't be written
+     */
+    public void writeLongs(long[] src, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, src.length);
+
+        while (len > 0) {
+            int count = Math.min(len, buffer.remaining() / Long.BYTES);
+
+            // No room for a whole value, make room with a single write
+            if (count == 0) {
+                writeLong(src[off++]);
+                len--;
+                continue;
+            }
+
+            buffer.asLongBuffer().put(src, off, count);
+            buffer.position(buffer.position() + count * Long.BYTES);
+
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * Writes the given float values big endian, copying as
+     * many values at once as there's room for in the buffer
+     * @param src The array to write from
+     * @param off The index of the first value to write
+     * @param len The amount of values to write
+     * @throws IOException If the values couldn't be written
+     */
+    public void writeFloats(float[] src, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, src.length);
+
+        while (len > 0) {
+            int count = Math.min(len, buffer.remaining() / Float.BYTES);
+
+            // No room for a whole value, make room with a single write
+            if (count == 0) {
+                writeFloat(src[off++]);
+                len--;
+                continue;
+            }
+
+            buffer.asFloatBuffer().put(src, off, count);
+            buffer.position(buffer.position() + count * Float.BYTES);
+
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * Writes the given double values big endian, copying as
+     * many values at once as there's room for in the buffer
+     * @param src The array to write from
+     * @param off The index of the first value to write
+     * @param len The amount of values to write
+     * @throws IOException If the values couldn't be written
+     */
+    public void writeDoubles(double[] src, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, src.length);
+
+        while (len > 0) {
+            int count = Math.min(len, buffer.remaining() / Double.BYTES);
+
+            // No room for a whole value, make room with a single write
+            if (count == 0) {
+                writeDouble(src[off++]);
+                len--;
+                continue;
+            }
+
+            buffer.asDoubleBuffer().put(src, off, count);
+            buffer.position(buffer.position() + count * Double.BYTES);
+
+            off += count;
+            len -= count;
+        }
+    }
+
+    /* ----------------------------- COMPACT FORMAT ------------------------------ */
+
+    /**
+     * Writes an unsigned LEB128 var int, 1 byte for
+     * values below 128, up to 5 bytes for the rest.
+     * Negative values always take up 5 bytes.
+     * @param value The value to write
+     * @throws IOException If the value couldn't be written
+     */
+    public void writeVarInt(int value) throws IOException {
+        ensure(EbsUtil.varIntSize(value));
+
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Writes a string as a var int byte length followed
+     * by the string's UTF-8 bytes.
+     * <p>
+     * Unlike {@link #writeUTF(String)}, this has no length limit.
+     * Short strings, like most compound keys, are encoded straight
+     * into the buffer, without an intermediate byte array
+     *
+     * @param s The string to write
+     * @throws IOException If the string couldn't be written
+     */
+    public void writeUtf8(String s) throws IOException {
+        int chars = s.length();
+        int maxLength = chars * 3;
+
+        // The length of a short string always fits in a single var
+        // int byte, so it's filled in after encoding in one pass
+        if (chars <= SHORT_STRING_CHARS
+                && buffer.hasArray()
+                && (stream != null || growable || buffer.remaining() > maxLength)
+        ) {
+            ensure(1 + maxLength);
+
+            int position = buffer.position();
+            int start = buffer.arrayOffset() + position + 1;
+            int length = EbsUtil.encodeUtf8(s, buffer.array(), start) - start;
+
+            buffer.put(position, (byte) length);
+            buffer.position(position + 1 + length);
+            return;
+        }
+
+        // The JDK's encoder copies ASCII and Latin-1
+        // strings with intrinsics, which beats encoding
+        // large strings char by char
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+
+        writeVarInt(bytes.length);
+        write(bytes);
+    }
+
+    /**
+     * Reserves 4 bytes for an int that's only known once more
+     * data has been written. The int is filled in by passing the
+     * returned marker to {@link #putReserved(int, int)}.
+     * <p>
+     * Until every reserved int has been filled in, no data is handed
+     * to the underlying stream, so everything in between has to fit
+     * in memory, unless the output writes to a file. Reservations may
+     * be nested.
+     *
+     * @return The marker to pass to {@link #putReserved(int, int)}
+     * @throws IOException If the bytes couldn't be reserved
+     */
+    public int reserveInt() throws IOException {
+        ensure(Integer.BYTES);
+
+        reserved.add(written());
+        buffer.position(buffer.position() + Integer.BYTES);
+
+        openReserved++;
+        return reserved.size() - 1;
+    }
+
+    /**
+     * Fills in an int reserved with {@link #reserveInt()}
+     * @param marker The marker returned by {@link #reserveInt()}
+     * @param value The value to write into the reserved bytes
+     * @throws IOException If the int couldn't be written to the file
+     * @throws IllegalStateException If no int is reserved with the given marker
+     */
+    public void putReserved(int marker, int value) throws IOException, IllegalStateException {
+        long position = reservedPosition(marker);
+
+        if (position >= drained) {
+            buffer.putInt((int) (position - drained) + start, value);
+        } else {
+            // Already handed to the file
+            ByteBuffer bytes = ByteBuffer.allocate(Integer.BYTES).putInt(0, value);
+
+            while (bytes.hasRemaining()) {
+                channel.write(bytes, channelStart + position + bytes.position());
+            }
+        }
+
+        reserved.set(marker, FILLED);
+
+        // Reservations are usually filled in last to first,
+        // so this keeps the list as short as the nesting
+        while (!reserved.isEmpty() && reserved.getLong(reserved.size() - 1) == FILLED) {
+            reserved.removeLong(reserved.size() - 1);
+        }
+
+        openReserved--;
+    }
+
+    /**
+     * Reserves 4 bytes for a length that's only known once more
+     * data has been written. The length is filled in by passing the
+     * returned marker to {@link #endLength(int)}, and will be the amount
+     * of bytes written between the 2 calls.
+     *
+     * @return The marker to pass to {@link #endLength(int)}
+     * @throws IOException If the bytes couldn't be reserved
+     * @see #reserveInt()
+     */
+    public int beginLength() throws IOException {
+        return reserveInt();
+    }
+
+    /**
+     * Fills in a length begun with {@link #beginLength()}
+     * @param marker The marker returned by {@link #beginLength()}
+     * @throws IOException If the length is larger than an int, or couldn't be written to the file
+     * @throws IllegalStateException If no length is open with the given marker
+     */
+    public void endLength(int marker) throws IOException, IllegalStateException {
+        long length = written() - reservedPosition(marker) - Integer.BYTES;
+
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Sized container exceeds 2 GiB: " + length + " bytes");
+        }
+
+        putReserved(marker, (int) length);
+    }
+
+    // Gets the position of a reserved int which hasn't been filled in yet
+    private long reservedPosition(int marker) throws IllegalStateException {
+        if (marker < 0 || marker >= reserved.size() || reserved.getLong(marker) == FILLED) {
+            throw new IllegalStateException("No reserved int to fill in with marker " + marker);
+        }
+
+        return reserved.getLong(marker);
+    }
+}
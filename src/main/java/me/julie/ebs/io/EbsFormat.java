@@ -0,0 +1,207 @@
+package me.julie.ebs.io;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The binary format elements are encoded with.
+ * <p>
+ * There are 2 formats:
+ * <ul>
+ *     <li>{@link #V1}: The original format, all type IDs,
+ *     sizes and lengths are written as 4 byte integers and
+ *     strings are written with {@link DataOutput#writeUTF(String)}.
+ *     V1 data has no header.
+ *     </li>
+ *     <li>{@link #V2}: The compact format, type IDs, sizes
+ *     and lengths are written as variable length integers,
+ *     which take up a single byte for most values, strings
+ *     are written as a length followed by UTF-8 bytes.
+ *     V2 data starts with a header which holds {@link #MAGIC}
+ *     and a flags byte.
+ *     </li>
+ * </ul>
+ * The V2 format can be combined with flags, see {@link #withFlags(int)}.
+ * With the {@link #SIZED} flag, every compound and array starts with
+ * its length in bytes, so readers can skip them without decoding them.
+ * With the {@link #KEY_TABLE} flag, compound keys are written once into
+ * a table at the start of the document and referenced by their index.
+ * Readers detect the format from the header, so both formats
+ * can be read through the same methods.
+ */
+public final class EbsFormat {
+    // ---------------------------------------
+    //            V2 format
+    // ---------------------------------------
+    //
+    // Header: the 4 bytes of MAGIC ('E', 'B', 'S', 2)
+    // followed by a flags byte.
+    // A V1 document starts with the 4 byte type ID of
+    // the top level element, which would need over a
+    // billion registered types to collide with the magic.
+    //
+    // Type IDs are a var int of ID + 1, 0 means no type.
+    // Sizes are a var int of size + 1, 0 is reserved for
+    // containers of unknown size.
+    // Lengths are a plain var int.
+    // Strings are a var int byte length, then UTF-8 bytes.
+    //
+    // Var ints are unsigned LEB128, 7 bits per byte, with
+    // the highest bit set on every byte but the last.
+    //
+    // With the SIZED flag, every compound and array
+    // starts with a 4 byte integer of the amount of
+    // bytes that follow it, up to the end of the
+    // container. 4 bytes, so the length can be filled
+    // in once the container has been written.
+    //
+    // With the KEY_TABLE flag, the header is followed
+    // by a var int count and that many strings, the
+    // document's key table. Every compound key is then
+    // a var int of its table index + 1, or a 0 followed
+    // by the key's string, for keys not in the table.
+    //
+
+    /** Magic number which starts every V2 document */
+    public static final int MAGIC = 0x45425302;
+
+    /** Flag which prefixes every compound and array with its length in bytes */
+    public static final int SIZED = 0x01;
+
+    /** Flag which writes compound keys once, into a table at the start of the document */
+    public static final int KEY_TABLE = 0x02;
+
+    /** All flags this version knows about */
+    private static final int KNOWN_FLAGS = SIZED | KEY_TABLE;
+
+    /** The original, uncompressed, format */
+    public static final EbsFormat V1 = new EbsFormat(1, 0);
+
+    /** The compact format */
+    public static final EbsFormat V2 = new EbsFormat(2, 0);
+
+    private final int version;
+    private final int flags;
+
+    private EbsFormat(int version, int flags) {
+        this.version = version;
+        this.flags = flags;
+    }
+
+    /**
+     * Gets a V2 format from the flags byte of a header
+     * @param flags The flags byte
+     * @return The format
+     * @throws IOException If the flags contain unknown bits
+     */
+    public static EbsFormat fromFlags(int flags) throws IOException {
+        if ((flags & ~KNOWN_FLAGS) != 0) {
+            throw new IOException("Unknown format flags: " + Integer.toBinaryString(flags));
+        }
+
+        return flags == 0 ? V2 : new EbsFormat(V2.version, flags);
+    }
+
+    /**
+     * Creates a format with the same version as this one and the
+     * given flags, replacing this format's flags
+     * @param flags The flags, a combination of the flag constants in this class
+     * @return The created format
+     * @throws IllegalStateException If this is {@link #V1}, which has no flags
+     * @throws IllegalArgumentException If the flags contain unknown bits
+     */
+    public EbsFormat withFlags(int flags) throws IllegalStateException, IllegalArgumentException {
+        if (!isCompact()) {
+            throw new IllegalStateException("V1 format has no header to store flags in");
+        }
+
+        if ((flags & ~KNOWN_FLAGS) != 0) {
+            throw new IllegalArgumentException("Unknown format flags: " + Integer.toBinaryString(flags));
+        }
+
+        return flags == this.flags ? this : new EbsFormat(version, flags);
+    }
+
+    /**
+     * Gets the format's version number
+     * @return The format version
+     */
+    public int version() {
+        return version;
+    }
+
+    /**
+     * Gets the format's flags, as written to the header
+     * @return The format's flags, always 0 for {@link #V1}
+     */
+    public int flags() {
+        return flags;
+    }
+
+    /**
+     * Checks if this format has all the given flags
+     * @param flag The flag(s) to check
+     * @return True, if all the given flags are set, false otherwise
+     */
+    public boolean hasFlag(int flag) {
+        return (flags & flag) == flag;
+    }
+
+    /**
+     * Checks if this format prefixes containers with their length
+     * @return True, if this format has the {@link #SIZED} flag
+     */
+    public boolean isSized() {
+        return hasFlag(SIZED);
+    }
+
+    /**
+     * Checks if this format writes compound keys into a key table
+     * @return True, if this format has the {@link #KEY_TABLE} flag
+     */
+    public boolean hasKeyTable() {
+        return hasFlag(KEY_TABLE);
+    }
+
+    /**
+     * Checks if this format uses variable length
+     * integers and UTF-8 strings
+     * @return True, if this is a V2 format, false otherwise
+     */
+    public boolean isCompact() {
+        return version >= 2;
+    }
+
+    /**
+     * Writes this format's header to the given output,
+     * does nothing for {@link #V1}, as it has no header
+     * @param output The output to write to
+     * @throws IOException If the header couldn't be written
+     */
+    public void writeHeader(DataOutput output) throws IOException {
+        if (!isCompact()) {
+            return;
+        }
+
+        output.writeInt(MAGIC);
+        output.writeByte(flags);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EbsFormat format)) return false;
+
+        return version == format.version && flags == format.flags;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * version + flags;
+    }
+
+    @Override
+    public String toString() {
+        return "EbsFormat{version=" + version + ", flags=" + flags + "}";
+    }
+}
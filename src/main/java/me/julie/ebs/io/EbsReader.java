@@ -0,0 +1,551 @@
+package me.julie.ebs.io;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.element.EbsBoolean;
+import me.julie.ebs.element.EbsBytes;
+import me.julie.ebs.element.EbsElement;
+import me.julie.ebs.element.EbsNumber;
+import me.julie.ebs.element.EbsString;
+import me.julie.ebs.element.EbsUUID;
+import me.julie.ebs.type.EbsArrayType;
+import me.julie.ebs.type.EbsCompoundType;
+import me.julie.ebs.type.EbsNumberType;
+import me.julie.ebs.type.EbsType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Pull parser which reads a document token by token, without
+ * creating any elements.
+ * <p>
+ * Each call to {@link #nextToken()} moves the reader forward
+ * and returns the {@link EbsToken} it moved to. For example, the
+ * compound <code>{name: "a", pos: [1, 2]}</code> is read as:
+ * <pre>
+ * START_COMPOUND
+ *   KEY "name"   VALUE
+ *   KEY "pos"    START_ARRAY   VALUE   VALUE   END
+ * END
+ * END_DOCUMENT
+ * </pre>
+ * When on a {@link EbsToken#VALUE}, the value can be read with one
+ * of the typed accessors, like {@link #readInt()}, or with
+ * {@link #readElement()}. Values which aren't read are skipped
+ * by the next {@link #nextToken()} call. {@link #skipValue()}
+ * skips the current value, or the whole current container.
+ * <p>
+ * Only the state of the compounds and arrays the reader is
+ * currently inside of is kept, so documents of any size can be
+ * read in constant memory. The document's format is detected from
+ * its header, same as with {@link EbsTypeRegistry#read(java.io.DataInput)}.
+ * <p>
+ * Closing the reader will not close the underlying stream, see
+ * {@link EbsDataInput#close()}.
+ */
+public final class EbsReader implements Closeable {
+    private final EbsTypeRegistry registry;
+    private final EbsDataInput input;
+
+    /** The containers the reader is inside of, the last one is the innermost */
+    private final ObjectArrayList<Frame> frames = new ObjectArrayList<>();
+
+    private EbsToken token;
+    private boolean started;
+
+    /** Type of the value at the reader's position which hasn't been read yet */
+    private EbsType pendingType;
+
+    /** True, if the last token was a key, and its value's token hasn't been returned yet */
+    private boolean valueNext;
+
+    private String key;
+
+    private EbsReader(EbsTypeRegistry registry, EbsDataInput input) {
+        this.registry = registry;
+        this.input = input;
+    }
+
+    /**
+     * Creates a reader which reads from the given stream
+     * @param registry The registry to read types with
+     * @param stream The stream to read from
+     * @return The created reader
+     * @throws NullPointerException If the registry or stream is null
+     */
+    public static EbsReader of(EbsTypeRegistry registry, InputStream stream) throws NullPointerException {
+        Objects.requireNonNull(registry, "Null registry");
+        return new EbsReader(registry, EbsDataInput.of(stream));
+    }
+
+    /**
+     * Creates a reader which reads from the given buffer,
+     * starting at the buffer's position
+     * @param registry The registry to read types with
+     * @param buffer The buffer to read from, must be big endian
+     * @return The created reader
+     * @throws NullPointerException If the registry or buffer is null
+     * @throws IllegalArgumentException If the buffer is not big endian
+     */
+    public static EbsReader of(EbsTypeRegistry registry, ByteBuffer buffer) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(registry, "Null registry");
+        return new EbsReader(registry, EbsDataInput.of(buffer));
+    }
+
+    /* ----------------------------- NAVIGATION ------------------------------ */
+
+    /**
+     * Moves to the next token, skipping the current value,
+     * if it hasn't been read
+     * @return The token the reader moved to
+     * @throws IOException If the data couldn't be read
+     */
+    public EbsToken nextToken() throws IOException {
+        if (valueNext) {
+            valueNext = false;
+            return token = valueToken(pendingType);
+        }
+
+        if (pendingType != null) {
+            if (token == EbsToken.START_COMPOUND || token == EbsToken.START_ARRAY) {
+                open();
+            } else {
+                pendingType.skip(registry, input);
+                pendingType = null;
+            }
+        }
+
+        if (!started) {
+            started = true;
+            return token = valueToken(registry.readRootType(input));
+        }
+
+        if (frames.isEmpty()) {
+            return token = EbsToken.END_DOCUMENT;
+        }
+
+        Frame frame = frames.top();
+
+        if (!registry.hasNext(frame.index, frame.size, input)) {
+            frames.pop();
+            return token = EbsToken.END;
+        }
+
+        frame.index++;
+
+        if (frame.compound) {
+            key = registry.readKey(input);
+            pendingType = typeOf(registry.readTypeId(input));
+            valueNext = true;
+
+            return token = EbsToken.KEY;
+        }
+
+        return token = valueToken(frame.elementType);
+    }
+
+    /**
+     * Skips the current value.
+     * <ul>
+     *     <li>On a {@link EbsToken#KEY}, skips the entry's value</li>
+     *     <li>On a {@link EbsToken#VALUE}, skips the value</li>
+     *     <li>
+     *         On a {@link EbsToken#START_COMPOUND} or {@link EbsToken#START_ARRAY},
+     *         skips all of the container's contents, including its {@link EbsToken#END}
+     *     </li>
+     * </ul>
+     * After skipping, {@link #nextToken()} moves to the token after the skipped value.
+     * In the {@link EbsFormat#SIZED} format, containers are skipped without reading them.
+     *
+     * @throws IOException If the value couldn't be skipped
+     * @throws IllegalStateException If there's no value to skip
+     */
+    public void skipValue() throws IOException, IllegalStateException {
+        if (pendingType != null) {
+            consume().skip(registry, input);
+            return;
+        }
+
+        if (token != EbsToken.START_COMPOUND && token != EbsToken.START_ARRAY) {
+            throw new IllegalStateException("No value to skip at " + token);
+        }
+
+        // Container was already opened by size() or arrayType(),
+        // skip what's left of it
+        Frame frame = frames.pop();
+
+        for (; registry.hasNext(frame.index, frame.size, input); frame.index++) {
+            if (frame.compound) {
+                registry.skipKey(input);
+                typeOf(registry.readTypeId(input)).skip(registry, input);
+            } else {
+                frame.elementType.skip(registry, input);
+            }
+        }
+
+        // Make the next token continue in the parent
+        token = EbsToken.END;
+    }
+
+    private EbsToken valueToken(EbsType type) {
+        pendingType = type;
+
+        if (type instanceof EbsCompoundType) {
+            return EbsToken.START_COMPOUND;
+        }
+
+        if (type instanceof EbsArrayType) {
+            return EbsToken.START_ARRAY;
+        }
+
+        return EbsToken.VALUE;
+    }
+
+    // Reads the header of the container that was just started
+    private void open() throws IOException {
+        boolean compound = pendingType instanceof EbsCompoundType;
+        pendingType = null;
+
+        registry.readContainerLength(input);
+
+        int size = registry.readSize(input);
+        EbsType elementType = null;
+
+        if (!compound) {
+            int id = registry.readTypeId(input);
+
+            if (id == -1) {
+                // Arrays without a type have no elements written
+                size = 0;
+            } else {
+                elementType = typeOf(id);
+            }
+        }
+
+        frames.push(new Frame(compound, size, elementType));
+    }
+
+    // Gets the type with the given ID, broken data may have IDs of no type
+    private EbsType typeOf(int id) throws IOException {
+        EbsType type = registry.get(id);
+
+        if (type == null) {
+            throw new IOException("Unknown type: " + id);
+        }
+
+        return type;
+    }
+
+    // Takes the pending value, so it can be read
+    private EbsType consume() throws IllegalStateException {
+        if (pendingType == null) {
+            throw new IllegalStateException("No value to read at " + token);
+        }
+
+        EbsType type = pendingType;
+        pendingType = null;
+        valueNext = false;
+
+        return type;
+    }
+
+    // Takes the pending value, which must be the given type
+    private void consume(EbsType expected) throws IllegalStateException {
+        if (pendingType != expected) {
+            throw new IllegalStateException("Expected a value of type " + expected + ", found " + pendingType);
+        }
+
+        consume();
+    }
+
+    /* ----------------------------- STATE ------------------------------ */
+
+    /**
+     * Gets the last token the reader moved to
+     * @return The current token, null, if {@link #nextToken()} hasn't been called yet
+     */
+    public EbsToken currentToken() {
+        return token;
+    }
+
+    /**
+     * Gets the key of the current compound entry
+     * @return The key of the last {@link EbsToken#KEY}, null, if none was read yet
+     */
+    public String key() {
+        return key;
+    }
+
+    /**
+     * Gets the type of the current value, also available
+     * on a {@link EbsToken#KEY}, for the entry's value
+     * @return The type of the value that can be read, null, if there's none
+     */
+    public EbsType<?> valueType() {
+        return pendingType;
+    }
+
+    /**
+     * Gets the amount of containers the reader is currently in,
+     * not including a container that was just started
+     * @return The reader's depth
+     */
+    public int depth() {
+        return frames.size();
+    }
+
+    /**
+     * Gets the size of the container that was just started
+     * @return The amount of entries or elements in the container, or
+     *         {@link EbsTypeRegistry#UNKNOWN_SIZE}, if the container
+     *         doesn't state its size
+     * @throws IOException If the container's size couldn't be read
+     * @throws IllegalStateException If the current token isn't a container start
+     */
+    public int size() throws IOException, IllegalStateException {
+        return started().size;
+    }
+
+    /**
+     * Gets the element type of the array that was just started
+     * @return The array's element type, null, if the array has no type
+     * @throws IOException If the array's type couldn't be read
+     * @throws IllegalStateException If the current token isn't {@link EbsToken#START_ARRAY}
+     */
+    public EbsType<?> arrayType() throws IOException, IllegalStateException {
+        if (token != EbsToken.START_ARRAY) {
+            throw new IllegalStateException("Not at the start of an array: " + token);
+        }
+
+        return started().elementType;
+    }
+
+    private Frame started() throws IOException {
+        if (token != EbsToken.START_COMPOUND && token != EbsToken.START_ARRAY) {
+            throw new IllegalStateException("Not at the start of a container: " + token);
+        }
+
+        if (pendingType != null) {
+            open();
+        }
+
+        return frames.top();
+    }
+
+    /* ----------------------------- VALUES ------------------------------ */
+
+    /**
+     * Reads the current value, or container, as an element
+     * @return The read element
+     * @throws IOException If the value couldn't be read
+     * @throws IllegalStateException If there's no value to read
+     */
+    public EbsElement readElement() throws IOException, IllegalStateException {
+        return consume().read(registry, input);
+    }
+
+    /**
+     * Reads the current number value
+     * @return The read number
+     * @throws IOException If the value couldn't be read
+     * @throws IllegalStateException If the current value isn't a number
+     */
+    public EbsNumber readNumber() throws IOException, IllegalStateException {
+        if (!(pendingType instanceof EbsNumberType)) {
+            throw new IllegalStateException("Expected a number, found " + pendingType);
+        }
+
+        return (EbsNumber) readElement();
+    }
+
+    /**
+     * Reads the current number value as a byte
+     * @return The read value
+     * @throws IOException If the value couldn't be read
+     * @throws IllegalStateException If the current value isn't a number
+     */
+    public byte readByte() throws IOException, IllegalStateException {
+        if (pendingType == EbsNumberType.BYTE) {
+            consume();
+            return input.readByte();
+        }
+
+        return readNumber().byteValue();
+    }
+
+    /**
+     * Reads the current number value as a short
+     * @return The read value
+     * @throws IOException If the value couldn't be read
+     * @throws IllegalStateException If the current value isn't a number
+     */
+    public short readShort() throws IOException, IllegalStateException {
+        if (pendingType == EbsNumberType.SHORT) {
+            consume();
+            return input.readShort();
+        }
+
+        return readNumber().shortValue();
+    }
+
+    /**
+     * Reads the current number value as an int
+     * @return The read value
+     * @throws IOException If the value couldn't be read
+     * @throws IllegalStateException If the current value isn't a number
+     */
+    public int readInt() throws IOException, IllegalStateException {
+        if (pendingType == EbsNumberType.INTEGER) {
+            consume();
+            return input.readInt();
+        }
+
+        return readNumber().intValue();
+    }
+
+    /**
+     * Reads the current number value as a long
+     * @return The read value
+     * @throws IOException If the value couldn't be read
+     * @throws IllegalStateException If the current value isn't a number
+     */
+    public long readLong() throws IOException, IllegalStateException {
+        if (pendingType == EbsNumberType.LONG) {
+            consume();
+            return input.readLong();
+        }
+
+        return readNumber().longValue();
+    }
+
+    /**
+     * Reads the current number value as a float
+     * @return The read value
+     * @throws IOException If the value couldn't be read
+     * @throws IllegalStateException If the current value isn't a number
+     */
+    public float readFloat() throws IOException, IllegalStateException {
+        if (pendingType == EbsNumberType.FLOAT) {
+            consume();
+            return input.readFloat();
+        }
+
+        return readNumber().floatValue();
+    }
+
+    /**
+     * Reads the current number value as a double
+     * @return The read value
+     * @throws IOException If the value couldn't be read
+     * @throws IllegalStateException If the current value isn't a number
+     */
+    public double readDouble() throws IOException, IllegalStateException {
+        if (pendingType == EbsNumberType.DOUBLE) {
+            consume();
+            return input.readDouble();
+        }
+
+        return readNumber().doubleValue();
+    }
+
+    /**
+     * Reads the current number value as a big integer
+     * @return The read value
+     * @throws IOException If the value couldn't be read
+     * @throws IllegalStateException If the current value isn't a number
+     */
+    public BigInteger readBigInteger() throws IOException, IllegalStateException {
+        EbsNumber number = readNumber();
+
+        return number.value() instanceof BigInteger big
+                ? big
+                : BigInteger.valueOf(number.longValue());
+    }
+
+    /**
+     * Reads the current boolean value
+     * @return The read value
+     * @throws IOException If the value couldn't be read
+     * @throws IllegalStateException If the current value isn't a boolean
+     */
+    public boolean readBoolean() throws IOException, IllegalStateException {
+        consume(EbsBoolean.TYPE);
+        return input.readBoolean();
+    }
+
+    /**
+     * Reads the current string value
+     * @return The read value
+     * @throws IOException If the value couldn't be read
+     * @throws IllegalStateException If the current value isn't a string
+     */
+    public String readString() throws IOException, IllegalStateException {
+        consume(EbsString.TYPE);
+        return registry.readString(input);
+    }
+
+    /**
+     * Reads the current UUID value
+     * @return The read value
+     * @throws IOException If the value couldn't be read
+     * @throws IllegalStateException If the current value isn't a UUID
+     */
+    public UUID readUUID() throws IOException, IllegalStateException {
+        consume(EbsUUID.TYPE);
+        return new UUID(input.readLong(), input.readLong());
+    }
+
+    /**
+     * Reads the current byte blob value
+     * @return The blob's bytes
+     * @throws IOException If the value couldn't be read
+     * @throws IllegalStateException If the current value isn't a byte blob
+     */
+    public byte[] readBytes() throws IOException, IllegalStateException {
+        consume(EbsBytes.TYPE);
+        int length = registry.readLength(input);
+
+        if (length < 0) {
+            throw new IOException("Negative byte blob length: " + length);
+        }
+
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+
+        return bytes;
+    }
+
+    /**
+     * Closes the underlying {@link EbsDataInput}
+     * @throws IOException If the input couldn't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private static final class Frame {
+        final boolean compound;
+
+        /** The container's size, may be {@link EbsTypeRegistry#UNKNOWN_SIZE} */
+        final int size;
+
+        /** The array's element type, null for compounds and arrays without a type */
+        final EbsType elementType;
+
+        /** Index of the next entry */
+        int index;
+
+        Frame(boolean compound, int size, EbsType elementType) {
+            this.compound = compound;
+            this.size = size;
+            this.elementType = elementType;
+        }
+    }
+}
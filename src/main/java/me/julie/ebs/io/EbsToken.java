@@ -0,0 +1,25 @@
+package me.julie.ebs.io;
+
+/**
+ * The tokens an {@link EbsReader} returns while
+ * moving through a document
+ */
+public enum EbsToken {
+    /** The start of a compound, followed by a {@link #KEY} for each entry, then {@link #END} */
+    START_COMPOUND,
+
+    /** The start of an array, followed by each element, then {@link #END} */
+    START_ARRAY,
+
+    /** A compound entry's key, followed by the entry's value */
+    KEY,
+
+    /** A value which isn't a compound or an array */
+    VALUE,
+
+    /** The end of the current compound or array */
+    END,
+
+    /** The end of the document, no more tokens follow */
+    END_DOCUMENT
+}
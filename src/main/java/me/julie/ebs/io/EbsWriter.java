@@ -0,0 +1,571 @@
+package me.julie.ebs.io;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.element.EbsBoolean;
+import me.julie.ebs.element.EbsBytes;
+import me.julie.ebs.element.EbsElement;
+import me.julie.ebs.element.EbsElements;
+import me.julie.ebs.element.EbsString;
+import me.julie.ebs.element.EbsUUID;
+import me.julie.ebs.type.EbsArrayType;
+import me.julie.ebs.type.EbsCompoundType;
+import me.julie.ebs.type.EbsNumberType;
+import me.julie.ebs.type.EbsType;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Writes a document piece by piece, without creating any elements.
+ * <p>
+ * The compound <code>{name: "a", pos: [1, 2]}</code> is written with:
+ * <pre>
+ * writer.beginCompound();
+ * writer.key("name").writeString("a");
+ * writer.key("pos").beginArray(EbsNumberType.INTEGER);
+ * writer.writeInt(1).writeInt(2);
+ * writer.end();
+ * writer.end();
+ * </pre>
+ * Compound values must be preceded by a {@link #key(String)}, array
+ * elements must all be of the array's type. Any element can also be
+ * written in one go with {@link #writeElement(EbsElement)}.
+ * <p>
+ * Since containers are written before their size is known, how much
+ * has to be kept in memory depends on the format:
+ * <ul>
+ *     <li>
+ *         In the compact format, containers are written with an
+ *         unknown size, see {@link EbsTypeRegistry#writeUnknownSize(java.io.DataOutput)},
+ *         so the writer only buffers a small amount of data
+ *         before handing it to the stream
+ *     </li>
+ *     <li>
+ *         In the {@link EbsFormat#V1} format, or with the {@link EbsFormat#SIZED}
+ *         flag, sizes and lengths are filled in once a container ends, so
+ *         everything inside the outermost container is buffered in memory
+ *     </li>
+ * </ul>
+ * Writers created with {@link #of(EbsTypeRegistry, OutputStream)}
+ * always use a compact format without sizes, so only documents
+ * written in an explicitly given sized format are buffered.
+ * With the {@link EbsFormat#KEY_TABLE} flag, the key table is written
+ * before the root value, so only keys given to {@link #keyTable(Collection)}
+ * beforehand are written as table indices, other keys are written in full.
+ * <p>
+ * The written data can be read with {@link EbsTypeRegistry#read(java.io.DataInput)}
+ * or an {@link EbsReader}.
+ * <p>
+ * Closing the writer will not close the underlying stream, see
+ * {@link EbsDataOutput#close()}.
+ */
+public final class EbsWriter implements Closeable, Flushable {
+    private final EbsTypeRegistry registry;
+    private final EbsDataOutput output;
+
+    /** True, if containers are written with an unknown size */
+    private final boolean unknownSizes;
+
+    /** The containers being written, the last one is the innermost */
+    private final ObjectArrayList<Frame> frames = new ObjectArrayList<>();
+
+    private boolean started;
+
+    /** Keys to write into the document's key table */
+    private Collection<String> keys = List.of();
+
+    /** True, if a key was written, but its value hasn't been */
+    private boolean keyWritten;
+
+    private EbsWriter(EbsTypeRegistry registry, EbsDataOutput output) {
+        this.registry = registry;
+        this.output = output;
+        this.unknownSizes = output.format().isCompact();
+    }
+
+    /**
+     * Creates a writer which streams to the given stream, in a
+     * format that never buffers whole containers: the registry's
+     * write format without the {@link EbsFormat#SIZED} flag, or
+     * {@link EbsFormat#V2}, if the registry writes {@link EbsFormat#V1}
+     * @param registry The registry to write types with
+     * @param stream The stream to write to
+     * @return The created writer
+     * @throws NullPointerException If the registry or stream is null
+     * @see #of(EbsTypeRegistry, OutputStream, EbsFormat) to write in any format
+     */
+    public static EbsWriter of(EbsTypeRegistry registry, OutputStream stream) throws NullPointerException {
+        Objects.requireNonNull(registry, "Null registry");
+
+        EbsFormat format = registry.getWriteFormat();
+        return of(registry, stream, format.isCompact() ? format.withFlags(format.flags() & ~EbsFormat.SIZED) : EbsFormat.V2);
+    }
+
+    /**
+     * Creates a writer which writes to the given stream, formats
+     * with sizes, see the class description, are buffered in memory
+     * @param registry The registry to write types with
+     * @param stream The stream to write to
+     * @param format The format to write in
+     * @return The created writer
+     * @throws NullPointerException If the registry, stream or format is null
+     */
+    public static EbsWriter of(EbsTypeRegistry registry, OutputStream stream, EbsFormat format) throws NullPointerException {
+        Objects.requireNonNull(registry, "Null registry");
+        return new EbsWriter(registry, EbsDataOutput.of(stream, format));
+    }
+
+    /**
+     * Creates a writer which writes directly into the given buffer,
+     * starting at the buffer's position, in the registry's write format
+     * @param registry The registry to write types with
+     * @param buffer The buffer to write to, must be big endian
+     * @return The created writer
+     * @throws NullPointerException If the registry or buffer is null
+     * @throws IllegalArgumentException If the buffer is not big endian
+     * @see EbsDataOutput#of(ByteBuffer, EbsFormat)
+     */
+    public static EbsWriter of(EbsTypeRegistry registry, ByteBuffer buffer) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(registry, "Null registry");
+        return new EbsWriter(registry, EbsDataOutput.of(buffer, registry.getWriteFormat()));
+    }
+
+    /**
+     * Sets the keys written into the document's key table, if the
+     * format has the {@link EbsFormat#KEY_TABLE} flag, otherwise
+     * the keys are ignored.
+     * <p>
+     * The table is written before the root value, so this must
+     * be called before anything is written
+     *
+     * @param keys The keys of the key table
+     * @return This writer
+     * @throws NullPointerException If the keys are null
+     * @throws IllegalStateException If the document has already been started
+     */
+    public EbsWriter keyTable(Collection<String> keys) throws NullPointerException, IllegalStateException {
+        Objects.requireNonNull(keys, "Null keys");
+
+        if (started) {
+            throw new IllegalStateException("Key table must be set before the document is started");
+        }
+
+        this.keys = keys;
+        return this;
+    }
+
+    /* ----------------------------- STRUCTURE ------------------------------ */
+
+    /**
+     * Starts a compound, which must then be finished with {@link #end()}
+     * @return This writer
+     * @throws IOException If the compound couldn't be written
+     * @throws IllegalStateException If a value can't be written here
+     */
+    public EbsWriter beginCompound() throws IOException, IllegalStateException {
+        beforeValue(EbsCompoundType.getInstance());
+
+        int length = registry.startContainer(output);
+        frames.push(new Frame(true, null, length, writeSize()));
+
+        return this;
+    }
+
+    /**
+     * Starts an array, which must then be finished with {@link #end()}
+     * @param type The type of the array's elements, null for an array
+     *             without a type, which can't have any elements
+     * @return This writer
+     * @throws IOException If the array couldn't be written, or the type isn't registered
+     * @throws IllegalStateException If a value can't be written here
+     */
+    public EbsWriter beginArray(@Nullable EbsType<?> type) throws IOException, IllegalStateException {
+        beforeValue(EbsArrayType.getInstance());
+
+        int length = registry.startContainer(output);
+
+        if (type == null) {
+            // Typeless arrays are always empty, so their size is known
+            registry.writeSize(0, output);
+            registry.writeTypeId(-1, output);
+
+            frames.push(new Frame(false, null, length, -1));
+            return this;
+        }
+
+        int size = writeSize();
+        registry.writeType(type, output);
+
+        frames.push(new Frame(false, type, length, size));
+        return this;
+    }
+
+    /**
+     * Writes the key of the next compound entry, which must
+     * then be followed by the entry's value
+     * @param key The entry's key
+     * @return This writer
+     * @throws IOException If the key couldn't be written
+     * @throws IllegalStateException If not inside a compound, or if
+     *                               the previous key has no value
+     */
+    public EbsWriter key(String key) throws IOException, IllegalStateException {
+        Objects.requireNonNull(key, "Null key");
+
+        if (frames.isEmpty() || !frames.top().compound) {
+            throw new IllegalStateException("Keys can only be written inside a compound");
+        }
+
+        if (keyWritten) {
+            throw new IllegalStateException("Previous key has no value");
+        }
+
+        if (unknownSizes) {
+            registry.writeHasNext(true, output);
+        }
+
+        registry.writeKey(key, output);
+        keyWritten = true;
+
+        return this;
+    }
+
+    /**
+     * Finishes the current compound or array
+     * @return This writer
+     * @throws IOException If the container's end couldn't be written
+     * @throws IllegalStateException If not inside a container, or if
+     *                               the last key has no value
+     */
+    public EbsWriter end() throws IOException, IllegalStateException {
+        if (frames.isEmpty()) {
+            throw new IllegalStateException("No container to end");
+        }
+
+        if (keyWritten) {
+            throw new IllegalStateException("Last key has no value");
+        }
+
+        Frame frame = frames.pop();
+
+        if (frame.isTyped()) {
+            if (unknownSizes) {
+                registry.writeHasNext(false, output);
+            } else {
+                output.putReserved(frame.sizeMarker, frame.size);
+            }
+        }
+
+        registry.endContainer(frame.lengthMarker, output);
+        return this;
+    }
+
+    /**
+     * Checks if a complete document has been written, meaning
+     * a root value was written and all containers were ended
+     * @return True, if the document is complete, false otherwise
+     */
+    public boolean isComplete() {
+        return started && frames.isEmpty();
+    }
+
+    /**
+     * Gets the amount of containers currently being written
+     * @return The writer's depth
+     */
+    public int depth() {
+        return frames.size();
+    }
+
+    // Writes the size of a container that was just started,
+    // returns the marker of the reserved size, if it has to be filled in
+    private int writeSize() throws IOException {
+        if (unknownSizes) {
+            registry.writeUnknownSize(output);
+            return -1;
+        }
+
+        return output.reserveInt();
+    }
+
+    // Validates a value of the given type can be written here,
+    // and writes everything that comes before it
+    private void beforeValue(EbsType type) throws IOException, IllegalStateException {
+        if (frames.isEmpty()) {
+            if (started) {
+                throw new IllegalStateException("Document already has a root value");
+            }
+
+            started = true;
+
+            output.format().writeHeader(output);
+
+            if (output.format().hasKeyTable()) {
+                registry.writeKeyTable(keys, output);
+            }
+
+            registry.writeType(type, output);
+
+            return;
+        }
+
+        Frame frame = frames.top();
+
+        if (frame.compound) {
+            if (!keyWritten) {
+                throw new IllegalStateException("Compound values must be preceded by a key");
+            }
+
+            registry.writeType(type, output);
+            keyWritten = false;
+        } else {
+            if (!frame.isTyped()) {
+                throw new IllegalStateException("Arrays without a type can't have elements");
+            }
+
+            if (frame.elementType != type) {
+                throw new IllegalStateException("Array of " + frame.elementType + " can't contain " + type);
+            }
+
+            if (unknownSizes) {
+                registry.writeHasNext(true, output);
+            }
+        }
+
+        frame.size++;
+    }
+
+    /* ----------------------------- VALUES ------------------------------ */
+
+    /**
+     * Writes the given element, including all of its contents
+     * @param element The element to write
+     * @return This writer
+     * @throws IOException If the element couldn't be written
+     * @throws IllegalStateException If the value can't be written here
+     */
+    public EbsWriter writeElement(EbsElement element) throws IOException, IllegalStateException {
+        Objects.requireNonNull(element, "Null element");
+        EbsType type = Objects.requireNonNull(element.getType(), "Null type on element");
+
+        beforeValue(type);
+        type.write(registry, output, element);
+
+        return this;
+    }
+
+    /**
+     * Writes a byte value
+     * @param value The value to write
+     * @return This writer
+     * @throws IOException If the value couldn't be written
+     * @throws IllegalStateException If the value can't be written here
+     */
+    public EbsWriter writeByte(byte value) throws IOException, IllegalStateException {
+        beforeValue(EbsNumberType.BYTE);
+        output.writeByte(value);
+        return this;
+    }
+
+    /**
+     * Writes a short value
+     * @param value The value to write
+     * @return This writer
+     * @throws IOException If the value couldn't be written
+     * @throws IllegalStateException If the value can't be written here
+     */
+    public EbsWriter writeShort(short value) throws IOException, IllegalStateException {
+        beforeValue(EbsNumberType.SHORT);
+        output.writeShort(value);
+        return this;
+    }
+
+    /**
+     * Writes an int value
+     * @param value The value to write
+     * @return This writer
+     * @throws IOException If the value couldn't be written
+     * @throws IllegalStateException If the value can't be written here
+     */
+    public EbsWriter writeInt(int value) throws IOException, IllegalStateException {
+        beforeValue(EbsNumberType.INTEGER);
+        output.writeInt(value);
+        return this;
+    }
+
+    /**
+     * Writes a long value
+     * @param value The value to write
+     * @return This writer
+     * @throws IOException If the value couldn't be written
+     * @throws IllegalStateException If the value can't be written here
+     */
+    public EbsWriter writeLong(long value) throws IOException, IllegalStateException {
+        beforeValue(EbsNumberType.LONG);
+        output.writeLong(value);
+        return this;
+    }
+
+    /**
+     * Writes a float value
+     * @param value The value to write
+     * @return This writer
+     * @throws IOException If the value couldn't be written
+     * @throws IllegalStateException If the value can't be written here
+     */
+    public EbsWriter writeFloat(float value) throws IOException, IllegalStateException {
+        beforeValue(EbsNumberType.FLOAT);
+        output.writeFloat(value);
+        return this;
+    }
+
+    /**
+     * Writes a double value
+     * @param value The value to write
+     * @return This writer
+     * @throws IOException If the value couldn't be written
+     * @throws IllegalStateException If the value can't be written here
+     */
+    public EbsWriter writeDouble(double value) throws IOException, IllegalStateException {
+        beforeValue(EbsNumberType.DOUBLE);
+        output.writeDouble(value);
+        return this;
+    }
+
+    /**
+     * Writes a big integer value
+     * @param value The value to write
+     * @return This writer
+     * @throws IOException If the value couldn't be written
+     * @throws IllegalStateException If the value can't be written here
+     */
+    public EbsWriter writeBigInteger(BigInteger value) throws IOException, IllegalStateException {
+        return writeElement(EbsElements.of(Objects.requireNonNull(value, "Null value")));
+    }
+
+    /**
+     * Writes a boolean value
+     * @param value The value to write
+     * @return This writer
+     * @throws IOException If the value couldn't be written
+     * @throws IllegalStateException If the value can't be written here
+     */
+    public EbsWriter writeBoolean(boolean value) throws IOException, IllegalStateException {
+        beforeValue(EbsBoolean.TYPE);
+        output.writeBoolean(value);
+        return this;
+    }
+
+    /**
+     * Writes a string value
+     * @param value The value to write
+     * @return This writer
+     * @throws IOException If the value couldn't be written
+     * @throws IllegalStateException If the value can't be written here
+     */
+    public EbsWriter writeString(String value) throws IOException, IllegalStateException {
+        Objects.requireNonNull(value, "Null value");
+
+        beforeValue(EbsString.TYPE);
+        registry.writeString(value, output);
+
+        return this;
+    }
+
+    /**
+     * Writes a UUID value
+     * @param value The value to write
+     * @return This writer
+     * @throws IOException If the value couldn't be written
+     * @throws IllegalStateException If the value can't be written here
+     */
+    public EbsWriter writeUUID(UUID value) throws IOException, IllegalStateException {
+        Objects.requireNonNull(value, "Null value");
+
+        beforeValue(EbsUUID.TYPE);
+        output.writeLong(value.getMostSignificantBits());
+        output.writeLong(value.getLeastSignificantBits());
+
+        return this;
+    }
+
+    /**
+     * Writes a byte blob value
+     * @param value The blob's bytes
+     * @return This writer
+     * @throws IOException If the value couldn't be written
+     * @throws IllegalStateException If the value can't be written here
+     */
+    public EbsWriter writeBytes(byte[] value) throws IOException, IllegalStateException {
+        Objects.requireNonNull(value, "Null value");
+
+        beforeValue(EbsBytes.TYPE);
+        registry.writeLength(value.length, output);
+        output.write(value);
+
+        return this;
+    }
+
+    /* ----------------------------- OUTPUT ------------------------------ */
+
+    /**
+     * Writes all data that can be written to the underlying stream.
+     * In the {@link EbsFormat#V1} format, or with the {@link EbsFormat#SIZED}
+     * flag, nothing can be written until the root container ends.
+     * @throws IOException If the data couldn't be written
+     * @see EbsDataOutput#flush()
+     */
+    @Override
+    public void flush() throws IOException {
+        output.flush();
+    }
+
+    /**
+     * Closes the underlying {@link EbsDataOutput}, writing out
+     * all buffered data. If the document isn't {@link #isComplete()},
+     * what was written so far will not be readable.
+     * @throws IOException If the data couldn't be written
+     */
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+
+    private static final class Frame {
+        final boolean compound;
+
+        /** The array's element type, null for compounds and arrays without a type */
+        final EbsType elementType;
+
+        /** Marker returned by {@link EbsTypeRegistry#startContainer(java.io.DataOutput)} */
+        final int lengthMarker;
+
+        /** Marker of the reserved size, -1 if written with an unknown size */
+        final int sizeMarker;
+
+        /** Amount of entries written so far */
+        int size;
+
+        Frame(boolean compound, EbsType elementType, int lengthMarker, int sizeMarker) {
+            this.compound = compound;
+            this.elementType = elementType;
+            this.lengthMarker = lengthMarker;
+            this.sizeMarker = sizeMarker;
+        }
+
+        // Arrays without a type have their size written up front
+        boolean isTyped() {
+            return compound || elementType != null;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package me.julie.ebs.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Thread confined pool of the byte buffers used by
+ * {@link EbsDataInput} and {@link EbsDataOutput}.
+ * <p>
+ * Every thread keeps at most one cached buffer, if a
+ * buffer is requested while the thread's buffer is
+ * already in use, eg: a custom type writing a nested
+ * element with its own stream, then a fresh buffer is
+ * allocated instead.
+ */
+final class IoBuffers {
+    private IoBuffers() {}
+
+    /** Size of pooled buffers, also the size of chunks flushed to streams */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> CACHE = new ThreadLocal<>();
+
+    /**
+     * Takes the current thread's buffer out of the pool
+     * @return A cleared heap buffer of {@link #BUFFER_SIZE} bytes
+     */
+    static ByteBuffer acquire() {
+        ByteBuffer buffer = CACHE.get();
+
+        if (buffer == null) {
+            return ByteBuffer.allocate(BUFFER_SIZE);
+        }
+
+        CACHE.set(null);
+        return buffer.clear();
+    }
+
+    /**
+     * Returns a buffer to the current thread's pool
+     * @param buffer The buffer to return
+     */
+    static void release(ByteBuffer buffer) {
+        // Only keep buffers we handed out, grown
+        // buffers would just waste memory
+        if (buffer.capacity() != BUFFER_SIZE || !buffer.hasArray()) {
+            return;
+        }
+
+        CACHE.set(buffer);
+    }
+}
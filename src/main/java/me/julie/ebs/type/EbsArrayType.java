@@ -1,13 +1,17 @@
 package me.julie.ebs.type;
 
 import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.EbsUtil;
 import me.julie.ebs.element.EbsArray;
 import me.julie.ebs.element.EbsElement;
 import me.julie.ebs.element.EbsElements;
+import me.julie.ebs.io.EbsDataInput;
+import me.julie.ebs.io.EbsDataOutput;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public class EbsArrayType implements EbsType<EbsArray> {
     static final EbsArrayType INSTANCE = new EbsArrayType();
@@ -29,17 +33,37 @@ public class EbsArrayType implements EbsType<EbsArray> {
     // array element ID, there's as many elements
     // as the size states
     //
+    // In the compact format, the size and type ID
+    // are written with the registry's var int
+    // based methods instead. Sized compact data has
+    // the array's byte length in front of the size
+    //
+    // Compact arrays written by an EbsWriter may
+    // have an unknown size (0), each element is then
+    // preceded by a 1 byte and the array ends with
+    // a 0 byte. Arrays without a type never have an
+    // unknown size
+    //
+    // Outputs with a pool encode runs of elements of
+    // large arrays on separate threads, number arrays
+    // are always written as one block
+    //
+    // Inputs with a pool decode runs of elements of
+    // large arrays on separate threads the same way,
+    // number arrays are always read as one block
+    //
 
     @Override
     public EbsArray read(EbsTypeRegistry registry,DataInput input) throws IOException {
+        registry.readContainerLength(input);
+
         // Read the size
-        int size = input.readInt();
+        int size = registry.readSize(input);
         // Read the type
-        EbsArray array = EbsElements.newArray(size);
-        int id = input.readInt();
+        int id = registry.readTypeId(input);
 
         if (id == UNSET_TYPE) {
-            return array;
+            return EbsElements.newArray(Math.max(size, 0));
         }
 
         EbsType type = registry.get(id);
@@ -48,11 +72,33 @@ public class EbsArrayType implements EbsType<EbsArray> {
             throw new IOException("Unknown type: " + id);
         }
 
-        // Read the elements, if they exist
-        if(size > 0) {
-            for (int i = 0; i < size; i++) {
-                array.add(type.read(registry, input));
+        // Numbers are read as one block
+        if (size != EbsTypeRegistry.UNKNOWN_SIZE && type instanceof EbsNumberType number) {
+            return number.readArray(registry, input, size);
+        }
+
+        EbsArray array = EbsElements.newArray(type, Math.max(size, 0));
+
+        // Large arrays are decoded in parallel, if the input has a pool
+        if (ParallelReads.shouldSplit(input, size)) {
+            EbsElement[] values = new EbsElement[size];
+
+            ParallelReads.readAll(
+                    (EbsDataInput) input, size,
+                    (in, i) -> values[i] = type.read(registry, in),
+                    in -> type.skip(registry, in)
+            );
+
+            for (EbsElement value: values) {
+                array.add(value);
             }
+
+            return array;
+        }
+
+        // Read the elements, if they exist
+        for (int i = 0; registry.hasNext(i, size, input); i++) {
+            array.add(type.read(registry, input));
         }
 
         return array;
@@ -63,19 +109,107 @@ public class EbsArrayType implements EbsType<EbsArray> {
         // I love type parameters
         EbsArray<EbsElement> arr = val;
 
+        int marker = registry.startContainer(output);
+
         // Write the size
-        output.writeInt(val.size());
+        registry.writeSize(val.size(), output);
         EbsType<EbsElement> type = arr.arrayType();
 
         // Write the type
         if (type == null) {
-            output.writeInt(UNSET_TYPE);
+            registry.writeTypeId(UNSET_TYPE, output);
         } else {
             registry.writeType(type, output);
 
-            // Write each element
-            for (EbsElement e: arr) {
-                type.write(registry, output, e);
+            // Write each element, large arrays in parallel if the output has a pool
+            if (val.arrayType() instanceof EbsNumberType number) {
+                number.writeArray(registry, output, (EbsArray) arr);
+            } else if (ParallelWrites.shouldSplit(output, arr.size())) {
+                ParallelWrites.writeAll((EbsDataOutput) output, arr, (out, e) -> type.write(registry, out, e));
+            } else {
+                for (EbsElement e: arr) {
+                    type.write(registry, output, e);
+                }
+            }
+        }
+
+        registry.endContainer(marker, output);
+    }
+
+    @Override
+    public void skip(EbsTypeRegistry registry, DataInput input) throws IOException {
+        int length = registry.readContainerLength(input);
+
+        if (length != -1) {
+            EbsUtil.skipFully(input, length);
+            return;
+        }
+
+        int size = registry.readSize(input);
+        int id = registry.readTypeId(input);
+
+        if (id == UNSET_TYPE) {
+            return;
+        }
+
+        EbsType type = registry.get(id);
+
+        if (type == null) {
+            throw new IOException("Unknown type: " + id);
+        }
+
+        for (int i = 0; registry.hasNext(i, size, input); i++) {
+            type.skip(registry, input);
+        }
+    }
+
+    @Override
+    public EbsArray read(EbsTypeRegistry registry, ByteBuffer buffer) throws IOException {
+        int position = EbsUtil.advance(buffer, Integer.BYTES * 2);
+        int size = buffer.getInt(position);
+        int id = buffer.getInt(position + Integer.BYTES);
+
+        if (id == UNSET_TYPE) {
+            return EbsElements.newArray(size);
+        }
+
+        EbsType type = registry.get(id);
+
+        if (type == null) {
+            throw new IOException("Unknown type: " + id);
+        }
+
+        if (type instanceof EbsNumberType number) {
+            return number.readArray(registry, buffer, size);
+        }
+
+        EbsArray array = EbsElements.newArray(type, size);
+
+        for (int i = 0; i < size; i++) {
+            array.add(type.read(registry, buffer));
+        }
+
+        return array;
+    }
+
+    @Override
+    public void write(EbsTypeRegistry registry, ByteBuffer buffer, EbsArray val) throws IOException {
+        EbsArray<EbsElement> arr = val;
+
+        buffer.putInt(EbsUtil.reserve(buffer, Integer.BYTES), val.size());
+        EbsType<EbsElement> type = arr.arrayType();
+
+        if (type == null) {
+            buffer.putInt(EbsUtil.reserve(buffer, Integer.BYTES), UNSET_TYPE);
+        } else {
+            registry.writeType(type, buffer);
+
+            if (val.arrayType() instanceof EbsNumberType number) {
+                number.writeArray(registry, buffer, (EbsArray) arr);
+            } else {
+                for (EbsElement e: arr) {
+                    type.write(registry, buffer, e);
+                }
             }
         }
     }
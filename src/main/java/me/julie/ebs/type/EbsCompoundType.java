@@ -1,13 +1,21 @@
 package me.julie.ebs.type;
 
 import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.EbsUtil;
+import me.julie.ebs.element.ConcurrentEbsCompound;
 import me.julie.ebs.element.EbsCompound;
 import me.julie.ebs.element.EbsElement;
 import me.julie.ebs.element.EbsElements;
+import me.julie.ebs.element.LazyEbsCompound;
+import me.julie.ebs.io.EbsDataInput;
+import me.julie.ebs.io.EbsDataOutput;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Map;
 
 public class EbsCompoundType implements EbsType<EbsCompound> {
@@ -28,22 +36,70 @@ public class EbsCompoundType implements EbsType<EbsCompound> {
     // This pattern repeats as many times as the
     // size states
     //
+    // In the compact format, the size, key and type
+    // ID are written with the registry's var int
+    // based methods instead, the layout is the same.
+    // Sized compact data has the compound's byte
+    // length in front of the size, with a key table
+    // keys are an index into the table instead
+    //
+    // Compact compounds written by an EbsWriter
+    // may have an unknown size (0), each entry is
+    // then preceded by a 1 byte and the compound
+    // ends with a 0 byte
+    //
+    // Concurrent compounds are written from a
+    // snapshot of their entries, so the written
+    // size always matches the written entries
+    //
+    // Outputs with a pool encode runs of entries
+    // of large compounds on separate threads, the
+    // runs are written in order, so the bytes are
+    // the same as when writing sequentially
+    //
+    // Inputs with a pool decode runs of entries of
+    // large compounds on separate threads, from the
+    // offsets found by skipping over the entries,
+    // the entries are then put in order
+    //
 
     @Override
     public EbsCompound read(EbsTypeRegistry registry, DataInput input) throws IOException {
+        if (input instanceof EbsDataInput in && in.isLazy()) {
+            return LazyEbsCompound.read(registry, in);
+        }
+
+        registry.readContainerLength(input);
+
         // Read the size
-        int size = input.readInt();
-        EbsCompound compound = EbsElements.newCompound(size);
+        int size = registry.readSize(input);
+        EbsCompound compound = size == EbsTypeRegistry.UNKNOWN_SIZE
+                ? EbsElements.newCompound()
+                : EbsElements.newCompound(size);
 
-        // If the size is bigger than 0
-        if(size > 0) {
-            for (int i = 0; i < size; i++) {
-                String key = input.readUTF();
-                EbsType type = registry.readType(input);
+        // Large compounds are decoded in parallel, if the input has a pool
+        if (ParallelReads.shouldSplit(input, size)) {
+            String[] keys = new String[size];
+            EbsElement[] values = new EbsElement[size];
 
-                EbsElement element = type.read(registry, input);
-                compound.put(key, element);
+            ParallelReads.readAll((EbsDataInput) input, size, (in, i) -> {
+                keys[i] = registry.readKey(in);
+                values[i] = registry.readType(in).read(registry, in);
+            }, in -> skipEntry(registry, in));
+
+            for (int i = 0; i < size; i++) {
+                compound.put(keys[i], values[i]);
             }
+
+            return compound;
+        }
+
+        for (int i = 0; registry.hasNext(i, size, input); i++) {
+            String key = registry.readKey(input);
+            EbsType type = registry.readType(input);
+
+            EbsElement element = type.read(registry, input);
+            compound.put(key, element);
         }
 
         return compound;
@@ -51,18 +107,93 @@ public class EbsCompoundType implements EbsType<EbsCompound> {
 
     @Override
     public void write(EbsTypeRegistry registry, DataOutput output, EbsCompound val) throws IOException {
+        int marker = registry.startContainer(output);
+        Collection<Map.Entry<String, EbsElement>> entries = entries(val);
+
         // Write the size
-        output.writeInt(val.size());
+        registry.writeSize(entries.size(), output);
+
+        // Write every element, large compounds in parallel if the output has a pool
+        if (ParallelWrites.shouldSplit(output, entries.size())) {
+            ParallelWrites.writeAll((EbsDataOutput) output, new ArrayList<>(entries), (out, e) -> writeEntry(registry, out, e));
+        } else {
+            for (Map.Entry<String, EbsElement> e: entries) {
+                writeEntry(registry, output, e);
+            }
+        }
+
+        registry.endContainer(marker, output);
+    }
+
+    private static void writeEntry(EbsTypeRegistry registry, DataOutput output, Map.Entry<String, EbsElement> e) throws IOException {
+        EbsType type = e.getValue().getType();
+
+        // Compound standard: key; type; value
+        registry.writeKey(e.getKey(), output);
+
+        registry.writeType(type, output);
+        type.write(registry, output, e.getValue());
+    }
 
-        // Write every element
-        for (Map.Entry<String, EbsElement> e: val.entrySet()) {
+    @Override
+    public void skip(EbsTypeRegistry registry, DataInput input) throws IOException {
+        int length = registry.readContainerLength(input);
+
+        if (length != -1) {
+            EbsUtil.skipFully(input, length);
+            return;
+        }
+
+        int size = registry.readSize(input);
+
+        for (int i = 0; registry.hasNext(i, size, input); i++) {
+            skipEntry(registry, input);
+        }
+    }
+
+    private static void skipEntry(EbsTypeRegistry registry, DataInput input) throws IOException {
+        registry.skipKey(input);
+        registry.readType(input).skip(registry, input);
+    }
+
+    @Override
+    public EbsCompound read(EbsTypeRegistry registry, ByteBuffer buffer) throws IOException {
+        int size = buffer.getInt(EbsUtil.advance(buffer, Integer.BYTES));
+        EbsCompound compound = EbsElements.newCompound(size);
+
+        for (int i = 0; i < size; i++) {
+            String key = EbsUtil.readModifiedUtf(buffer);
+            EbsType type = registry.readType(buffer);
+
+            EbsElement element = type.read(registry, buffer);
+            compound.put(key, element);
+        }
+
+        return compound;
+    }
+
+    @Override
+    public void write(EbsTypeRegistry registry, ByteBuffer buffer, EbsCompound val) throws IOException {
+        Collection<Map.Entry<String, EbsElement>> entries = entries(val);
+        buffer.putInt(EbsUtil.reserve(buffer, Integer.BYTES), entries.size());
+
+        for (Map.Entry<String, EbsElement> e: entries) {
             EbsType type = e.getValue().getType();
 
-            // Compound standard: key; type; value
-            output.writeUTF(e.getKey());
+            EbsUtil.writeModifiedUtf(buffer, e.getKey());
+
+            registry.writeType(type, buffer);
+            type.write(registry, buffer, e.getValue());
+        }
+    }
 
-            registry.writeType(type, output);
-            type.write(registry, output, e.getValue());
+    // Gets the entries to write, compounds that may change while
+    // being written are copied first
+    private static Collection<Map.Entry<String, EbsElement>> entries(EbsCompound compound) {
+        if (compound instanceof ConcurrentEbsCompound concurrent) {
+            return concurrent.snapshot();
         }
+
+        return compound.entrySet();
     }
 }
\ No newline at end of file
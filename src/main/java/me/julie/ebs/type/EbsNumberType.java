@@ -5,13 +5,17 @@ import it.unimi.dsi.fastutil.objects.Object2ObjectMaps;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import lombok.RequiredArgsConstructor;
 import me.julie.ebs.EbsTypeRegistry;
-import me.julie.ebs.element.EbsElements;
-import me.julie.ebs.element.EbsNumber;
+import me.julie.ebs.EbsUtil;
+import me.julie.ebs.element.*;
+import me.julie.ebs.io.EbsDataInput;
+import me.julie.ebs.io.EbsDataOutput;
 
 import java.io.DataInput;
 import java.io.DataOutput;
+import java.io.EOFException;
 import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.Map;
 
 /**
@@ -20,7 +24,7 @@ import java.util.Map;
  */
 @RequiredArgsConstructor
 public enum EbsNumberType implements EbsType<EbsNumber> {
-    BYTE (Byte.class) {
+    BYTE (Byte.class, Byte.BYTES) {
         @Override
         public EbsNumber read(EbsTypeRegistry registry, DataInput input) throws IOException {
             return EbsElements.of(input.readByte());
@@ -30,9 +34,19 @@ public enum EbsNumberType implements EbsType<EbsNumber> {
         public void write(EbsTypeRegistry registry, DataOutput output, EbsNumber val) throws IOException {
             output.writeByte(val.byteValue());
         }
+
+        @Override
+        public EbsNumber read(EbsTypeRegistry registry, ByteBuffer buffer) {
+            return EbsElements.of(buffer.get(EbsUtil.advance(buffer, Byte.BYTES)));
+        }
+
+        @Override
+        public void write(EbsTypeRegistry registry, ByteBuffer buffer, EbsNumber val) {
+            buffer.put(EbsUtil.reserve(buffer, Byte.BYTES), val.byteValue());
+        }
     },
 
-    SHORT (Short.class) {
+    SHORT (Short.class, Short.BYTES) {
         @Override
         public EbsNumber read(EbsTypeRegistry registry, DataInput input) throws IOException {
             return EbsElements.of(input.readShort());
@@ -42,9 +56,19 @@ public enum EbsNumberType implements EbsType<EbsNumber> {
         public void write(EbsTypeRegistry registry, DataOutput output, EbsNumber val) throws IOException {
             output.writeShort(val.shortValue());
         }
+
+        @Override
+        public EbsNumber read(EbsTypeRegistry registry, ByteBuffer buffer) {
+            return EbsElements.of(buffer.getShort(EbsUtil.advance(buffer, Short.BYTES)));
+        }
+
+        @Override
+        public void write(EbsTypeRegistry registry, ByteBuffer buffer, EbsNumber val) {
+            buffer.putShort(EbsUtil.reserve(buffer, Short.BYTES), val.shortValue());
+        }
     },
 
-    INTEGER (Integer.class) {
+    INTEGER (Integer.class, Integer.BYTES) {
         @Override
         public EbsNumber read(EbsTypeRegistry registry, DataInput input) throws IOException {
             return EbsElements.of(input.readInt());
@@ -54,9 +78,19 @@ public enum EbsNumberType implements EbsType<EbsNumber> {
         public void write(EbsTypeRegistry registry, DataOutput output, EbsNumber val) throws IOException {
             output.writeInt(val.intValue());
         }
+
+        @Override
+        public EbsNumber read(EbsTypeRegistry registry, ByteBuffer buffer) {
+            return EbsElements.of(buffer.getInt(EbsUtil.advance(buffer, Integer.BYTES)));
+        }
+
+        @Override
+        public void write(EbsTypeRegistry registry, ByteBuffer buffer, EbsNumber val) {
+            buffer.putInt(EbsUtil.reserve(buffer, Integer.BYTES), val.intValue());
+        }
     },
 
-    LONG (Long.class) {
+    LONG (Long.class, Long.BYTES) {
         @Override
         public EbsNumber read(EbsTypeRegistry registry, DataInput input) throws IOException {
             return EbsElements.of(input.readLong());
@@ -66,9 +100,19 @@ public enum EbsNumberType implements EbsType<EbsNumber> {
         public void write(EbsTypeRegistry registry, DataOutput output, EbsNumber val) throws IOException {
             output.writeLong(val.longValue());
         }
+
+        @Override
+        public EbsNumber read(EbsTypeRegistry registry, ByteBuffer buffer) {
+            return EbsElements.of(buffer.getLong(EbsUtil.advance(buffer, Long.BYTES)));
+        }
+
+        @Override
+        public void write(EbsTypeRegistry registry, ByteBuffer buffer, EbsNumber val) {
+            buffer.putLong(EbsUtil.reserve(buffer, Long.BYTES), val.longValue());
+        }
     },
 
-    FLOAT (Float.class) {
+    FLOAT (Float.class, Float.BYTES) {
         @Override
         public EbsNumber read(EbsTypeRegistry registry, DataInput input) throws IOException {
             return EbsElements.of(input.readFloat());
@@ -78,9 +122,19 @@ public enum EbsNumberType implements EbsType<EbsNumber> {
         public void write(EbsTypeRegistry registry, DataOutput output, EbsNumber val) throws IOException {
             output.writeFloat(val.floatValue());
         }
+
+        @Override
+        public EbsNumber read(EbsTypeRegistry registry, ByteBuffer buffer) {
+            return EbsElements.of(buffer.getFloat(EbsUtil.advance(buffer, Float.BYTES)));
+        }
+
+        @Override
+        public void write(EbsTypeRegistry registry, ByteBuffer buffer, EbsNumber val) {
+            buffer.putFloat(EbsUtil.reserve(buffer, Float.BYTES), val.floatValue());
+        }
     },
 
-    DOUBLE (Double.class) {
+    DOUBLE (Double.class, Double.BYTES) {
         @Override
         public EbsNumber read(EbsTypeRegistry registry, DataInput input) throws IOException {
             return EbsElements.of(input.readDouble());
@@ -90,17 +144,24 @@ public enum EbsNumberType implements EbsType<EbsNumber> {
         public void write(EbsTypeRegistry registry, DataOutput output, EbsNumber val) throws IOException {
             output.writeDouble(val.doubleValue());
         }
+
+        @Override
+        public EbsNumber read(EbsTypeRegistry registry, ByteBuffer buffer) {
+            return EbsElements.of(buffer.getDouble(EbsUtil.advance(buffer, Double.BYTES)));
+        }
+
+        @Override
+        public void write(EbsTypeRegistry registry, ByteBuffer buffer, EbsNumber val) {
+            buffer.putDouble(EbsUtil.reserve(buffer, Double.BYTES), val.doubleValue());
+        }
     },
 
-    BIG_INTEGER (BigInteger.class) {
+    BIG_INTEGER (BigInteger.class, -1) {
         @Override
         public EbsNumber read(EbsTypeRegistry registry, DataInput input) throws IOException {
-            int length = input.readInt();
+            int length = registry.readLength(input);
             byte[] arr = new byte[length];
-
-            for (int i = 0; i < length; i++) {
-                arr[i] = input.readByte();
-            }
+            input.readFully(arr);
 
             return EbsElements.of(new BigInteger(arr));
         }
@@ -109,11 +170,32 @@ public enum EbsNumberType implements EbsType<EbsNumber> {
         public void write(EbsTypeRegistry registry, DataOutput output, EbsNumber val) throws IOException {
             BigInteger bigInt = (BigInteger) val.value();
             byte[] arr = bigInt.toByteArray();
-            output.writeInt(arr.length);
+            registry.writeLength(arr.length, output);
+            output.write(arr);
+        }
 
-            for (byte b: arr) {
-                output.writeByte(b);
-            }
+        @Override
+        public EbsNumber read(EbsTypeRegistry registry, ByteBuffer buffer) {
+            int length = buffer.getInt(EbsUtil.advance(buffer, Integer.BYTES));
+            byte[] arr = new byte[length];
+            buffer.get(EbsUtil.advance(buffer, length), arr);
+
+            return EbsElements.of(new BigInteger(arr));
+        }
+
+        @Override
+        public void write(EbsTypeRegistry registry, ByteBuffer buffer, EbsNumber val) {
+            BigInteger bigInt = (BigInteger) val.value();
+            byte[] arr = bigInt.toByteArray();
+
+            int position = EbsUtil.reserve(buffer, Integer.BYTES + arr.length);
+            buffer.putInt(position, arr.length);
+            buffer.put(position + Integer.BYTES, arr);
+        }
+
+        @Override
+        public void skip(EbsTypeRegistry registry, DataInput input) throws IOException {
+            EbsUtil.skipFully(input, registry.readLength(input));
         }
     };
 
@@ -130,4 +212,368 @@ public enum EbsNumberType implements EbsType<EbsNumber> {
     }
 
     private final Class<? extends Number> numberClass;
+
+    /** The amount of bytes a value of this type takes up, -1 if variable */
+    private final int bytes;
+
+    @Override
+    public void skip(EbsTypeRegistry registry, DataInput input) throws IOException {
+        EbsUtil.skipFully(input, bytes);
+    }
+
+    /**
+     * Checks if arrays of this type are read and written
+     * as a single packed block of values
+     * @return True, for every type except {@link #BIG_INTEGER}
+     */
+    public boolean isPacked() {
+        return bytes != -1;
+    }
+
+    /* ----------------------------- PACKED ARRAYS ------------------------------ */
+
+    //
+    // Array elements of a fixed size type are already
+    // written back to back, so the array's values form
+    // one block of big endian values. Instead of reading
+    // and writing each element through the type, the
+    // block is copied into, or out of, a primitive array
+    // in one go
+    //
+
+    /**
+     * Reads the given amount of values of this type as one block
+     * @param registry The registry to read with
+     * @param input The input to read from
+     * @param size The amount of values to read
+     * @return The read array
+     * @throws IOException If the values couldn't be read, or the size is
+     *                     negative or larger than the input's source holds
+     */
+    public EbsArray<EbsNumber> readArray(EbsTypeRegistry registry, DataInput input, int size) throws IOException {
+        EbsDataInput in = input instanceof EbsDataInput ebsIn ? ebsIn : null;
+        ByteBuffer source = in == null ? null : in.source();
+
+        checkSize(size, source == null ? Long.MAX_VALUE : source.remaining());
+
+        switch (this) {
+            case BYTE -> {
+                byte[] values = new byte[size];
+                input.readFully(values);
+
+                return EbsByteArray.wrap(values);
+            }
+
+            case SHORT -> {
+                short[] values = new short[size];
+
+                if (in != null) {
+                    in.readShorts(values, 0, size);
+                } else {
+                    for (int i = 0; i < size; i++) {
+                        values[i] = input.readShort();
+                    }
+                }
+
+                return EbsShortArray.wrap(values);
+            }
+
+            case INTEGER -> {
+                int[] values = new int[size];
+
+                if (in != null) {
+                    in.readInts(values, 0, size);
+                } else {
+                    for (int i = 0; i < size; i++) {
+                        values[i] = input.readInt();
+                    }
+                }
+
+                return EbsIntArray.wrap(values);
+            }
+
+            case LONG -> {
+                long[] values = new long[size];
+
+                if (in != null) {
+                    in.readLongs(values, 0, size);
+                } else {
+                    for (int i = 0; i < size; i++) {
+                        values[i] = input.readLong();
+                    }
+                }
+
+                return EbsLongArray.wrap(values);
+            }
+
+            case FLOAT -> {
+                float[] values = new float[size];
+
+                if (in != null) {
+                    in.readFloats(values, 0, size);
+                } else {
+                    for (int i = 0; i < size; i++) {
+                        values[i] = input.readFloat();
+                    }
+                }
+
+                return EbsFloatArray.wrap(values);
+            }
+
+            case DOUBLE -> {
+                double[] values = new double[size];
+
+                if (in != null) {
+                    in.readDoubles(values, 0, size);
+                } else {
+                    for (int i = 0; i < size; i++) {
+                        values[i] = input.readDouble();
+                    }
+                }
+
+                return EbsDoubleArray.wrap(values);
+            }
+
+            default -> {
+                EbsArray<EbsNumber> array = EbsElements.newArray(this, size);
+
+                for (int i = 0; i < size; i++) {
+                    array.add(read(registry, input));
+                }
+
+                return array;
+            }
+        }
+    }
+
+    /**
+     * Writes the values of the given array as one block, the array's
+     * size and type must already have been written
+     * @param registry The registry to write with
+     * @param output The output to write to
+     * @param array The array to write, must be an array of this type
+     * @throws IOException If the values couldn't be written
+     */
+    public void writeArray(EbsTypeRegistry registry, DataOutput output, EbsArray<EbsNumber> array) throws IOException {
+        EbsDataOutput out = output instanceof EbsDataOutput ebsOut ? ebsOut : null;
+        int size = array.size();
+
+        switch (this) {
+            case BYTE -> {
+                byte[] values = array instanceof EbsByteArray primitive
+                        ? primitive.values().elements()
+                        : EbsElements.toByteArray(array);
+
+                output.write(values, 0, size);
+            }
+
+            case SHORT -> {
+                short[] values = array instanceof EbsShortArray primitive
+                        ? primitive.values().elements()
+                        : EbsElements.toShortArray(array);
+
+                if (out != null) {
+                    out.writeShorts(values, 0, size);
+                } else {
+                    for (int i = 0; i < size; i++) {
+                        output.writeShort(values[i]);
+                    }
+                }
+            }
+
+            case INTEGER -> {
+                int[] values = array instanceof EbsIntArray primitive
+                        ? primitive.values().elements()
+                        : EbsElements.toIntArray(array);
+
+                if (out != null) {
+                    out.writeInts(values, 0, size);
+                } else {
+                    for (int i = 0; i < size; i++) {
+                        output.writeInt(values[i]);
+                    }
+                }
+            }
+
+            case LONG -> {
+                long[] values = array instanceof EbsLongArray primitive
+                        ? primitive.values().elements()
+                        : EbsElements.toLongArray(array);
+
+                if (out != null) {
+                    out.writeLongs(values, 0, size);
+                } else {
+                    for (int i = 0; i < size; i++) {
+                        output.writeLong(values[i]);
+                    }
+                }
+            }
+
+            case FLOAT -> {
+                float[] values = array instanceof EbsFloatArray primitive
+                        ? primitive.values().elements()
+                        : EbsElements.toFloatArray(array);
+
+                if (out != null) {
+                    out.writeFloats(values, 0, size);
+                } else {
+                    for (int i = 0; i < size; i++) {
+                        output.writeFloat(values[i]);
+                    }
+                }
+            }
+
+            case DOUBLE -> {
+                double[] values = array instanceof EbsDoubleArray primitive
+                        ? primitive.values().elements()
+                        : EbsElements.toDoubleArray(array);
+
+                if (out != null) {
+                    out.writeDoubles(values, 0, size);
+                } else {
+                    for (int i = 0; i < size; i++) {
+                        output.writeDouble(values[i]);
+                    }
+                }
+            }
+
+            default -> {
+                for (EbsNumber n: array) {
+                    write(registry, output, n);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the given amount of values of this type as one block
+     * @param registry The registry to read with
+     * @param buffer The buffer to read from
+     * @param size The amount of values to read
+     * @return The read array
+     * @throws IOException If the values couldn't be read, or the size is
+     *                     negative or larger than the buffer holds
+     */
+    public EbsArray<EbsNumber> readArray(EbsTypeRegistry registry, ByteBuffer buffer, int size) throws IOException {
+        checkSize(size, buffer.remaining());
+
+        if (!isPacked()) {
+            EbsArray<EbsNumber> array = EbsElements.newArray(this, size);
+
+            for (int i = 0; i < size; i++) {
+                array.add(read(registry, buffer));
+            }
+
+            return array;
+        }
+
+        int length = size * bytes;
+        ByteBuffer block = buffer.slice(EbsUtil.advance(buffer, length), length);
+
+        return switch (this) {
+            case BYTE -> {
+                byte[] values = new byte[size];
+                block.get(values);
+                yield EbsByteArray.wrap(values);
+            }
+
+            case SHORT -> {
+                short[] values = new short[size];
+                block.asShortBuffer().get(values);
+                yield EbsShortArray.wrap(values);
+            }
+
+            case INTEGER -> {
+                int[] values = new int[size];
+                block.asIntBuffer().get(values);
+                yield EbsIntArray.wrap(values);
+            }
+
+            case LONG -> {
+                long[] values = new long[size];
+                block.asLongBuffer().get(values);
+                yield EbsLongArray.wrap(values);
+            }
+
+            case FLOAT -> {
+                float[] values = new float[size];
+                block.asFloatBuffer().get(values);
+                yield EbsFloatArray.wrap(values);
+            }
+
+            default -> {
+                double[] values = new double[size];
+                block.asDoubleBuffer().get(values);
+                yield EbsDoubleArray.wrap(values);
+            }
+        };
+    }
+
+    // Checks an array size read from the data before anything is allocated,
+    // every value takes up at least a byte, so the values must fit in what's left
+    private void checkSize(int size, long remaining) throws IOException {
+        if (size < 0) {
+            throw new IOException("Negative array size: " + size);
+        }
+
+        if ((long) size * Math.max(bytes, 1) > remaining) {
+            throw new EOFException("Array of " + size + " " + this + " values past the end of the data");
+        }
+    }
+
+    /**
+     * Writes the values of the given array as one block, the array's
+     * size and type must already have been written
+     * @param registry The registry to write with
+     * @param buffer The buffer to write to
+     * @param array The array to write, must be an array of this type
+     * @throws IOException If the values couldn't be written
+     * @throws java.nio.BufferOverflowException If the buffer doesn't have room for all values
+     */
+    public void writeArray(EbsTypeRegistry registry, ByteBuffer buffer, EbsArray<EbsNumber> array) throws IOException {
+        if (!isPacked()) {
+            for (EbsNumber n: array) {
+                write(registry, buffer, n);
+            }
+
+            return;
+        }
+
+        int size = array.size();
+        int length = Math.multiplyExact(size, bytes);
+        ByteBuffer block = buffer.slice(EbsUtil.reserve(buffer, length), length);
+
+        // Primitive arrays are copied straight from their storage
+        switch (this) {
+            case BYTE -> block.put(
+                    array instanceof EbsByteArray primitive ? primitive.values().elements() : EbsElements.toByteArray(array),
+                    0, size
+            );
+
+            case SHORT -> block.asShortBuffer().put(
+                    array instanceof EbsShortArray primitive ? primitive.values().elements() : EbsElements.toShortArray(array),
+                    0, size
+            );
+
+            case INTEGER -> block.asIntBuffer().put(
+                    array instanceof EbsIntArray primitive ? primitive.values().elements() : EbsElements.toIntArray(array),
+                    0, size
+            );
+
+            case LONG -> block.asLongBuffer().put(
+                    array instanceof EbsLongArray primitive ? primitive.values().elements() : EbsElements.toLongArray(array),
+                    0, size
+            );
+
+            case FLOAT -> block.asFloatBuffer().put(
+                    array instanceof EbsFloatArray primitive ? primitive.values().elements() : EbsElements.toFloatArray(array),
+                    0, size
+            );
+
+            default -> block.asDoubleBuffer().put(
+                    array instanceof EbsDoubleArray primitive ? primitive.values().elements() : EbsElements.toDoubleArray(array),
+                    0, size
+            );
+        }
+    }
 }
\ No newline at end of file
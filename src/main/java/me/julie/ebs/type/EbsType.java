@@ -2,10 +2,13 @@ package me.julie.ebs.type;
 
 import me.julie.ebs.EbsTypeRegistry;
 import me.julie.ebs.element.EbsElement;
+import me.julie.ebs.io.EbsDataInput;
+import me.julie.ebs.io.EbsDataOutput;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * An EBS type
@@ -27,4 +30,54 @@ public interface EbsType<T extends EbsElement> {
      * @throws IOException When any error occurs
      */
     void write(EbsTypeRegistry registry, DataOutput output, T val) throws IOException;
-}
\ No newline at end of file
+
+    /**
+     * Skips over an element in the given input, without
+     * creating the element.
+     * <p>
+     * Must skip exactly as many bytes as {@link #read(EbsTypeRegistry, DataInput)}
+     * would read. By default, this reads the element and throws
+     * it away, built-in types skip their data directly.
+     *
+     * @param input The input to skip in
+     * @throws IOException When any error occurs
+     */
+    default void skip(EbsTypeRegistry registry, DataInput input) throws IOException {
+        read(registry, input);
+    }
+
+    /**
+     * Reads the element from the given buffer, starting at the
+     * buffer's position and moving the position past the element.
+     * <p>
+     * The data read must be the same as the data
+     * {@link #read(EbsTypeRegistry, DataInput)} reads. By default,
+     * this wraps the buffer with {@link EbsDataInput#of(ByteBuffer)}
+     * and reads from that, built-in types read from the buffer directly.
+     *
+     * @param buffer The buffer to read from, must be big endian
+     * @return The read element
+     * @throws IOException When any error occurs
+     */
+    default T read(EbsTypeRegistry registry, ByteBuffer buffer) throws IOException {
+        return read(registry, EbsDataInput.of(buffer));
+    }
+
+    /**
+     * Writes the element into the given buffer, starting at the
+     * buffer's position and moving the position past the element.
+     * <p>
+     * The data written must be the same as the data
+     * {@link #write(EbsTypeRegistry, DataOutput, EbsElement)} writes.
+     * By default, this wraps the buffer with {@link EbsDataOutput#of(ByteBuffer)}
+     * and writes to that, built-in types write to the buffer directly.
+     *
+     * @param buffer The buffer to write to, must be big endian
+     * @param val The value to write
+     * @throws IOException When any error occurs
+     * @throws java.nio.BufferOverflowException If the element does not fit into the buffer
+     */
+    default void write(EbsTypeRegistry registry, ByteBuffer buffer, T val) throws IOException {
+        write(registry, EbsDataOutput.of(buffer), val);
+    }
+}
@@ -0,0 +1,142 @@
+package me.julie.ebs.type;
+
+import me.julie.ebs.io.EbsDataInput;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Reads the entries of a large container in parallel, for inputs
+ * with a pool, see {@link EbsDataInput#setParallel(ForkJoinPool, int)}.
+ * <p>
+ * Containers with more entries than the input's split size are split
+ * into runs of that many entries. The input is scanned once, skipping
+ * over entries, to find the byte offset each run starts at, and every
+ * run is decoded on the pool from a fork of the input as soon as its
+ * offset is known. The last run is decoded in place, leaving the input
+ * directly after the container. Forks keep the pool, so large containers
+ * inside a run are split the same way.
+ */
+final class ParallelReads {
+    private ParallelReads() {
+    }
+
+    /** Reads the entry with the given index of a container */
+    @FunctionalInterface
+    interface EntryReader {
+        void read(DataInput input, int index) throws IOException;
+    }
+
+    /** Skips over a single entry of a container */
+    @FunctionalInterface
+    interface EntrySkipper {
+        void skip(DataInput input) throws IOException;
+    }
+
+    /**
+     * Checks if a container should be split, smaller containers are
+     * read sequentially, even from inputs with a pool
+     * @param input The input the container is read from
+     * @param size The container's size, may be {@link me.julie.ebs.EbsTypeRegistry#UNKNOWN_SIZE}
+     * @return True, if the input has a pool, and the container more entries than its split size
+     */
+    static boolean shouldSplit(DataInput input, int size) {
+        return input instanceof EbsDataInput in && in.pool() != null && size > in.splitSize();
+    }
+
+    /**
+     * Reads the given amount of entries, splitting them into
+     * runs which are decoded on the input's pool. Every index
+     * is given to the reader exactly once, by a single thread,
+     * and all reads have finished when this returns
+     * @param input The input to read from, must have a pool
+     * @param size The amount of entries
+     * @param reader Reads an entry
+     * @param skipper Skips over an entry
+     * @throws IOException If any entry couldn't be read
+     */
+    static void readAll(EbsDataInput input, int size, EntryReader reader, EntrySkipper skipper) throws IOException {
+        ForkJoinPool pool = input.pool();
+
+        // Tasks can only be forked from inside the pool
+        if (ForkJoinTask.getPool() != pool) {
+            run(pool, new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    try {
+                        readAll(input, size, reader, skipper);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+
+            return;
+        }
+
+        int runSize = input.splitSize();
+        List<ForkJoinTask<?>> forks = new ArrayList<>(size / runSize);
+        int from = 0;
+
+        try {
+            // Every run but the last is decoded from a fork, starting where the scan found it
+            for (; size - from > runSize; from += runSize) {
+                forks.add(fork(input.fork(input.source().position()), from, from + runSize, reader));
+
+                for (int i = 0; i < runSize; i++) {
+                    skipper.skip(input);
+                }
+            }
+
+            for (int i = from; i < size; i++) {
+                reader.read(input, i);
+            }
+
+            for (ForkJoinTask<?> task: forks) {
+                join(task);
+            }
+        } catch (IOException | RuntimeException e) {
+            // The data is broken, runs that haven't finished yet don't need to
+            forks.forEach(task -> task.cancel(false));
+            throw e;
+        }
+    }
+
+    // Starts decoding a run of entries from a fork
+    private static ForkJoinTask<?> fork(EbsDataInput fork, int from, int to, EntryReader reader) {
+        return new RecursiveAction() {
+            @Override
+            protected void compute() {
+                try {
+                    for (int i = from; i < to; i++) {
+                        reader.read(fork, i);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }.fork();
+    }
+
+    private static void join(ForkJoinTask<?> task) throws IOException {
+        try {
+            task.join();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void run(ForkJoinPool pool, ForkJoinTask<?> task) throws IOException {
+        try {
+            pool.invoke(task);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package me.julie.ebs.type;
+
+import me.julie.ebs.io.EbsDataOutput;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Writes the entries of a large container in parallel, for outputs
+ * with a pool, see {@link EbsDataOutput#setParallel(ForkJoinPool, int)}.
+ * <p>
+ * Containers with more entries than the output's split size are split
+ * into runs of that many entries, by count alone, so deciding how to split
+ * never walks the container's subtree. Each run is encoded into a fork
+ * of the output on the pool, and the forks are appended in order. Forks
+ * keep the pool, so large containers inside a run are split the same way.
+ */
+final class ParallelWrites {
+    /** Bytes reserved per entry of a run, for the run's fork */
+    private static final int BYTES_PER_ENTRY = 64;
+    /** Largest initial capacity of a run's fork */
+    private static final int MAX_FORK_CAPACITY = 1 << 16;
+
+    private ParallelWrites() {
+    }
+
+    /** Writes a single entry of a container */
+    @FunctionalInterface
+    interface EntryWriter<T> {
+        void write(DataOutput output, T entry) throws IOException;
+    }
+
+    /**
+     * Checks if a container should be split, smaller containers are
+     * written sequentially, even to outputs with a pool
+     * @param output The output the container is written to
+     * @param size The container's size
+     * @return True, if the output has a pool, and the container more entries than its split size
+     */
+    static boolean shouldSplit(DataOutput output, int size) {
+        return output instanceof EbsDataOutput out && out.pool() != null && size > out.splitSize();
+    }
+
+    /**
+     * Writes the given entries, in order, splitting them into runs
+     * which are encoded on the output's pool
+     * @param output The output to write to, must have a pool
+     * @param entries The entries to write
+     * @param writer Writes an entry
+     * @throws IOException If any entry couldn't be written
+     */
+    static <T> void writeAll(EbsDataOutput output, List<T> entries, EntryWriter<T> writer) throws IOException {
+        ForkJoinPool pool = output.pool();
+
+        // Tasks can only be forked from inside the pool
+        if (ForkJoinTask.getPool() != pool) {
+            run(pool, new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    try {
+                        writeAll(output, entries, writer);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+
+            return;
+        }
+
+        int runSize = output.splitSize();
+        int runs = (entries.size() + runSize - 1) / runSize;
+
+        // Later runs are forked, the first one is written in place meanwhile
+        List<ForkJoinTask<EbsDataOutput>> forks = new ArrayList<>(runs);
+
+        for (int i = 1; i < runs; i++) {
+            forks.add(fork(output, entries, i * runSize, Math.min((i + 1) * runSize, entries.size()), writer));
+        }
+
+        try {
+            for (int i = 0, end = Math.min(runSize, entries.size()); i < end; i++) {
+                writer.write(output, entries.get(i));
+            }
+
+            for (ForkJoinTask<EbsDataOutput> task: forks) {
+                output.append(join(task));
+            }
+        } catch (IOException | RuntimeException e) {
+            // The write failed, runs not written yet don't need to finish
+            forks.forEach(task -> task.cancel(false));
+            throw e;
+        }
+    }
+
+    // Starts encoding a run of entries into a fork
+    private static <T> ForkJoinTask<EbsDataOutput> fork(EbsDataOutput output, List<T> entries, int from, int to, EntryWriter<T> writer) {
+        EbsDataOutput fork = output.fork(Math.min((to - from) * BYTES_PER_ENTRY, MAX_FORK_CAPACITY));
+
+        return new RecursiveTask<EbsDataOutput>() {
+            @Override
+            protected EbsDataOutput compute() {
+                try {
+                    for (int i = from; i < to; i++) {
+                        writer.write(fork, entries.get(i));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+
+                return fork;
+            }
+        }.fork();
+    }
+
+    private static EbsDataOutput join(ForkJoinTask<EbsDataOutput> task) throws IOException {
+        try {
+            return task.join();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void run(ForkJoinPool pool, ForkJoinTask<?> task) throws IOException {
+        try {
+            pool.invoke(task);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -59,4 +59,13 @@ public interface EbsVisitor {
      * @param bool The element
      */
     void visitBool(EbsBoolean bool);
+
+    /**
+     * Visits a byte blob element, by default, blobs
+     * are visited as unknown valued elements
+     * @param bytes The element to visit
+     */
+    default void visitBytes(EbsBytes bytes) {
+        visitUnknownValued(bytes);
+    }
 }
\ No newline at end of file
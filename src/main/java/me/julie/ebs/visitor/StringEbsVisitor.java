@@ -2,6 +2,7 @@ package me.julie.ebs.visitor;
 
 import me.julie.ebs.element.*;
 
+import java.util.HexFormat;
 import java.util.Iterator;
 import java.util.Map;
 
@@ -208,4 +209,10 @@ public class StringEbsVisitor implements EbsVisitor {
     public void visitBool(EbsBoolean bool) {
         write(bool.toString());
     }
+
+    @Override
+    public void visitBytes(EbsBytes bytes) {
+        write("0x");
+        write(HexFormat.of().formatHex(bytes.toByteArray()));
+    }
 }
\ No newline at end of file
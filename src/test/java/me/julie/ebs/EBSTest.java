@@ -1,11 +1,38 @@
 package me.julie.ebs;
 
+import me.julie.ebs.element.EbsArray;
+import me.julie.ebs.element.EbsBytes;
 import me.julie.ebs.element.EbsCompound;
 import me.julie.ebs.element.EbsElements;
+import me.julie.ebs.element.EbsString;
+import me.julie.ebs.type.EbsCompoundType;
+import me.julie.ebs.type.EbsType;
+import me.julie.ebs.io.EbsDataOutput;
+import me.julie.ebs.io.EbsFormat;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -40,4 +67,475 @@ class EBSTest {
         assertEquals(second.getInt("test_int"), compound.getInt("test_int"));
         assertEquals(second.getFloat("test_float"), compound.getFloat("test_float"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void writeLarge() throws IOException {
+        EbsCompound compound = EbsElements.newCompound();
+
+        // Enough data to go through several buffer refills,
+        // with strings that straddle buffer boundaries
+        for (int i = 0; i < 5_000; i++) {
+            EbsCompound child = EbsElements.newCompound();
+            child.putInt("index", i);
+            child.putString("name", "element_" + i + "_\u00e9\u4e2d".repeat(i % 7));
+            child.putLongArray("longs", i, i * 2L, i * 3L);
+
+            compound.put("child_" + i, child);
+        }
+
+        compound.putString("long_string", "abc".repeat(20_000));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        EbsIo.write(compound, outputStream);
+
+        EbsCompound read = (EbsCompound) EbsIo.read(new ByteArrayInputStream(outputStream.toByteArray()));
+
+        assertEquals(compound.size(), read.size());
+        assertEquals(compound.getString("long_string"), read.getString("long_string"));
+
+        for (int i = 0; i < 5_000; i++) {
+            EbsCompound expected = compound.getCompound("child_" + i);
+            EbsCompound actual = read.getCompound("child_" + i);
+
+            assertNotNull(actual);
+            assertEquals(expected.getInt("index"), actual.getInt("index"));
+            assertEquals(expected.getString("name"), actual.getString("name"));
+            assertArrayEquals(expected.getLongArray("longs"), actual.getLongArray("longs"));
+        }
+    }
+
+    @Test
+    void readConsecutive() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        EbsCompound first = EbsElements.newCompound();
+        first.putString("name", "first");
+
+        EbsCompound second = EbsElements.newCompound();
+        second.putString("name", "second");
+
+        EbsIo.write(first, outputStream);
+        EbsIo.write(second, outputStream);
+
+        // Mark supporting streams must be left
+        // directly after each read element
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray());
+
+        assertEquals("first", ((EbsCompound) EbsIo.read(inputStream)).getString("name"));
+        assertEquals("second", ((EbsCompound) EbsIo.read(inputStream)).getString("name"));
+        assertEquals(0, inputStream.available());
+    }
+
+    @Test
+    void byteBuffer() throws IOException {
+        EbsCompound compound = EbsElements.newCompound();
+        compound.putString("string", "string \u00e9");
+        compound.putUUID("uuid", UUID.randomUUID());
+        compound.putBool("bool", true);
+        compound.putNumber("big", BigInteger.TEN.pow(30));
+        compound.putIntArray("ints", 1, 2, 3);
+        compound.putStringList("strings", List.of("a", "b"));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        EbsIo.write(compound, outputStream);
+        byte[] streamBytes = outputStream.toByteArray();
+
+        for (ByteBuffer buffer: List.of(
+                EbsIo.globalTypes().encode(compound),
+                EbsIo.globalTypes().encode(compound, true)
+        )) {
+            // Must be the exact same data the stream path writes
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.duplicate().get(bytes);
+            assertArrayEquals(streamBytes, bytes);
+
+            EbsCompound read = (EbsCompound) EbsIo.globalTypes().read(buffer.order(ByteOrder.LITTLE_ENDIAN));
+
+            assertFalse(buffer.hasRemaining());
+            assertEquals(compound.getString("string"), read.getString("string"));
+            assertEquals(compound.getUUID("uuid"), read.getUUID("uuid"));
+            assertEquals(compound.getBool("bool"), read.getBool("bool"));
+            assertEquals(compound.getBigInteger("big"), read.getBigInteger("big"));
+            assertArrayEquals(compound.getIntArray("ints"), read.getIntArray("ints"));
+            assertEquals(compound.getStringList("strings"), read.getStringList("strings"));
+        }
+
+        ByteBuffer small = ByteBuffer.allocate(16);
+        assertThrows(BufferOverflowException.class, () -> EbsIo.globalTypes().write(compound, small));
+        assertEquals(0, small.position());
+    }
+
+    @Test
+    void compactFormat() throws IOException {
+        EbsCompound compound = EbsElements.newCompound();
+        compound.putString("string", "string \u00e9\u4e2d");
+        compound.putUUID("uuid", UUID.randomUUID());
+        compound.putBool("bool", true);
+        compound.putNumber("big", BigInteger.TEN.pow(30));
+        compound.putIntArray("ints", 1, 2, 3);
+        compound.putStringList("strings", List.of("a", "b"));
+        compound.put("empty", EbsElements.newArray());
+
+        EbsTypeRegistry v1 = new EbsTypeRegistry();
+        EbsTypeRegistry v2 = new EbsTypeRegistry();
+        v2.setWriteFormat(EbsFormat.V2);
+
+        ByteArrayOutputStream v1Stream = new ByteArrayOutputStream();
+        ByteArrayOutputStream v2Stream = new ByteArrayOutputStream();
+        v1.write(compound, v1Stream);
+        v2.write(compound, v2Stream);
+
+        byte[] v2Bytes = v2Stream.toByteArray();
+        assertTrue(v2Bytes.length < v1Stream.size());
+
+        ByteBuffer encoded = v2.encode(compound);
+        assertEquals(ByteBuffer.wrap(v2Bytes), encoded);
+
+        // Either registry reads either format
+        for (EbsTypeRegistry registry: List.of(v1, v2)) {
+            for (EbsCompound read: List.of(
+                    (EbsCompound) registry.read(new ByteArrayInputStream(v1Stream.toByteArray())),
+                    (EbsCompound) registry.read(new ByteArrayInputStream(v2Bytes)),
+                    (EbsCompound) registry.read(encoded.duplicate())
+            )) {
+                assertEquals(compound.size(), read.size());
+                assertEquals(compound.getString("string"), read.getString("string"));
+                assertEquals(compound.getUUID("uuid"), read.getUUID("uuid"));
+                assertEquals(compound.getBool("bool"), read.getBool("bool"));
+                assertEquals(compound.getBigInteger("big"), read.getBigInteger("big"));
+                assertArrayEquals(compound.getIntArray("ints"), read.getIntArray("ints"));
+                assertEquals(compound.getStringList("strings"), read.getStringList("strings"));
+                assertTrue(read.getArray("empty").isEmpty());
+            }
+        }
+
+        // Compact strings aren't limited to 64KB
+        compound.putString("long_string", "abc".repeat(30_000));
+
+        EbsCompound read = (EbsCompound) v2.read(v2.encode(compound));
+        assertEquals(compound.getString("long_string"), read.getString("long_string"));
+    }
+
+    @Test
+    void sizedContainers() throws IOException {
+        EbsCompound compound = EbsElements.newCompound();
+
+        // Larger than a pooled buffer, so the stream
+        // output has to grow while lengths are open
+        for (int i = 0; i < 5_000; i++) {
+            EbsCompound child = EbsElements.newCompound();
+            child.putString("name", "element_" + i);
+            child.putLongArray("longs", i, i * 2L, i * 3L);
+
+            compound.put("child_" + i, child);
+        }
+
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+        registry.setWriteFormat(EbsFormat.V2.withFlags(EbsFormat.SIZED));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        registry.write(compound, outputStream);
+
+        byte[] bytes = outputStream.toByteArray();
+        assertEquals(ByteBuffer.wrap(bytes), registry.encode(compound));
+
+        // Header, then the root's type ID and its length
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        assertEquals(EbsFormat.MAGIC, buffer.getInt());
+        assertEquals(EbsFormat.SIZED, buffer.get());
+        assertEquals(registry.identifierOf(compound.getType()) + 1, buffer.get());
+        assertEquals(buffer.remaining() - Integer.BYTES, buffer.getInt());
+
+        // Files get the same bytes, with lengths filled in after being written
+        Path file = Files.createTempFile("ebs", ".ebs");
+
+        try {
+            registry.writeFile(compound, file);
+            assertArrayEquals(bytes, Files.readAllBytes(file));
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 EbsDataOutput output = EbsDataOutput.of(channel, registry.getWriteFormat()))
+            {
+                int marker = output.beginLength();
+                output.write(new byte[200_000]);
+
+                // Data is handed to the file while the length is open
+                assertTrue(channel.size() > 0);
+                output.endLength(marker);
+                assertThrows(IllegalStateException.class, () -> output.endLength(marker));
+            }
+
+            ByteBuffer written = ByteBuffer.wrap(Files.readAllBytes(file));
+            assertEquals(Integer.BYTES + 200_000, written.remaining());
+            assertEquals(200_000, written.getInt());
+        } finally {
+            Files.delete(file);
+        }
+
+        EbsCompound read = (EbsCompound) EbsIo.read(new ByteArrayInputStream(bytes));
+        assertEquals(compound.size(), read.size());
+
+        for (int i = 0; i < 5_000; i++) {
+            EbsCompound child = read.getCompound("child_" + i);
+
+            assertEquals("element_" + i, child.getString("name"));
+            assertArrayEquals(new long[] {i, i * 2L, i * 3L}, child.getLongArray("longs"));
+        }
+    }
+
+    @Test
+    void packedArrays() throws IOException {
+        EbsCompound compound = EbsElements.newCompound();
+
+        // Odd sizes, so values straddle the ends of pooled buffers
+        int size = 100_003;
+        byte[] bytes = new byte[size];
+        short[] shorts = new short[size];
+        int[] ints = new int[size];
+        long[] longs = new long[size];
+        float[] floats = new float[size];
+        double[] doubles = new double[size];
+
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) i;
+            shorts[i] = (short) (i * 3);
+            ints[i] = i * 31;
+            longs[i] = i * -7L << 33;
+            floats[i] = i / 3F;
+            doubles[i] = i / 7D;
+        }
+
+        compound.putByte("pad", (byte) 1);
+        compound.putByteArray("bytes", bytes);
+        compound.putShortArray("shorts", shorts);
+        compound.putIntArray("ints", ints);
+        compound.putLongArray("longs", longs);
+        compound.putFloatArray("floats", floats);
+        compound.putDoubleArray("doubles", doubles);
+        compound.putIntArray("empty");
+
+        for (EbsFormat format: List.of(EbsFormat.V1, EbsFormat.V2)) {
+            EbsTypeRegistry registry = new EbsTypeRegistry();
+            registry.setWriteFormat(format);
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            registry.write(compound, outputStream);
+
+            byte[] data = outputStream.toByteArray();
+            assertEquals(ByteBuffer.wrap(data), registry.encode(compound));
+
+            List<EbsCompound> reads = new ArrayList<>();
+            reads.add((EbsCompound) registry.read(new ByteArrayInputStream(data)));
+            reads.add((EbsCompound) registry.read(ByteBuffer.wrap(data)));
+
+            // Plain DataInputs can only read V1
+            if (!format.isCompact()) {
+                reads.add((EbsCompound) registry.read((DataInput) new DataInputStream(new ByteArrayInputStream(data))));
+            }
+
+            for (EbsCompound read: reads) {
+                assertArrayEquals(bytes, read.getByteArray("bytes"));
+                assertArrayEquals(shorts, read.getShortArray("shorts"));
+                assertArrayEquals(ints, read.getIntArray("ints"));
+                assertArrayEquals(longs, read.getLongArray("longs"));
+                assertArrayEquals(floats, read.getFloatArray("floats"));
+                assertArrayEquals(doubles, read.getDoubleArray("doubles"));
+                assertEquals(0, read.getIntArray("empty").length);
+            }
+        }
+    }
+
+    @Test
+    void keyTable() throws IOException {
+        EbsArray<EbsCompound> entities = EbsElements.newArray(EbsCompoundType.getInstance());
+
+        for (int i = 0; i < 1_000; i++) {
+            EbsCompound entity = EbsElements.newCompound();
+            entity.putInt("entity_id", i);
+            entity.putString("entity_name", "entity " + i);
+
+            EbsCompound nested = EbsElements.newCompound();
+            nested.putInt("entity_id", -i);
+            entity.put("passenger", nested);
+
+            entities.add(entity);
+        }
+
+        EbsCompound compound = EbsElements.newCompound();
+        compound.put("entities", entities);
+
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+        registry.setWriteFormat(EbsFormat.V2.withFlags(EbsFormat.SIZED));
+        int plainSize = registry.encode(compound).remaining();
+
+        registry.setWriteFormat(EbsFormat.V2.withFlags(EbsFormat.SIZED | EbsFormat.KEY_TABLE));
+        ByteBuffer data = registry.encode(compound);
+
+        // Every key is written once, instead of once per entity
+        assertTrue(data.remaining() < plainSize - 20_000);
+
+        for (EbsCompound read: List.of(
+                (EbsCompound) registry.read(data.duplicate()),
+                (EbsCompound) registry.readLazy(data.duplicate())
+        )) {
+            EbsArray<EbsCompound> readEntities = read.getArray("entities", EbsCompoundType.getInstance());
+            EbsCompound first = readEntities.get(0);
+            EbsCompound last = readEntities.get(999);
+
+            assertEquals(1_000, readEntities.size());
+            assertEquals(999, last.getInt("entity_id"));
+            assertEquals("entity 999", last.getString("entity_name"));
+            assertEquals(-999, last.getCompound("passenger").getInt("entity_id"));
+
+            // Keys are shared instances from the key table
+            assertSame(
+                    first.keySet().stream().filter("entity_id"::equals).findFirst().orElseThrow(),
+                    last.getCompound("passenger").keySet().iterator().next()
+            );
+        }
+    }
+
+    private static EbsType<EbsString> customType() {
+        return new EbsType<>() {
+            @Override
+            public EbsString read(EbsTypeRegistry registry, DataInput input) throws IOException {
+                return EbsString.TYPE.read(registry, input);
+            }
+
+            @Override
+            public void write(EbsTypeRegistry registry, DataOutput output, EbsString val) throws IOException {
+                EbsString.TYPE.write(registry, output, val);
+            }
+        };
+    }
+
+    @Test
+    void typeRegistry() throws InterruptedException {
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+        int builtIn = registry.size();
+
+        assertEquals(builtIn, new EbsTypeRegistry().size());
+        assertNull(registry.get(-1));
+        assertNull(registry.get(builtIn));
+        assertEquals(EbsString.TYPE, registry.get(registry.identifierOf(EbsString.TYPE)));
+
+        // Registering while other threads look types up
+        List<EbsType<EbsString>> types = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            types.add(customType());
+        }
+
+        Thread[] readers = new Thread[4];
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 10_000; j++) {
+                        EbsType<EbsString> type = types.get(j % types.size());
+                        int id = registry.identifierOf(type);
+
+                        assertTrue(id == -1 || registry.get(id) == type);
+                        assertEquals(EbsString.TYPE, registry.get(registry.identifierOf(EbsString.TYPE)));
+                    }
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+            });
+            readers[i].start();
+        }
+
+        for (EbsType<EbsString> type: types) {
+            assertEquals(registry.size(), registry.register(type));
+        }
+
+        for (Thread reader: readers) {
+            reader.join();
+        }
+
+        assertNull(failure.get());
+        assertEquals(builtIn + types.size(), registry.size());
+        assertThrows(IllegalArgumentException.class, () -> registry.register(types.get(0)));
+
+        registry.freeze();
+        assertTrue(registry.isFrozen());
+        assertThrows(IllegalStateException.class, () -> registry.register(customType()));
+        assertFalse(new EbsTypeRegistry().isFrozen());
+        assertEquals(builtIn + 7, registry.identifierOf(types.get(7)));
+    }
+
+    @Test
+    void stableTypeIds() throws IOException {
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+        EbsType<EbsString> custom = customType();
+
+        // The first custom type has had ID 12 since before blobs existed
+        assertEquals(12, registry.register(custom));
+        assertEquals(EbsTypeRegistry.BYTES_TYPE_ID, registry.identifierOf(EbsBytes.TYPE));
+        assertThrows(IllegalArgumentException.class, () -> registry.register(EbsBytes.TYPE));
+
+        // A custom element written before blobs were added
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(outputStream);
+        output.writeInt(12);
+        output.writeUTF("custom");
+
+        assertEquals(EbsElements.of("custom"), registry.read(new ByteArrayInputStream(outputStream.toByteArray())));
+
+        EbsCompound compound = EbsElements.newCompound();
+        compound.putBytes("blob", new byte[] {1, 2, 3});
+
+        for (EbsFormat format: List.of(EbsFormat.V1, EbsFormat.V2)) {
+            registry.setWriteFormat(format);
+
+            EbsCompound read = (EbsCompound) registry.read(registry.encode(compound));
+            assertEquals(ByteBuffer.wrap(new byte[] {1, 2, 3}), read.getBytes("blob"));
+        }
+
+        assertEquals(EbsTypeRegistry.BYTES_TYPE_ID, EbsIo.globalTypes().encode(EbsElements.of(new byte[0])).getInt());
+    }
+
+    @Test
+    void fileEvents() throws IOException {
+        EbsCompound compound = EbsElements.newCompound();
+        compound.putString("name", "recorded");
+
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+        Path file = Files.createTempFile("ebs", ".ebs");
+        Path dump = Files.createTempFile("ebs", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("me.julie.ebs.WriteFile").withoutThreshold();
+            recording.enable("me.julie.ebs.ReadFile").withoutThreshold();
+            recording.start();
+
+            registry.writeFile(compound, file);
+            registry.readFile(file);
+            registry.readFileMapped(file);
+            registry.readFileLazy(file);
+            registry.writeFileCompressed(compound, file);
+            registry.readFileCompressed(file);
+
+            recording.stop();
+            recording.dump(dump);
+
+            // Every event has the size of the file it was committed for
+            List<RecordedEvent> events = new ArrayList<>(RecordingFile.readAllEvents(dump));
+            events.sort(Comparator.comparing(RecordedEvent::getEndTime));
+            long plain = registry.encode(compound).remaining();
+
+            assertEquals(6, events.size());
+
+            for (RecordedEvent event: events.subList(0, 4)) {
+                assertEquals(plain, event.getLong("bytes"), event.toString());
+            }
+
+            for (RecordedEvent event: events.subList(4, 6)) {
+                assertEquals(Files.size(file), event.getLong("bytes"), event.toString());
+            }
+        } finally {
+            Files.delete(file);
+            Files.delete(dump);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package me.julie.ebs;
+
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.ListBuilder;
+import com.mojang.serialization.RecordBuilder;
+import me.julie.ebs.element.EbsCompound;
+import me.julie.ebs.element.EbsElement;
+import me.julie.ebs.io.EbsFormat;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EbsBinaryOpsTest {
+    private static final EbsFormat[] FORMATS = {
+            EbsFormat.V1,
+            EbsFormat.V2,
+            EbsFormat.V2.withFlags(EbsFormat.SIZED)
+    };
+
+    // Encodes a record the way a codec would, only through the ops
+    private static <T> T encodeRecord(DynamicOps<T> ops, int seed) {
+        RecordBuilder<T> record = ops.mapBuilder();
+
+        for (int i = 0; i < 20; i++) {
+            record.add("field_" + i, ops.createInt(seed * 31 + i));
+        }
+
+        record.add("name", ops.createString("record_" + seed + "_\u00e9\u4e2d"));
+        record.add("alive", ops.createBoolean(seed % 2 == 0));
+        record.add("position", ops.createDouble(seed * 0.5D));
+        record.add("seed", ops.createLong(seed * 1_000_000_007L));
+        record.add("scores", ops.createIntList(IntStream.range(0, seed % 7)));
+        record.add("times", ops.createLongList(LongStream.of(seed, -seed)));
+        record.add("bytes", ops.createByteList(ByteBuffer.wrap(new byte[] {1, 2, (byte) seed})));
+        record.add("nothing", ops.emptyList());
+        record.add("empty", ops.emptyMap());
+
+        // Duplicate keys replace the value in place
+        record.add("field_3", ops.createString("replaced"));
+
+        ListBuilder<T> children = ops.listBuilder();
+
+        for (int i = 0; i < seed % 4; i++) {
+            RecordBuilder<T> child = ops.mapBuilder();
+            child.add("index", ops.createInt(i));
+            child.add("tags", ops.createList(Stream.of(ops.createString("a"), ops.createString("b"))));
+
+            children.add(child.build(ops.empty()));
+        }
+
+        // Elements of a different type than the first are dropped
+        children.add(ops.createInt(1));
+        record.add("children", children.build(ops.empty()));
+
+        T merged = ops.mergeToList(
+                ops.createList(Stream.of(ops.createShort((short) 1))),
+                List.of(ops.createShort((short) 2), ops.createFloat(3))
+        ).result().orElseThrow();
+
+        record.add("merged", merged);
+
+        RecordBuilder<T> prefix = ops.mapBuilder();
+        prefix.add("seed", ops.createString("overridden by the record"));
+        prefix.add("version", ops.createInt(3));
+
+        return record.build(prefix.build(ops.empty())).result().orElseThrow();
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] result = new byte[buffer.remaining()];
+        buffer.get(result);
+
+        return result;
+    }
+
+    @Test
+    void sameBytesAsTree() throws IOException {
+        for (EbsFormat format: FORMATS) {
+            EbsTypeRegistry registry = new EbsTypeRegistry();
+            registry.setWriteFormat(format);
+            EbsBinaryOps ops = EbsBinaryOps.of(registry);
+
+            for (int seed = 0; seed < 10; seed++) {
+                EbsElement tree = encodeRecord(EbsOps.INSTANCE, seed);
+                EbsBinaryOps.Encoded encoded = encodeRecord(ops, seed);
+
+                assertArrayEquals(bytes(registry.encode(tree)), bytes(ops.encode(encoded)), format.toString());
+
+                ByteArrayOutputStream expected = new ByteArrayOutputStream();
+                ByteArrayOutputStream actual = new ByteArrayOutputStream();
+
+                registry.write(tree, expected);
+                ops.write(encoded, actual);
+
+                assertArrayEquals(expected.toByteArray(), actual.toByteArray(), format.toString());
+            }
+        }
+    }
+
+    @Test
+    void fallbackOperations() throws IOException {
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+        EbsBinaryOps ops = EbsBinaryOps.of(registry);
+
+        EbsElement tree = encodeRecord(EbsOps.INSTANCE, 5);
+        EbsBinaryOps.Encoded encoded = encodeRecord(ops, 5);
+
+        DataResult<EbsElement> treeMerged = EbsOps.INSTANCE.mergeToMap(
+                tree, EbsOps.INSTANCE.createString("extra"), encodeRecord(EbsOps.INSTANCE, 1)
+        );
+        DataResult<EbsBinaryOps.Encoded> merged = ops.mergeToMap(
+                encoded, ops.createString("extra"), encodeRecord(ops, 1)
+        );
+
+        assertArrayEquals(
+                bytes(registry.encode(treeMerged.result().orElseThrow())),
+                bytes(ops.encode(merged.result().orElseThrow()))
+        );
+
+        EbsCompound read = (EbsCompound) registry.read(ops.encode(encoded));
+        long fields = ops.getMapValues(encoded).result().orElseThrow().count();
+
+        assertEquals(read.size(), fields);
+        assertEquals("replaced", read.getString("field_3"));
+        assertEquals(5 * 1_000_000_007L, read.getLong("seed"));
+        assertEquals(3, read.getInt("version"));
+
+        assertEquals(7, ops.getNumberValue(ops.createInt(7)).result().orElseThrow().intValue());
+        assertTrue(ops.getStream(ops.createInt(7)).result().isEmpty());
+    }
+
+    @Test
+    void keyTableRejected() {
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+        assertThrows(IllegalArgumentException.class, () -> EbsBinaryOps.of(registry, EbsFormat.V2.withFlags(EbsFormat.KEY_TABLE)));
+    }
+}
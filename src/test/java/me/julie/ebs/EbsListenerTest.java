@@ -0,0 +1,166 @@
+package me.julie.ebs;
+
+import me.julie.ebs.element.EbsArray;
+import me.julie.ebs.element.EbsCompound;
+import me.julie.ebs.element.EbsElement;
+import me.julie.ebs.element.EbsElements;
+import me.julie.ebs.element.EbsNumber;
+import me.julie.ebs.element.LazyEbsCompound;
+import me.julie.ebs.io.EbsFormat;
+import me.julie.ebs.type.EbsCompoundType;
+import me.julie.ebs.type.EbsNumberType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EbsListenerTest {
+
+    // Keeps every reported document's stats
+    private static final class Recorder implements EbsListener {
+        private final List<EbsIoStats> reads = new ArrayList<>();
+        private final List<EbsIoStats> writes = new ArrayList<>();
+
+        @Override
+        public void onRead(EbsIoStats stats) {
+            reads.add(stats);
+        }
+
+        @Override
+        public void onWrite(EbsIoStats stats) {
+            writes.add(stats);
+        }
+    }
+
+    private static EbsCompound document() {
+        EbsCompound compound = EbsElements.newCompound();
+        EbsArray<EbsNumber> heights = EbsElements.newArray(EbsNumberType.INTEGER);
+
+        for (int i = 0; i < 256; i++) {
+            heights.add(EbsElements.of(i));
+        }
+
+        compound.put("heights", heights);
+
+        for (int i = 0; i < 10; i++) {
+            EbsCompound child = EbsElements.newCompound();
+            child.putString("name", "child_" + i);
+            child.putLong("id", i);
+
+            compound.put("child_" + i, child);
+        }
+
+        return compound;
+    }
+
+    @Test
+    void reportedOncePerDocument() throws IOException {
+        for (EbsFormat format: new EbsFormat[] {EbsFormat.V1, EbsFormat.V2.withFlags(EbsFormat.SIZED)}) {
+            EbsTypeRegistry registry = new EbsTypeRegistry();
+            Recorder recorder = new Recorder();
+
+            registry.setWriteFormat(format);
+            registry.setListener(recorder);
+
+            EbsCompound compound = document();
+            ByteBuffer encoded = registry.encode(compound);
+            int size = encoded.remaining();
+
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            registry.write(compound, stream);
+
+            assertEquals(2, recorder.writes.size());
+
+            for (EbsIoStats stats: recorder.writes) {
+                assertEquals(size, stats.bytes());
+                assertEquals(format, stats.format());
+            }
+
+            registry.read(encoded.duplicate());
+            registry.readLazy(encoded.duplicate());
+
+            // Trailing data isn't counted as part of the document
+            byte[] padded = new byte[size + 16];
+            encoded.duplicate().get(padded, 0, size);
+            registry.read(new ByteArrayInputStream(padded));
+
+            assertEquals(3, recorder.reads.size());
+
+            for (EbsIoStats stats: recorder.reads) {
+                assertEquals(size, stats.bytes(), format.toString());
+                assertEquals(format, stats.format());
+            }
+
+            registry.setListener(null);
+            registry.encode(compound);
+            assertEquals(2, recorder.writes.size());
+        }
+    }
+
+    @Test
+    void elementCounts() throws IOException {
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+        EbsMetrics metrics = new EbsMetrics();
+        Recorder recorder = new Recorder();
+
+        registry.setWriteFormat(EbsFormat.V2.withFlags(EbsFormat.SIZED));
+        registry.setListener(recorder);
+
+        ByteBuffer encoded = registry.encode(document());
+        EbsIoStats stats = recorder.writes.get(0);
+
+        assertEquals(11, stats.elementCount(EbsCompoundType.getInstance()));
+        assertEquals(256, stats.elementCount(EbsNumberType.INTEGER));
+        assertEquals(10, stats.elementCount(EbsNumberType.LONG));
+        assertEquals(1 + 1 + 256 + 10 * 3, stats.elements());
+        assertEquals(256, stats.largestArray());
+        assertEquals(11, stats.largestCompound());
+
+        // Lazy compounds are counted without decoding them
+        registry.setListener(metrics);
+        EbsElement lazy = registry.readLazy(encoded.duplicate());
+        assertEquals(1, metrics.elementsRead(EbsCompoundType.getInstance()));
+        assertFalse(((LazyEbsCompound) lazy).isInflated());
+
+        registry.read(encoded.duplicate());
+        assertEquals(2, metrics.documentsRead());
+        assertEquals(2L * encoded.remaining(), metrics.bytesRead());
+        assertEquals(12, metrics.elementsRead(EbsCompoundType.getInstance()));
+        assertEquals(11, metrics.largestCompound());
+        assertEquals(0, metrics.documentsWritten());
+    }
+
+    @Test
+    void files() throws IOException {
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+        EbsMetrics metrics = new EbsMetrics(false);
+        registry.setListener(metrics);
+
+        Path file = Files.createTempFile("ebs", ".ebs");
+
+        try {
+            registry.writeFile(document(), file);
+            registry.readFile(file);
+            registry.readFileMapped(file);
+            registry.readFileLazy(file);
+
+            long size = Files.size(file);
+
+            assertEquals(1, metrics.documentsWritten());
+            assertEquals(size, metrics.bytesWritten());
+            assertEquals(3, metrics.documentsRead());
+            assertEquals(3 * size, metrics.bytesRead());
+            assertTrue(metrics.elementsRead().isEmpty());
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package me.julie.ebs;
+
+import com.mojang.serialization.ListBuilder;
+import com.mojang.serialization.RecordBuilder;
+import me.julie.ebs.element.EbsArray;
+import me.julie.ebs.element.EbsCompound;
+import me.julie.ebs.element.EbsElement;
+import me.julie.ebs.element.EbsElements;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EbsOpsTest {
+    private static final EbsOps OPS = EbsOps.INSTANCE;
+
+    @Test
+    void mapBuilder() {
+        RecordBuilder<EbsElement> builder = OPS.mapBuilder();
+
+        for (int i = 0; i < 30; i++) {
+            builder.add("field_" + i, OPS.createInt(i));
+        }
+
+        EbsCompound record = (EbsCompound) builder.build(OPS.empty()).result().orElseThrow();
+        assertEquals(30, record.size());
+        assertEquals(29, record.getInt("field_29"));
+
+        // Building merges into the prefix, without changing it
+        EbsCompound prefix = EbsElements.newCompound();
+        prefix.putString("name", "prefix");
+
+        builder = OPS.mapBuilder();
+        builder.add("field_0", OPS.createInt(-1));
+        EbsCompound merged = (EbsCompound) builder.build(prefix).result().orElseThrow();
+
+        assertEquals(2, merged.size());
+        assertEquals("prefix", merged.getString("name"));
+        assertEquals(-1, merged.getInt("field_0"));
+        assertEquals(1, prefix.size());
+
+        assertTrue(builder.build(OPS.createInt(1)).result().isEmpty());
+    }
+
+    @Test
+    void listBuilder() {
+        ListBuilder<EbsElement> builder = OPS.listBuilder();
+
+        for (int i = 0; i < 30; i++) {
+            builder.add(OPS.createInt(i));
+        }
+
+        EbsArray<EbsElement> list = (EbsArray<EbsElement>) builder.build(OPS.empty()).result().orElseThrow();
+        assertEquals(30, list.size());
+
+        builder = OPS.listBuilder();
+        builder.add(OPS.createInt(30));
+        EbsArray<EbsElement> merged = (EbsArray<EbsElement>) builder.build(list).result().orElseThrow();
+
+        assertEquals(31, merged.size());
+        assertEquals(30, list.size());
+        assertEquals(OPS.createInt(30), merged.get(30));
+
+        builder.add(OPS.createInt(1));
+        assertTrue(builder.build(OPS.createInt(1)).result().isEmpty());
+    }
+
+    @Test
+    void mergeToList() {
+        EbsElement list = OPS.createList(List.<EbsElement>of(OPS.createInt(0)).stream());
+        EbsArray<EbsElement> merged = (EbsArray<EbsElement>) OPS.mergeToList(list, OPS.createInt(1)).result().orElseThrow();
+
+        assertEquals(List.of(OPS.createInt(0), OPS.createInt(1)), merged);
+        assertEquals(1, ((EbsArray<?>) list).size());
+
+        assertTrue(OPS.mergeToList(OPS.empty(), OPS.createInt(1)).result().isPresent());
+        assertTrue(OPS.mergeToMap(OPS.empty(), OPS.createString("key"), OPS.createInt(1)).result().isPresent());
+    }
+}
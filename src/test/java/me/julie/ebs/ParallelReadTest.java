@@ -0,0 +1,156 @@
+package me.julie.ebs;
+
+import me.julie.ebs.element.EbsArray;
+import me.julie.ebs.element.EbsCompound;
+import me.julie.ebs.element.EbsElement;
+import me.julie.ebs.element.EbsElements;
+import me.julie.ebs.io.EbsDataInput;
+import me.julie.ebs.io.EbsFormat;
+import me.julie.ebs.type.EbsCompoundType;
+import me.julie.ebs.type.EbsType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static me.julie.ebs.ParallelWriteTest.FORMATS;
+import static me.julie.ebs.ParallelWriteTest.bytes;
+import static me.julie.ebs.ParallelWriteTest.randomCompound;
+import static me.julie.ebs.TestDocuments.elementOf;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelReadTest {
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterAll
+    static void shutdown() {
+        POOL.shutdown();
+    }
+
+    @Test
+    void sameElementsAsSequential() throws IOException {
+        Random random = new Random(0xEB5L);
+
+        for (int seed = 0; seed < 10; seed++) {
+            EbsCompound root = randomCompound(random, 3);
+
+            for (EbsFormat format: FORMATS) {
+                EbsTypeRegistry sequential = new EbsTypeRegistry();
+                sequential.setWriteFormat(format);
+
+                byte[] encoded = bytes(sequential.encode(root));
+                byte[] expected = bytes(sequential.encode(sequential.read(ByteBuffer.wrap(encoded))));
+
+                for (int splitSize: new int[] {1, 4}) {
+                    EbsTypeRegistry parallel = new EbsTypeRegistry();
+                    parallel.setReadPool(POOL, splitSize);
+
+                    String message = format + ", split size " + splitSize;
+
+                    // Trailing data must be left unread
+                    ByteBuffer buffer = ByteBuffer.allocate(encoded.length + 8);
+                    buffer.put(encoded).flip().limit(encoded.length + 8);
+
+                    EbsElement element = parallel.read(buffer);
+                    assertEquals(encoded.length, buffer.position(), message);
+
+                    // Written again, the read element must give the same bytes as a sequentially read one
+                    assertArrayEquals(expected, bytes(sequential.encode(element)), message);
+                }
+            }
+        }
+    }
+
+    @Test
+    void brokenData() throws IOException {
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+        registry.setWriteFormat(EbsFormat.V2.withFlags(EbsFormat.SIZED));
+
+        ByteBuffer encoded = registry.encode(randomCompound(new Random(1), 3));
+        ByteBuffer truncated = encoded.duplicate().limit(encoded.limit() / 2);
+
+        registry.setReadPool(POOL, 1);
+
+        assertThrows(EOFException.class, () -> registry.read(truncated.duplicate()));
+    }
+
+    // A type which writes nothing, and reads with the given action
+    private static EbsType<EbsElement> typeOf(Callable<EbsElement> read) {
+        return new EbsType<>() {
+            @Override
+            public EbsElement read(EbsTypeRegistry registry, DataInput input) throws IOException {
+                try {
+                    return read.call();
+                } catch (IOException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IOException(e);
+                }
+            }
+
+            @Override
+            public void write(EbsTypeRegistry registry, DataOutput output, EbsElement val) {
+            }
+        };
+    }
+
+    @Test
+    void failedReadCancelsRuns() throws IOException {
+        AtomicInteger read = new AtomicInteger();
+        EbsType<EbsElement> broken = typeOf(() -> {
+            throw new IOException("Broken element");
+        });
+        EbsType<EbsElement> slow = typeOf(() -> {
+            Thread.sleep(1);
+            read.incrementAndGet();
+
+            return EbsElements.of(0);
+        });
+
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+        registry.register(broken);
+        registry.register(slow);
+        registry.setWriteFormat(EbsFormat.V2.withFlags(EbsFormat.SIZED));
+
+        // The first run fails at once, in a fork, the scan jumps over every compound
+        EbsArray<EbsCompound> array = EbsElements.newArray(EbsCompoundType.getInstance());
+        EbsCompound first = EbsElements.newCompound();
+        first.put("broken", elementOf(broken));
+        array.add(first);
+
+        for (int i = 0; i < 500; i++) {
+            EbsCompound compound = EbsElements.newCompound();
+            compound.put("slow", elementOf(slow));
+            array.add(compound);
+        }
+
+        ByteBuffer encoded = registry.encode(array);
+        registry.setReadPool(POOL, 1);
+
+        assertThrows(IOException.class, () -> registry.read(encoded));
+
+        // Runs after the failed one were cancelled, not read
+        POOL.awaitQuiescence(1, TimeUnit.MINUTES);
+        assertTrue(read.get() < 500, "Read " + read.get());
+    }
+
+    @Test
+    void invalidInputs() {
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+        EbsDataInput stream = EbsDataInput.of(new ByteArrayInputStream(new byte[0]));
+
+        assertThrows(IllegalArgumentException.class, () -> registry.setReadPool(POOL, 0));
+        assertNull(registry.getReadPool());
+        assertThrows(IllegalStateException.class, () -> stream.setParallel(POOL, 16));
+    }
+}
@@ -0,0 +1,202 @@
+package me.julie.ebs;
+
+import me.julie.ebs.element.EbsArray;
+import me.julie.ebs.element.EbsCompound;
+import me.julie.ebs.element.EbsElement;
+import me.julie.ebs.element.EbsElements;
+import me.julie.ebs.element.EbsNumber;
+import me.julie.ebs.io.EbsFormat;
+import me.julie.ebs.type.EbsCompoundType;
+import me.julie.ebs.type.EbsNumberType;
+import me.julie.ebs.type.EbsType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static me.julie.ebs.TestDocuments.elementOf;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelWriteTest {
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    static final EbsFormat[] FORMATS = {
+            EbsFormat.V1,
+            EbsFormat.V2,
+            EbsFormat.V2.withFlags(EbsFormat.SIZED),
+            EbsFormat.V2.withFlags(EbsFormat.KEY_TABLE),
+            EbsFormat.V2.withFlags(EbsFormat.SIZED | EbsFormat.KEY_TABLE)
+    };
+
+    @AfterAll
+    static void shutdown() {
+        POOL.shutdown();
+    }
+
+    // Builds a random tree with containers of very different sizes
+    private static EbsElement randomElement(Random random, int depth) {
+        int kind = depth == 0 ? random.nextInt(3) : random.nextInt(6);
+
+        switch (kind) {
+            case 0:
+                return EbsElements.of(random.nextInt());
+            case 1:
+                return EbsElements.of("value_" + random.nextInt(1000));
+            case 2:
+                return EbsElements.of(random.nextLong());
+            case 3: {
+                EbsArray<EbsNumber> numbers = EbsElements.newArray(EbsNumberType.INTEGER);
+
+                for (int i = random.nextInt(200); i > 0; i--) {
+                    numbers.add(EbsElements.of(random.nextInt()));
+                }
+
+                return numbers;
+            }
+            case 4: {
+                EbsArray<EbsCompound> compounds = EbsElements.newArray(EbsCompoundType.getInstance());
+
+                for (int i = random.nextInt(8); i > 0; i--) {
+                    compounds.add(randomCompound(random, depth - 1));
+                }
+
+                return compounds;
+            }
+            default:
+                return randomCompound(random, depth - 1);
+        }
+    }
+
+    static EbsCompound randomCompound(Random random, int depth) {
+        EbsCompound compound = random.nextInt(4) == 0
+                ? EbsElements.newConcurrentCompound()
+                : EbsElements.newCompound();
+
+        for (int i = random.nextInt(30); i > 0; i--) {
+            compound.put("key_" + random.nextInt(50), randomElement(random, Math.max(depth, 0)));
+        }
+
+        return compound;
+    }
+
+    static byte[] bytes(ByteBuffer buffer) {
+        byte[] result = new byte[buffer.remaining()];
+        buffer.get(result);
+
+        return result;
+    }
+
+    private static byte[] written(EbsTypeRegistry registry, EbsElement element) throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        registry.write(element, stream);
+
+        return stream.toByteArray();
+    }
+
+    @Test
+    void sameBytesAsSequential() throws IOException {
+        Random random = new Random(0xEB5L);
+
+        for (int seed = 0; seed < 10; seed++) {
+            EbsCompound root = randomCompound(random, 3);
+
+            for (EbsFormat format: FORMATS) {
+                EbsTypeRegistry sequential = new EbsTypeRegistry();
+                sequential.setWriteFormat(format);
+
+                byte[] expected = written(sequential, root);
+                assertArrayEquals(expected, bytes(sequential.encode(root)));
+
+                for (int splitSize: new int[] {1, 4}) {
+                    EbsTypeRegistry parallel = new EbsTypeRegistry();
+                    parallel.setWriteFormat(format);
+                    parallel.setWritePool(POOL, splitSize);
+
+                    String message = format + ", split size " + splitSize;
+
+                    assertArrayEquals(expected, written(parallel, root), message);
+                    assertArrayEquals(expected, bytes(parallel.encode(root)), message);
+                    assertArrayEquals(expected, bytes(parallel.encode(root, true)), message);
+
+                    ByteBuffer buffer = ByteBuffer.allocate(expected.length);
+                    parallel.write(root, buffer);
+                    assertArrayEquals(expected, buffer.array(), message);
+                }
+            }
+
+            EbsTypeRegistry registry = new EbsTypeRegistry();
+            registry.setWritePool(POOL, 16);
+            assertEquals(root.size(), ((EbsCompound) registry.read(registry.encode(root))).size());
+        }
+    }
+
+    @Test
+    void failedWriteCancelsRuns() {
+        AtomicInteger written = new AtomicInteger();
+        EbsType<EbsElement> slow = new EbsType<>() {
+            @Override
+            public EbsElement read(EbsTypeRegistry registry, DataInput input) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void write(EbsTypeRegistry registry, DataOutput output, EbsElement val) throws IOException {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+
+                written.incrementAndGet();
+            }
+        };
+
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+        registry.register(slow);
+        registry.setWritePool(POOL, 1);
+
+        // The first run fails at once, the element's type isn't registered
+        EbsArray<EbsCompound> array = EbsElements.newArray(EbsCompoundType.getInstance());
+        EbsCompound broken = EbsElements.newCompound();
+        broken.put("broken", elementOf(new EbsType<>() {
+            @Override
+            public EbsElement read(EbsTypeRegistry registry, DataInput input) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void write(EbsTypeRegistry registry, DataOutput output, EbsElement val) {
+            }
+        }));
+        array.add(broken);
+
+        for (int i = 0; i < 500; i++) {
+            EbsCompound compound = EbsElements.newCompound();
+            compound.put("slow", elementOf(slow));
+            array.add(compound);
+        }
+
+        assertThrows(IOException.class, () -> registry.encode(array));
+
+        // Runs after the failed one were cancelled, not written
+        POOL.awaitQuiescence(1, TimeUnit.MINUTES);
+        assertTrue(written.get() < 500, "Written " + written.get());
+    }
+
+    @Test
+    void invalidSplitSize() {
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+
+        assertThrows(IllegalArgumentException.class, () -> registry.setWritePool(POOL, 0));
+        assertNull(registry.getWritePool());
+    }
+}
@@ -0,0 +1,96 @@
+package me.julie.ebs;
+
+import me.julie.ebs.element.EbsBoolean;
+import me.julie.ebs.element.EbsCompound;
+import me.julie.ebs.element.EbsElement;
+import me.julie.ebs.element.EbsElements;
+import me.julie.ebs.io.EbsFormat;
+import me.julie.ebs.type.EbsType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Documents and types shared by tests of the different ways to read and write
+ */
+public final class TestDocuments {
+    /** V1, the compact format, and the compact format with container lengths */
+    public static final List<EbsFormat> FORMATS = List.of(
+            EbsFormat.V1,
+            EbsFormat.V2,
+            EbsFormat.V2.withFlags(EbsFormat.SIZED)
+    );
+
+    private TestDocuments() {}
+
+    /**
+     * Creates a compound with a value of most built-in types, arrays,
+     * and a nested compound holding another, empty, one
+     * @return The created compound
+     */
+    public static EbsCompound sample() {
+        EbsCompound compound = EbsElements.newCompound();
+        compound.putString("name", "sample é");
+        compound.putInt("version", 3);
+        compound.putLong("seed", -1234567890123L);
+        compound.putUUID("uuid", UUID.randomUUID());
+        compound.put("flag", EbsBoolean.TRUE);
+        compound.putIntArray("ints", 1, 2, 3);
+        compound.putStringList("strings", List.of("a", "b"));
+        compound.put("empty", EbsElements.newArray());
+
+        EbsCompound child = EbsElements.newCompound();
+        child.putInt("value", 12);
+        child.putString("skipped", "value");
+        child.put("nested", EbsElements.newCompound());
+        compound.put("child", child);
+
+        return compound;
+    }
+
+    /**
+     * Creates a type whose values have no data, which counts how
+     * many values are read, values that are skipped aren't counted
+     * @param reads The amount of values read
+     * @return The created type, which must be registered to be written
+     */
+    public static EbsType<EbsElement> countingType(AtomicInteger reads) {
+        return new EbsType<>() {
+            @Override
+            public EbsElement read(EbsTypeRegistry registry, DataInput input) {
+                reads.incrementAndGet();
+                return elementOf(this);
+            }
+
+            @Override
+            public void write(EbsTypeRegistry registry, DataOutput output, EbsElement val) {
+            }
+
+            @Override
+            public void skip(EbsTypeRegistry registry, DataInput input) {
+            }
+        };
+    }
+
+    /**
+     * Creates an element of the given type, with no value of its own
+     * @param type The element's type
+     * @return The created element
+     */
+    public static EbsElement elementOf(EbsType<EbsElement> type) {
+        return new EbsElement() {
+            @Override
+            public EbsType<EbsElement> getType() {
+                return type;
+            }
+
+            @Override
+            public EbsElement clone() {
+                return this;
+            }
+        };
+    }
+}
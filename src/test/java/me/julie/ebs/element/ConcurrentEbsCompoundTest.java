@@ -0,0 +1,115 @@
+package me.julie.ebs.element;
+
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.io.EbsFormat;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentEbsCompoundTest {
+
+    @Test
+    void atomicUpdates() {
+        ConcurrentEbsCompound compound = EbsElements.newConcurrentCompound();
+        compound.putInt("health", 20);
+
+        assertNull(compound.putIfAbsent("mana", EbsElements.of(5)));
+        assertEquals(EbsElements.of(5), compound.putIfAbsent("mana", EbsElements.of(6)));
+        assertEquals(5, compound.getInt("mana"));
+
+        assertFalse(compound.replace("health", EbsElements.of(19), EbsElements.of(18)));
+        assertTrue(compound.replace("health", EbsElements.of(20), EbsElements.of(18)));
+        assertEquals(18, compound.getInt("health"));
+
+        assertTrue(compound.deepClone() instanceof ConcurrentEbsCompound);
+        assertTrue(compound.clone() instanceof ConcurrentEbsCompound);
+    }
+
+    @Test
+    void iterateWhileWriting() {
+        ConcurrentEbsCompound compound = EbsElements.newConcurrentCompound();
+
+        for (int i = 0; i < 100; i++) {
+            compound.putInt("key_" + i, i);
+        }
+
+        // Weakly consistent, never a ConcurrentModificationException,
+        // entries added meanwhile may or may not be seen
+        for (Map.Entry<String, EbsElement> e: compound.entrySet()) {
+            if (e.getKey().startsWith("key_")) {
+                compound.remove(e.getKey());
+                compound.putInt("added_" + e.getKey(), 1);
+            }
+        }
+
+        assertEquals(100, compound.size());
+        assertFalse(compound.contains("key_0"));
+        assertEquals(1, compound.getInt("added_key_0"));
+    }
+
+    @Test
+    void writeWhileModified() throws Exception {
+        ConcurrentEbsCompound compound = EbsElements.newConcurrentCompound();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread[] writers = new Thread[4];
+
+        for (int i = 0; i < writers.length; i++) {
+            int id = i;
+
+            writers[i] = new Thread(() -> {
+                try {
+                    for (int j = 0; running.get(); j++) {
+                        String key = "writer_" + id + "_" + (j % 500);
+
+                        if (j % 3 == 0) {
+                            compound.remove(key);
+                        } else {
+                            compound.putInt(key, j);
+                        }
+                    }
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+            });
+            writers[i].start();
+        }
+
+        try {
+            for (EbsFormat format: new EbsFormat[] {EbsFormat.V1, EbsFormat.V2.withFlags(EbsFormat.SIZED)}) {
+                EbsTypeRegistry registry = new EbsTypeRegistry();
+                registry.setWriteFormat(format);
+
+                for (int i = 0; i < 200; i++) {
+                    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+                    registry.write(compound, stream);
+
+                    EbsCompound read = (EbsCompound) registry.read(new ByteArrayInputStream(stream.toByteArray()));
+                    EbsCompound decoded = (EbsCompound) registry.read(registry.encode(compound));
+
+                    for (String key: read.keySet()) {
+                        assertTrue(key.startsWith("writer_"));
+                    }
+
+                    assertTrue(decoded.size() <= writers.length * 500);
+                }
+            }
+        } finally {
+            running.set(false);
+
+            for (Thread writer: writers) {
+                writer.join();
+            }
+        }
+
+        assertNull(failure.get());
+    }
+}
@@ -0,0 +1,129 @@
+package me.julie.ebs.element;
+
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.io.EbsDataInput;
+import me.julie.ebs.io.EbsFormat;
+import me.julie.ebs.io.EbsReader;
+import me.julie.ebs.io.EbsToken;
+import me.julie.ebs.io.EbsWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EbsBytesTest {
+
+    private static byte[] payload(int size) {
+        byte[] bytes = new byte[size];
+
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i * 7);
+        }
+
+        return bytes;
+    }
+
+    @Test
+    void readAndWrite() throws IOException {
+        byte[] bytes = payload(200_003);
+
+        EbsCompound compound = EbsElements.newCompound();
+        compound.putBytes("payload", bytes);
+        compound.putBytes("empty", new byte[0]);
+        compound.put("big", EbsElements.of(BigInteger.TWO.pow(1000).negate()));
+
+        // Copied on put
+        bytes[0] = 1;
+        assertEquals(0, compound.getBytes("payload").get(0));
+        bytes[0] = 0;
+
+        for (EbsFormat format: List.of(EbsFormat.V1, EbsFormat.V2)) {
+            EbsTypeRegistry registry = new EbsTypeRegistry();
+            registry.setWriteFormat(format);
+
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            registry.write(compound, stream);
+            assertEquals(ByteBuffer.wrap(stream.toByteArray()), registry.encode(compound));
+
+            for (EbsCompound read: List.of(
+                    (EbsCompound) registry.read(new ByteArrayInputStream(stream.toByteArray())),
+                    (EbsCompound) registry.read(ByteBuffer.wrap(stream.toByteArray()))
+            )) {
+                assertEquals(compound.get("payload"), read.get("payload"));
+                assertEquals(ByteBuffer.wrap(bytes), read.getBytes("payload"));
+                assertEquals(0, read.getBytes("empty").remaining());
+                assertEquals(BigInteger.TWO.pow(1000).negate(), read.getNumber("big").value());
+            }
+        }
+    }
+
+    @Test
+    void lazySlice() throws IOException {
+        EbsCompound compound = EbsElements.newCompound();
+        compound.putBytes("payload", payload(1024));
+
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+        registry.setWriteFormat(EbsFormat.V2.withFlags(EbsFormat.SIZED));
+
+        ByteBuffer data = registry.encode(compound, true);
+        EbsCompound read = (EbsCompound) registry.readLazy(data);
+
+        ByteBuffer view = read.getBytes("payload");
+        assertTrue(view.isReadOnly());
+        assertThrows(Exception.class, () -> view.put(0, (byte) 1));
+
+        // The blob is a slice of the source, not a copy
+        assertTrue(view.isDirect());
+        int index = data.limit() - 1;
+        data.put(index, (byte) 42);
+
+        assertEquals(42, view.get(1023));
+        assertEquals(42, ((EbsBytes) read.get("payload")).get(1023));
+
+        // Truncated blobs fail to read instead of slicing past the data
+        EbsDataInput truncated = EbsDataInput.of(ByteBuffer.allocate(Integer.BYTES + 10).putInt(0, 11));
+        truncated.setLazy(true);
+
+        assertThrows(EOFException.class, () -> EbsBytes.TYPE.read(registry, truncated));
+    }
+
+    @Test
+    void corruptLengths() {
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+
+        assertThrows(IOException.class, () -> EbsBytes.TYPE.read(registry, ByteBuffer.allocate(14).putInt(0, -1)));
+        assertThrows(EOFException.class, () -> EbsBytes.TYPE.read(registry, ByteBuffer.allocate(14).putInt(0, 11)));
+
+        // Huge lengths fail once the data runs out, without allocating all of it up front
+        byte[] data = ByteBuffer.allocate(14).putInt(0, Integer.MAX_VALUE).array();
+        assertThrows(EOFException.class, () -> EbsBytes.TYPE.read(registry, new DataInputStream(new ByteArrayInputStream(data))));
+    }
+
+    @Test
+    void streaming() throws IOException {
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+        try (EbsWriter writer = EbsWriter.of(registry, stream, EbsFormat.V2)) {
+            writer.beginCompound();
+            writer.key("payload").writeBytes(payload(10));
+            writer.end();
+        }
+
+        try (EbsReader reader = EbsReader.of(registry, ByteBuffer.wrap(stream.toByteArray()))) {
+            assertEquals(EbsToken.START_COMPOUND, reader.nextToken());
+            assertEquals(EbsToken.KEY, reader.nextToken());
+            assertEquals(EbsToken.VALUE, reader.nextToken());
+            assertEquals(EbsBytes.TYPE, reader.valueType());
+            assertArrayEquals(payload(10), reader.readBytes());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package me.julie.ebs.element;
+
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.io.EbsDataInput;
+import me.julie.ebs.type.EbsNumberType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EbsNumberArrayTest {
+
+    @Test
+    void primitiveStorage() {
+        EbsCompound compound = EbsElements.newCompound();
+        compound.putIntArray("ints", 1, 2, 3);
+
+        EbsArray<EbsNumber> array = compound.getArray("ints", EbsNumberType.INTEGER);
+        assertTrue(array instanceof EbsIntArray);
+
+        EbsIntArray ints = (EbsIntArray) array;
+        assertEquals(2, ints.getInt(1));
+        assertEquals(2, ints.get(1).intValue());
+
+        // Only numbers of the array's type are added
+        assertFalse(ints.add(EbsElements.of(4L)));
+        assertTrue(ints.add(EbsElements.of(4)));
+        ints.addInt(5);
+
+        assertEquals(5, ints.size());
+        assertEquals(3, ints.indexOf(EbsElements.of(4)));
+        assertEquals(-1, ints.indexOf(EbsElements.of(4L)));
+
+        // The getter hands out a copy, the values list is the storage
+        int[] values = compound.getIntArray("ints");
+        assertArrayEquals(new int[] {1, 2, 3, 4, 5}, values);
+        assertNotSame(values, compound.getIntArray("ints"));
+
+        values[0] = 99;
+        assertEquals(1, ints.getInt(0));
+
+        ints.values().elements()[0] = 10;
+        assertEquals(10, ints.getInt(0));
+
+        EbsIntArray clone = ints.clone();
+        assertEquals(ints, clone);
+        assertEquals(ints.hashCode(), clone.hashCode());
+
+        clone.setInt(0, 1);
+        assertNotEquals(ints, clone);
+        assertEquals(10, ints.getInt(0));
+    }
+
+    @Test
+    void readAsPrimitive() throws IOException {
+        EbsCompound compound = EbsElements.newCompound();
+        compound.putDoubleArray("doubles", 0.5, 1.5);
+        compound.putByteArray("bytes", (byte) 1, (byte) 2);
+
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+        EbsCompound read = (EbsCompound) registry.read(registry.encode(compound));
+
+        assertTrue(read.getArray("doubles") instanceof EbsDoubleArray);
+        assertTrue(read.getArray("bytes") instanceof EbsByteArray);
+
+        assertEquals(compound.getArray("doubles"), read.getArray("doubles"));
+        assertArrayEquals(new byte[] {1, 2}, read.getByteArray("bytes"));
+    }
+
+    @Test
+    void corruptSizes() {
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+
+        // Sizes read from broken data fail as IO errors, before anything is allocated
+        for (EbsNumberType type: EbsNumberType.values()) {
+            assertThrows(IOException.class, () -> type.readArray(registry, buffer, -1), type.name());
+            assertThrows(IOException.class, () -> type.readArray(registry, buffer, Integer.MAX_VALUE), type.name());
+            assertThrows(IOException.class, () -> type.readArray(registry, EbsDataInput.of(buffer), Integer.MAX_VALUE), type.name());
+            assertThrows(IOException.class, () -> type.readArray(registry, new DataInputStream(new ByteArrayInputStream(new byte[8])), -1), type.name());
+        }
+
+        assertEquals(8, buffer.remaining());
+    }
+}
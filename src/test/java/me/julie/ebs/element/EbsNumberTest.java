@@ -0,0 +1,86 @@
+package me.julie.ebs.element;
+
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.type.EbsNumberType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EbsNumberTest {
+
+    @Test
+    void primitiveSubclasses() {
+        assertTrue(EbsElements.of(1) instanceof EbsInt);
+        assertTrue(EbsElements.of(1L) instanceof EbsLong);
+        assertTrue(EbsElements.of((Number) 1.5F) instanceof EbsFloat);
+        assertTrue(EbsElements.of(BigInteger.ONE) instanceof EbsBigInteger);
+
+        EbsNumber number = EbsElements.of(-2.75D);
+        assertEquals(EbsNumberType.DOUBLE, number.getType());
+        assertEquals(-2, number.intValue());
+        assertEquals(-2.75F, number.floatValue());
+        assertEquals(Double.valueOf(-2.75D), number.value());
+    }
+
+    @Test
+    void equality() {
+        assertEquals(EbsElements.of(5), EbsElements.of(5));
+        assertEquals(EbsElements.of(5).hashCode(), EbsElements.of(5).hashCode());
+        assertEquals(EbsElements.of(Float.NaN), EbsElements.of(Float.NaN));
+
+        // Same value, different type
+        assertNotEquals(EbsElements.of(5), EbsElements.of(5L));
+        assertNotEquals(EbsElements.of(0D), EbsElements.of(-0D));
+
+        // Primitive arrays equal regular arrays with the same numbers
+        EbsArray<EbsNumber> list = EbsElements.newArray();
+        list.add(EbsElements.of(1));
+        list.add(EbsElements.of(2));
+
+        EbsArray<EbsNumber> ints = EbsElements.fromIntArray(1, 2);
+
+        assertEquals(list, ints);
+        assertEquals(ints, list);
+        assertEquals(list.hashCode(), ints.hashCode());
+        assertTrue(list.contains(EbsElements.of(2)));
+        assertEquals(List.of(EbsElements.of(1), EbsElements.of(2)), ints);
+    }
+
+    @Test
+    void sharedInstances() throws IOException {
+        assertSame(EbsElements.of(1), EbsElements.of(1));
+        assertSame(EbsElements.of((byte) -1), EbsElements.of((Number) (byte) -1));
+        assertSame(EbsElements.of(""), EbsElements.of(""));
+        assertNotSame(EbsElements.of(1_000_000), EbsElements.of(1_000_000));
+
+        // Cached values keep their own type
+        assertNotEquals(EbsElements.of(3), EbsElements.of(3L));
+        assertNotEquals(EbsElements.of(3), EbsElements.of((short) 3));
+
+        EbsCompound compound = EbsElements.newCompound();
+        compound.putInt("count", 4);
+        compound.putString("name", "");
+
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+        EbsCompound read = (EbsCompound) registry.read(registry.encode(compound));
+
+        assertSame(EbsElements.of(4), read.get("count"));
+        assertSame(EbsElements.of(""), read.get("name"));
+    }
+
+    @Test
+    void cacheBounds() {
+        assertEquals(1023, ElementCache.clampHigh(-128, 1023));
+        assertEquals(1152, ElementCache.size(-128, 1023));
+
+        // Huge ranges are cut off, reversed ones are empty, without overflowing
+        assertEquals(Integer.MIN_VALUE + ElementCache.MAX_SIZE - 1, ElementCache.clampHigh(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertEquals(Integer.MAX_VALUE, ElementCache.clampHigh(Integer.MAX_VALUE, Integer.MAX_VALUE));
+        assertEquals(0, ElementCache.size(Integer.MAX_VALUE, Integer.MIN_VALUE));
+        assertEquals(0, ElementCache.size(1, 0));
+    }
+}
@@ -0,0 +1,102 @@
+package me.julie.ebs.element;
+
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.io.EbsFormat;
+import me.julie.ebs.type.EbsType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static me.julie.ebs.TestDocuments.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyEbsCompoundTest {
+
+    @Test
+    void readLazy() throws IOException {
+        EbsCompound compound = sample();
+
+        for (EbsFormat format: FORMATS) {
+            EbsTypeRegistry registry = new EbsTypeRegistry();
+            registry.setWriteFormat(format);
+
+            ByteBuffer buffer = registry.encode(compound);
+            LazyEbsCompound lazy = (LazyEbsCompound) registry.readLazy(buffer);
+
+            assertFalse(buffer.hasRemaining(), format.toString());
+            assertEquals(compound.size(), lazy.size());
+
+            assertTrue(lazy.contains("uuid", EbsUUID.TYPE));
+            assertFalse(lazy.contains("uuid", EbsString.TYPE));
+            assertFalse(lazy.contains("missing"));
+            assertNull(lazy.get("missing"));
+
+            assertEquals(compound.getString("name"), lazy.getString("name"));
+            assertEquals(compound.getUUID("uuid"), lazy.getUUID("uuid"));
+            assertEquals(compound.getLong("seed"), lazy.getLong("seed"));
+            assertArrayEquals(compound.getIntArray("ints"), lazy.getIntArray("ints"));
+            assertEquals(compound.getStringList("strings"), lazy.getStringList("strings"));
+
+            EbsCompound child = lazy.getCompound("child");
+            assertTrue(child instanceof LazyEbsCompound);
+            assertEquals(12, child.getInt("value"));
+            assertTrue(child.getCompound("nested").isEmpty());
+        }
+    }
+
+    @Test
+    void decodesOnDemand() throws IOException {
+        AtomicInteger reads = new AtomicInteger();
+        EbsType<EbsElement> counted = countingType(reads);
+
+        EbsCompound compound = sample();
+        for (int i = 0; i < 10; i++) {
+            compound.put("counted_" + i, elementOf(counted));
+        }
+        compound.getCompound("child").put("counted", elementOf(counted));
+
+        for (EbsFormat format: FORMATS) {
+            String message = format.toString();
+            reads.set(0);
+
+            EbsTypeRegistry registry = new EbsTypeRegistry();
+            registry.register(counted);
+            registry.setWriteFormat(format);
+
+            LazyEbsCompound lazy = (LazyEbsCompound) registry.readLazy(registry.encode(compound));
+
+            // Indexing the entries, and checking them, decodes nothing
+            assertEquals(compound.size(), lazy.size(), message);
+            assertTrue(lazy.contains("counted_3", counted), message);
+            assertEquals(0, reads.get(), message);
+
+            // Only the requested value is decoded, and only once
+            EbsElement value = lazy.get("counted_3");
+            assertEquals(1, reads.get(), message);
+            assertSame(value, lazy.get("counted_3"), message);
+            assertEquals(1, reads.get(), message);
+
+            // Nested compounds are lazy too, getting one doesn't decode its values
+            EbsCompound child = lazy.getCompound("child");
+            assertTrue(child instanceof LazyEbsCompound, message);
+            assertSame(child, lazy.get("child"), message);
+            assertEquals(1, reads.get(), message);
+
+            child.get("counted");
+            assertEquals(2, reads.get(), message);
+            assertFalse(lazy.isInflated(), message);
+
+            // Modifying decodes the rest, the ones already decoded are kept
+            lazy.putInt("added", 5);
+
+            assertTrue(lazy.isInflated(), message);
+            assertEquals(11, reads.get(), message);
+            assertEquals(compound.size() + 1, lazy.size(), message);
+            assertSame(value, lazy.get("counted_3"), message);
+            assertSame(child, lazy.get("child"), message);
+            assertEquals(compound.getString("name"), lazy.getString("name"), message);
+        }
+    }
+}
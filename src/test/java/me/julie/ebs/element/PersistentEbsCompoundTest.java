@@ -0,0 +1,127 @@
+package me.julie.ebs.element;
+
+import me.julie.ebs.EbsOps;
+import me.julie.ebs.EbsTypeRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentEbsCompoundTest {
+
+    private static void assertContents(Map<String, EbsElement> expected, EbsCompound compound) {
+        assertEquals(expected.size(), compound.size());
+        assertEquals(expected.keySet(), compound.keySet());
+
+        for (Map.Entry<String, EbsElement> e: compound.entrySet()) {
+            assertSame(expected.get(e.getKey()), e.getValue());
+            assertSame(e.getValue(), compound.get(e.getKey()));
+        }
+    }
+
+    @Test
+    void randomOperations() {
+        Random random = new Random(0xEB5L);
+        List<String> keys = new ArrayList<>();
+
+        // "Aa" and "BB" have the same hash code, so these all collide
+        for (int i = 0; i < 16; i++) {
+            keys.add(Integer.toBinaryString(i | 16).substring(1).replace("0", "Aa").replace("1", "BB"));
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            keys.add("key_" + i);
+        }
+
+        Map<String, EbsElement> expected = new HashMap<>();
+        PersistentEbsCompound compound = EbsElements.newPersistentCompound();
+
+        for (int i = 0; i < 20_000; i++) {
+            String key = keys.get(random.nextInt(keys.size()));
+
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                compound.remove(key);
+            } else {
+                EbsElement value = EbsElements.of("value_" + i);
+                expected.put(key, value);
+                compound.put(key, value);
+            }
+
+            assertSame(expected.get(key), compound.get(key));
+        }
+
+        assertContents(expected, compound);
+        assertContents(expected, compound.toCompound());
+
+        for (String key: keys) {
+            expected.remove(key);
+            compound.remove(key);
+        }
+
+        assertTrue(compound.isEmpty());
+        assertFalse(compound.entrySet().iterator().hasNext());
+    }
+
+    @Test
+    void versionsAreShared() {
+        PersistentEbsCompound empty = EbsElements.newPersistentCompound();
+        List<PersistentEbsCompound> versions = new ArrayList<>();
+        PersistentEbsCompound current = empty;
+
+        for (int i = 0; i < 500; i++) {
+            current = current.with("field_" + i, EbsElements.of(i));
+            versions.add(current);
+        }
+
+        assertTrue(empty.isEmpty());
+
+        for (int i = 0; i < versions.size(); i++) {
+            PersistentEbsCompound version = versions.get(i);
+
+            assertEquals(i + 1, version.size());
+            assertEquals(i, version.getInt("field_" + i));
+            assertFalse(version.contains("field_" + (i + 1)));
+        }
+
+        // Modifying in place leaves other versions alone
+        PersistentEbsCompound last = versions.get(versions.size() - 1);
+        PersistentEbsCompound removed = last.without("field_0");
+        last.putString("field_1", "replaced");
+
+        assertEquals(499, removed.size());
+        assertEquals(1, removed.getInt("field_1"));
+        assertEquals(1, versions.get(1).getInt("field_1"));
+        assertEquals("replaced", last.getString("field_1"));
+    }
+
+    @Test
+    void mergeToMap() throws IOException {
+        EbsElement map = EbsOps.INSTANCE.emptyMap();
+
+        for (int i = 0; i < 50; i++) {
+            EbsElement merged = EbsOps.INSTANCE
+                    .mergeToMap(map, EbsElements.of("field_" + i), EbsElements.of(i))
+                    .result()
+                    .orElseThrow();
+
+            assertEquals(i, ((EbsCompound) map).size());
+            map = merged;
+        }
+
+        EbsCompound compound = (EbsCompound) map;
+        assertEquals(50, compound.size());
+
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+        EbsCompound read = (EbsCompound) registry.read(registry.encode(compound));
+
+        assertEquals(50, read.size());
+        assertEquals(49, read.getInt("field_49"));
+    }
+}
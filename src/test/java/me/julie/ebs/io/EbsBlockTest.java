@@ -0,0 +1,196 @@
+package me.julie.ebs.io;
+
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.element.EbsCompound;
+import me.julie.ebs.element.EbsElements;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EbsBlockTest {
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterAll
+    static void shutdown() {
+        POOL.shutdown();
+    }
+
+    // Somewhat compressible data
+    private static byte[] data(int length) {
+        Random random = new Random(length);
+        byte[] data = new byte[length];
+
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (random.nextInt(16) + (i >> 10));
+        }
+
+        return data;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] result = new byte[buffer.remaining()];
+        buffer.get(result);
+
+        return result;
+    }
+
+    @Test
+    void blocks() throws IOException {
+        Path file = Files.createTempFile("ebs", ".ebsz");
+
+        try {
+            for (int length: new int[] {0, 1, 999, 1000, 54_321}) {
+                byte[] data = data(length);
+
+                // Odd write sizes, so writes straddle block ends
+                EbsBlockOutput output = EbsBlockOutput.of(Files.newOutputStream(file), POOL, 1000, Deflater.BEST_SPEED);
+
+                try (output) {
+                    for (int i = 0; i < length; i += 77) {
+                        output.write(data, i, Math.min(77, length - i));
+                    }
+                }
+
+                assertEquals(Files.size(file), output.written());
+
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    EbsBlockInput input = EbsBlockInput.open(channel);
+
+                    assertEquals(Files.size(file), input.fileSize());
+
+                    assertEquals(length, input.size());
+                    assertEquals((length + 999) / 1000, input.blockCount());
+                    assertArrayEquals(data, bytes(input.readAll(POOL)));
+
+                    if (length == 0) {
+                        continue;
+                    }
+
+                    int last = input.blockCount() - 1;
+                    assertEquals(last, input.blockAt(length - 1));
+                    assertArrayEquals(Arrays.copyOfRange(data, last * 1000, length), bytes(input.readBlock(last)));
+
+                    // Seeking into the middle of a block
+                    try (InputStream stream = input.stream(length / 2)) {
+                        assertArrayEquals(Arrays.copyOfRange(data, length / 2, length), stream.readAllBytes());
+                    }
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void corrupt() throws IOException {
+        Path file = Files.createTempFile("ebs", ".ebsz");
+
+        try {
+            try (OutputStream output = EbsBlockOutput.of(Files.newOutputStream(file), POOL, 1000, Deflater.DEFAULT_COMPRESSION)) {
+                output.write(data(5000));
+            }
+
+            byte[] bytes = Files.readAllBytes(file);
+            bytes[EbsBlockOutput.HEADER_SIZE + 20] ^= 0x55;
+            Files.write(file, bytes);
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                EbsBlockInput input = EbsBlockInput.open(channel);
+
+                assertThrows(IOException.class, () -> input.readBlock(0));
+                assertThrows(IOException.class, () -> input.readAll(POOL));
+                assertArrayEquals(Arrays.copyOfRange(data(5000), 1000, 2000), bytes(input.readBlock(1)));
+            }
+
+            // The first block's compressed length moved onto the second one,
+            // so block positions still add up to the index position
+            byte[] empty = bytes.clone();
+            ByteBuffer index = ByteBuffer.wrap(empty);
+            int first = (int) index.getLong(empty.length - EbsBlockOutput.TRAILER_SIZE) + Integer.BYTES;
+            int second = first + 2 * Integer.BYTES;
+
+            index.putInt(second, index.getInt(first) + index.getInt(second)).putInt(first, 0);
+            Files.write(file, empty);
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                assertThrows(IOException.class, () -> EbsBlockInput.open(channel));
+            }
+
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                assertThrows(IOException.class, () -> EbsBlockInput.open(channel));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void failedWrite() throws IOException {
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+        // Fails once the header and a block were written
+        OutputStream failing = new FilterOutputStream(written) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (written.size() > EbsBlockOutput.HEADER_SIZE) {
+                    throw new IOException("Disk full");
+                }
+
+                written.write(b, off, len);
+            }
+        };
+
+        EbsBlockOutput output = EbsBlockOutput.of(failing, POOL, 100, Deflater.BEST_SPEED);
+
+        assertThrows(IOException.class, () -> output.write(data(100_000)));
+        assertThrows(IOException.class, () -> output.write(1));
+
+        // No index is written for the broken container
+        int size = written.size();
+        output.close();
+        assertEquals(size, written.size());
+    }
+
+    @Test
+    void registryFiles() throws IOException {
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+        registry.setWriteFormat(EbsFormat.V2.withFlags(EbsFormat.SIZED));
+
+        EbsCompound compound = EbsElements.newCompound();
+
+        for (int i = 0; i < 50_000; i++) {
+            compound.putString("key_" + i, "value " + i);
+        }
+
+        Path file = Files.createTempFile("ebs", ".ebsz");
+
+        try {
+            registry.writeFileCompressed(compound, file);
+            EbsCompound read = (EbsCompound) registry.readFileCompressed(file);
+
+            assertEquals(compound.size(), read.size());
+            assertEquals("value 49999", read.getString("key_49999"));
+            assertTrue(Files.size(file) < registry.encode(compound).remaining());
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
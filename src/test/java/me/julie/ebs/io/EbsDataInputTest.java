@@ -0,0 +1,181 @@
+package me.julie.ebs.io;
+
+import me.julie.ebs.EbsIo;
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.element.EbsCompound;
+import me.julie.ebs.element.EbsElements;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EbsDataInputTest {
+
+    @Test
+    void mapWindows() throws IOException {
+        EbsCompound compound = EbsElements.newCompound();
+
+        for (int i = 0; i < 500; i++) {
+            compound.putLong("long_" + i, i * 31L);
+            compound.putString("string_" + i, "value " + i);
+        }
+
+        Path file = Files.createTempFile("ebs", ".ebs");
+
+        try {
+            EbsIo.writeFile(compound, file);
+
+            // Tiny windows, so values constantly straddle window ends
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                 EbsDataInput input = EbsDataInput.map(channel, 13)
+            ) {
+                EbsCompound read = (EbsCompound) EbsIo.globalTypes().read(input);
+
+                assertEquals(compound.size(), read.size());
+
+                for (int i = 0; i < 500; i++) {
+                    assertEquals(i * 31L, read.getLong("long_" + i));
+                    assertEquals("value " + i, read.getString("string_" + i));
+                }
+
+                assertThrows(EOFException.class, input::readByte);
+            }
+
+            EbsCompound mapped = (EbsCompound) EbsIo.readFileMapped(file);
+            assertEquals(compound.size(), mapped.size());
+            assertEquals("value 499", mapped.getString("string_499"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void utf8Strings() throws IOException {
+        List<String> strings = List.of(
+                "",
+                "key",
+                "caf\u00e9 \u00fcber",
+                "\u65e5\u672c\u8a9e",
+                "emoji \ud83d\ude00 end",
+                "unpaired \ud83d surrogate \ude00",
+                "a".repeat(1_000_000),
+                "\u00e9\u65e5x".repeat(300_000)
+        );
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocate(8 * 1024 * 1024);
+
+        try (EbsDataOutput output = EbsDataOutput.of(stream, EbsFormat.V2)) {
+            EbsDataOutput bufferOutput = EbsDataOutput.of(buffer, EbsFormat.V2);
+
+            for (String s: strings) {
+                output.writeUtf8(s);
+                bufferOutput.writeUtf8(s);
+            }
+        }
+
+        // Both outputs match the JDK's UTF-8 encoding
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+
+        for (String s: strings) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+
+            try (EbsDataOutput output = EbsDataOutput.of(expected, EbsFormat.V2)) {
+                output.writeVarInt(bytes.length);
+            }
+
+            expected.write(bytes);
+        }
+
+        assertArrayEquals(expected.toByteArray(), stream.toByteArray());
+        assertEquals(ByteBuffer.wrap(expected.toByteArray()), buffer.flip());
+
+        try (EbsDataInput input = EbsDataInput.of(new ByteArrayInputStream(stream.toByteArray()))) {
+            for (String s: strings) {
+                assertEquals(new String(s.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8), input.readUtf8());
+            }
+        }
+    }
+
+    // Forwards mark support, but returns few bytes per read
+    private static final class ShortReads extends FilterInputStream {
+        private ShortReads(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return super.read(b, off, Math.min(len, 100));
+        }
+    }
+
+    @Test
+    void consecutiveDocuments() throws IOException {
+        EbsCompound first = EbsElements.newCompound();
+        EbsCompound second = EbsElements.newCompound();
+        first.putInt("a", 1);
+        second.putInt("b", 2);
+
+        // Larger than the buffer, so reads straddle fills
+        for (int i = 0; i < 10_000; i++) {
+            first.putString("key_" + i, "value " + i);
+        }
+
+        Path file = Files.createTempFile("ebs", ".ebs");
+
+        try {
+            for (EbsFormat format: new EbsFormat[] {EbsFormat.V1, EbsFormat.V2}) {
+                EbsTypeRegistry registry = new EbsTypeRegistry();
+                registry.setWriteFormat(format);
+
+                try (OutputStream output = Files.newOutputStream(file)) {
+                    registry.write(first, output);
+                    registry.write(second, output);
+                }
+
+                byte[] bytes = Files.readAllBytes(file);
+
+                List<InputStream> streams = List.of(
+                        new FileInputStream(file.toFile()),
+                        new FilterInputStream(new ByteArrayInputStream(bytes)) {
+                            @Override
+                            public boolean markSupported() {
+                                return false;
+                            }
+                        },
+                        new BufferedInputStream(new FileInputStream(file.toFile())),
+                        new ShortReads(new ByteArrayInputStream(bytes))
+                );
+
+                for (InputStream stream: streams) {
+                    try (stream) {
+                        EbsCompound read = (EbsCompound) registry.read(stream);
+
+                        assertEquals(first.size(), read.size());
+                        assertEquals(1, read.getInt("a"));
+                        assertEquals(2, ((EbsCompound) registry.read(stream)).getInt("b"));
+                        assertEquals(-1, stream.read());
+                    }
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
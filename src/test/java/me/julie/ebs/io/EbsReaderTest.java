@@ -0,0 +1,264 @@
+package me.julie.ebs.io;
+
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.element.EbsArray;
+import me.julie.ebs.element.EbsCompound;
+import me.julie.ebs.element.EbsElement;
+import me.julie.ebs.element.EbsElements;
+import me.julie.ebs.type.EbsNumberType;
+import me.julie.ebs.type.EbsType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static me.julie.ebs.TestDocuments.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EbsReaderTest {
+
+    // The sample document, with values of the given type at the top, in an array, and in the child
+    private static EbsCompound countedDocument(EbsType<EbsElement> counted) {
+        EbsCompound compound = sample();
+        compound.put("counted", elementOf(counted));
+
+        EbsArray<EbsElement> list = EbsElements.newArray(counted);
+        for (int i = 0; i < 3; i++) {
+            list.add(elementOf(counted));
+        }
+        compound.put("counted_list", list);
+
+        compound.getCompound("child").put("counted", elementOf(counted));
+        return compound;
+    }
+
+    // The tokens a reader must give for the element, KEY tokens followed by their key
+    private static void expectedTokens(EbsElement element, List<String> tokens) {
+        if (element instanceof EbsCompound compound) {
+            tokens.add("START_COMPOUND");
+
+            for (Map.Entry<String, EbsElement> e: compound.entrySet()) {
+                tokens.add("KEY " + e.getKey());
+                expectedTokens(e.getValue(), tokens);
+            }
+
+            tokens.add("END");
+        } else if (element instanceof EbsArray<?> array) {
+            tokens.add("START_ARRAY");
+
+            for (EbsElement e: array) {
+                expectedTokens(e, tokens);
+            }
+
+            tokens.add("END");
+        } else {
+            tokens.add("VALUE");
+        }
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        return data;
+    }
+
+    @Test
+    void tokenOrder() throws IOException {
+        AtomicInteger reads = new AtomicInteger();
+        EbsType<EbsElement> counted = countingType(reads);
+        EbsCompound compound = countedDocument(counted);
+
+        List<String> expected = new ArrayList<>();
+        expectedTokens(compound, expected);
+        expected.add("END_DOCUMENT");
+
+        for (EbsFormat format: FORMATS) {
+            String message = format.toString();
+
+            EbsTypeRegistry registry = new EbsTypeRegistry();
+            registry.register(counted);
+            registry.setWriteFormat(format);
+
+            byte[] data = bytes(registry.encode(compound));
+
+            for (EbsReader reader: List.of(EbsReader.of(registry, ByteBuffer.wrap(data)),
+                                           EbsReader.of(registry, new ByteArrayInputStream(data)))) {
+                List<String> tokens = new ArrayList<>();
+                EbsToken token;
+
+                do {
+                    token = reader.nextToken();
+                    assertSame(token, reader.currentToken(), message);
+                    tokens.add(token == EbsToken.KEY ? "KEY " + reader.key() : token.name());
+                } while (token != EbsToken.END_DOCUMENT);
+
+                assertEquals(expected, tokens, message);
+                assertEquals(EbsToken.END_DOCUMENT, reader.nextToken(), message);
+
+                // Values that are never read are skipped by nextToken, not deserialized
+                assertEquals(0, reads.get(), message);
+                reader.close();
+            }
+        }
+    }
+
+    @Test
+    void readTokens() throws IOException {
+        EbsCompound compound = sample();
+
+        for (EbsFormat format: FORMATS) {
+            EbsTypeRegistry registry = new EbsTypeRegistry();
+            registry.setWriteFormat(format);
+
+            ByteBuffer buffer = registry.encode(compound);
+            EbsReader reader = EbsReader.of(registry, buffer);
+
+            assertEquals(EbsToken.START_COMPOUND, reader.nextToken());
+            assertEquals(0, reader.depth());
+            assertEquals(compound.size(), reader.size());
+
+            while (reader.nextToken() == EbsToken.KEY) {
+                switch (reader.key()) {
+                    case "version" -> {
+                        // The type is known before the value is
+                        assertEquals(EbsNumberType.INTEGER, reader.valueType());
+                        assertEquals(EbsToken.VALUE, reader.nextToken());
+                        assertEquals(3L, reader.readLong());
+                    }
+                    case "seed" -> {
+                        reader.nextToken();
+                        assertThrows(IllegalStateException.class, reader::readString);
+                        assertEquals(compound.getLong("seed"), reader.readLong());
+                        assertThrows(IllegalStateException.class, reader::readLong);
+                    }
+                    case "ints" -> {
+                        assertEquals(EbsToken.START_ARRAY, reader.nextToken());
+                        assertEquals(1, reader.depth());
+                        assertEquals(3, reader.size());
+                        assertEquals(EbsNumberType.INTEGER, reader.arrayType());
+
+                        for (int i = 1; i <= 3; i++) {
+                            assertEquals(EbsToken.VALUE, reader.nextToken());
+                            assertEquals(i, reader.readInt());
+                        }
+
+                        assertEquals(EbsToken.END, reader.nextToken());
+                    }
+                    case "empty" -> {
+                        assertEquals(EbsToken.START_ARRAY, reader.nextToken());
+                        assertNull(reader.arrayType());
+                        assertEquals(0, reader.size());
+                        assertEquals(EbsToken.END, reader.nextToken());
+                    }
+                    default -> {
+                        EbsToken token = reader.nextToken();
+                        if (token == EbsToken.VALUE) {
+                            assertEquals(compound.get(reader.key()), reader.readElement(), reader.key());
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                }
+            }
+
+            assertEquals(EbsToken.END, reader.currentToken());
+            assertEquals(EbsToken.END_DOCUMENT, reader.nextToken());
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    void skipValues() throws IOException {
+        AtomicInteger reads = new AtomicInteger();
+        EbsType<EbsElement> counted = countingType(reads);
+        EbsCompound compound = countedDocument(counted);
+
+        for (EbsFormat format: FORMATS) {
+            String message = format.toString();
+            reads.set(0);
+
+            EbsTypeRegistry registry = new EbsTypeRegistry();
+            registry.register(counted);
+            registry.setWriteFormat(format);
+
+            try (EbsReader reader = EbsReader.of(registry, new ByteArrayInputStream(bytes(registry.encode(compound))))) {
+                assertThrows(IllegalStateException.class, reader::skipValue, message);
+                assertEquals(EbsToken.START_COMPOUND, reader.nextToken(), message);
+
+                int keys = 0;
+
+                while (reader.nextToken() == EbsToken.KEY) {
+                    keys++;
+
+                    switch (reader.key()) {
+                        case "counted" -> {
+                            // On a key, skips the value, the next token is the next key
+                            reader.skipValue();
+                            assertThrows(IllegalStateException.class, reader::skipValue, message);
+                            assertThrows(IllegalStateException.class, reader::readElement, message);
+                        }
+                        case "counted_list" -> {
+                            assertEquals(EbsToken.START_ARRAY, reader.nextToken(), message);
+                            assertEquals(3, reader.size(), message);
+
+                            assertEquals(EbsToken.VALUE, reader.nextToken(), message);
+                            assertEquals(counted, reader.readElement().getType(), message);
+
+                            // On a value, skips only that value
+                            assertEquals(EbsToken.VALUE, reader.nextToken(), message);
+                            reader.skipValue();
+                            assertThrows(IllegalStateException.class, reader::skipValue, message);
+
+                            assertEquals(EbsToken.VALUE, reader.nextToken(), message);
+                            assertEquals(EbsToken.END, reader.nextToken(), message);
+                        }
+                        case "child" -> {
+                            // On a container that wasn't opened, skips all of it
+                            assertEquals(EbsToken.START_COMPOUND, reader.nextToken(), message);
+                            reader.skipValue();
+                        }
+                        case "strings" -> {
+                            // Or what's left of it after its header was read
+                            assertEquals(EbsToken.START_ARRAY, reader.nextToken(), message);
+                            assertEquals(2, reader.size(), message);
+                            reader.skipValue();
+
+                            assertEquals(EbsToken.END, reader.currentToken(), message);
+                            assertEquals(1, reader.depth(), message);
+                        }
+                        default -> reader.skipValue();
+                    }
+                }
+
+                assertEquals(compound.size(), keys, message);
+                assertEquals(EbsToken.END, reader.currentToken(), message);
+                assertThrows(IllegalStateException.class, reader::skipValue, message);
+                assertEquals(EbsToken.END_DOCUMENT, reader.nextToken(), message);
+
+                // Only the one value read with readElement was deserialized
+                assertEquals(1, reads.get(), message);
+            }
+        }
+    }
+
+    @Test
+    void unknownType() throws IOException {
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+
+        // A V1 array of one element, of a type ID nothing is registered with
+        ByteBuffer data = ByteBuffer.allocate(3 * Integer.BYTES)
+                .putInt(registry.identifierOf(EbsElements.newArray().getType()))
+                .putInt(1)
+                .putInt(999)
+                .flip();
+
+        EbsReader reader = EbsReader.of(registry, data);
+        assertEquals(EbsToken.START_ARRAY, reader.nextToken());
+        assertThrows(IOException.class, reader::nextToken);
+    }
+}
@@ -0,0 +1,179 @@
+package me.julie.ebs.io;
+
+import me.julie.ebs.EbsTypeRegistry;
+import me.julie.ebs.element.EbsArray;
+import me.julie.ebs.element.EbsBoolean;
+import me.julie.ebs.element.EbsCompound;
+import me.julie.ebs.element.EbsElements;
+import me.julie.ebs.element.EbsString;
+import me.julie.ebs.element.LazyEbsCompound;
+import me.julie.ebs.type.EbsCompoundType;
+import me.julie.ebs.type.EbsNumberType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EbsWriterTest {
+
+    private static final List<EbsFormat> FORMATS = List.of(
+            EbsFormat.V1, EbsFormat.V2, EbsFormat.V2.withFlags(EbsFormat.SIZED),
+            EbsFormat.V2.withFlags(EbsFormat.SIZED | EbsFormat.KEY_TABLE)
+    );
+
+    private static void writeDocument(EbsWriter writer, UUID uuid) throws IOException {
+        writer.beginCompound();
+        writer.key("name").writeString("writer \u00e9");
+        writer.key("uuid").writeUUID(uuid);
+        writer.key("big").writeBigInteger(BigInteger.TEN.pow(30));
+        writer.key("flag").writeBoolean(true);
+
+        writer.key("ints").beginArray(EbsNumberType.INTEGER);
+        for (int i = 0; i < 100; i++) {
+            writer.writeInt(i);
+        }
+        writer.end();
+
+        writer.key("empty").beginArray(null).end();
+
+        writer.key("entities").beginArray(EbsCompoundType.getInstance());
+        for (int i = 0; i < 3; i++) {
+            writer.beginCompound();
+            writer.key("id").writeLong(i);
+            writer.key("health").writeFloat(i / 2F);
+            writer.end();
+        }
+        writer.end();
+
+        writer.end();
+    }
+
+    @Test
+    void writeAndRead() throws IOException {
+        UUID uuid = UUID.randomUUID();
+
+        for (EbsFormat format: FORMATS) {
+            EbsTypeRegistry registry = new EbsTypeRegistry();
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+            try (EbsWriter writer = EbsWriter.of(registry, stream, format)) {
+                // Keys not in the table are written in full
+                writer.keyTable(List.of("id", "health"));
+                writeDocument(writer, uuid);
+                assertTrue(writer.isComplete());
+            }
+
+            EbsCompound read = (EbsCompound) registry.read(new ByteArrayInputStream(stream.toByteArray()));
+
+            assertEquals(7, read.size());
+            assertEquals("writer \u00e9", read.getString("name"));
+            assertEquals(uuid, read.getUUID("uuid"));
+            assertEquals(BigInteger.TEN.pow(30), read.getNumber("big").value());
+            assertTrue(((EbsBoolean) read.get("flag")).value());
+            assertEquals(100, read.getIntArray("ints").length);
+            assertEquals(99, read.getIntArray("ints")[99]);
+            assertTrue(read.getArray("empty").isEmpty());
+
+            EbsArray entities = read.getArray("entities");
+            assertEquals(3, entities.size());
+            assertEquals(2L, ((EbsCompound) entities.get(2)).getLong("id"));
+
+            // Containers with unknown sizes can be read lazily and skipped
+            ByteBuffer buffer = ByteBuffer.wrap(stream.toByteArray());
+            EbsCompound lazy = (EbsCompound) registry.readLazy(buffer);
+
+            assertTrue(lazy instanceof LazyEbsCompound);
+            assertFalse(buffer.hasRemaining());
+            assertEquals(uuid, lazy.getUUID("uuid"));
+            assertEquals(7, lazy.size());
+        }
+    }
+
+    @Test
+    void matchesElementWrite() throws IOException {
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+        registry.setWriteFormat(EbsFormat.V1);
+
+        EbsCompound compound = EbsElements.newCompound();
+        compound.putString("value", "a");
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+        try (EbsWriter writer = EbsWriter.of(registry, stream, EbsFormat.V1)) {
+            writer.writeElement(compound);
+        }
+
+        // In V1, the writer's output is identical to a regular write
+        ByteBuffer expected = registry.encode(compound);
+        assertEquals(expected, ByteBuffer.wrap(stream.toByteArray()));
+    }
+
+    @Test
+    void streamsCompactData() throws IOException {
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+        // The registry writes V1, which the default writer doesn't buffer
+        registry.setWriteFormat(EbsFormat.V1);
+
+        try (EbsWriter writer = EbsWriter.of(registry, stream)) {
+            writer.beginArray(EbsString.TYPE);
+
+            for (int i = 0; i < 100_000; i++) {
+                writer.writeString("entry " + i);
+            }
+
+            // Data is handed to the stream before the array ends
+            assertTrue(stream.size() > 0);
+            writer.end();
+        }
+
+        EbsArray read = (EbsArray) registry.read(new ByteArrayInputStream(stream.toByteArray()));
+        assertEquals(100_000, read.size());
+        assertEquals("entry 99999", ((EbsString) read.get(99_999)).value());
+
+        try (EbsReader reader = EbsReader.of(registry, ByteBuffer.wrap(stream.toByteArray()))) {
+            assertEquals(EbsToken.START_ARRAY, reader.nextToken());
+            assertEquals(EbsTypeRegistry.UNKNOWN_SIZE, reader.size());
+
+            int count = 0;
+
+            while (reader.nextToken() == EbsToken.VALUE) {
+                count++;
+            }
+
+            assertEquals(100_000, count);
+            assertEquals(EbsToken.END_DOCUMENT, reader.nextToken());
+        }
+    }
+
+    @Test
+    void invalidStructure() throws IOException {
+        EbsTypeRegistry registry = new EbsTypeRegistry();
+
+        try (EbsWriter writer = EbsWriter.of(registry, new ByteArrayOutputStream())) {
+            assertThrows(IllegalStateException.class, () -> writer.key("key"));
+            assertThrows(IllegalStateException.class, writer::end);
+
+            writer.beginCompound();
+            assertThrows(IllegalStateException.class, () -> writer.writeInt(1));
+
+            writer.key("array").beginArray(EbsNumberType.INTEGER);
+            assertThrows(IllegalStateException.class, () -> writer.writeLong(1));
+            writer.end();
+
+            writer.key("missing");
+            assertThrows(IllegalStateException.class, writer::end);
+            writer.writeInt(1).end();
+
+            assertThrows(IllegalStateException.class, writer::beginCompound);
+        }
+    }
+}